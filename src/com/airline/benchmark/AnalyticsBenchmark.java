@@ -0,0 +1,130 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingAnalytics;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.FlightService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// What BookingAnalytics costs and saves: the bookFlight and cancelReservation scenarios of
+// FlightServiceBenchmark with analytics on and off, then one dashboard refresh (load factor, route load,
+// top destinations, booking rate, distinct customers) from the running figures vs. recomputed by scanning
+// getAllFlights() and getAllReservations().
+// Run with: java -cp out com.airline.benchmark.AnalyticsBenchmark [--flights=100000] [--threads=1,4]
+//           [--reservations=1000000] [--warmup=2] [--seconds=5]
+public class AnalyticsBenchmark {
+    private static final FlightServiceBenchmark.Scenario[] SCENARIOS = {
+            FlightServiceBenchmark.Scenario.BOOK, FlightServiceBenchmark.Scenario.CANCEL
+    };
+    private static final int REFRESHES = 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = Integer.parseInt(FlightServiceBenchmark.option(args, "flights", "100000"));
+        int[] threadCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "threads", "1,4"));
+        int reservations = Integer.parseInt(FlightServiceBenchmark.option(args, "reservations", "1000000"));
+        BenchmarkRunner runner = new BenchmarkRunner(Double.parseDouble(FlightServiceBenchmark.option(args, "warmup", "2")),
+                Double.parseDouble(FlightServiceBenchmark.option(args, "seconds", "5")));
+
+        System.out.println("Inventory: " + size + " flights");
+        System.out.println(BenchmarkRunner.Result.header() + String.format(" %10s", "ops/s diff"));
+        for (int threads : threadCounts) {
+            for (FlightServiceBenchmark.Scenario scenario : SCENARIOS) {
+                BenchmarkRunner.Result off = run(runner, scenario, size, threads, false);
+                BenchmarkRunner.Result on = run(runner, scenario, size, threads, true);
+                System.out.println(off);
+                System.out.println(on + String.format(" %+9.1f%%", (on.throughput() / off.throughput() - 1) * 100));
+            }
+        }
+        System.out.println();
+        dashboard(size, reservations);
+    }
+
+    private static BenchmarkRunner.Result run(BenchmarkRunner runner, FlightServiceBenchmark.Scenario scenario, int size,
+                                              int threads, boolean analytics) throws InterruptedException {
+        FlightServiceBenchmark.Fixture fixture = new FlightServiceBenchmark.Fixture(size, threads);
+        fixture.service.getAnalytics().setEnabled(analytics);
+        return runner.run(scenario.label() + (analytics ? " (analytics on)" : " (analytics off)"), threads, scenario.operation(fixture));
+    }
+
+    private static void dashboard(int size, int reservations) {
+        FlightService service = new FlightService(BookingLog.NONE);
+        ScheduleGenerator generator = new ScheduleGenerator(5, LocalDate.of(2024, 1, 1), 90);
+        List<Flight> flights = generator.hubAndSpokeFlights(size, 12, 600);
+        for (Flight flight : flights) {
+            flight.setAvailableSeats(Integer.MAX_VALUE / 2);
+        }
+        service.addFlights(flights);
+        List<BookingRequest> requests = generator.bookings(flights, 1 << 16, 200_000);
+        for (int i = 0; i < reservations; i++) {
+            BookingRequest request = requests.get(i & ((1 << 16) - 1));
+            service.bookFlight(ScheduleGenerator.customerName(i % 200_000), request.getFlight(), request.getSeats());
+        }
+        Flight sample = flights.get(0);
+        BookingAnalytics analytics = service.getAnalytics();
+
+        long checksum = 0;
+        long begin = 0;
+        for (int round = 0; round < 2; round++) {
+            begin = System.nanoTime();
+            for (int i = 0; i < REFRESHES; i++) {
+                checksum += (long) (analytics.getLoadFactor() * 1e6);
+                checksum += analytics.getRouteLoad(sample.getOrigin(), sample.getDestination()).seatsBooked();
+                checksum += analytics.getTopDestinations(10).size();
+                checksum += (long) analytics.getBookingsPerMinute(Duration.ofMinutes(15));
+                checksum += analytics.getDistinctCustomers();
+            }
+        }
+        double running = (System.nanoTime() - begin) / 1e3 / REFRESHES;
+
+        for (int round = 0; round < 2; round++) {
+            begin = System.nanoTime();
+            checksum += scan(service, sample);
+        }
+        double scanned = (System.nanoTime() - begin) / 1e3;
+        System.out.printf("Dashboard refresh over %d flights and %d reservations: running figures %.1f us, full scan %.0f us (%.0fx)%n",
+                size, reservations, running, scanned, scanned / running);
+        System.out.printf("Distinct customers: ~%d (true %d); top destinations: %s; checksum %d%n",
+                analytics.getDistinctCustomers(), Math.min(reservations, 200_000), analytics.getTopDestinations(3), checksum);
+    }
+
+    // The same figures computed the way they had to be before: from the full flight and reservation lists
+    private static long scan(FlightService service, Flight sample) {
+        long capacity = 0;
+        for (Flight flight : service.getAllFlights()) {
+            capacity += flight.getCapacity();
+        }
+        Map<String, Long> seatsByDestination = new HashMap<>();
+        Set<String> customers = new HashSet<>();
+        long booked = 0;
+        long routeBooked = 0;
+        long recent = 0;
+        long since = System.currentTimeMillis() - Duration.ofMinutes(15).toMillis();
+        for (Reservation reservation : service.getAllReservations()) {
+            Flight flight = reservation.getFlight();
+            booked += reservation.getSeatsBooked();
+            if (flight.getDestination().equals(sample.getDestination()) && sample.getOrigin().equals(flight.getOrigin())) {
+                routeBooked += reservation.getSeatsBooked();
+            }
+            seatsByDestination.merge(flight.getDestination(), (long) reservation.getSeatsBooked(), Long::sum);
+            customers.add(reservation.getCustomerName().toLowerCase(Locale.ROOT));
+            if (reservation.getReservationTime().atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli() >= since) {
+                recent++;
+            }
+        }
+        List<Map.Entry<String, Long>> top = new ArrayList<>(seatsByDestination.entrySet());
+        top.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return (long) ((double) booked / capacity * 1e6) + routeBooked + Math.min(10, top.size()) + recent / 15 + customers.size();
+    }
+}
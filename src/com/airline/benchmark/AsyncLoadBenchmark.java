@@ -0,0 +1,183 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.persistence.BookingJournal;
+import com.airline.service.AsyncFlightService;
+import com.airline.service.BookingRequest;
+import com.airline.service.FlightService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Load test for --clients concurrent sessions, each doing --ops search/book/cancel rounds against a
+// FlightService backed by the fsynced journal. "sync" runs every session as a blocking loop on a fixed
+// pool of --threads platform threads, like a classic thread-per-request server; "async" drives the same
+// sessions through AsyncFlightService with at most --in-flight calls running. Latency is measured per
+// round from the moment the session issues it, so time spent waiting for a pool thread counts.
+// Run with: java -cp out com.airline.benchmark.AsyncLoadBenchmark [--clients=2000] [--ops=20] [--threads=200] [--in-flight=2048]
+public class AsyncLoadBenchmark {
+    private static final int FLIGHTS = 2_000;
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.parseInt(FlightServiceBenchmark.option(args, "clients", "2000"));
+        int ops = Integer.parseInt(FlightServiceBenchmark.option(args, "ops", "20"));
+        int threads = Integer.parseInt(FlightServiceBenchmark.option(args, "threads", "200"));
+        int maxInFlight = Integer.parseInt(FlightServiceBenchmark.option(args, "in-flight", "2048"));
+        Path directory = Files.createTempDirectory("async-bench");
+
+        System.out.printf("%-34s %10s %12s %12s %12s %10s%n", "mode", "rounds/s", "mean (ms)", "p99 (ms)", "max (ms)", "rejected");
+        for (int round = 0; round < 2; round++) {
+            // First round warms up the JIT and file system; only the second is printed
+            boolean print = round == 1;
+            Path file = directory.resolve("sync.journal");
+            try (BookingJournal journal = BookingJournal.open(file, true)) {
+                Fixture fixture = new Fixture(new FlightService(journal), clients);
+                report(print, "sync (" + threads + " platform threads)", runSync(fixture, clients, ops, threads), 0);
+            }
+            Files.delete(file);
+
+            file = directory.resolve("async.journal");
+            try (BookingJournal journal = BookingJournal.open(file, true)) {
+                Fixture fixture = new Fixture(new FlightService(journal), clients);
+                try (AsyncFlightService async = new AsyncFlightService(fixture.service, maxInFlight, 1_000)) {
+                    String mode = "async (" + (async.usesVirtualThreads() ? "virtual" : "platform") + ", " + maxInFlight + " in flight)";
+                    report(print, mode, runAsync(async, fixture, clients, ops), async.getRejectedCount());
+                }
+            }
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private static Measurement runSync(Fixture fixture, int clients, int ops, int threads) throws InterruptedException {
+        Measurement measurement = new Measurement(clients * ops);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int client = 0; client < clients; client++) {
+            int session = client;
+            pool.execute(() -> {
+                for (int op = 0; op < ops; op++) {
+                    // Sessions queued behind busy threads wait from the start, as their requests would
+                    long issued = op == 0 ? measurement.begin : System.nanoTime();
+                    BookingRequest request = fixture.request(session, op);
+                    FlightService service = fixture.service;
+                    service.searchFlights(request.getFlight().getDestination(), request.getFlight().getDepartureTime().toLocalDate());
+                    Reservation reservation = service.bookFlight(request.getCustomerName(), request.getFlight(), request.getSeats());
+                    service.cancelReservation(reservation);
+                    measurement.completed(issued);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        measurement.finish();
+        return measurement;
+    }
+
+    private static Measurement runAsync(AsyncFlightService async, Fixture fixture, int clients, int ops) throws InterruptedException {
+        Measurement measurement = new Measurement(clients * ops);
+        for (int client = 0; client < clients; client++) {
+            runSession(async, fixture, measurement, client, 0, ops);
+        }
+        measurement.await();
+        measurement.finish();
+        return measurement;
+    }
+
+    // Each round is chained onto the previous one, so a session holds no thread while it waits
+    private static void runSession(AsyncFlightService async, Fixture fixture, Measurement measurement,
+                                   int session, int op, int ops) {
+        if (op == ops) {
+            return;
+        }
+        long issued = op == 0 ? measurement.begin : System.nanoTime();
+        BookingRequest request = fixture.request(session, op);
+        Flight flight = request.getFlight();
+        async.searchFlights(flight.getDestination(), flight.getDepartureTime().toLocalDate())
+                .thenCompose(found -> async.bookFlight(request.getCustomerName(), flight, request.getSeats()))
+                .thenCompose(async::cancelReservation)
+                .whenComplete((cancelled, error) -> {
+                    if (error != null) {
+                        measurement.failed();
+                    } else {
+                        measurement.completed(issued);
+                    }
+                    runSession(async, fixture, measurement, session, op + 1, ops);
+                });
+    }
+
+    private static void report(boolean print, String mode, Measurement measurement, long rejected) {
+        if (!print) {
+            return;
+        }
+        LatencyHistogram latencies = measurement.latencies;
+        System.out.printf("%-34s %10.0f %12.2f %12.2f %12.2f %10d%n", mode,
+                latencies.getTotalCount() / measurement.seconds(), latencies.getMean() / 1e6,
+                latencies.percentile(99) / 1e6, latencies.getMax() / 1e6, rejected);
+    }
+
+    private static class Fixture {
+        final FlightService service;
+        final List<Flight> flights;
+        final List<BookingRequest> requests;
+
+        Fixture(FlightService service, int clients) {
+            this.service = service;
+            this.flights = new ScheduleGenerator(1, LocalDate.of(2024, 1, 1), 30).flights(FLIGHTS);
+            for (Flight flight : flights) {
+                flight.setAvailableSeats(Integer.MAX_VALUE / 2);
+                service.addFlight(flight);
+            }
+            this.requests = new ScheduleGenerator(2, LocalDate.of(2024, 1, 1), 30).bookings(flights, 1 << 16, clients);
+        }
+
+        BookingRequest request(int session, int op) {
+            return requests.get((session * 7919 + op * 31) & ((1 << 16) - 1));
+        }
+    }
+
+    private static class Measurement {
+        final long begin = System.nanoTime();
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final AtomicLong failures = new AtomicLong();
+        final CountDownLatch done;
+        long end;
+
+        Measurement(int rounds) {
+            this.done = new CountDownLatch(rounds);
+        }
+
+        void completed(long issued) {
+            long latency = System.nanoTime() - issued;
+            synchronized (latencies) {
+                latencies.record(latency);
+            }
+            done.countDown();
+        }
+
+        void failed() {
+            failures.incrementAndGet();
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            done.await();
+        }
+
+        void finish() {
+            end = System.nanoTime();
+        }
+
+        double seconds() {
+            return (end - begin) / 1e9;
+        }
+    }
+}
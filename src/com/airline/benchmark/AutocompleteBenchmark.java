@@ -0,0 +1,147 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.service.DestinationIndex;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Destination autocomplete latency and heap footprint. The destinations are about 300 real cities with
+// commercial airports, padded with generated place names up to the size of the world's ~4,000 airports
+// with scheduled service. Queries are prefixes of 1 to 8 characters, a quarter of them with a typo.
+// Run with: java -cp out com.airline.benchmark.AutocompleteBenchmark [--destinations=4000] [--flights=200000]
+public class AutocompleteBenchmark {
+    static final String[] CITIES = {
+            "Aberdeen", "Abu Dhabi", "Abuja", "Accra", "Adelaide", "Addis Ababa", "Agadir", "Ahmedabad", "Albuquerque",
+            "Algiers", "Alicante", "Almaty", "Amman", "Amsterdam", "Anchorage", "Ankara", "Antalya", "Asunción", "Athens",
+            "Atlanta", "Auckland", "Austin", "Baghdad", "Bahrain", "Baku", "Bali", "Baltimore", "Bangalore", "Bangkok",
+            "Barcelona", "Bari", "Basel", "Beijing", "Beirut", "Belfast", "Belgrade", "Bergen", "Berlin", "Bilbao",
+            "Birmingham", "Bishkek", "Bogotá", "Bologna", "Bordeaux", "Boston", "Brasília", "Bratislava", "Brisbane",
+            "Bristol", "Brussels", "Bucharest", "Budapest", "Buenos Aires", "Cairo", "Calgary", "Cancún", "Cape Town",
+            "Caracas", "Cardiff", "Casablanca", "Catania", "Cebu", "Chennai", "Chengdu", "Chiang Mai", "Chicago",
+            "Christchurch", "Cincinnati", "Cleveland", "Cologne", "Colombo", "Columbus", "Copenhagen", "Cork", "Curaçao",
+            "Da Nang", "Dakar", "Dallas", "Dammam", "Dar es Salaam", "Darwin", "Delhi", "Denpasar", "Denver", "Detroit",
+            "Dhaka", "Doha", "Dubai", "Dublin", "Dubrovnik", "Durban", "Düsseldorf", "Edinburgh", "Edmonton",
+            "Eindhoven", "Entebbe", "Faro", "Florence", "Fort Lauderdale", "Frankfurt", "Fukuoka", "Funchal",
+            "Gdańsk", "Geneva", "Genoa", "Glasgow", "Gothenburg", "Gran Canaria", "Graz", "Guadalajara", "Guangzhou",
+            "Guatemala City", "Guayaquil", "Hamburg", "Hangzhou", "Hanoi", "Hanover", "Harare", "Havana", "Helsinki",
+            "Heraklion", "Ho Chi Minh City", "Hobart", "Hong Kong", "Honolulu", "Houston", "Hyderabad", "Ibiza",
+            "Indianapolis", "Innsbruck", "Islamabad", "Istanbul", "Izmir", "Jakarta", "Jeddah", "Johannesburg",
+            "Kabul", "Kansas City", "Karachi", "Kathmandu", "Katowice", "Kazan", "Kyiv", "Kigali", "Kilimanjaro",
+            "Kingston", "Kinshasa", "Kolkata", "Krakow", "Kuala Lumpur", "Kunming", "Kuwait", "Kyoto", "La Paz",
+            "Lagos", "Lahore", "Lanzarote", "Larnaca", "Las Vegas", "Leeds", "Leipzig", "Lima", "Lisbon", "Liverpool",
+            "Ljubljana", "Lomé", "London", "Los Angeles", "Luanda", "Lusaka", "Luxembourg", "Lyon", "Macau", "Madrid",
+            "Malaga", "Male", "Malta", "Managua", "Manchester", "Manila", "Maputo", "Marrakesh", "Marseille",
+            "Mauritius", "Medellín", "Melbourne", "Memphis", "Mexico City", "Miami", "Milan", "Milwaukee", "Minneapolis",
+            "Minsk", "Mombasa", "Monterrey", "Montevideo", "Montreal", "Moscow", "Mumbai", "Munich", "Muscat", "Nagoya",
+            "Nairobi", "Nantes", "Naples", "Nashville", "Nassau", "New Orleans", "New York", "Newcastle", "Nice",
+            "Nicosia", "Novosibirsk", "Nuremberg", "Oakland", "Odessa", "Okinawa", "Oklahoma City", "Omaha", "Orlando",
+            "Osaka", "Oslo", "Ottawa", "Palermo", "Palma", "Panama City", "Paris", "Penang", "Perth", "Philadelphia",
+            "Phnom Penh", "Phoenix", "Phuket", "Pittsburgh", "Port Louis", "Port of Spain", "Porto", "Portland",
+            "Prague", "Punta Cana", "Quebec City", "Quito", "Raleigh", "Recife", "Reykjavík", "Riga", "Rio de Janeiro",
+            "Riyadh", "Rome", "Rotterdam", "Sacramento", "Salt Lake City", "Salvador", "Salzburg", "San Antonio",
+            "San Diego", "San Francisco", "San José", "San Juan", "Santiago", "Santo Domingo", "São Paulo", "Sapporo",
+            "Sarajevo", "Seattle", "Seoul", "Seville", "Shanghai", "Shenzhen", "Singapore", "Skopje", "Sofia",
+            "St. Louis", "St. Petersburg", "Stavanger", "Stockholm", "Strasbourg", "Stuttgart", "Surabaya", "Sydney",
+            "Taipei", "Tallinn", "Tampa", "Tashkent", "Tbilisi", "Tehran", "Tel Aviv", "Tenerife", "Thessaloniki",
+            "Tirana", "Tokyo", "Toronto", "Toulouse", "Trieste", "Tripoli", "Tunis", "Turin", "Ulaanbaatar", "Valencia",
+            "Valletta", "Vancouver", "Venice", "Verona", "Vienna", "Vientiane", "Vilnius", "Warsaw", "Washington",
+            "Wellington", "Windhoek", "Winnipeg", "Wrocław", "Wuhan", "Xi'an", "Yangon", "Yerevan", "Zagreb", "Zanzibar",
+            "Zürich"
+    };
+    private static final String[] SYLLABLES = {
+            "ba", "ka", "ri", "to", "mo", "na", "sa", "le", "vi", "an", "or", "el", "du", "po", "ge", "ha", "lin", "ston",
+            "ville", "burg", "port", "ford", "mar", "san", "del", "ter", "ro", "qui", "zan", "ko"
+    };
+    private static final int QUERIES = 100_000;
+
+    public static void main(String[] args) {
+        int destinationCount = Integer.parseInt(FlightServiceBenchmark.option(args, "destinations", "4000"));
+        int flightCount = Integer.parseInt(FlightServiceBenchmark.option(args, "flights", "200000"));
+        Random random = new Random(42);
+        List<String> destinations = destinations(destinationCount, random);
+        LocalDateTime start = LocalDate.of(2024, 1, 1).atStartOfDay();
+        List<Flight> flights = new ArrayList<>(flightCount);
+        for (int i = 0; i < flightCount; i++) {
+            // Skewed so a few destinations have most of the flights, as hubs do
+            String destination = destinations.get((int) (destinations.size() * Math.pow(random.nextDouble(), 3)));
+            flights.add(new Flight("AC" + i, destination, start.plusMinutes(random.nextInt(90 * 24 * 60)), 180));
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeap(memory);
+        DestinationIndex index = new DestinationIndex();
+        long buildStart = System.nanoTime();
+        for (Flight flight : flights) {
+            index.add(flight);
+        }
+        long buildNanos = System.nanoTime() - buildStart;
+        long footprint = usedHeap(memory) - before;
+
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = query(destinations.get(random.nextInt(destinations.size())), random);
+        }
+        LocalDateTime now = start.plusDays(30);
+        LatencyHistogram latency = new LatencyHistogram();
+        long found = 0;
+        for (int round = 0; round < 2; round++) {
+            for (String query : queries) {
+                long begin = System.nanoTime();
+                found += index.suggest(query, now, 10).size();
+                if (round == 1) {
+                    latency.record(System.nanoTime() - begin);
+                }
+            }
+        }
+
+        System.out.printf("%d destinations, %d flights: built in %d ms, about %.1f MB of heap (%.0f bytes per flight)%n",
+                index.destinationCount(), flightCount, buildNanos / 1_000_000, footprint / 1e6, (double) footprint / flightCount);
+        System.out.printf("suggest (10 results): mean %.1f us, p50 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us; %.1f suggestions per query%n",
+                latency.getMean() / 1e3, latency.percentile(50) / 1e3, latency.percentile(99) / 1e3,
+                latency.percentile(99.9) / 1e3, latency.getMax() / 1e3, found / 2.0 / QUERIES);
+    }
+
+    private static List<String> destinations(int count, Random random) {
+        List<String> destinations = new ArrayList<>(List.of(CITIES));
+        while (destinations.size() < count) {
+            StringBuilder name = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int i = 0; i < syllables; i++) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            destinations.add(name.toString());
+        }
+        return destinations.subList(0, count);
+    }
+
+    // What a user has typed so far: a prefix of the name, sometimes with one letter wrong, missing or doubled
+    private static String query(String destination, Random random) {
+        String prefix = destination.substring(0, Math.min(destination.length(), 1 + random.nextInt(8)));
+        if (prefix.length() < 4 || random.nextInt(4) != 0) {
+            return prefix;
+        }
+        int at = 1 + random.nextInt(prefix.length() - 1);
+        switch (random.nextInt(3)) {
+            case 0:
+                return prefix.substring(0, at) + (char) ('a' + random.nextInt(26)) + prefix.substring(at + 1);
+            case 1:
+                return prefix.substring(0, at) + prefix.substring(at + 1);
+            default:
+                return prefix.substring(0, at) + prefix.charAt(at) + prefix.substring(at);
+        }
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,71 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.persistence.BookingJournal;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.FlightService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+// Cost per booking of bookFlight in a loop vs. bookFlights with batches of --batch requests,
+// in memory and against the fsynced journal.
+// Run with: java -cp out com.airline.benchmark.BatchBookingBenchmark [--batch=1000] [--bookings=500000]
+public class BatchBookingBenchmark {
+    private static final int FLIGHTS = 2_000;
+
+    public static void main(String[] args) throws IOException {
+        int batchSize = Integer.parseInt(FlightServiceBenchmark.option(args, "batch", "1000"));
+        int bookings = Integer.parseInt(FlightServiceBenchmark.option(args, "bookings", "500000"));
+        Path directory = Files.createTempDirectory("batch-bench");
+
+        System.out.printf("%-22s %16s %16s %10s%n", "log", "loop (us/book)", "batch (us/book)", "speedup");
+        for (boolean journaled : new boolean[]{false, true}) {
+            // The fsynced journal is much slower per call, so the loop gets a smaller sample
+            int count = journaled ? Math.min(bookings, 20_000) : bookings;
+            double loop = 0;
+            double batch = 0;
+            for (int round = 0; round < 3; round++) {
+                loop = measure(directory, journaled, count, 1);
+                batch = measure(directory, journaled, count, batchSize);
+            }
+            System.out.printf("%-22s %16.2f %16.2f %9.1fx%n", journaled ? "journal (fsync)" : "in-memory", loop, batch, loop / batch);
+        }
+        Files.delete(directory);
+    }
+
+    // Returns microseconds per booking
+    private static double measure(Path directory, boolean journaled, int count, int batchSize) throws IOException {
+        Path file = directory.resolve("batch.journal");
+        Files.deleteIfExists(file);
+        BookingJournal journal = journaled ? BookingJournal.open(file, true) : null;
+        FlightService service = new FlightService(journal == null ? BookingLog.NONE : journal);
+        List<Flight> flights = new ScheduleGenerator(1, LocalDate.of(2024, 1, 1), 30).flights(FLIGHTS);
+        for (Flight flight : flights) {
+            flight.setAvailableSeats(Integer.MAX_VALUE / 2);
+            service.addFlight(flight);
+        }
+        List<BookingRequest> requests = new ScheduleGenerator(2, LocalDate.of(2024, 1, 1), 30).bookings(flights, count, 10_000);
+
+        long begin = System.nanoTime();
+        if (batchSize == 1) {
+            for (BookingRequest request : requests) {
+                service.bookFlight(request.getCustomerName(), request.getFlight(), request.getSeats());
+            }
+        } else {
+            for (int from = 0; from < count; from += batchSize) {
+                service.bookFlights(requests.subList(from, Math.min(count, from + batchSize)), false);
+            }
+        }
+        double micros = (System.nanoTime() - begin) / 1e3 / count;
+        if (journal != null) {
+            journal.close();
+            Files.delete(file);
+        }
+        return micros;
+    }
+}
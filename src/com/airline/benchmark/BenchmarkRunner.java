@@ -0,0 +1,89 @@
+package com.airline.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Minimal multi-threaded benchmark harness: runs an operation on N threads for a warm-up period and a
+// measurement period, recording each timed call in a per-thread LatencyHistogram.
+public class BenchmarkRunner {
+    private final long warmupNanos;
+    private final long measurementNanos;
+
+    public BenchmarkRunner(double warmupSeconds, double measurementSeconds) {
+        this.warmupNanos = (long) (warmupSeconds * 1e9);
+        this.measurementNanos = (long) (measurementSeconds * 1e9);
+    }
+
+    public interface Operation<T> {
+        // Untimed per-invocation setup, e.g. picking the next query or booking something to cancel
+        T prepare(int thread);
+
+        // The timed call
+        void run(int thread, T input);
+    }
+
+    public <T> Result run(String name, int threads, Operation<T> operation) throws InterruptedException {
+        runPhase(threads, operation, warmupNanos);
+        List<LatencyHistogram> histograms = runPhase(threads, operation, measurementNanos);
+        LatencyHistogram total = new LatencyHistogram();
+        for (LatencyHistogram histogram : histograms) {
+            total.merge(histogram);
+        }
+        return new Result(name, threads, total, measurementNanos / 1e9);
+    }
+
+    private <T> List<LatencyHistogram> runPhase(int threadCount, Operation<T> operation, long durationNanos)
+            throws InterruptedException {
+        List<LatencyHistogram> histograms = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            LatencyHistogram histogram = new LatencyHistogram();
+            histograms.add(histogram);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (running.get()) {
+                    T input = operation.prepare(thread);
+                    long begin = System.nanoTime();
+                    operation.run(thread, input);
+                    histogram.record(System.nanoTime() - begin);
+                }
+            }, "bench-" + t);
+            threads.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        Thread.sleep(durationNanos / 1_000_000, (int) (durationNanos % 1_000_000));
+        running.set(false);
+        for (Thread worker : threads) {
+            worker.join();
+        }
+        return histograms;
+    }
+
+    public record Result(String name, int threads, LatencyHistogram latency, double seconds) {
+        public double throughput() {
+            return latency.getTotalCount() / seconds;
+        }
+
+        public static String header() {
+            return String.format("%-28s %7s %14s %10s %10s %10s %10s %10s",
+                    "benchmark", "threads", "ops/s", "mean(us)", "p50(us)", "p99(us)", "p99.9(us)", "max(us)");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %7d %14.0f %10.2f %10.2f %10.2f %10.2f %10.2f",
+                    name, threads, throughput(), latency.getMean() / 1e3, latency.percentile(50) / 1e3,
+                    latency.percentile(99) / 1e3, latency.percentile(99.9) / 1e3, latency.getMax() / 1e3);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+// Flexible-date and time-of-day searches on a year of flights: a +/-3 day window answered by scanning every
+// flight, by seven one-date searchFlights calls merged and sorted, and by the departure-time index, plus
+// evening departures over the same week from the index. Queries ask about the second half of the year.
+// The scan and index runs are then repeated after archiveDepartedFlights has moved the first half out, and
+// archiving is timed one minute of departures at a time, as FlightArchiver runs it.
+// Run with: java -cp out com.airline.benchmark.DepartureWindowBenchmark [--flights=1000000] [--threads=1,4]
+//           [--warmup=2] [--seconds=5]
+public class DepartureWindowBenchmark {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 365;
+    private static final int HISTORY_DAYS = DAYS / 2;
+    private static final int FLEXIBLE_DAYS = 3;
+    private static final int SAMPLES = 1 << 12;
+    private static final Comparator<Flight> BY_DEPARTURE = Comparator.comparing(Flight::getDepartureTime);
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = Integer.parseInt(FlightServiceBenchmark.option(args, "flights", "1000000"));
+        int[] threadCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "threads", "1,4"));
+        BenchmarkRunner runner = new BenchmarkRunner(Double.parseDouble(FlightServiceBenchmark.option(args, "warmup", "2")),
+                Double.parseDouble(FlightServiceBenchmark.option(args, "seconds", "5")));
+
+        FlightService service = new FlightService(BookingLog.NONE);
+        service.addFlights(new ScheduleGenerator(42, FIRST_DAY, DAYS).flights(size));
+        Random random = new Random(7);
+        String[] destinations = new String[SAMPLES];
+        LocalDate[] dates = new LocalDate[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            destinations[i] = ScheduleGenerator.DESTINATIONS[random.nextInt(ScheduleGenerator.DESTINATIONS.length)];
+            dates[i] = FIRST_DAY.plusDays(HISTORY_DAYS + FLEXIBLE_DAYS + random.nextInt(DAYS - HISTORY_DAYS - 2 * FLEXIBLE_DAYS));
+        }
+        Query[] queries = Query.values();
+
+        System.out.println("Inventory: " + size + " flights over " + DAYS + " days");
+        System.out.println(BenchmarkRunner.Result.header() + String.format(" %9s", "matches"));
+        for (int threads : threadCounts) {
+            for (Query query : queries) {
+                run(runner, service, query, threads, destinations, dates, "");
+            }
+        }
+
+        LocalDateTime cutoff = FIRST_DAY.plusDays(HISTORY_DAYS).atStartOfDay();
+        long begin = System.nanoTime();
+        int archived = service.archiveDepartedFlights(cutoff);
+        System.out.println();
+        System.out.printf("Archived %d flights in %.1f ms; %d still active%n", archived, (System.nanoTime() - begin) / 1e6,
+                service.getAllFlights().size());
+        // Steady state: a FlightArchiver pass only finds the flights that left since the one before
+        begin = System.nanoTime();
+        archived = 0;
+        for (int minute = 1; minute <= 24 * 60; minute++) {
+            archived += service.archiveDepartedFlights(cutoff.plusMinutes(minute));
+        }
+        System.out.printf("Archived %d more flights in one pass a minute for a day: %.3f ms a pass%n", archived,
+                (System.nanoTime() - begin) / 1e6 / (24 * 60));
+        System.out.println(BenchmarkRunner.Result.header() + String.format(" %9s", "matches"));
+        for (int threads : threadCounts) {
+            run(runner, service, Query.SCAN, threads, destinations, dates, ", archived");
+            run(runner, service, Query.INDEX, threads, destinations, dates, ", archived");
+        }
+    }
+
+    private static void run(BenchmarkRunner runner, FlightService service, Query query, int threads, String[] destinations,
+                            LocalDate[] dates, String suffix) throws InterruptedException {
+        int[] cursors = new int[threads * 16];
+        long[] matches = new long[threads * 16];
+        long[] calls = new long[threads * 16];
+        BenchmarkRunner.Result result = runner.run(query.label + suffix, threads, new BenchmarkRunner.Operation<Integer>() {
+            @Override
+            public Integer prepare(int thread) {
+                return (cursors[thread * 16]++ * 31 + thread * 7919) & (SAMPLES - 1);
+            }
+
+            @Override
+            public void run(int thread, Integer sample) {
+                matches[thread * 16] += query.search(service, destinations[sample], dates[sample]).size();
+                calls[thread * 16]++;
+            }
+        });
+        long totalMatches = 0;
+        long totalCalls = 0;
+        for (int thread = 0; thread < threads; thread++) {
+            totalMatches += matches[thread * 16];
+            totalCalls += calls[thread * 16];
+        }
+        System.out.println(result + String.format(" %9.1f", totalCalls == 0 ? 0.0 : (double) totalMatches / totalCalls));
+    }
+
+    private enum Query {
+        SCAN("+/-3d, scan") {
+            @Override
+            List<Flight> search(FlightService service, String destination, LocalDate date) {
+                LocalDateTime from = date.minusDays(FLEXIBLE_DAYS).atStartOfDay();
+                LocalDateTime to = date.plusDays(FLEXIBLE_DAYS + 1).atStartOfDay();
+                List<Flight> result = new ArrayList<>();
+                for (Flight flight : service.getAllFlights()) {
+                    LocalDateTime departure = flight.getDepartureTime();
+                    if (destination.equalsIgnoreCase(flight.getDestination()) && !departure.isBefore(from)
+                            && departure.isBefore(to) && flight.getAvailableSeats() > 0) {
+                        result.add(flight);
+                    }
+                }
+                result.sort(BY_DEPARTURE);
+                return result;
+            }
+        },
+        DATES("+/-3d, 7 date searches") {
+            @Override
+            List<Flight> search(FlightService service, String destination, LocalDate date) {
+                List<Flight> result = new ArrayList<>();
+                for (int offset = -FLEXIBLE_DAYS; offset <= FLEXIBLE_DAYS; offset++) {
+                    result.addAll(service.searchFlights(destination, date.plusDays(offset)));
+                }
+                result.sort(BY_DEPARTURE);
+                return result;
+            }
+        },
+        INDEX("+/-3d, time index") {
+            @Override
+            List<Flight> search(FlightService service, String destination, LocalDate date) {
+                return service.searchFlights(destination, date, FLEXIBLE_DAYS);
+            }
+        },
+        EVENINGS("evenings x7, time index") {
+            @Override
+            List<Flight> search(FlightService service, String destination, LocalDate date) {
+                return service.searchFlights(destination, date.minusDays(FLEXIBLE_DAYS), date.plusDays(FLEXIBLE_DAYS),
+                        LocalTime.of(18, 0), LocalTime.MIDNIGHT);
+            }
+        };
+
+        private final String label;
+
+        Query(String label) {
+            this.label = label;
+        }
+
+        abstract List<Flight> search(FlightService service, String destination, LocalDate date);
+    }
+}
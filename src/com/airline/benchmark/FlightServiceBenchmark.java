@@ -0,0 +1,220 @@
+package com.airline.benchmark;
+
+import com.airline.benchmark.ScheduleGenerator.SearchQuery;
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.FlightCatalog;
+import com.airline.service.FlightService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Throughput and latency percentiles for the FlightService hot paths over a synthetic schedule.
+// Run with: java -cp out com.airline.benchmark.FlightServiceBenchmark [--flights=10000,100000] [--threads=1,4]
+//           [--warmup=2] [--seconds=5] [--only=searchFlights,bookFlight]
+public class FlightServiceBenchmark {
+    private static final int CUSTOMERS = 50_000;
+    private static final int SAMPLES = 1 << 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] sizes = intList(option(args, "flights", "10000,100000"));
+        int[] threadCounts = intList(option(args, "threads", "1,4"));
+        String only = option(args, "only", "");
+        BenchmarkRunner runner = new BenchmarkRunner(
+                Double.parseDouble(option(args, "warmup", "2")), Double.parseDouble(option(args, "seconds", "5")));
+
+        for (int size : sizes) {
+            System.out.println();
+            System.out.println("Inventory: " + size + " flights");
+            System.out.println(BenchmarkRunner.Result.header());
+            for (int threads : threadCounts) {
+                for (Scenario scenario : Scenario.values()) {
+                    if (only.isEmpty() || only.contains(scenario.label)) {
+                        Fixture fixture = new Fixture(size, threads);
+                        System.out.println(runner.run(scenario.label, threads, scenario.operation(fixture)));
+                    }
+                }
+            }
+        }
+    }
+
+    enum Scenario {
+        SEARCH("searchFlights"),
+        BOOK("bookFlight"),
+        CUSTOMER_RESERVATIONS("getCustomerReservations"),
+        CANCEL("cancelReservation"),
+        ALL_FLIGHTS("getAllFlights"),
+        CATALOG_PAGE("catalog page");
+
+        private final String label;
+
+        Scenario(String label) {
+            this.label = label;
+        }
+
+        String label() {
+            return label;
+        }
+
+        BenchmarkRunner.Operation<?> operation(Fixture fixture) {
+            FlightService service = fixture.service;
+            switch (this) {
+                case SEARCH:
+                    return new BenchmarkRunner.Operation<SearchQuery>() {
+                        @Override
+                        public SearchQuery prepare(int thread) {
+                            return fixture.queries[fixture.next(thread)];
+                        }
+
+                        @Override
+
+                        public void run(int thread, SearchQuery query) {
+                            service.searchFlights(query.destination(), query.date());
+                        }
+                    };
+                case BOOK:
+                    return new BenchmarkRunner.Operation<BookingRequest>() {
+                        @Override
+                        public BookingRequest prepare(int thread) {
+                            // Undo the previous booking outside the timed section so inventory does not run dry
+                            Reservation previous = fixture.lastBooked[thread];
+                            if (previous != null) {
+                                service.cancelReservation(previous);
+                                fixture.lastBooked[thread] = null;
+                            }
+                            return fixture.bookings.get(fixture.next(thread));
+                        }
+
+                        @Override
+
+                        public void run(int thread, BookingRequest request) {
+                            try {
+                                fixture.lastBooked[thread] = service.bookFlight(request.getCustomerName(), request.getFlight(), request.getSeats());
+                            } catch (IllegalArgumentException soldOut) {
+                                // Part of a realistic mix
+                            }
+                        }
+                    };
+                case CUSTOMER_RESERVATIONS:
+                    return new BenchmarkRunner.Operation<String>() {
+                        @Override
+                        public String prepare(int thread) {
+                            return fixture.bookings.get(fixture.next(thread)).getCustomerName();
+                        }
+
+                        @Override
+
+                        public void run(int thread, String customerName) {
+                            service.getCustomerReservations(customerName);
+                        }
+                    };
+                case CANCEL:
+                    return new BenchmarkRunner.Operation<Reservation>() {
+                        @Override
+                        public Reservation prepare(int thread) {
+                            BookingRequest request = fixture.bookings.get(fixture.next(thread));
+                            try {
+                                return service.bookFlight(request.getCustomerName(), request.getFlight(), request.getSeats());
+                            } catch (IllegalArgumentException soldOut) {
+                                return null;
+                            }
+                        }
+
+                        @Override
+
+                        public void run(int thread, Reservation reservation) {
+                            if (reservation != null) {
+                                service.cancelReservation(reservation);
+                            }
+                        }
+                    };
+                case CATALOG_PAGE:
+                    return new BenchmarkRunner.Operation<Integer>() {
+                        @Override
+                        public Integer prepare(int thread) {
+                            return fixture.next(thread) * 20 % Math.max(1, service.getCatalog().size());
+                        }
+
+                        @Override
+
+                        public void run(int thread, Integer offset) {
+                            // A 20-flight page sorted by departure, as a paged UI would request it
+                            service.getCatalog().page(FlightCatalog.Order.DEPARTURE_TIME, offset, 20);
+                        }
+                    };
+                default:
+                    return new BenchmarkRunner.Operation<Void>() {
+                        @Override
+                        public Void prepare(int thread) {
+                            return null;
+                        }
+
+                        @Override
+
+                        public void run(int thread, Void input) {
+                            service.getAllFlights();
+                        }
+                    };
+            }
+        }
+    }
+
+    // A FlightService loaded with a synthetic schedule and a standing set of reservations
+    static class Fixture {
+        final FlightService service = new FlightService(BookingLog.NONE);
+        final List<Flight> flights;
+        final List<BookingRequest> bookings;
+        final SearchQuery[] queries = new SearchQuery[SAMPLES];
+        final Reservation[] lastBooked;
+        private final int[] cursors;
+
+        Fixture(int size, int threads) {
+            ScheduleGenerator generator = new ScheduleGenerator(42, LocalDate.of(2024, 1, 1), 90);
+            flights = generator.flights(size);
+            for (Flight flight : flights) {
+                service.addFlight(flight);
+            }
+            bookings = generator.bookings(flights, SAMPLES, CUSTOMERS);
+            for (int i = 0; i < SAMPLES; i++) {
+                queries[i] = generator.query();
+            }
+            // Pre-book half the sample so customer lookups find something
+            List<BookingRequest> preload = new ArrayList<>(bookings.subList(0, SAMPLES / 2));
+            for (BookingRequest request : preload) {
+                try {
+                    service.bookFlight(request.getCustomerName(), request.getFlight(), request.getSeats());
+                } catch (IllegalArgumentException soldOut) {
+                    // Ignore
+                }
+            }
+            lastBooked = new Reservation[threads];
+            cursors = new int[threads * 16]; // spaced out to avoid false sharing
+        }
+
+        int next(int thread) {
+            return (cursors[thread * 16]++ * 31 + thread * 7919) & (SAMPLES - 1);
+        }
+    }
+
+    static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return defaultValue;
+    }
+
+    static int[] intList(String value) {
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,192 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import com.airline.service.HoldMetrics;
+import com.airline.service.HoldTimer;
+import com.airline.service.SeatHold;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Cost of expiring many open seat holds: the hashed timing wheel behind FlightService.holdSeats vs. one
+// ScheduledThreadPoolExecutor task per hold vs. a periodic scan of every open hold. Each run places the
+// holds with expiry spread over a few seconds, confirms a share of them and waits for the rest to expire.
+// Expiry cost is the CPU time of the thread doing it; all three release seats on a flight registered with
+// a FlightService, so the search index and catalog listeners run in each case.
+// Run with: java -cp out com.airline.benchmark.HoldExpiryBenchmark [--holds=500000] [--confirm-percent=50]
+public class HoldExpiryBenchmark {
+    private static final long TICK_MILLIS = 10;
+    private static final int MIN_HOLD_MILLIS = 2_000;
+    private static final int SPREAD_MILLIS = 2_000;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws InterruptedException {
+        int holds = Integer.parseInt(FlightServiceBenchmark.option(args, "holds", "500000"));
+        int confirmPercent = Integer.parseInt(FlightServiceBenchmark.option(args, "confirm-percent", "50"));
+        System.out.printf("%d holds, %d%% confirmed, expiry after %d-%d ms, %d ms tick%n", holds, confirmPercent,
+                MIN_HOLD_MILLIS, MIN_HOLD_MILLIS + SPREAD_MILLIS, TICK_MILLIS);
+        System.out.printf("%-16s %14s %18s %16s%n", "strategy", "place (ns/op)", "expiry CPU (ms)", "max lag (ms)");
+        for (int round = 0; round < 2; round++) {
+            // The first round warms up the JIT and is not printed
+            boolean print = round == 1;
+            timingWheel(holds, confirmPercent, print);
+            scheduledTasks(holds, confirmPercent, print);
+            periodicScan(holds, confirmPercent, print);
+        }
+    }
+
+    private static void timingWheel(int holds, int confirmPercent, boolean print) throws InterruptedException {
+        FlightService service = new FlightService(BookingLog.NONE);
+        Flight flight = flight(service, holds);
+        Random random = new Random(1);
+        int confirmed = 0;
+        try (HoldTimer timer = new HoldTimer(Duration.ofMillis(TICK_MILLIS), HoldTimer.DEFAULT_WHEEL_SIZE, System::nanoTime).start()) {
+            service.setHoldTimer(timer);
+            long start = System.nanoTime();
+            for (int i = 0; i < holds; i++) {
+                SeatHold hold = service.holdSeats("Customer", flight, 1, Duration.ofMillis(MIN_HOLD_MILLIS + random.nextInt(SPREAD_MILLIS)));
+                if (random.nextInt(100) < confirmPercent) {
+                    service.confirmHold(hold);
+                    confirmed++;
+                }
+            }
+            long placeNanos = System.nanoTime() - start;
+            while (service.getHoldMetrics().activeHolds() > 0) {
+                Thread.sleep(TICK_MILLIS);
+            }
+            long cpu = threadCpu("seat-hold-timer");
+            HoldMetrics metrics = service.getHoldMetrics();
+            print(print, "timing wheel", placeNanos, holds, cpu, metrics.maxExpiryLagNanos());
+        }
+        check(flight, holds - confirmed);
+    }
+
+    private static void scheduledTasks(int holds, int confirmPercent, boolean print) throws InterruptedException {
+        FlightService service = new FlightService(BookingLog.NONE);
+        Flight flight = flight(service, holds);
+        Map<Long, Long> open = new ConcurrentHashMap<>();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> new Thread(task, "hold-expiry-tasks"));
+        executor.setRemoveOnCancelPolicy(true);
+        AtomicLong lagMax = new AtomicLong();
+        Random random = new Random(1);
+        int confirmed = 0;
+        long start = System.nanoTime();
+        for (long i = 0; i < holds; i++) {
+            long id = i;
+            int holdMillis = MIN_HOLD_MILLIS + random.nextInt(SPREAD_MILLIS);
+            flight.bookSeats(1);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(holdMillis);
+            open.put(id, deadline);
+            ScheduledFuture<?> task = executor.schedule(() -> {
+                if (open.remove(id) != null) {
+                    flight.releaseSeats(1);
+                    lagMax.accumulateAndGet(System.nanoTime() - deadline, Math::max);
+                }
+            }, holdMillis, TimeUnit.MILLISECONDS);
+            if (random.nextInt(100) < confirmPercent) {
+                task.cancel(false);
+                open.remove(id);
+                new Reservation("Customer", flight, 1);
+                confirmed++;
+            }
+        }
+        long placeNanos = System.nanoTime() - start;
+        while (!open.isEmpty()) {
+            Thread.sleep(TICK_MILLIS);
+        }
+        long cpu = threadCpu("hold-expiry-tasks");
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        print(print, "task per hold", placeNanos, holds, cpu, lagMax.get());
+        check(flight, holds - confirmed);
+    }
+
+    private static void periodicScan(int holds, int confirmPercent, boolean print) throws InterruptedException {
+        FlightService service = new FlightService(BookingLog.NONE);
+        Flight flight = flight(service, holds);
+        Map<Long, Long> open = new ConcurrentHashMap<>();
+        AtomicLong lagMax = new AtomicLong();
+        Thread scanner = new Thread(() -> {
+            while (true) {
+                try {
+                    Thread.sleep(TICK_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long now = System.nanoTime();
+                for (Iterator<Long> deadlines = open.values().iterator(); deadlines.hasNext(); ) {
+                    long deadline = deadlines.next();
+                    if (deadline <= now) {
+                        deadlines.remove();
+                        flight.releaseSeats(1);
+                        lagMax.accumulateAndGet(now - deadline, Math::max);
+                    }
+                }
+            }
+        }, "hold-expiry-scan");
+        scanner.start();
+        Random random = new Random(1);
+        int confirmed = 0;
+        long start = System.nanoTime();
+        for (long i = 0; i < holds; i++) {
+            int holdMillis = MIN_HOLD_MILLIS + random.nextInt(SPREAD_MILLIS);
+            flight.bookSeats(1);
+            open.put(i, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(holdMillis));
+            if (random.nextInt(100) < confirmPercent) {
+                open.remove(i);
+                new Reservation("Customer", flight, 1);
+                confirmed++;
+            }
+        }
+        long placeNanos = System.nanoTime() - start;
+        while (!open.isEmpty()) {
+            Thread.sleep(TICK_MILLIS);
+        }
+        long cpu = threadCpu("hold-expiry-scan");
+        scanner.interrupt();
+        scanner.join();
+        print(print, "periodic scan", placeNanos, holds, cpu, lagMax.get());
+        check(flight, holds - confirmed);
+    }
+
+    private static Flight flight(FlightService service, int seats) {
+        Flight flight = new Flight("HB1", "London", LocalDateTime.of(2024, 1, 16, 14, 20), seats);
+        service.addFlight(flight);
+        return flight;
+    }
+
+    // CPU time so far of the live thread with the given name
+    private static long threadCpu(String name) {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals(name)) {
+                return THREADS.getThreadCpuTime(thread.getId());
+            }
+        }
+        throw new IllegalStateException("No thread named " + name);
+    }
+
+    private static void print(boolean print, String name, long placeNanos, int holds, long cpuNanos, long maxLagNanos) {
+        if (print) {
+            System.out.printf("%-16s %14.0f %18.1f %16.1f%n", name, (double) placeNanos / holds, cpuNanos / 1e6, maxLagNanos / 1e6);
+        }
+    }
+
+    private static void check(Flight flight, int expected) {
+        if (flight.getAvailableSeats() != expected) {
+            throw new IllegalStateException("Expired seats not all released: " + flight.getAvailableSeats() + " of " + expected);
+        }
+    }
+}
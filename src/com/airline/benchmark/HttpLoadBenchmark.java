@@ -0,0 +1,213 @@
+package com.airline.benchmark;
+
+import com.airline.http.BookingHttpServer;
+import com.airline.model.Flight;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.FlightService;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+// Closed-loop load generator for BookingHttpServer over loopback. Each client holds one keep-alive
+// connection and sends batches of --pipeline requests before reading the responses, cycling through
+// search, search, search, book and list-reservations; every booking is cancelled in the next batch.
+// Latency is from sending the batch to reading each response.
+// Run with: java -cp out com.airline.benchmark.HttpLoadBenchmark [--clients=1,8,64] [--seconds=5] [--pipeline=1] [--loops=cores]
+public class HttpLoadBenchmark {
+    private static final int FLIGHTS = 2_000;
+    private static final int SAMPLES = 1 << 12;
+
+    public static void main(String[] args) throws Exception {
+        int[] clientCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "clients", "1,8,64"));
+        double seconds = Double.parseDouble(FlightServiceBenchmark.option(args, "seconds", "5"));
+        int pipeline = Integer.parseInt(FlightServiceBenchmark.option(args, "pipeline", "1"));
+        int loops = Integer.parseInt(FlightServiceBenchmark.option(args,
+                "loops", String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        FlightService service = new FlightService(BookingLog.NONE);
+        List<Flight> flights = new ScheduleGenerator(1, LocalDate.of(2024, 1, 1), 30).flights(FLIGHTS);
+        for (Flight flight : flights) {
+            flight.setAvailableSeats(Integer.MAX_VALUE / 2);
+            service.addFlight(flight);
+        }
+        Requests requests = new Requests(flights);
+
+        try (BookingHttpServer server = new BookingHttpServer(service, new InetSocketAddress("127.0.0.1", 0), loops).start()) {
+            System.out.printf("%-10s %-9s %12s %10s %10s %10s%n", "clients", "pipeline", "requests/s", "p50 (us)", "p99 (us)", "max (us)");
+            for (int clients : clientCounts) {
+                // Warm-up at the same concurrency, then measure
+                run(server.getPort(), requests, clients, pipeline, Math.min(2, seconds));
+                Load load = run(server.getPort(), requests, clients, pipeline, seconds);
+                LatencyHistogram latencies = load.latencies;
+                System.out.printf("%-10d %-9d %12.0f %10.1f %10.1f %10.1f%n", clients, pipeline,
+                        latencies.getTotalCount() / load.seconds, latencies.percentile(50) / 1e3,
+                        latencies.percentile(99) / 1e3, latencies.getMax() / 1e3);
+            }
+        }
+    }
+
+    private static Load run(int port, Requests requests, int clients, int pipeline, double seconds) throws Exception {
+        Load load = new Load();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        List<Client> workers = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Client client = new Client(port, requests, i, pipeline);
+            workers.add(client);
+            Thread thread = new Thread(() -> client.run(start));
+            threads.add(thread);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep((long) (seconds * 1000));
+        for (Client client : workers) {
+            client.running = false;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        load.seconds = (System.nanoTime() - begin) / 1e9;
+        for (Client client : workers) {
+            if (client.failure != null) {
+                throw client.failure;
+            }
+            load.latencies.merge(client.latencies);
+        }
+        return load;
+    }
+
+    private static class Load {
+        final LatencyHistogram latencies = new LatencyHistogram();
+        double seconds;
+    }
+
+    // Pre-encoded requests so the client side spends as little time as possible building them
+    private static class Requests {
+        final byte[][] searches = new byte[SAMPLES][];
+        final byte[][] bookings = new byte[SAMPLES][];
+        final byte[][] lists = new byte[SAMPLES][];
+
+        Requests(List<Flight> flights) {
+            ScheduleGenerator generator = new ScheduleGenerator(2, LocalDate.of(2024, 1, 1), 30);
+            List<BookingRequest> bookingRequests = generator.bookings(flights, SAMPLES, 10_000);
+            for (int i = 0; i < SAMPLES; i++) {
+                ScheduleGenerator.SearchQuery query = generator.query();
+                searches[i] = get("/flights?destination=" + encode(query.destination()) + "&date=" + query.date());
+                BookingRequest booking = bookingRequests.get(i);
+                String json = "{\"customerName\":\"" + booking.getCustomerName() + "\",\"flightNumber\":\""
+                        + booking.getFlight().getFlightNumber() + "\",\"seats\":" + booking.getSeats() + "}";
+                bookings[i] = ("POST /reservations HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                        + "Content-Length: " + json.length() + "\r\n\r\n" + json).getBytes(StandardCharsets.UTF_8);
+                lists[i] = get("/reservations?customer=" + encode(booking.getCustomerName()));
+            }
+        }
+
+        static byte[] get(String target) {
+            return ("GET " + target + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        }
+
+        static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class Client {
+        final Requests requests;
+        final int pipeline;
+        final int port;
+        final LatencyHistogram latencies = new LatencyHistogram();
+        final List<String> toCancel = new ArrayList<>();
+        final byte[] head = new byte[1024];
+        int cursor;
+        volatile boolean running = true;
+        Exception failure;
+
+        Client(int port, Requests requests, int seed, int pipeline) {
+            this.port = port;
+            this.requests = requests;
+            this.pipeline = pipeline;
+            this.cursor = seed * 7919;
+        }
+
+        void run(CountDownLatch start) {
+            try (Socket socket = new Socket("127.0.0.1", port)) {
+                socket.setTcpNoDelay(true);
+                OutputStream out = socket.getOutputStream();
+                InputStream in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+                start.await();
+                List<String> cancelling = new ArrayList<>();
+                while (running) {
+                    int sent = 0;
+                    boolean[] isBooking = new boolean[pipeline + toCancel.size()];
+                    cancelling.clear();
+                    cancelling.addAll(toCancel);
+                    toCancel.clear();
+                    for (String reservationId : cancelling) {
+                        out.write(("DELETE /reservations/" + reservationId + " HTTP/1.1\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+                        sent++;
+                    }
+                    for (int i = 0; i < pipeline; i++) {
+                        int step = cursor++;
+                        int sample = (step * 31) & (SAMPLES - 1);
+                        switch (step % 5) {
+                            case 3:
+                                out.write(requests.bookings[sample]);
+                                isBooking[sent] = true;
+                                break;
+                            case 4:
+                                out.write(requests.lists[sample]);
+                                break;
+                            default:
+                                out.write(requests.searches[sample]);
+                        }
+                        sent++;
+                    }
+                    out.flush();
+                    long begin = System.nanoTime();
+                    for (int i = 0; i < sent; i++) {
+                        String body = readResponse(in);
+                        latencies.record(System.nanoTime() - begin);
+                        if (isBooking[i]) {
+                            int at = body.indexOf("\"reservationId\":\"") + 17;
+                            toCancel.add(body.substring(at, body.indexOf('"', at)));
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+
+        // Reads one response and returns its body; fails on anything but 2xx
+        private String readResponse(InputStream in) throws IOException {
+            int length = 0;
+            while (length < 4 || head[length - 1] != '\n' || head[length - 2] != '\r'
+                    || head[length - 3] != '\n' || head[length - 4] != '\r') {
+                int b = in.read();
+                if (b < 0 || length == head.length) {
+                    throw new IOException("Bad or truncated response");
+                }
+                head[length++] = (byte) b;
+            }
+            String headers = new String(head, 0, length, StandardCharsets.ISO_8859_1);
+            if (headers.charAt(9) != '2') {
+                throw new IOException("Request failed: " + headers.substring(0, headers.indexOf('\r')));
+            }
+            int lengthAt = headers.indexOf("Content-Length: ") + 16;
+            int contentLength = Integer.parseInt(headers.substring(lengthAt, headers.indexOf('\r', lengthAt)));
+            return new String(in.readNBytes(contentLength), StandardCharsets.UTF_8);
+        }
+    }
+}
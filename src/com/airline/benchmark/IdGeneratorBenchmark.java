@@ -0,0 +1,81 @@
+package com.airline.benchmark;
+
+import com.airline.model.BlockIdGenerator;
+import com.airline.model.ReservationIdGenerator;
+import com.airline.model.SequentialIdGenerator;
+import com.airline.model.TimeOrderedIdGenerator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+// Compares reservation ID strategies, including the original unsynchronized String.format counter.
+// Run with: java -cp out com.airline.benchmark.IdGeneratorBenchmark
+public class IdGeneratorBenchmark {
+    private static final int IDS_PER_THREAD = 2_000_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, ReservationIdGenerator> strategies = new LinkedHashMap<>();
+        strategies.put("String.format (legacy)", new LegacyIdGenerator());
+        strategies.put("sequential", new SequentialIdGenerator());
+        strategies.put("block(1024)", new BlockIdGenerator(1024));
+        strategies.put("time-ordered", new TimeOrderedIdGenerator(1));
+
+        int[] threadCounts = {1, 4, Runtime.getRuntime().availableProcessors()};
+        System.out.printf("%-24s", "strategy \\ threads");
+        for (int threads : threadCounts) {
+            System.out.printf("%14d", threads);
+        }
+        System.out.println("   (million ids/s)");
+        for (Map.Entry<String, ReservationIdGenerator> entry : strategies.entrySet()) {
+            System.out.printf("%-24s", entry.getKey());
+            for (int threads : threadCounts) {
+                run(entry.getValue(), threads); // warm-up
+                System.out.printf("%14.1f", run(entry.getValue(), threads));
+            }
+            System.out.println();
+        }
+    }
+
+    private static double run(ReservationIdGenerator generator, int threadCount) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int length = 0;
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    length += generator.nextId().length();
+                }
+                if (length == 0) {
+                    System.out.print("");
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        return (double) IDS_PER_THREAD * threadCount / seconds / 1e6;
+    }
+
+    // The ID scheme Reservation used before generators were pluggable (not thread-safe)
+    private static class LegacyIdGenerator implements ReservationIdGenerator {
+        private int nextId = 1;
+
+        @Override
+        public String nextId() {
+            return "RES" + String.format("%04d", nextId++);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.airline.benchmark;
+
+import com.airline.inventory.ColumnarInventory;
+import com.airline.model.Flight;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Heap per flight and full-scan throughput of the object list (List<Flight>) vs. ColumnarInventory.
+// Heap is measured from used memory after repeated GCs, so run it with nothing else in the JVM.
+// Run with: java -Xmx4g -cp out com.airline.benchmark.InventoryBenchmark [--flights=1000000] [--queries=200]
+public class InventoryBenchmark {
+
+    public static void main(String[] args) {
+        int size = Integer.parseInt(FlightServiceBenchmark.option(args, "flights", "1000000"));
+        int queries = Integer.parseInt(FlightServiceBenchmark.option(args, "queries", "200"));
+        ScheduleGenerator generator = new ScheduleGenerator(42, LocalDate.of(2024, 1, 1), 365);
+        ScheduleGenerator.SearchQuery[] searches = new ScheduleGenerator.SearchQuery[queries];
+        for (int i = 0; i < queries; i++) {
+            searches[i] = generator.query();
+        }
+
+        long baseline = usedHeap();
+        List<Flight> flights = generator.flights(size);
+        long objectHeap = usedHeap() - baseline;
+        double objectScan = measure(() -> {
+            long found = 0;
+            for (ScheduleGenerator.SearchQuery query : searches) {
+                found += objectScan(flights, query.destination(), query.date());
+            }
+            return found;
+        }, queries);
+        double originalScan = measure(() -> {
+            long found = 0;
+            for (ScheduleGenerator.SearchQuery query : searches) {
+                found += SearchBenchmark.scan(flights, query.destination(), query.date()).size();
+            }
+            return found;
+        }, queries);
+
+        ColumnarInventory inventory = new ColumnarInventory();
+        for (Flight flight : flights) {
+            inventory.add(flight);
+        }
+        // Drop the objects so only the inventory (which shares the flight number strings) is left
+        flights.clear();
+        long columnarHeap = usedHeap() - baseline;
+        double columnarScan = measure(() -> {
+            long found = 0;
+            for (ScheduleGenerator.SearchQuery query : searches) {
+                found += inventory.scan(query.destination(), query.date(), row -> { });
+            }
+            return found;
+        }, queries);
+
+        System.out.printf("%d flights%n", size);
+        System.out.printf("%-28s %16s %16s %16s%n", "layout", "heap (B/flight)", "scan (ms/query)", "rows/s (M)");
+        print("List<Flight> stream filter", objectHeap, size, originalScan);
+        print("List<Flight> loop", objectHeap, size, objectScan);
+        print("ColumnarInventory", columnarHeap, size, columnarScan);
+    }
+
+    private static void print(String layout, long heap, int size, double millisPerQuery) {
+        System.out.printf("%-28s %16.1f %16.3f %16.1f%n", layout, (double) heap / size, millisPerQuery,
+                size / millisPerQuery / 1e3);
+    }
+
+    // The best case for objects: a plain loop that avoids the stream and LocalDate allocations
+    private static int objectScan(List<Flight> flights, String destination, LocalDate date) {
+        int found = 0;
+        for (Flight flight : flights) {
+            if (flight.getDestination().equalsIgnoreCase(destination)
+                    && flight.getDepartureTime().getYear() == date.getYear()
+                    && flight.getDepartureTime().getDayOfYear() == date.getDayOfYear()
+                    && flight.getAvailableSeats() > 0) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    // Mean milliseconds per query after a warm-up pass
+    private static double measure(SearchBenchmark.Workload workload, int operations) {
+        long sink = workload.run();
+        long start = System.nanoTime();
+        int rounds = 3;
+        for (int i = 0; i < rounds; i++) {
+            sink += workload.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return elapsed / 1e6 / rounds / operations;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,75 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.Itinerary;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import com.airline.service.ItineraryQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+// Connecting-itinerary search on a synthetic hub-and-spoke schedule, plus the cost of adding flights
+// to the route graph one at a time.
+// Run with: java -cp out com.airline.benchmark.ItineraryBenchmark [--flights=100000] [--hubs=6] [--spokes=300]
+public class ItineraryBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int count = Integer.parseInt(FlightServiceBenchmark.option(args, "flights", "100000"));
+        int hubs = Integer.parseInt(FlightServiceBenchmark.option(args, "hubs", "6"));
+        int spokes = Integer.parseInt(FlightServiceBenchmark.option(args, "spokes", "300"));
+        LocalDate firstDay = LocalDate.of(2024, 1, 1);
+        int days = 14;
+
+        List<Flight> flights = new ScheduleGenerator(9, firstDay, days).hubAndSpokeFlights(count, hubs, spokes);
+        FlightService service = new FlightService(BookingLog.NONE);
+        long begin = System.nanoTime();
+        for (Flight flight : flights) {
+            service.addFlight(flight);
+        }
+        System.out.printf("Added %d flights incrementally in %.2f s (%.2f us per flight)%n",
+                count, (System.nanoTime() - begin) / 1e9, (System.nanoTime() - begin) / 1e3 / count);
+
+        int samples = 4096;
+        ItineraryQuery[] arrivalQueries = new ItineraryQuery[samples];
+        ItineraryQuery[] legQueries = new ItineraryQuery[samples];
+        Random random = new Random(11);
+        for (int i = 0; i < samples; i++) {
+            String origin = ScheduleGenerator.spokeName(random.nextInt(spokes));
+            String destination = ScheduleGenerator.spokeName(random.nextInt(spokes));
+            LocalDate date = firstDay.plusDays(random.nextInt(days - 1));
+            arrivalQueries[i] = new ItineraryQuery(origin, destination, date).maxResults(5);
+            legQueries[i] = new ItineraryQuery(origin, destination, date).maxResults(5).order(ItineraryQuery.Order.FEWEST_LEGS);
+        }
+
+        long found = 0;
+        for (int i = 0; i < samples; i++) {
+            found += service.searchItineraries(arrivalQueries[i]).size();
+        }
+        System.out.printf("Average itineraries per query: %.1f%n", (double) found / samples);
+
+        BenchmarkRunner runner = new BenchmarkRunner(2, 5);
+        System.out.println(BenchmarkRunner.Result.header());
+        System.out.println(runner.run("itineraries by arrival", 1, queries(service, arrivalQueries)));
+        System.out.println(runner.run("itineraries by legs", 1, queries(service, legQueries)));
+    }
+
+    private static BenchmarkRunner.Operation<ItineraryQuery> queries(FlightService service, ItineraryQuery[] queries) {
+        return new BenchmarkRunner.Operation<>() {
+            private int next;
+
+            @Override
+            public ItineraryQuery prepare(int thread) {
+                return queries[next++ & (queries.length - 1)];
+            }
+
+            @Override
+            public void run(int thread, ItineraryQuery query) {
+                List<Itinerary> itineraries = service.searchItineraries(query);
+                if (itineraries == null) {
+                    throw new IllegalStateException();
+                }
+            }
+        };
+    }
+}
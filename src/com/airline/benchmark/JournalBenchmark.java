@@ -0,0 +1,104 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.persistence.BookingJournal;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.FlightService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+// Booking throughput in memory vs. with the write-ahead journal (with and without fsync), and the time
+// to recover a FlightService from a journal of --events records.
+// Run with: java -cp out com.airline.benchmark.JournalBenchmark [--threads=1,8,64] [--seconds=5] [--events=10000000]
+public class JournalBenchmark {
+    private static final int FLIGHTS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "threads", "1,8,64"));
+        double seconds = Double.parseDouble(FlightServiceBenchmark.option(args, "seconds", "5"));
+        int events = Integer.parseInt(FlightServiceBenchmark.option(args, "events", "10000000"));
+        BenchmarkRunner runner = new BenchmarkRunner(1, seconds);
+        Path directory = Files.createTempDirectory("journal-bench");
+
+        System.out.println(BenchmarkRunner.Result.header() + "  bookings/write");
+        for (int threads : threadCounts) {
+            for (String mode : new String[]{"in-memory", "journal (no fsync)", "journal (fsync)"}) {
+                Path file = directory.resolve("bench-" + threads + "-" + mode.hashCode() + ".journal");
+                BookingJournal journal = mode.equals("in-memory") ? null : BookingJournal.open(file, mode.endsWith("(fsync)"));
+                FlightService service = new FlightService(journal == null ? BookingLog.NONE : journal);
+                List<Flight> flights = new ScheduleGenerator(1, LocalDate.of(2024, 1, 1), 90).flights(FLIGHTS);
+                for (Flight flight : flights) {
+                    flight.setAvailableSeats(Integer.MAX_VALUE / 2);
+                    service.addFlight(flight);
+                }
+                List<BookingRequest> requests = new ScheduleGenerator(2, LocalDate.of(2024, 1, 1), 90)
+                        .bookings(flights, 1 << 16, 50_000);
+                long syncsBefore = journal == null ? 0 : journal.getSyncCount();
+                long appendsBefore = journal == null ? 0 : journal.getAppendCount();
+                BenchmarkRunner.Result result = runner.run("bookFlight " + mode, threads, new BenchmarkRunner.Operation<BookingRequest>() {
+                    private final int[] cursors = new int[threads * 16];
+
+                    @Override
+                    public BookingRequest prepare(int thread) {
+                        return requests.get((cursors[thread * 16]++ * 31 + thread * 7919) & ((1 << 16) - 1));
+                    }
+
+                    @Override
+                    public void run(int thread, BookingRequest request) {
+                        Reservation reservation = service.bookFlight(request.getCustomerName(), request.getFlight(), request.getSeats());
+                        if (reservation == null) {
+                            throw new IllegalStateException();
+                        }
+                    }
+                });
+                if (journal == null) {
+                    System.out.println(result);
+                } else {
+                    // Average group commit size over warm-up and measurement
+                    double syncs = journal.getSyncCount() - syncsBefore;
+                    System.out.printf("%s %15.1f%n", result, (journal.getAppendCount() - appendsBefore) / Math.max(1.0, syncs));
+                    journal.close();
+                    Files.delete(file);
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println("Recovery of " + events + " journal records:");
+        Path file = directory.resolve("recovery.journal");
+        try (BookingJournal journal = BookingJournal.open(file, false)) {
+            FlightService service = new FlightService(journal);
+            List<Flight> flights = new ScheduleGenerator(3, LocalDate.of(2024, 1, 1), 90).flights(FLIGHTS);
+            for (Flight flight : flights) {
+                flight.setAvailableSeats(Integer.MAX_VALUE / 2);
+                service.addFlight(flight);
+            }
+            List<BookingRequest> requests = new ScheduleGenerator(4, LocalDate.of(2024, 1, 1), 90)
+                    .bookings(flights, 1 << 16, 1_000_000);
+            long begin = System.nanoTime();
+            for (int i = FLIGHTS; i < events; i++) {
+                BookingRequest request = requests.get(i & ((1 << 16) - 1));
+                Reservation reservation = service.bookFlight(request.getCustomerName(), request.getFlight(), request.getSeats());
+                // Cancel every tenth booking so the journal has a realistic mix
+                if (i % 10 == 0 && ++i < events) {
+                    service.cancelReservation(reservation);
+                }
+            }
+            System.out.printf("  write: %.1f s, journal size %.1f MB%n",
+                    (System.nanoTime() - begin) / 1e9, Files.size(file) / 1e6);
+        }
+        long begin = System.nanoTime();
+        FlightService recovered = BookingJournal.recover(file, false);
+        System.out.printf("  recover: %.2f s, %d flights, %d live reservations%n",
+                (System.nanoTime() - begin) / 1e9, recovered.getAllFlights().size(), recovered.getAllReservations().size());
+        ((BookingJournal) recovered.getBookingLog()).close();
+        Files.delete(file);
+        Files.delete(directory);
+    }
+}
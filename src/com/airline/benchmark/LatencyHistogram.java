@@ -0,0 +1,62 @@
+package com.airline.benchmark;
+
+import com.airline.metrics.LogLinearBuckets;
+
+// Log-linear latency histogram in nanoseconds: power-of-two ranges split into 32 linear sub-buckets
+// (LogLinearBuckets), so recorded values keep about 3% relative precision. Not thread-safe; record per
+// thread and merge.
+public class LatencyHistogram {
+    private final long[] counts = new long[LogLinearBuckets.count(62)];
+    private long totalCount;
+    private long max;
+    private double sum;
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[LogLinearBuckets.index(nanos)]++;
+        totalCount++;
+        sum += nanos;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    // Upper bound of the bucket holding the given percentile (0-100)
+    public long percentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * totalCount);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(LogLinearBuckets.upperBound(i), max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,61 @@
+package com.airline.benchmark;
+
+import com.airline.metrics.ConcurrentHistogram;
+
+import java.lang.management.ManagementFactory;
+
+// What FlightService metrics cost: the searchFlights, bookFlight and cancelReservation scenarios of
+// FlightServiceBenchmark with recording on and off, plus the raw cost and allocation of one histogram record.
+// Run with: java -cp out com.airline.benchmark.MetricsOverheadBenchmark [--flights=100000] [--threads=1,4]
+//           [--warmup=2] [--seconds=5]
+public class MetricsOverheadBenchmark {
+    private static final FlightServiceBenchmark.Scenario[] SCENARIOS = {
+            FlightServiceBenchmark.Scenario.SEARCH, FlightServiceBenchmark.Scenario.BOOK, FlightServiceBenchmark.Scenario.CANCEL
+    };
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = Integer.parseInt(FlightServiceBenchmark.option(args, "flights", "100000"));
+        int[] threadCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "threads", "1,4"));
+        BenchmarkRunner runner = new BenchmarkRunner(Double.parseDouble(FlightServiceBenchmark.option(args, "warmup", "2")),
+                Double.parseDouble(FlightServiceBenchmark.option(args, "seconds", "5")));
+
+        recordCost();
+        System.out.println();
+        System.out.println("Inventory: " + size + " flights");
+        System.out.println(BenchmarkRunner.Result.header() + String.format(" %10s", "ops/s diff"));
+        for (int threads : threadCounts) {
+            for (FlightServiceBenchmark.Scenario scenario : SCENARIOS) {
+                BenchmarkRunner.Result off = run(runner, scenario, size, threads, false);
+                BenchmarkRunner.Result on = run(runner, scenario, size, threads, true);
+                System.out.println(off);
+                System.out.println(on + String.format(" %+9.1f%%", (on.throughput() / off.throughput() - 1) * 100));
+            }
+        }
+    }
+
+    private static BenchmarkRunner.Result run(BenchmarkRunner runner, FlightServiceBenchmark.Scenario scenario, int size,
+                                              int threads, boolean metrics) throws InterruptedException {
+        FlightServiceBenchmark.Fixture fixture = new FlightServiceBenchmark.Fixture(size, threads);
+        fixture.service.getMetrics().setEnabled(metrics);
+        return runner.run(scenario.label() + (metrics ? " (metrics on)" : " (metrics off)"), threads, scenario.operation(fixture));
+    }
+
+    // Nanoseconds and bytes allocated per ConcurrentHistogram.record on this thread
+    private static void recordCost() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int records = 20_000_000;
+        for (int i = 0; i < records; i++) {
+            histogram.record(i & 0xFFFFF);
+        }
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            histogram.record(i & 0xFFFFF);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        System.out.printf("ConcurrentHistogram.record: %.1f ns/op, %.3f bytes/op allocated%n",
+                (double) elapsed / records, (double) allocated / records);
+    }
+}
@@ -0,0 +1,68 @@
+package com.airline.benchmark;
+
+import com.airline.benchmark.ScheduleGenerator.SearchQuery;
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.replication.BookingCluster;
+import com.airline.replication.LocalTransport;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+// Read scaling and write cost of a BookingCluster as replicas are added, over the in-process transport.
+// Searches are spread over the replicas; bookings wait for every replica to acknowledge them.
+// Run with: java -cp out com.airline.benchmark.ReplicationBenchmark [--flights=10000] [--replicas=0,1,2,4]
+//           [--threads=8] [--warmup=2] [--seconds=5]
+public class ReplicationBenchmark {
+    private static final int SAMPLES = 1 << 14;
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = Integer.parseInt(FlightServiceBenchmark.option(args, "flights", "10000"));
+        int[] replicaCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "replicas", "0,1,2,4"));
+        int threads = Integer.parseInt(FlightServiceBenchmark.option(args, "threads", "8"));
+        BenchmarkRunner runner = new BenchmarkRunner(Double.parseDouble(FlightServiceBenchmark.option(args, "warmup", "2")),
+                Double.parseDouble(FlightServiceBenchmark.option(args, "seconds", "5")));
+
+        System.out.println("Inventory: " + size + " flights, " + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.println(BenchmarkRunner.Result.header());
+        for (int replicas : replicaCounts) {
+            ScheduleGenerator generator = new ScheduleGenerator(42, LocalDate.of(2024, 1, 1), 90);
+            List<Flight> flights = generator.flights(size);
+            SearchQuery[] queries = new SearchQuery[SAMPLES];
+            for (int i = 0; i < SAMPLES; i++) {
+                queries[i] = generator.query();
+            }
+            int[] cursors = new int[threads * 16]; // spaced out to avoid false sharing
+            try (BookingCluster cluster = new BookingCluster(new LocalTransport(), replicas, replicas,
+                    Duration.ofMinutes(10), Duration.ofSeconds(5))) {
+                for (Flight flight : flights) {
+                    cluster.writes().addFlight(flight);
+                }
+                System.out.println(runner.run("search, " + replicas + " replica(s)", threads, new BenchmarkRunner.Operation<SearchQuery>() {
+                    @Override
+                    public SearchQuery prepare(int thread) {
+                        return queries[(cursors[thread * 16]++ * 31 + thread * 7919) & (SAMPLES - 1)];
+                    }
+
+                    @Override
+                    public void run(int thread, SearchQuery query) {
+                        cluster.searchFlights(query.destination(), query.date());
+                    }
+                }));
+                System.out.println(runner.run("book+cancel, " + replicas + " replica(s)", threads, new BenchmarkRunner.Operation<Flight>() {
+                    @Override
+                    public Flight prepare(int thread) {
+                        return flights.get(Math.floorMod(cursors[thread * 16]++ * 31 + thread * 7919, flights.size()));
+                    }
+
+                    @Override
+                    public void run(int thread, Flight flight) {
+                        Reservation reservation = cluster.writes().bookFlight("Customer " + thread, flight, 1);
+                        cluster.writes().cancelReservation(reservation);
+                    }
+                }));
+            }
+        }
+    }
+}
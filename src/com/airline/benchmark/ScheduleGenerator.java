@@ -0,0 +1,159 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.ReservationIdGenerator;
+import com.airline.service.BookingRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Builds synthetic flight schedules and booking mixes for benchmarks and load tests.
+// Destination popularity and customer activity follow a Zipf-like skew, departures cluster in
+// morning and evening banks, and capacities come from a small set of aircraft types.
+public class ScheduleGenerator {
+    public static final String[] DESTINATIONS = {
+            "New York", "London", "Dubai", "Paris", "Singapore", "Tokyo", "Los Angeles", "Frankfurt",
+            "Hong Kong", "Amsterdam", "Istanbul", "Chicago", "Madrid", "Bangkok", "Seoul", "Toronto",
+            "Sydney", "Delhi", "Mumbai", "Rome", "Berlin", "Doha", "Munich", "Zurich", "Barcelona",
+            "San Francisco", "Miami", "Atlanta", "Dallas", "Beijing", "Shanghai", "Kuala Lumpur",
+            "Jakarta", "Manila", "Mexico City", "Sao Paulo", "Buenos Aires", "Johannesburg", "Cairo",
+            "Lisbon", "Vienna", "Copenhagen", "Stockholm", "Oslo", "Helsinki", "Dublin", "Athens",
+            "Warsaw", "Prague", "Brussels", "Vancouver", "Boston", "Seattle", "Denver", "Melbourne",
+            "Auckland", "Riyadh", "Nairobi", "Lagos", "Lima"
+    };
+    private static final String[] AIRLINES = {"AA", "BA", "LH", "EK", "SQ", "AF", "KL", "QR", "DL", "UA", "NH", "CX"};
+    private static final int[] CAPACITIES = {70, 150, 180, 220, 300, 350, 400};
+    private static final int[] BANK_HOURS = {6, 7, 8, 9, 12, 15, 17, 18, 19, 21};
+
+    private final Random random;
+    private final LocalDate firstDay;
+    private final int days;
+    private final double[] destinationWeights;
+
+    public ScheduleGenerator(long seed, LocalDate firstDay, int days) {
+        this.random = new Random(seed);
+        this.firstDay = firstDay;
+        this.days = days;
+        this.destinationWeights = zipfCumulative(DESTINATIONS.length, 1.0);
+    }
+
+    public List<Flight> flights(int count) {
+        List<Flight> flights = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String airline = AIRLINES[random.nextInt(AIRLINES.length)];
+            String destination = DESTINATIONS[pick(destinationWeights)];
+            LocalDateTime departure = firstDay.plusDays(random.nextInt(days))
+                    .atTime(BANK_HOURS[random.nextInt(BANK_HOURS.length)], random.nextInt(12) * 5);
+            int capacity = CAPACITIES[random.nextInt(CAPACITIES.length)];
+            flights.add(new Flight(airline + i, destination, departure, capacity));
+        }
+        return flights;
+    }
+
+    // Hub-and-spoke network: spokes connect to a couple of hubs, hubs connect to each other.
+    // Airports are named HUB1.. and S001..; block times are 1 to 4 hours.
+    public List<Flight> hubAndSpokeFlights(int count, int hubs, int spokes) {
+        List<Flight> flights = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int kind = random.nextInt(10);
+            String origin;
+            String destination;
+            if (kind < 2 && hubs > 1) {
+                int from = random.nextInt(hubs);
+                int to = (from + 1 + random.nextInt(hubs - 1)) % hubs;
+                origin = hubName(from);
+                destination = hubName(to);
+            } else {
+                int spoke = random.nextInt(spokes);
+                // Each spoke is served by two hubs
+                String hub = hubName((spoke + random.nextInt(2)) % hubs);
+                boolean outbound = kind % 2 == 0;
+                origin = outbound ? hub : spokeName(spoke);
+                destination = outbound ? spokeName(spoke) : hub;
+            }
+            LocalDateTime departure = firstDay.plusDays(random.nextInt(days)).atTime(random.nextInt(24), random.nextInt(12) * 5);
+            LocalDateTime arrival = departure.plusMinutes(60 + random.nextInt(180));
+            flights.add(new Flight(AIRLINES[random.nextInt(AIRLINES.length)] + i, origin, destination, departure, arrival,
+                    CAPACITIES[random.nextInt(CAPACITIES.length)]));
+        }
+        return flights;
+    }
+
+    public static String hubName(int hub) {
+        return "HUB" + (hub + 1);
+    }
+
+    public static String spokeName(int spoke) {
+        return "S" + ReservationIdGenerator.format("", spoke, 3);
+    }
+
+    // A stream of booking requests against the given flights; popular flights and frequent customers dominate
+    public List<BookingRequest> bookings(List<Flight> flights, int count, int customers) {
+        double[] customerWeights = zipfCumulative(Math.min(customers, 100_000), 0.8);
+        List<BookingRequest> bookings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int customer = customers > customerWeights.length ? random.nextInt(customers) : pick(customerWeights);
+            Flight flight = flights.get(skewedIndex(flights.size()));
+            bookings.add(new BookingRequest(customerName(customer), flight, groupSize()));
+        }
+        return bookings;
+    }
+
+    // Queries weighted the same way as the schedule, so popular destinations get most of the traffic
+    public SearchQuery query() {
+        return new SearchQuery(DESTINATIONS[pick(destinationWeights)], firstDay.plusDays(random.nextInt(days)));
+    }
+
+    public static String customerName(int customer) {
+        return "Customer " + customer;
+    }
+
+    // Mostly solo travellers and couples, occasionally families and small groups
+    private int groupSize() {
+        int roll = random.nextInt(100);
+        if (roll < 60) return 1;
+        if (roll < 85) return 2;
+        if (roll < 95) return 3 + random.nextInt(2);
+        return 5 + random.nextInt(6);
+    }
+
+    private int skewedIndex(int size) {
+        // Squaring a uniform draw concentrates traffic on the first part of the list
+        double u = random.nextDouble();
+        return (int) (u * u * size);
+    }
+
+    private int pick(double[] cumulative) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static double[] zipfCumulative(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1.0 / Math.pow(i + 1, exponent);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    public record SearchQuery(String destination, LocalDate date) {
+    }
+}
@@ -0,0 +1,89 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.persistence.ScheduleImporter;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+// Time to load a season's schedule: parsing CSV line by line with String.split and LocalDateTime.parse vs.
+// the memory-mapped parallel importer, the binary format, and indexing one addFlight at a time vs. addFlights.
+// Run with: java -Xmx3g -cp out com.airline.benchmark.ScheduleImportBenchmark [--legs=1000000]
+public class ScheduleImportBenchmark {
+    public static void main(String[] args) throws IOException {
+        int legs = Integer.parseInt(FlightServiceBenchmark.option(args, "legs", "1000000"));
+        Path directory = Files.createTempDirectory("schedule-bench");
+        Path csv = directory.resolve("schedule.csv");
+        Path binary = directory.resolve("schedule.bin");
+        List<Flight> schedule = new ScheduleGenerator(7, LocalDate.of(2024, 4, 1), 180).hubAndSpokeFlights(legs, 12, 600);
+        ScheduleImporter.writeCsv(csv, schedule);
+        ScheduleImporter.writeBinary(binary, schedule);
+        schedule = null;
+        System.out.printf("%d legs: CSV %.1f MB, binary %.1f MB%n", legs, Files.size(csv) / 1e6, Files.size(binary) / 1e6);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        for (int round = 0; round < 2; round++) {
+            // The first round warms up the JIT
+            String label = round == 0 ? "warm-up" : "measured";
+            time(label + " CSV, split + LocalDateTime.parse", () -> naiveCsv(csv).size());
+            time(label + " CSV, importer on 1 thread", () -> ScheduleImporter.read(csv, single).size());
+            time(label + " CSV, importer on the common pool (" + ForkJoinPool.getCommonPoolParallelism() + ")",
+                    () -> ScheduleImporter.read(csv).size());
+            time(label + " binary, importer", () -> ScheduleImporter.read(binary).size());
+        }
+        single.shutdown();
+
+        List<Flight> flights = ScheduleImporter.read(binary);
+        time("addFlight one at a time", () -> {
+            FlightService service = new FlightService(BookingLog.NONE);
+            for (Flight flight : flights) {
+                service.addFlight(flight);
+            }
+            return service.getAllFlights().size();
+        });
+        List<Flight> fresh = ScheduleImporter.read(binary);
+        time("addFlights in one batch", () -> {
+            FlightService service = new FlightService(BookingLog.NONE);
+            service.addFlights(fresh);
+            return service.getAllFlights().size();
+        });
+        time("CSV file to indexed service", () -> ScheduleImporter.load(csv, new FlightService(BookingLog.NONE)));
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static List<Flight> naiveCsv(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        List<Flight> flights = new ArrayList<>(lines.size());
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = line.split(",", -1);
+            flights.add(new Flight(fields[0], fields[1].isEmpty() ? null : fields[1], fields[2], LocalDateTime.parse(fields[3]),
+                    fields[4].isEmpty() ? null : LocalDateTime.parse(fields[4]), Integer.parseInt(fields[5])));
+        }
+        return flights;
+    }
+
+    private static void time(String label, Step step) throws IOException {
+        System.gc();
+        long begin = System.nanoTime();
+        int count = step.run();
+        System.out.printf("%-45s %8.0f ms (%d flights)%n", label, (System.nanoTime() - begin) / 1e6, count);
+    }
+
+    private interface Step {
+        int run() throws IOException;
+    }
+}
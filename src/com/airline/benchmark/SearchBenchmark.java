@@ -0,0 +1,84 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Compares the original full-list stream scan with the indexed FlightService search.
+// Run with: java -cp out com.airline.benchmark.SearchBenchmark
+public class SearchBenchmark {
+    private static final int QUERIES = 2_000;
+
+    public static void main(String[] args) {
+        int[] sizes = {10_000, 100_000, 1_000_000};
+        System.out.printf("%-10s %18s %18s %10s%n", "flights", "scan (us/query)", "index (us/query)", "speedup");
+        for (int size : sizes) {
+            ScheduleGenerator generator = new ScheduleGenerator(42, LocalDate.of(2024, 1, 1), 365);
+            List<Flight> flights = generator.flights(size);
+            FlightService service = new FlightService(BookingLog.NONE);
+            for (Flight flight : flights) {
+                service.addFlight(flight);
+            }
+            String[] destinations = new String[QUERIES];
+            LocalDate[] dates = new LocalDate[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                ScheduleGenerator.SearchQuery query = generator.query();
+                destinations[i] = query.destination();
+                dates[i] = query.date();
+            }
+
+            // The scan is linear in the inventory size, so give it fewer iterations at 1M
+            int scanQueries = Math.max(20, QUERIES * 10_000 / size);
+            double scan = measure(() -> {
+                long found = 0;
+                for (int i = 0; i < scanQueries; i++) {
+                    found += scan(flights, destinations[i], dates[i]).size();
+                }
+                return found;
+            }, scanQueries);
+            double index = measure(() -> {
+                long found = 0;
+                for (int i = 0; i < QUERIES; i++) {
+                    found += service.searchFlights(destinations[i], dates[i]).size();
+                }
+                return found;
+            }, QUERIES);
+            System.out.printf("%-10d %18.2f %18.2f %9.0fx%n", size, scan, index, scan / index);
+        }
+    }
+
+    // The search as it was before the index: a stream over every flight for every query
+    static List<Flight> scan(List<Flight> flights, String destination, LocalDate date) {
+        return flights.stream()
+                .filter(flight -> flight.getDestination().equalsIgnoreCase(destination))
+                .filter(flight -> flight.getDepartureTime().toLocalDate().equals(date))
+                .filter(flight -> flight.getAvailableSeats() > 0)
+                .collect(Collectors.toList());
+    }
+
+    // Returns the mean microseconds per operation after a warm-up pass
+    private static double measure(Workload workload, int operations) {
+        long sink = 0;
+        for (int i = 0; i < 3; i++) {
+            sink += workload.run();
+        }
+        int rounds = 5;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            sink += workload.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return elapsed / 1_000.0 / rounds / operations;
+    }
+
+    interface Workload {
+        long run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import com.airline.service.SearchCache;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+// searchFlights with the result cache off and on under Zipf-distributed queries: destination and date pairs
+// are ranked in random order and the pair at rank r is asked for in proportion to 1 / r^skew. The mixed
+// runs make every 20th call a booking or the cancellation of the thread's previous one, so flights sell
+// out and come back and entries get invalidated while searches run.
+// Run with: java -cp out com.airline.benchmark.SearchCacheBenchmark [--flights=100000,1000000] [--threads=1,4]
+//           [--skew=0.8,1.0,1.2] [--warmup=2] [--seconds=5]
+public class SearchCacheBenchmark {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+    private static final int DAYS = 365;
+    private static final int SAMPLES = 1 << 16;
+    private static final int WRITE_EVERY = 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] sizes = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "flights", "100000,1000000"));
+        int[] threadCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "threads", "1,4"));
+        String[] skews = FlightServiceBenchmark.option(args, "skew", "0.8,1.0,1.2").split(",");
+        BenchmarkRunner runner = new BenchmarkRunner(Double.parseDouble(FlightServiceBenchmark.option(args, "warmup", "2")),
+                Double.parseDouble(FlightServiceBenchmark.option(args, "seconds", "5")));
+
+        int pairs = ScheduleGenerator.DESTINATIONS.length * DAYS;
+        for (int size : sizes) {
+            System.out.println();
+            System.out.printf("Inventory: %d flights, %d destination/date pairs, cache capacity %d%n",
+                    size, pairs, SearchCache.DEFAULT_CAPACITY);
+            System.out.println(BenchmarkRunner.Result.header() + String.format(" %9s", "hit ratio"));
+            for (String skew : skews) {
+                Workload workload = new Workload(Double.parseDouble(skew.trim()), pairs, size);
+                for (int threads : threadCounts) {
+                    for (boolean writes : new boolean[]{false, true}) {
+                        for (boolean cached : new boolean[]{false, true}) {
+                            run(runner, workload, size, threads, writes, cached, skew.trim());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void run(BenchmarkRunner runner, Workload workload, int size, int threads, boolean writes, boolean cached,
+                            String skew) throws InterruptedException {
+        FlightService service = new FlightService(BookingLog.NONE);
+        service.addFlights(new ScheduleGenerator(42, FIRST_DAY, DAYS).flights(size));
+        service.getSearchCache().setEnabled(cached);
+        String name = String.format("s=%s %s%s", skew, writes ? "mixed" : "search", cached ? " cached" : "");
+        BenchmarkRunner.Result result = runner.run(name, threads, workload.operation(service, threads, writes));
+        System.out.println(result + (cached ? String.format(" %8.1f%%", service.getSearchCache().getHitRatio() * 100) : ""));
+    }
+
+    private static final class Workload {
+        private final String[] destinations = new String[SAMPLES];
+        private final LocalDate[] dates = new LocalDate[SAMPLES];
+        private final int[] bookings = new int[SAMPLES];
+
+        Workload(double skew, int pairs, int flights) {
+            Random random = new Random(7);
+            int[] ranking = new int[pairs];
+            for (int i = 0; i < pairs; i++) {
+                ranking[i] = i;
+            }
+            for (int i = pairs - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = ranking[i];
+                ranking[i] = ranking[j];
+                ranking[j] = swap;
+            }
+            double[] cumulative = ScheduleGenerator.zipfCumulative(pairs, skew);
+            for (int i = 0; i < SAMPLES; i++) {
+                int pair = ranking[rank(cumulative, random.nextDouble())];
+                destinations[i] = ScheduleGenerator.DESTINATIONS[pair / DAYS];
+                dates[i] = FIRST_DAY.plusDays(pair % DAYS);
+                bookings[i] = random.nextInt(flights);
+            }
+        }
+
+        BenchmarkRunner.Operation<Integer> operation(FlightService service, int threads, boolean writes) {
+            List<Flight> schedule = service.getAllFlights();
+            int[] cursors = new int[threads * 16];
+            Reservation[] lastBooked = new Reservation[threads];
+            return new BenchmarkRunner.Operation<>() {
+                @Override
+                public Integer prepare(int thread) {
+                    return cursors[thread * 16]++;
+                }
+
+                @Override
+                public void run(int thread, Integer call) {
+                    int sample = (call * 31 + thread * 7919) & (SAMPLES - 1);
+                    if (writes && call % WRITE_EVERY == 0) {
+                        Reservation previous = lastBooked[thread];
+                        if (previous != null) {
+                            service.cancelReservation(previous);
+                            lastBooked[thread] = null;
+                        } else {
+                            try {
+                                lastBooked[thread] = service.bookFlight("Searcher " + thread, schedule.get(bookings[sample]), 5);
+                            } catch (IllegalArgumentException soldOut) {
+                                // Ignore
+                            }
+                        }
+                        return;
+                    }
+                    service.searchFlights(destinations[sample], dates[sample]);
+                }
+            };
+        }
+
+        private static int rank(double[] cumulative, double u) {
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
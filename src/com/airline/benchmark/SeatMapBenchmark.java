@@ -0,0 +1,151 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.model.SeatMap;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Seat allocation latency on a 400-seat widebody: adjacent-first allocation by group size, specific-seat
+// claims, and whole flights sold seat by seat through FlightService by several threads at once.
+// Run with: java -cp out com.airline.benchmark.SeatMapBenchmark [--flights=2000] [--threads=1,4]
+public class SeatMapBenchmark {
+    // 60 business seats in 2-2-2 and 340 economy seats in 3-4-3
+    static final String WIDEBODY = "J1-10:AC-DG-HK;Y20-53:ABC-DEFG-HJK@20,35";
+    private static final int[] GROUP_SIZES = {1, 1, 1, 1, 2, 2, 2, 3, 4, 6};
+
+    public static void main(String[] args) throws InterruptedException {
+        int flights = Integer.parseInt(FlightServiceBenchmark.option(args, "flights", "2000"));
+        int[] threadCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "threads", "1,4"));
+        System.out.printf("layout %s, %d seats%n", WIDEBODY, new SeatMap(WIDEBODY).getSeatCount());
+
+        // Warm up, then measure on fresh maps
+        allocateAll(flights / 4);
+        LatencyHistogram allocate = allocateAll(flights);
+        claimAll(flights / 4);
+        LatencyHistogram claim = claimAll(flights);
+        System.out.printf("%-34s %10s %10s %10s %10s%n", "operation", "count", "mean (us)", "p50 (us)", "p99 (us)");
+        print("allocate (adjacent first)", allocate);
+        print("claim specific seats", claim);
+
+        System.out.printf("%n%-10s %16s %16s%n", "threads", "bookings/s", "us/flight sold");
+        for (int threads : threadCounts) {
+            sellOut(threads, flights / 10);
+            double[] result = sellOut(threads, flights);
+            System.out.printf("%-10d %16.0f %16.1f%n", threads, result[0], result[1]);
+        }
+    }
+
+    // Fills maps with a mix of group sizes until each is full, timing every allocation
+    private static LatencyHistogram allocateAll(int flights) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(7);
+        for (int f = 0; f < flights; f++) {
+            SeatMap seatMap = new SeatMap(WIDEBODY);
+            while (seatMap.getAvailableSeatCount() > 0) {
+                int size = Math.min(GROUP_SIZES[random.nextInt(GROUP_SIZES.length)], seatMap.getAvailableSeatCount());
+                long start = System.nanoTime();
+                List<String> seats = seatMap.allocate(size, null);
+                histogram.record(System.nanoTime() - start);
+                if (seats == null) {
+                    throw new IllegalStateException("Allocation failed with " + seatMap.getAvailableSeatCount() + " seats free");
+                }
+            }
+        }
+        return histogram;
+    }
+
+    // Claims every seat in random order in pairs from the same row, as seat pickers would
+    private static LatencyHistogram claimAll(int flights) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(11);
+        List<List<String>> pairs = new ArrayList<>();
+        for (int row = 20; row <= 53; row++) {
+            for (String pair : new String[]{"AB", "DE", "FG", "HJ"}) {
+                pairs.add(List.of(row + pair.substring(0, 1), row + pair.substring(1)));
+            }
+        }
+        for (int f = 0; f < flights; f++) {
+            SeatMap seatMap = new SeatMap(WIDEBODY);
+            Collections.shuffle(pairs, random);
+            for (List<String> pair : pairs) {
+                long start = System.nanoTime();
+                boolean claimed = seatMap.claim(pair);
+                histogram.record(System.nanoTime() - start);
+                if (!claimed) {
+                    throw new IllegalStateException("Seats already taken: " + pair);
+                }
+            }
+        }
+        return histogram;
+    }
+
+    // Threads book groups on the same flight through FlightService until it is sold out, flight after flight.
+    // Returns bookings per second and microseconds per flight sold
+    private static double[] sellOut(int threads, int flights) throws InterruptedException {
+        FlightService service = new FlightService(BookingLog.NONE);
+        List<Flight> seated = new ArrayList<>(flights);
+        for (int f = 0; f < flights; f++) {
+            Flight flight = new Flight("SB" + threads + "-" + f, "London", LocalDateTime.of(2024, 1, 1, 9, 0), 400);
+            flight.setSeatMap(new SeatMap(WIDEBODY));
+            service.addFlight(flight);
+            seated.add(flight);
+        }
+        AtomicLong bookings = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(seed);
+                long booked = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (Flight flight : seated) {
+                    while (flight.getAvailableSeats() > 0) {
+                        int size = Math.min(GROUP_SIZES[random.nextInt(GROUP_SIZES.length)], flight.getAvailableSeats());
+                        try {
+                            Reservation reservation = service.bookFlight("Customer " + seed, flight, size);
+                            if (reservation.getSeatNumbers().size() == size) {
+                                booked++;
+                            }
+                        } catch (IllegalArgumentException raced) {
+                            // Another thread took the last seats first
+                        }
+                    }
+                }
+                bookings.addAndGet(booked);
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - began;
+        for (Flight flight : seated) {
+            if (flight.getSeatMap().getAvailableSeatCount() != 0) {
+                throw new IllegalStateException("Seat map and seat count disagree on " + flight.getFlightNumber());
+            }
+        }
+        return new double[]{bookings.get() / (elapsed / 1e9), elapsed / 1_000.0 / flights};
+    }
+
+    private static void print(String name, LatencyHistogram histogram) {
+        System.out.printf("%-34s %10d %10.2f %10.2f %10.2f%n", name, histogram.getTotalCount(), histogram.getMean() / 1_000.0,
+                histogram.percentile(50) / 1_000.0, histogram.percentile(99) / 1_000.0);
+    }
+}
@@ -0,0 +1,88 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.FlightService;
+import com.airline.service.ShardedFlightService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Booking throughput of ShardedFlightService at growing shard counts against one shared FlightService.
+// Each operation books a seat and cancels it again so inventory never runs dry; clients block on the result.
+// Scaling with shard count needs at least as many free cores as shards.
+// Run with: java -cp out com.airline.benchmark.ShardBenchmark [--flights=10000] [--shards=1,2,4,8]
+//           [--threads=16] [--warmup=2] [--seconds=5]
+public class ShardBenchmark {
+    private static final int SAMPLES = 1 << 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        int size = Integer.parseInt(FlightServiceBenchmark.option(args, "flights", "10000"));
+        int[] shardCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "shards", "1,2,4,8"));
+        int threads = Integer.parseInt(FlightServiceBenchmark.option(args, "threads", "16"));
+        BenchmarkRunner runner = new BenchmarkRunner(Double.parseDouble(FlightServiceBenchmark.option(args, "warmup", "2")),
+                Double.parseDouble(FlightServiceBenchmark.option(args, "seconds", "5")));
+
+        List<Flight> flights = schedule(size);
+        List<BookingRequest> bookings = new ScheduleGenerator(7, LocalDate.of(2024, 1, 1), 90).bookings(flights, SAMPLES, 50_000);
+        Map<Flight, Integer> positions = new HashMap<>();
+        for (int i = 0; i < flights.size(); i++) {
+            positions.put(flights.get(i), i);
+        }
+        int[] picks = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            picks[i] = positions.get(bookings.get(i).getFlight());
+        }
+        int[] cursors = new int[threads * 16]; // spaced out to avoid false sharing
+
+        System.out.println("Inventory: " + size + " flights, " + Runtime.getRuntime().availableProcessors() + " cores");
+        System.out.println(BenchmarkRunner.Result.header() + String.format(" %10s", "vs shared"));
+        FlightService shared = new FlightService(BookingLog.NONE);
+        flights.forEach(shared::addFlight);
+        BenchmarkRunner.Result baseline = runner.run("shared FlightService", threads, new BenchmarkRunner.Operation<Flight>() {
+            @Override
+            public Flight prepare(int thread) {
+                return flights.get(picks[(cursors[thread * 16]++ * 31 + thread * 7919) & (SAMPLES - 1)]);
+            }
+
+            @Override
+            public void run(int thread, Flight flight) {
+                shared.cancelReservation(shared.bookFlight("Customer " + thread, flight, 1));
+            }
+        });
+        System.out.println(baseline);
+
+        for (int shardCount : shardCounts) {
+            // A flight reports to one service at a time, so each run gets its own copy of the schedule
+            List<Flight> copies = schedule(size);
+            try (ShardedFlightService sharded = new ShardedFlightService(shardCount)) {
+                List<CompletableFuture<Void>> added = new ArrayList<>();
+                for (Flight flight : copies) {
+                    added.add(sharded.addFlight(flight));
+                }
+                added.forEach(CompletableFuture::join);
+                BenchmarkRunner.Result result = runner.run(shardCount + " shard(s)", threads, new BenchmarkRunner.Operation<Flight>() {
+                    @Override
+                    public Flight prepare(int thread) {
+                        return copies.get(picks[(cursors[thread * 16]++ * 31 + thread * 7919) & (SAMPLES - 1)]);
+                    }
+
+                    @Override
+                    public void run(int thread, Flight flight) {
+                        sharded.bookFlight("Customer " + thread, flight, 1).thenCompose(sharded::cancelReservation).join();
+                    }
+                });
+                System.out.println(result + String.format(" %9.2fx", result.throughput() / baseline.throughput()));
+            }
+        }
+    }
+
+    private static List<Flight> schedule(int size) {
+        return new ScheduleGenerator(42, LocalDate.of(2024, 1, 1), 90).flights(size);
+    }
+}
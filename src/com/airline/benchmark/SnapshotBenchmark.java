@@ -0,0 +1,80 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.persistence.BookingJournal;
+import com.airline.persistence.SnapshotManager;
+import com.airline.service.BookingRequest;
+import com.airline.service.FlightService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Snapshot size and write time, and cold-start time from the full journal vs. snapshot plus journal tail.
+// Run with: java -cp out com.airline.benchmark.SnapshotBenchmark [--events=5000000] [--tail=50000]
+public class SnapshotBenchmark {
+    private static final int FLIGHTS = 10_000;
+
+    public static void main(String[] args) throws IOException {
+        int events = Integer.parseInt(FlightServiceBenchmark.option(args, "events", "5000000"));
+        int tail = Integer.parseInt(FlightServiceBenchmark.option(args, "tail", "50000"));
+        Path directory = Files.createTempDirectory("snapshot-bench");
+        Path journalFile = directory.resolve("bookings.journal");
+        Path snapshotDirectory = directory.resolve("snapshots");
+
+        FlightService service = BookingJournal.recover(journalFile, false);
+        BookingJournal journal = (BookingJournal) service.getBookingLog();
+        List<Flight> flights = new ScheduleGenerator(1, LocalDate.of(2024, 1, 1), 90).flights(FLIGHTS);
+        for (Flight flight : flights) {
+            flight.setAvailableSeats(Integer.MAX_VALUE / 2);
+            service.addFlight(flight);
+        }
+        List<BookingRequest> requests = new ScheduleGenerator(2, LocalDate.of(2024, 1, 1), 90)
+                .bookings(flights, 1 << 16, 1_000_000);
+        writeEvents(service, requests, events - tail);
+
+        SnapshotManager snapshots = new SnapshotManager(journal, snapshotDirectory);
+        SnapshotManager.SnapshotStats stats = snapshots.snapshot();
+        System.out.println(stats);
+        System.out.printf("Journal size at snapshot: %.1f MB%n", stats.journalPosition() / 1e6);
+        // A second snapshot only has to apply the journal written since the first
+        writeEvents(service, requests, tail);
+        System.out.println("Incremental: " + snapshots.snapshot());
+        writeEvents(service, requests, tail);
+        journal.close();
+        snapshots.close();
+
+        long begin = System.nanoTime();
+        FlightService fromJournal = BookingJournal.recover(journalFile, false);
+        double fullReplay = (System.nanoTime() - begin) / 1e9;
+        ((BookingJournal) fromJournal.getBookingLog()).close();
+        fromJournal = null;
+
+        begin = System.nanoTime();
+        FlightService fromSnapshot = SnapshotManager.recover(journalFile, snapshotDirectory, false);
+        double snapshotStart = (System.nanoTime() - begin) / 1e9;
+        System.out.printf("Cold start: full journal replay %.2f s, snapshot + %d-event tail %.2f s (%d reservations)%n",
+                fullReplay, tail, snapshotStart, fromSnapshot.getAllReservations().size());
+        ((BookingJournal) fromSnapshot.getBookingLog()).close();
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    // Books through the journal, cancelling every tenth booking
+    private static void writeEvents(FlightService service, List<BookingRequest> requests, int count) {
+        for (int i = 0; i < count; i++) {
+            BookingRequest request = requests.get(i & ((1 << 16) - 1));
+            Reservation reservation = service.bookFlight(request.getCustomerName(), request.getFlight(), request.getSeats());
+            if (i % 10 == 0 && ++i < count) {
+                service.cancelReservation(reservation);
+            }
+        }
+    }
+}
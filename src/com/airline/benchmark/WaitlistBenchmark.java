@@ -0,0 +1,98 @@
+package com.airline.benchmark;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// cancelReservation on full flights whose waitlists hold 0 to 100,000 entries. Each cancellation frees a
+// seat that goes straight to the front of the waitlist; an untimed step before each call tops the list
+// back up (or, with no waitlist, books the seat again) so the flights stay full and the lists keep their
+// length. The cost should not grow with the list.
+// Run with: java -cp out com.airline.benchmark.WaitlistBenchmark [--waiting=0,1000,100000] [--threads=1,4]
+//           [--warmup=2] [--seconds=5]
+public class WaitlistBenchmark {
+    private static final int FLIGHTS = 64;
+    private static final int CAPACITY = 200;
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] lengths = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "waiting", "0,1000,100000"));
+        int[] threadCounts = FlightServiceBenchmark.intList(FlightServiceBenchmark.option(args, "threads", "1,4"));
+        BenchmarkRunner runner = new BenchmarkRunner(Double.parseDouble(FlightServiceBenchmark.option(args, "warmup", "2")),
+                Double.parseDouble(FlightServiceBenchmark.option(args, "seconds", "5")));
+
+        System.out.println(BenchmarkRunner.Result.header());
+        for (int threads : threadCounts) {
+            for (int length : lengths) {
+                Fixture fixture = new Fixture(length);
+                System.out.println(runner.run("cancel, " + length + " waiting", threads, fixture.operation(threads)));
+                // The last cancellation of a run is never topped up, so a flight may end one seat short
+                for (Flight flight : fixture.flights) {
+                    if (fixture.service.getFlightReservations(flight).size() > CAPACITY || flight.getAvailableSeats() < 0) {
+                        throw new IllegalStateException("Flight " + flight.getFlightNumber() + " was oversold");
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Fixture {
+        final FlightService service = new FlightService(BookingLog.NONE);
+        final List<Flight> flights = new ArrayList<>();
+        // Reservations on each flight, oldest first; the next one cancelled is taken from the front
+        final List<ConcurrentLinkedQueue<Reservation>> booked = new ArrayList<>();
+        final boolean waitlisted;
+
+        Fixture(int waiting) {
+            waitlisted = waiting > 0;
+            LocalDateTime departure = LocalDateTime.of(2024, 9, 1, 8, 0);
+            for (int f = 0; f < FLIGHTS; f++) {
+                Flight flight = new Flight("WL" + f, "Denver", departure.plusHours(f), CAPACITY);
+                service.addFlight(flight);
+                flights.add(flight);
+                ConcurrentLinkedQueue<Reservation> reservations = new ConcurrentLinkedQueue<>();
+                for (int seat = 0; seat < CAPACITY; seat++) {
+                    reservations.add(service.bookFlight("Passenger " + seat, flight, 1));
+                }
+                booked.add(reservations);
+                for (int i = 0; i < waiting / FLIGHTS; i++) {
+                    join(f, i);
+                }
+            }
+        }
+
+        // The entry's booking lands at the back of the flight's queue when a cancellation serves it
+        private void join(int flight, int customer) {
+            service.joinWaitlist("Standby " + customer, flights.get(flight), 1, customer % 3)
+                    .getReservation().thenAccept(booked.get(flight)::add);
+        }
+
+        BenchmarkRunner.Operation<Reservation> operation(int threads) {
+            int[] cursors = new int[threads * 16];
+            return new BenchmarkRunner.Operation<>() {
+                @Override
+                public Reservation prepare(int thread) {
+                    // Threads work on separate flights, so each flight's queue has one consumer
+                    int call = cursors[thread * 16]++;
+                    int flight = thread + (call % (FLIGHTS / threads)) * threads;
+                    if (waitlisted) {
+                        join(flight, call);
+                    } else if (flights.get(flight).getAvailableSeats() > 0) {
+                        booked.get(flight).add(service.bookFlight("Rebooked " + call, flights.get(flight), 1));
+                    }
+                    return booked.get(flight).poll();
+                }
+
+                @Override
+                public void run(int thread, Reservation reservation) {
+                    service.cancelReservation(reservation);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.airline.http;
+
+import com.airline.service.FlightService;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+// Embedded HTTP/1.1 JSON server for FlightService (routes are listed in BookingRoutes).
+// An acceptor thread hands connections round-robin to a few NIO event loops; each loop reads, handles and
+// writes its connections without blocking on slow clients. Connections are kept alive and pipelined
+// requests are answered in order. Service calls run on the event loop, so a loop waits while the
+// booking journal syncs; use more loops than cores when the journal fsyncs.
+// Run standalone with sample flights: java -cp out com.airline.http.BookingHttpServer [port]
+public class BookingHttpServer implements AutoCloseable {
+    private final BookingRoutes routes;
+    private final ServerSocketChannel serverChannel;
+    private final List<EventLoop> eventLoops = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final LongAdder failures = new LongAdder();
+    private volatile IOException lastFailure;
+    private volatile boolean running = true;
+
+    public BookingHttpServer(FlightService flightService, InetSocketAddress address, int eventLoopCount) throws IOException {
+        if (eventLoopCount <= 0) {
+            throw new IllegalArgumentException("At least one event loop is required. Requested: " + eventLoopCount);
+        }
+        this.routes = new BookingRoutes(flightService);
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        for (int i = 0; i < eventLoopCount; i++) {
+            eventLoops.add(new EventLoop());
+        }
+    }
+
+    public BookingHttpServer start() {
+        for (int i = 0; i < eventLoops.size(); i++) {
+            threads.add(startThread(eventLoops.get(i), "http-loop-" + i));
+        }
+        threads.add(startThread(this::acceptLoop, "http-acceptor"));
+        return this;
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    // Accepts and event loops that failed; a failed accept is retried, a failed event loop drops its connections and stops
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    // The most recent of those failures, or null if there was none
+    public IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    private void failed(IOException e) {
+        lastFailure = e;
+        failures.increment();
+    }
+
+    private static Thread startThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.start();
+        return thread;
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (running) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                eventLoops.get(next++ % eventLoops.size()).assign(channel);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!running) {
+                    return;
+                }
+                failed(e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverChannel.close();
+        for (EventLoop loop : eventLoops) {
+            loop.selector.wakeup();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Queue<SocketChannel> assigned = new ConcurrentLinkedQueue<>();
+        // Shared by all connections on this loop; bytes are copied into the connection's buffer
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(64 * 1024);
+
+        EventLoop() throws IOException {
+            this.selector = Selector.open();
+        }
+
+        void assign(SocketChannel channel) {
+            assigned.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    selector.select();
+                    registerAssigned();
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        try {
+                            if (key.isReadable()) {
+                                read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(key);
+                            }
+                        } catch (IOException e) {
+                            closeConnection(key);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (running) {
+                    failed(e);
+                }
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    closeConnection(key);
+                }
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                    // Shutting down anyway
+                }
+            }
+        }
+
+        private void registerAssigned() throws IOException {
+            SocketChannel channel;
+            while ((channel = assigned.poll()) != null) {
+                channel.register(selector, SelectionKey.OP_READ, new HttpConnection(channel));
+            }
+        }
+
+        private void read(SelectionKey key) throws IOException {
+            HttpConnection connection = (HttpConnection) key.attachment();
+            readBuffer.clear();
+            int count = connection.channel.read(readBuffer);
+            if (count < 0) {
+                closeConnection(key);
+                return;
+            }
+            readBuffer.flip();
+            connection.append(readBuffer);
+            connection.process(routes);
+            flush(key);
+        }
+
+        // Writes what the socket accepts; while output is pending the connection stops reading,
+        // which pushes back on clients that pipeline faster than they read responses
+        private void flush(SelectionKey key) throws IOException {
+            HttpConnection connection = (HttpConnection) key.attachment();
+            if (connection.hasPendingOutput()) {
+                ByteBuffer output = connection.output();
+                output.flip();
+                connection.channel.write(output);
+                output.compact();
+            }
+            if (connection.hasPendingOutput()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else if (connection.isCloseAfterFlush()) {
+                closeConnection(key);
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void closeConnection(SelectionKey key) {
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+                // Already closed by the peer
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        BookingHttpServer server = new BookingHttpServer(new FlightService(), new InetSocketAddress(port),
+                Runtime.getRuntime().availableProcessors()).start();
+        System.out.println("Flight booking server listening on port " + server.getPort());
+    }
+}
@@ -0,0 +1,242 @@
+package com.airline.http;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.DestinationSuggestion;
+import com.airline.service.FlightService;
+
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// Maps requests onto FlightService and writes the JSON body; returns the HTTP status.
+//   GET    /flights?destination=London&date=2024-01-16   bookable flights
+//   GET    /flights/{flightNumber}
+//   GET    /destinations?q=lond&limit=10                 destination autocomplete
+//   POST   /reservations  {"customerName": "...", "flightNumber": "...", "seats": 2}
+//   GET    /reservations?customer=John%20Doe
+//   GET    /reservations/{reservationId}
+//   DELETE /reservations/{reservationId}
+class BookingRoutes {
+    private final FlightService flightService;
+
+    BookingRoutes(FlightService flightService) {
+        this.flightService = flightService;
+    }
+
+    int handle(String method, String target, byte[] body, int bodyFrom, int bodyTo, JsonWriter out) {
+        int queryStart = target.indexOf('?');
+        String path = queryStart < 0 ? target : target.substring(0, queryStart);
+        String query = queryStart < 0 ? "" : target.substring(queryStart + 1);
+        try {
+            if (path.equals("/flights")) {
+                return method.equals("GET") ? searchFlights(query, out) : methodNotAllowed(out);
+            }
+            if (path.startsWith("/flights/")) {
+                return method.equals("GET") ? getFlight(decode(path.substring(9)), out) : methodNotAllowed(out);
+            }
+            if (path.equals("/destinations")) {
+                return method.equals("GET") ? suggestDestinations(query, out) : methodNotAllowed(out);
+            }
+            if (path.equals("/reservations")) {
+                if (method.equals("GET")) {
+                    return listReservations(query, out);
+                }
+                return method.equals("POST") ? book(body, bodyFrom, bodyTo, out) : methodNotAllowed(out);
+            }
+            if (path.startsWith("/reservations/")) {
+                String reservationId = decode(path.substring(14));
+                if (method.equals("GET")) {
+                    return getReservation(reservationId, out);
+                }
+                return method.equals("DELETE") ? cancel(reservationId, out) : methodNotAllowed(out);
+            }
+            return error(404, "No such resource: " + path, out);
+        } catch (UncheckedIOException e) {
+            // The booking journal could not be written, so nothing was booked or cancelled
+            return error(503, "Booking log unavailable", out);
+        } catch (IllegalArgumentException e) {
+            // Malformed percent-encoding in the path or query
+            return error(400, e.getMessage(), out);
+        }
+    }
+
+    private int searchFlights(String query, JsonWriter out) {
+        String destination = parameter(query, "destination");
+        String date = parameter(query, "date");
+        if (destination == null || date == null) {
+            return error(400, "destination and date are required", out);
+        }
+        LocalDate day;
+        try {
+            day = LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return error(400, "date must be YYYY-MM-DD", out);
+        }
+        out.beginObject().name("flights").beginArray();
+        flightService.forEachFlight(destination, day, flight -> writeFlight(flight, out));
+        out.endArray().endObject();
+        return 200;
+    }
+
+    private int suggestDestinations(String query, JsonWriter out) {
+        String typed = parameter(query, "q");
+        String limit = parameter(query, "limit");
+        if (typed == null) {
+            return error(400, "q is required", out);
+        }
+        int maxSuggestions;
+        try {
+            maxSuggestions = limit == null ? 10 : Integer.parseInt(limit);
+        } catch (NumberFormatException e) {
+            return error(400, "limit must be a number", out);
+        }
+        if (maxSuggestions <= 0 || maxSuggestions > 100) {
+            return error(400, "limit must be between 1 and 100", out);
+        }
+        out.beginObject().name("destinations").beginArray();
+        for (DestinationSuggestion suggestion : flightService.suggestDestinations(typed, maxSuggestions)) {
+            out.beginObject()
+                    .name("destination").value(suggestion.destination())
+                    .name("upcomingFlights").value(suggestion.upcomingFlights())
+                    .name("editDistance").value(suggestion.editDistance())
+                    .endObject();
+        }
+        out.endArray().endObject();
+        return 200;
+    }
+
+    private int getFlight(String flightNumber, JsonWriter out) {
+        Flight flight = flightService.getFlight(flightNumber);
+        if (flight == null) {
+            return error(404, "Flight " + flightNumber + " not found", out);
+        }
+        writeFlight(flight, out);
+        return 200;
+    }
+
+    private int listReservations(String query, JsonWriter out) {
+        String customer = parameter(query, "customer");
+        if (customer == null) {
+            return error(400, "customer is required", out);
+        }
+        out.beginObject().name("reservations").beginArray();
+        flightService.forEachCustomerReservation(customer, reservation -> writeReservation(reservation, out));
+        out.endArray().endObject();
+        return 200;
+    }
+
+    private int getReservation(String reservationId, JsonWriter out) {
+        Reservation reservation = flightService.getReservation(reservationId);
+        if (reservation == null) {
+            return error(404, "Reservation " + reservationId + " not found", out);
+        }
+        writeReservation(reservation, out);
+        return 200;
+    }
+
+    private int book(byte[] body, int from, int to, JsonWriter out) {
+        String customerName = null;
+        String flightNumber = null;
+        long seats = 0;
+        try {
+            JsonReader reader = new JsonReader(body, from, to);
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "customerName": customerName = reader.nextString(); break;
+                    case "flightNumber": flightNumber = reader.nextString(); break;
+                    case "seats": seats = reader.nextLong(); break;
+                    default: reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            return error(400, "Invalid JSON: " + e.getMessage(), out);
+        }
+        if (customerName == null || customerName.isBlank() || flightNumber == null) {
+            return error(400, "customerName and flightNumber are required", out);
+        }
+        if (seats <= 0 || seats > Integer.MAX_VALUE) {
+            return error(400, "seats must be a positive number", out);
+        }
+        Flight flight = flightService.getFlight(flightNumber);
+        if (flight == null) {
+            return error(404, "Flight " + flightNumber + " not found", out);
+        }
+        Reservation reservation;
+        try {
+            reservation = flightService.bookFlight(customerName, flight, (int) seats);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Not enough seats, or the flight was archived while the booking was in flight
+            return error(409, e.getMessage(), out);
+        }
+        writeReservation(reservation, out);
+        return 201;
+    }
+
+    private int cancel(String reservationId, JsonWriter out) {
+        Reservation reservation = flightService.getReservation(reservationId);
+        if (reservation == null || !flightService.cancelReservation(reservation)) {
+            return error(404, "Reservation " + reservationId + " not found", out);
+        }
+        out.beginObject().name("reservationId").value(reservationId).name("cancelled").value(true).endObject();
+        return 200;
+    }
+
+    private static void writeFlight(Flight flight, JsonWriter out) {
+        out.beginObject()
+                .name("flightNumber").value(flight.getFlightNumber());
+        if (flight.getOrigin() != null) {
+            out.name("origin").value(flight.getOrigin());
+        }
+        out.name("destination").value(flight.getDestination())
+                .name("departureTime").value(flight.getDepartureTime());
+        if (flight.getArrivalTime() != null) {
+            out.name("arrivalTime").value(flight.getArrivalTime());
+        }
+        out.name("availableSeats").value(flight.getAvailableSeats())
+                .endObject();
+    }
+
+    private static void writeReservation(Reservation reservation, JsonWriter out) {
+        out.beginObject()
+                .name("reservationId").value(reservation.getReservationId())
+                .name("customerName").value(reservation.getCustomerName())
+                .name("flightNumber").value(reservation.getFlight().getFlightNumber())
+                .name("seats").value(reservation.getSeatsBooked())
+                .name("reservationTime").value(reservation.getReservationTime())
+                .endObject();
+    }
+
+    private static int methodNotAllowed(JsonWriter out) {
+        return error(405, "Method not allowed", out);
+    }
+
+    static int error(int status, String message, JsonWriter out) {
+        out.reset();
+        out.beginObject().name("error").value(message).endObject();
+        return status;
+    }
+
+    static String parameter(String query, String name) {
+        int at = 0;
+        while (at <= query.length()) {
+            int end = query.indexOf('&', at);
+            if (end < 0) {
+                end = query.length();
+            }
+            if (query.startsWith(name, at) && at + name.length() < end && query.charAt(at + name.length()) == '=') {
+                return decode(query.substring(at + name.length() + 1, end));
+            }
+            at = end + 1;
+        }
+        return null;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,249 @@
+package com.airline.http;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+// One keep-alive connection: buffers incoming bytes, handles every complete request in arrival order
+// (so pipelined requests are answered in order) and queues the responses until the socket accepts them.
+final class HttpConnection {
+    static final int MAX_HEADER_BYTES = 8 * 1024;
+    static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static final byte[] CONTENT_TYPE = ascii("\r\nContent-Type: application/json\r\nContent-Length: ");
+    private static final byte[] CLOSE = ascii("\r\nConnection: close");
+    private static final byte[] HEADER_END = ascii("\r\n\r\n");
+
+    final SocketChannel channel;
+    private byte[] input = new byte[8 * 1024];
+    private int inputLength;
+    private ByteBuffer output = ByteBuffer.allocate(16 * 1024);
+    private final JsonWriter body = new JsonWriter();
+    private boolean closeAfterFlush;
+
+    HttpConnection(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    void append(ByteBuffer data) {
+        int count = data.remaining();
+        if (inputLength + count > input.length) {
+            byte[] grown = new byte[Math.max(input.length * 2, inputLength + count)];
+            System.arraycopy(input, 0, grown, 0, inputLength);
+            input = grown;
+        }
+        data.get(input, inputLength, count);
+        inputLength += count;
+    }
+
+    void process(BookingRoutes routes) {
+        int start = 0;
+        while (!closeAfterFlush && start < inputLength) {
+            int headerEnd = indexOf(HEADER_END, start);
+            if (headerEnd < 0) {
+                if (inputLength - start > MAX_HEADER_BYTES) {
+                    reject(431, "Request headers too large");
+                }
+                break;
+            }
+            int lineEnd = indexOf(HEADER_END, 2, start);
+            int methodEnd = indexOf((byte) ' ', start, lineEnd);
+            int targetEnd = methodEnd < 0 ? -1 : indexOf((byte) ' ', methodEnd + 1, lineEnd);
+            if (targetEnd < 0) {
+                reject(400, "Malformed request line");
+                break;
+            }
+            boolean http10 = matchesIgnoreCase(targetEnd + 1, lineEnd, "HTTP/1.0");
+            boolean keepAlive = !http10;
+            long contentLength = 0;
+            boolean chunked = false;
+            int line = lineEnd + 2;
+            while (line < headerEnd + 2) {
+                int next = indexOf(HEADER_END, 2, line);
+                int colon = indexOf((byte) ':', line, next);
+                if (colon > 0) {
+                    int value = skipSpaces(colon + 1, next);
+                    if (matchesIgnoreCase(line, colon, "Content-Length")) {
+                        contentLength = parseLength(value, next);
+                    } else if (matchesIgnoreCase(line, colon, "Connection")) {
+                        if (containsIgnoreCase(value, next, "close")) {
+                            keepAlive = false;
+                        } else if (containsIgnoreCase(value, next, "keep-alive")) {
+                            keepAlive = true;
+                        }
+                    } else if (matchesIgnoreCase(line, colon, "Transfer-Encoding")) {
+                        chunked = true;
+                    }
+                }
+                line = next + 2;
+            }
+            if (chunked) {
+                reject(501, "Chunked request bodies are not supported");
+                break;
+            }
+            if (contentLength < 0 || contentLength > MAX_BODY_BYTES) {
+                reject(413, "Request body too large or invalid Content-Length");
+                break;
+            }
+            int bodyStart = headerEnd + 4;
+            int bodyEnd = bodyStart + (int) contentLength;
+            if (bodyEnd > inputLength) {
+                break;
+            }
+            String method = new String(input, start, methodEnd - start, StandardCharsets.ISO_8859_1);
+            String target = new String(input, methodEnd + 1, targetEnd - methodEnd - 1, StandardCharsets.ISO_8859_1);
+            body.reset();
+            int status;
+            try {
+                status = routes.handle(method, target, input, bodyStart, bodyEnd, body);
+            } catch (RuntimeException e) {
+                status = BookingRoutes.error(500, "Internal error", body);
+            }
+            closeAfterFlush = !keepAlive;
+            respond(status);
+            start = bodyEnd;
+        }
+        // Keep any partial request at the front of the buffer
+        System.arraycopy(input, start, input, 0, inputLength - start);
+        inputLength -= start;
+    }
+
+    ByteBuffer output() {
+        return output;
+    }
+
+    boolean hasPendingOutput() {
+        return output.position() > 0;
+    }
+
+    boolean isCloseAfterFlush() {
+        return closeAfterFlush;
+    }
+
+    private void reject(int status, String message) {
+        BookingRoutes.error(status, message, body);
+        closeAfterFlush = true;
+        respond(status);
+    }
+
+    private void respond(int status) {
+        byte[] statusLine = StatusLine.of(status);
+        ensureOutput(statusLine.length + CONTENT_TYPE.length + 10 + CLOSE.length + HEADER_END.length + body.length());
+        output.put(statusLine).put(CONTENT_TYPE);
+        putDecimal(body.length());
+        if (closeAfterFlush) {
+            output.put(CLOSE);
+        }
+        output.put(HEADER_END).put(body.buffer(), 0, body.length());
+    }
+
+    private void putDecimal(int value) {
+        int divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            output.put((byte) ('0' + value / divisor % 10));
+        }
+    }
+
+    private void ensureOutput(int extra) {
+        if (output.remaining() < extra) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(output.capacity() * 2, output.position() + extra));
+            output.flip();
+            grown.put(output);
+            output = grown;
+        }
+    }
+
+    private int indexOf(byte[] pattern, int from) {
+        return indexOf(pattern, pattern.length, from);
+    }
+
+    // Index of the first occurrence of pattern[0, length) at or after from, or -1
+    private int indexOf(byte[] pattern, int length, int from) {
+        outer:
+        for (int i = from; i <= inputLength - length; i++) {
+            for (int j = 0; j < length; j++) {
+                if (input[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private int indexOf(byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (input[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int skipSpaces(int from, int to) {
+        while (from < to && (input[from] == ' ' || input[from] == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    private long parseLength(int from, int to) {
+        long value = 0;
+        int digits = 0;
+        for (int i = from; i < to && input[i] != ' ' && input[i] != '\t'; i++) {
+            if (input[i] < '0' || input[i] > '9' || ++digits > 10) {
+                return -1;
+            }
+            value = value * 10 + (input[i] - '0');
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    private boolean matchesIgnoreCase(int from, int to, String text) {
+        if (to - from != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.toLowerCase((char) input[from + i]) != Character.toLowerCase(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean containsIgnoreCase(int from, int to, String text) {
+        for (int i = from; i <= to - text.length(); i++) {
+            if (matchesIgnoreCase(i, i + text.length(), text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class StatusLine {
+        private static final byte[][] LINES = new byte[600][];
+
+        static {
+            String[][] reasons = {
+                    {"200", "OK"}, {"201", "Created"}, {"400", "Bad Request"}, {"404", "Not Found"},
+                    {"405", "Method Not Allowed"}, {"409", "Conflict"}, {"413", "Payload Too Large"},
+                    {"431", "Request Header Fields Too Large"}, {"500", "Internal Server Error"},
+                    {"501", "Not Implemented"}, {"503", "Service Unavailable"}
+            };
+            for (String[] reason : reasons) {
+                LINES[Integer.parseInt(reason[0])] = ascii("HTTP/1.1 " + reason[0] + " " + reason[1]);
+            }
+        }
+
+        static byte[] of(int status) {
+            return LINES[status] != null ? LINES[status] : LINES[500];
+        }
+    }
+}
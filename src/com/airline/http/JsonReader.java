@@ -0,0 +1,176 @@
+package com.airline.http;
+
+import java.nio.charset.StandardCharsets;
+
+// Minimal pull parser for the flat request bodies the server accepts: one object whose values are strings,
+// integers, booleans or null. Malformed input throws IllegalArgumentException, which the server maps to 400.
+final class JsonReader {
+    private final byte[] data;
+    private final int end;
+    private int position;
+    private boolean first = true;
+
+    JsonReader(byte[] data, int from, int to) {
+        this.data = data;
+        this.position = from;
+        this.end = to;
+    }
+
+    void beginObject() {
+        expect('{');
+    }
+
+    // Moves to the next field, or returns false at the closing brace
+    boolean hasNext() {
+        skipWhitespace();
+        if (position < end && data[position] == '}') {
+            return false;
+        }
+        if (!first) {
+            expect(',');
+        }
+        first = false;
+        return true;
+    }
+
+    void endObject() {
+        expect('}');
+        skipWhitespace();
+        if (position != end) {
+            throw new IllegalArgumentException("Unexpected content after JSON object");
+        }
+    }
+
+    String nextName() {
+        int start = position;
+        String name = nextString();
+        if (name == null) {
+            throw new IllegalArgumentException("Expected a string key at offset " + start);
+        }
+        expect(':');
+        return name;
+    }
+
+    String nextString() {
+        skipWhitespace();
+        if (matches("null")) {
+            return null;
+        }
+        expect('"');
+        int start = position;
+        // Fast path: no escapes, so the bytes can be decoded in one go
+        while (position < end && data[position] != '"' && data[position] != '\\') {
+            position++;
+        }
+        if (position < end && data[position] == '"') {
+            return new String(data, start, position++ - start, StandardCharsets.UTF_8);
+        }
+        StringBuilder text = new StringBuilder(new String(data, start, position - start, StandardCharsets.UTF_8));
+        while (true) {
+            if (position >= end) {
+                throw new IllegalArgumentException("Unterminated string");
+            }
+            byte b = data[position++];
+            if (b == '"') {
+                return text.toString();
+            }
+            if (b != '\\') {
+                int runStart = position - 1;
+                while (position < end && data[position] != '"' && data[position] != '\\') {
+                    position++;
+                }
+                text.append(new String(data, runStart, position - runStart, StandardCharsets.UTF_8));
+                continue;
+            }
+            if (position >= end) {
+                throw new IllegalArgumentException("Unterminated string");
+            }
+            byte escaped = data[position++];
+            switch (escaped) {
+                case '"': case '\\': case '/': text.append((char) escaped); break;
+                case 'b': text.append('\b'); break;
+                case 'f': text.append('\f'); break;
+                case 'n': text.append('\n'); break;
+                case 'r': text.append('\r'); break;
+                case 't': text.append('\t'); break;
+                case 'u':
+                    if (position + 4 > end) {
+                        throw new IllegalArgumentException("Truncated unicode escape");
+                    }
+                    text.append((char) Integer.parseInt(new String(data, position, 4, StandardCharsets.US_ASCII), 16));
+                    position += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Invalid escape in string");
+            }
+        }
+    }
+
+    long nextLong() {
+        skipWhitespace();
+        boolean negative = position < end && data[position] == '-';
+        if (negative) {
+            position++;
+        }
+        int start = position;
+        long value = 0;
+        while (position < end && data[position] >= '0' && data[position] <= '9') {
+            value = Math.multiplyExact(value, 10) + (data[position++] - '0');
+        }
+        if (position == start) {
+            throw new IllegalArgumentException("Expected a number");
+        }
+        if (position < end && (data[position] == '.' || data[position] == 'e' || data[position] == 'E')) {
+            throw new IllegalArgumentException("Expected an integer");
+        }
+        return negative ? -value : value;
+    }
+
+    // Skips a scalar value of a field the caller does not use
+    void skipValue() {
+        skipWhitespace();
+        if (position >= end) {
+            throw new IllegalArgumentException("Expected a value");
+        }
+        byte b = data[position];
+        if (b == '"') {
+            nextString();
+        } else if (matches("true") || matches("false") || matches("null")) {
+            return;
+        } else if (b == '-' || (b >= '0' && b <= '9')) {
+            position++;
+            while (position < end && (Character.isDigit(data[position]) || "+-.eE".indexOf(data[position]) >= 0)) {
+                position++;
+            }
+        } else {
+            throw new IllegalArgumentException("Nested values are not supported");
+        }
+    }
+
+    private boolean matches(String literal) {
+        if (position + literal.length() > end) {
+            return false;
+        }
+        for (int i = 0; i < literal.length(); i++) {
+            if (data[position + i] != literal.charAt(i)) {
+                return false;
+            }
+        }
+        position += literal.length();
+        return true;
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (position >= end || data[position] != c) {
+            throw new IllegalArgumentException("Expected '" + c + "' at offset " + position);
+        }
+        position++;
+    }
+
+    private void skipWhitespace() {
+        while (position < end && (data[position] == ' ' || data[position] == '\n' || data[position] == '\r' || data[position] == '\t')) {
+            position++;
+        }
+    }
+}
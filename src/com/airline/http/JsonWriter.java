@@ -0,0 +1,216 @@
+package com.airline.http;
+
+import java.time.LocalDateTime;
+
+// Streaming JSON writer into a reusable byte array. Numbers, dates and strings are encoded straight to
+// UTF-8 bytes, so writing a response allocates nothing once the buffer has grown to its working size.
+final class JsonWriter {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private byte[] buffer = new byte[4096];
+    private int length;
+    private boolean needsComma;
+
+    void reset() {
+        length = 0;
+        needsComma = false;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int length() {
+        return length;
+    }
+
+    JsonWriter beginObject() {
+        separate();
+        put('{');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endObject() {
+        put('}');
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter beginArray() {
+        separate();
+        put('[');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter endArray() {
+        put(']');
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter name(String name) {
+        separate();
+        string(name);
+        put(':');
+        needsComma = false;
+        return this;
+    }
+
+    JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            ascii("null");
+        } else {
+            string(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(long value) {
+        separate();
+        number(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonWriter value(boolean value) {
+        separate();
+        ascii(value ? "true" : "false");
+        needsComma = true;
+        return this;
+    }
+
+    // ISO-8601 local date-time to the second, e.g. "2024-01-15T10:30:00"
+    JsonWriter value(LocalDateTime value) {
+        separate();
+        if (value == null) {
+            ascii("null");
+        } else {
+            ensure(21);
+            put('"');
+            digits(value.getYear(), 4);
+            put('-');
+            digits(value.getMonthValue(), 2);
+            put('-');
+            digits(value.getDayOfMonth(), 2);
+            put('T');
+            digits(value.getHour(), 2);
+            put(':');
+            digits(value.getMinute(), 2);
+            put(':');
+            digits(value.getSecond(), 2);
+            put('"');
+        }
+        needsComma = true;
+        return this;
+    }
+
+    private void separate() {
+        if (needsComma) {
+            put(',');
+        }
+    }
+
+    private void string(String value) {
+        // Worst case is six bytes per char for \\u escapes
+        ensure(value.length() * 6 + 2);
+        byte[] out = buffer;
+        int at = length;
+        out[at++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                out[at++] = (byte) c;
+            } else if (c == '"' || c == '\\') {
+                out[at++] = '\\';
+                out[at++] = (byte) c;
+            } else if (c < 0x20) {
+                out[at++] = '\\';
+                out[at++] = 'u';
+                out[at++] = '0';
+                out[at++] = '0';
+                out[at++] = HEX[c >> 4];
+                out[at++] = HEX[c & 0xf];
+            } else if (c < 0x800) {
+                out[at++] = (byte) (0xc0 | (c >> 6));
+                out[at++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[at++] = (byte) (0xf0 | (codePoint >> 18));
+                out[at++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                out[at++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                out[at++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else {
+                // Lone surrogates are escaped rather than producing invalid UTF-8
+                out[at++] = '\\';
+                out[at++] = 'u';
+                out[at++] = HEX[c >> 12];
+                out[at++] = HEX[(c >> 8) & 0xf];
+                out[at++] = HEX[(c >> 4) & 0xf];
+                out[at++] = HEX[c & 0xf];
+            }
+        }
+        out[at++] = '"';
+        length = at;
+    }
+
+    private void number(long value) {
+        if (value == Long.MIN_VALUE) {
+            ascii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            put('-');
+            value = -value;
+        }
+        int end = length + digitCount(value);
+        int at = end;
+        do {
+            buffer[--at] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        length = end;
+    }
+
+    private void digits(int value, int width) {
+        int at = length + width;
+        for (int i = 0; i < width; i++) {
+            buffer[--at] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += width;
+    }
+
+    private static int digitCount(long value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+
+    private void ascii(String text) {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[length++] = (byte) text.charAt(i);
+        }
+    }
+
+    private void put(char c) {
+        ensure(1);
+        buffer[length++] = (byte) c;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            byte[] grown = new byte[Math.max(buffer.length * 2, length + extra)];
+            System.arraycopy(buffer, 0, grown, 0, length);
+            buffer = grown;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.airline.inventory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Dictionary encoding for airport and city names: each distinct spelling gets a dense int code.
+// Lookups by the normalized (lower-case) name return every code spelled that way, so searches stay
+// case-insensitive without touching the strings during a scan.
+final class AirportDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final Map<String, int[]> codesByNormalizedName = new HashMap<>();
+    private volatile String[] names = new String[64];
+    private volatile int size;
+
+    synchronized int encode(String name) {
+        if (name == null) {
+            return ColumnarInventory.NONE;
+        }
+        Integer existing = codes.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        int code = size;
+        String[] current = names;
+        if (code == current.length) {
+            current = Arrays.copyOf(current, code * 2);
+        }
+        current[code] = name;
+        names = current;
+        size = code + 1;
+        codes.put(name, code);
+        codesByNormalizedName.merge(normalize(name), new int[]{code}, (previous, added) -> {
+            int[] merged = Arrays.copyOf(previous, previous.length + 1);
+            merged[previous.length] = added[0];
+            return merged;
+        });
+        return code;
+    }
+
+    String decode(int code) {
+        return code == ColumnarInventory.NONE ? null : names[code];
+    }
+
+    // Codes of every spelling of the name, or an empty array if it has never been seen
+    synchronized int[] lookup(String name) {
+        int[] found = name == null ? null : codesByNormalizedName.get(normalize(name));
+        return found == null ? new int[0] : found;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,257 @@
+package com.airline.inventory;
+
+import com.airline.model.Flight;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Column-oriented flight inventory for very large schedules. Each flight is a row spread over primitive
+// arrays: dictionary codes for origin and destination, departure and arrival as epoch minutes, capacity
+// and available seats, plus the flight number. Rows live in fixed-size chunks that are never copied, so
+// seat counts can be updated with compare-and-set while the inventory grows.
+// Adding and rescheduling rows is synchronized; reads, scans and seat updates take no locks.
+public class ColumnarInventory {
+    static final int NONE = -1;
+    static final int NO_TIME = Integer.MIN_VALUE;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final VarHandle SEATS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final AirportDictionary airports = new AirportDictionary();
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int size;
+    // Open-addressing table of row + 1 keyed by flight number hash; 0 marks an empty slot
+    private int[] rowsByNumber = new int[1024];
+
+    private static final class Chunk {
+        final String[] flightNumbers = new String[CHUNK_SIZE];
+        final int[] origins = new int[CHUNK_SIZE];
+        final int[] destinations = new int[CHUNK_SIZE];
+        final int[] departures = new int[CHUNK_SIZE];
+        final int[] arrivals = new int[CHUNK_SIZE];
+        final int[] capacities = new int[CHUNK_SIZE];
+        final int[] seats = new int[CHUNK_SIZE];
+    }
+
+    // Returns the new row number
+    public synchronized int add(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                                LocalDateTime arrivalTime, int capacity, int availableSeats) {
+        if (flightNumber == null || destination == null || departureTime == null) {
+            throw new IllegalArgumentException("Flight number, destination and departure time are required");
+        }
+        if (find(flightNumber) != NONE) {
+            throw new IllegalArgumentException("Flight " + flightNumber + " already exists");
+        }
+        int row = size;
+        Chunk chunk = chunkFor(row);
+        int offset = row & CHUNK_MASK;
+        chunk.flightNumbers[offset] = flightNumber;
+        chunk.origins[offset] = airports.encode(origin);
+        chunk.destinations[offset] = airports.encode(destination);
+        chunk.departures[offset] = toMinutes(departureTime);
+        chunk.arrivals[offset] = arrivalTime == null ? NO_TIME : toMinutes(arrivalTime);
+        chunk.capacities[offset] = capacity;
+        chunk.seats[offset] = availableSeats;
+        indexNumber(flightNumber, row);
+        // Publishing the size makes the row visible to lock-free readers
+        size = row + 1;
+        return row;
+    }
+
+    public int add(Flight flight) {
+        return add(flight.getFlightNumber(), flight.getOrigin(), flight.getDestination(), flight.getDepartureTime(),
+                flight.getArrivalTime(), flight.getCapacity(), flight.getAvailableSeats());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public FlightRow row(int row) {
+        checkRow(row);
+        return new FlightRow(this, row);
+    }
+
+    // Row of the flight number, or -1
+    public synchronized int find(String flightNumber) {
+        int mask = rowsByNumber.length - 1;
+        for (int slot = spread(flightNumber.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            int entry = rowsByNumber[slot];
+            if (entry == 0) {
+                return NONE;
+            }
+            if (flightNumber.equals(chunk(entry - 1).flightNumbers[(entry - 1) & CHUNK_MASK])) {
+                return entry - 1;
+            }
+        }
+    }
+
+    // Visits the rows departing for the destination (any capitalization) on the date that still have seats;
+    // returns the number of matches. Only int columns are read, in row order.
+    public int scan(String destination, LocalDate date, IntConsumer action) {
+        int[] codes = airports.lookup(destination);
+        if (codes.length == 0 || date == null) {
+            return 0;
+        }
+        int from = toMinutes(date.atStartOfDay());
+        int to = from + 24 * 60;
+        int count = size;
+        Chunk[] current = chunks;
+        int matches = 0;
+        for (int base = 0; base < count; base += CHUNK_SIZE) {
+            Chunk chunk = current[base >>> CHUNK_BITS];
+            int[] destinations = chunk.destinations;
+            int[] departures = chunk.departures;
+            int[] seats = chunk.seats;
+            int end = Math.min(CHUNK_SIZE, count - base);
+            for (int i = 0; i < end; i++) {
+                int departure = departures[i];
+                if (departure >= from && departure < to && matches(codes, destinations[i]) && seats[i] > 0) {
+                    action.accept(base + i);
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    public synchronized void reschedule(int row, String destination, LocalDateTime departureTime) {
+        checkRow(row);
+        Chunk chunk = chunk(row);
+        chunk.destinations[row & CHUNK_MASK] = airports.encode(destination);
+        chunk.departures[row & CHUNK_MASK] = toMinutes(departureTime);
+    }
+
+    public boolean bookSeats(int row, int seats) {
+        if (seats <= 0) {
+            return false;
+        }
+        checkRow(row);
+        int[] column = chunk(row).seats;
+        int offset = row & CHUNK_MASK;
+        while (true) {
+            int previous = (int) SEATS.getVolatile(column, offset);
+            if (seats > previous) {
+                return false;
+            }
+            if (SEATS.compareAndSet(column, offset, previous, previous - seats)) {
+                return true;
+            }
+        }
+    }
+
+    public void releaseSeats(int row, int seats) {
+        if (seats <= 0) {
+            return;
+        }
+        checkRow(row);
+        SEATS.getAndAdd(chunk(row).seats, row & CHUNK_MASK, seats);
+    }
+
+    String flightNumber(int row) {
+        return chunk(row).flightNumbers[row & CHUNK_MASK];
+    }
+
+    String origin(int row) {
+        return airports.decode(chunk(row).origins[row & CHUNK_MASK]);
+    }
+
+    String destination(int row) {
+        return airports.decode(chunk(row).destinations[row & CHUNK_MASK]);
+    }
+
+    int departureMinutes(int row) {
+        return chunk(row).departures[row & CHUNK_MASK];
+    }
+
+    int arrivalMinutes(int row) {
+        return chunk(row).arrivals[row & CHUNK_MASK];
+    }
+
+    int capacity(int row) {
+        return chunk(row).capacities[row & CHUNK_MASK];
+    }
+
+    int availableSeats(int row) {
+        return (int) SEATS.getVolatile(chunk(row).seats, row & CHUNK_MASK);
+    }
+
+    // Schedules are kept to the minute, which covers any timetable and fits an int for thousands of years
+    static int toMinutes(LocalDateTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            throw new IllegalArgumentException("Schedule times are stored to the minute: " + time);
+        }
+        return Math.toIntExact(time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    static LocalDateTime fromMinutes(int minutes) {
+        return minutes == NO_TIME ? null : LocalDateTime.ofEpochSecond(minutes * 60L, 0, ZoneOffset.UTC);
+    }
+
+    private static boolean matches(int[] codes, int code) {
+        if (codes.length == 1) {
+            return codes[0] == code;
+        }
+        for (int candidate : codes) {
+            if (candidate == code) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for inventory of " + size + " flights");
+        }
+    }
+
+    private Chunk chunk(int row) {
+        return chunks[row >>> CHUNK_BITS];
+    }
+
+    private Chunk chunkFor(int row) {
+        int index = row >>> CHUNK_BITS;
+        Chunk[] current = chunks;
+        if (index == current.length) {
+            // Only the array of chunk references is copied; existing chunks stay where they are
+            current = Arrays.copyOf(current, index + 1);
+            current[index] = new Chunk();
+            chunks = current;
+        }
+        return current[index];
+    }
+
+    private void indexNumber(String flightNumber, int row) {
+        if ((size + 1) * 2 > rowsByNumber.length) {
+            int[] previous = rowsByNumber;
+            rowsByNumber = new int[previous.length * 2];
+            for (int entry : previous) {
+                if (entry != 0) {
+                    insert(flightNumber(entry - 1), entry);
+                }
+            }
+        }
+        insert(flightNumber, row + 1);
+    }
+
+    private void insert(String flightNumber, int entry) {
+        int mask = rowsByNumber.length - 1;
+        int slot = spread(flightNumber.hashCode()) & mask;
+        while (rowsByNumber[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        rowsByNumber[slot] = entry;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
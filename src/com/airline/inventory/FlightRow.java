@@ -0,0 +1,71 @@
+package com.airline.inventory;
+
+import com.airline.model.Flight;
+
+import java.time.LocalDateTime;
+
+// Lightweight view of one inventory row: an inventory reference and a row number. Getters decode the
+// columns on demand, and seat changes go straight to the shared seat column.
+public final class FlightRow {
+    private final ColumnarInventory inventory;
+    private final int row;
+
+    FlightRow(ColumnarInventory inventory, int row) {
+        this.inventory = inventory;
+        this.row = row;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public String getFlightNumber() {
+        return inventory.flightNumber(row);
+    }
+
+    public String getOrigin() {
+        return inventory.origin(row);
+    }
+
+    public String getDestination() {
+        return inventory.destination(row);
+    }
+
+    public LocalDateTime getDepartureTime() {
+        return ColumnarInventory.fromMinutes(inventory.departureMinutes(row));
+    }
+
+    public LocalDateTime getArrivalTime() {
+        return ColumnarInventory.fromMinutes(inventory.arrivalMinutes(row));
+    }
+
+    public int getCapacity() {
+        return inventory.capacity(row);
+    }
+
+    public int getAvailableSeats() {
+        return inventory.availableSeats(row);
+    }
+
+    public boolean bookSeats(int seats) {
+        return inventory.bookSeats(row, seats);
+    }
+
+    public void releaseSeats(int seats) {
+        inventory.releaseSeats(row, seats);
+    }
+
+    // Standalone copy for the object-based FlightService, journal and console app
+    public Flight toFlight() {
+        Flight flight = new Flight(getFlightNumber(), getOrigin(), getDestination(), getDepartureTime(),
+                getArrivalTime(), getCapacity());
+        flight.setAvailableSeats(getAvailableSeats());
+        return flight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Flight %s to %s | Departure: %s | Available Seats: %d",
+                getFlightNumber(), getDestination(), getDepartureTime(), getAvailableSeats());
+    }
+}
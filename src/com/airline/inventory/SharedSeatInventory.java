@@ -0,0 +1,273 @@
+package com.airline.inventory;
+
+import com.airline.model.Flight;
+import com.airline.model.SeatCounter;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Seat counters in a memory-mapped file, so several JVMs on one host book against the same inventory.
+// Counters are updated with VarHandle compare-and-set directly on the shared pages, which is atomic
+// across processes. They survive a process crash (the OS keeps the pages) and a restart only maps the file.
+//
+// Layout: a 64-byte header (magic, version, slot count) and then 32-byte slots in an open-addressing
+// table keyed by flight number:
+//   [int state][int seats][int capacity][byte keyLength][19 bytes flight number, UTF-8]
+// A process claims an empty slot by CAS-ing its state from EMPTY to CLAIMING, writes the key and seats,
+// then publishes it with a CAS from CLAIMING to READY. A claim takes microseconds, so a probe that finds
+// one still open after a second takes it for a process that died mid-claim and CASes the slot to DEAD;
+// DEAD slots are skipped like any other key's, so the slot is lost but no probe waits on it again. A
+// claimer that was only stalled finds its publish refused and claims another slot.
+// Once a flight uses a shared counter, the file and not the booking journal is authoritative for its seats,
+// so attach flights after journal or snapshot recovery.
+public class SharedSeatInventory implements AutoCloseable {
+    private static final int MAGIC = 0x46525353; // "FRSS"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 32;
+    private static final int MAX_KEY_BYTES = 19;
+
+    private static final int EMPTY = 0;
+    private static final int CLAIMING = 1;
+    private static final int READY = 2;
+    private static final int DEAD = 3;
+    private static final long CLAIM_TIMEOUT_NANOS = 1_000_000_000L;
+
+    private static final int STATE = 0;
+    private static final int SEATS = 4;
+    private static final int CAPACITY = 8;
+    private static final int KEY = 12;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private SharedSeatInventory(Path file, FileChannel channel, MappedByteBuffer buffer, int slotCount) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slotCount = slotCount;
+    }
+
+    // Opens the inventory file, creating it with room for the given number of flights if it does not exist.
+    // Every process must agree on the capacity; an existing file keeps the one it was created with.
+    public static SharedSeatInventory open(Path file, int maxFlights) throws IOException {
+        int slotCount = Integer.highestOneBit(Math.max(16, maxFlights * 2 - 1)) << 1;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = HEADER_BYTES + (long) slotCount * SLOT_BYTES;
+            MappedByteBuffer buffer;
+            if (channel.size() == 0) {
+                // Concurrent creators race on the header; the first slot count wins and the magic is written last
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                INT.compareAndSet(buffer, 8, 0, slotCount);
+                INT.compareAndSet(buffer, 4, 0, VERSION);
+                INT.compareAndSet(buffer, 0, 0, MAGIC);
+                if ((int) INT.getVolatile(buffer, 8) != slotCount) {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                }
+            } else {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            awaitHeader(buffer, file);
+            int existingSlots = (int) INT.getVolatile(buffer, 8);
+            if ((int) INT.getVolatile(buffer, 4) != VERSION || channel.size() < HEADER_BYTES + (long) existingSlots * SLOT_BYTES) {
+                throw new IOException(file + " has an unsupported version or is truncated");
+            }
+            return new SharedSeatInventory(file, channel, buffer, existingSlots);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Another process may have created the file but not yet written its header
+    private static void awaitHeader(MappedByteBuffer buffer, Path file) throws IOException {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (buffer.capacity() < HEADER_BYTES || (int) INT.getVolatile(buffer, 0) != MAGIC) {
+            if (buffer.capacity() < HEADER_BYTES || System.nanoTime() > deadline) {
+                throw new IOException(file + " is not a shared seat inventory");
+            }
+            Thread.yield();
+        }
+    }
+
+    // Points the flight at its shared counter. A flight seen for the first time is registered with its
+    // capacity and current seat count; otherwise the shared count wins.
+    public SeatCounter attach(Flight flight) {
+        SeatCounter counter = counter(flight.getFlightNumber(), flight.getCapacity(), flight.getAvailableSeats());
+        flight.useSeatCounter(counter);
+        return counter;
+    }
+
+    // Counter for the flight number, registering it with the given seats if no process has yet
+    public SeatCounter counter(String flightNumber, int capacity, int initialSeats) {
+        Counter existing = counters.get(flightNumber);
+        if (existing != null) {
+            return existing;
+        }
+        return counters.computeIfAbsent(flightNumber, number -> new Counter(findOrClaim(number, capacity, initialSeats)));
+    }
+
+    // Counter for a flight another process registered, or null
+    public SeatCounter find(String flightNumber) {
+        Counter existing = counters.get(flightNumber);
+        if (existing != null) {
+            return existing;
+        }
+        int slot = probe(encode(flightNumber), false, 0, 0);
+        return slot < 0 ? null : counters.computeIfAbsent(flightNumber, number -> new Counter(slot));
+    }
+
+    public int capacity(String flightNumber) {
+        int slot = probe(encode(flightNumber), false, 0, 0);
+        return slot < 0 ? -1 : buffer.getInt(offset(slot) + CAPACITY);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    // Flushes the pages to disk, for durability across an OS crash or power loss
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    private int findOrClaim(String flightNumber, int capacity, int initialSeats) {
+        return probe(encode(flightNumber), true, capacity, initialSeats);
+    }
+
+    private int probe(byte[] key, boolean claim, int capacity, int initialSeats) {
+        int mask = slotCount - 1;
+        int start = hash(key) & mask;
+        for (int i = 0; i < slotCount; i++) {
+            int slot = (start + i) & mask;
+            int base = offset(slot);
+            int state = (int) INT.getVolatile(buffer, base + STATE);
+            if (state == EMPTY) {
+                if (!claim) {
+                    return -1;
+                }
+                if (INT.compareAndSet(buffer, base + STATE, EMPTY, CLAIMING)) {
+                    buffer.put(base + KEY, (byte) key.length);
+                    buffer.put(base + KEY + 1, key);
+                    buffer.putInt(base + CAPACITY, capacity);
+                    INT.setVolatile(buffer, base + SEATS, initialSeats);
+                    if (INT.compareAndSet(buffer, base + STATE, CLAIMING, READY)) {
+                        return slot;
+                    }
+                    // Stalled long enough to be taken for dead; a claim for the same key may be further on
+                    continue;
+                }
+                state = (int) INT.getVolatile(buffer, base + STATE);
+            }
+            if (state == CLAIMING) {
+                state = awaitClaim(base);
+            }
+            if (state == READY && keyEquals(base, key)) {
+                return slot;
+            }
+        }
+        if (claim) {
+            throw new IllegalStateException("Shared seat inventory " + file + " is full (" + slotCount + " slots)");
+        }
+        return -1;
+    }
+
+    // Returns the state the claim ended in, retiring it as DEAD if it stays open past the timeout
+    private int awaitClaim(int base) {
+        long deadline = System.nanoTime() + CLAIM_TIMEOUT_NANOS;
+        int state;
+        while ((state = (int) INT.getVolatile(buffer, base + STATE)) == CLAIMING) {
+            if (System.nanoTime() - deadline > 0 && INT.compareAndSet(buffer, base + STATE, CLAIMING, DEAD)) {
+                return DEAD;
+            }
+            Thread.onSpinWait();
+        }
+        return state;
+    }
+
+    private boolean keyEquals(int base, byte[] key) {
+        if (buffer.get(base + KEY) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(base + KEY + 1 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] encode(String flightNumber) {
+        byte[] key = flightNumber.getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0 || key.length > MAX_KEY_BYTES) {
+            throw new IllegalArgumentException("Flight number must be 1 to " + MAX_KEY_BYTES + " bytes: " + flightNumber);
+        }
+        return key;
+    }
+
+    // FNV-1a, so every process maps a flight number to the same slot
+    private static int hash(byte[] key) {
+        int hash = 0x811c9dc5;
+        for (byte b : key) {
+            hash = (hash ^ (b & 0xff)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    private final class Counter implements SeatCounter {
+        private final int seatsOffset;
+
+        Counter(int slot) {
+            this.seatsOffset = offset(slot) + SEATS;
+        }
+
+        @Override
+        public int get() {
+            return (int) INT.getVolatile(buffer, seatsOffset);
+        }
+
+        @Override
+        public int getAndSet(int seats) {
+            return (int) INT.getAndSet(buffer, seatsOffset, seats);
+        }
+
+        @Override
+        public boolean compareAndSet(int expectedSeats, int newSeats) {
+            return INT.compareAndSet(buffer, seatsOffset, expectedSeats, newSeats);
+        }
+
+        @Override
+        public int getAndAdd(int delta) {
+            return (int) INT.getAndAdd(buffer, seatsOffset, delta);
+        }
+    }
+}
@@ -97,9 +97,10 @@ public class Main {
         System.out.print("Enter your name: ");
         String customerName = scanner.nextLine();
 
-        viewAllFlights();
+        // One catalog version for both the listing and the selection, so the numbers shown match
+        List<Flight> allFlights = flightService.getCatalog().getFlights();
+        printFlights(allFlights);
 
-        List<Flight> allFlights = flightService.getAllFlights();
         if (allFlights.isEmpty()) {
             System.out.println("No flights available for booking.");
             return;
@@ -151,11 +152,13 @@ public class Main {
     }
 
     private static void viewAllFlights() {
+        printFlights(flightService.getAllFlights());
+    }
+
+    private static void printFlights(List<Flight> allFlights) {
         System.out.println("\nALL AVAILABLE FLIGHTS");
         System.out.println("-".repeat(80));
 
-        List<Flight> allFlights = flightService.getAllFlights();
-
         if (allFlights.isEmpty()) {
             System.out.println("No flights available.");
         } else {
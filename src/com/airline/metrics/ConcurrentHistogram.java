@@ -0,0 +1,72 @@
+package com.airline.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Log-linear histogram of nanosecond values that many threads can record into at once. Buckets are the
+// LogLinearBuckets shared with benchmark.LatencyHistogram (power-of-two ranges split into 32 linear
+// sub-buckets, about 3% precision), up to 2^45 ns (about 9.8 hours) where values are clamped. Each thread records into one of
+// several stripes picked from its thread ID, so recording is a few array increments with no allocation
+// and little contention; snapshot() adds the stripes up.
+public class ConcurrentHistogram {
+    private static final int MAX_MAGNITUDE = 44;
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    static final int BUCKETS = LogLinearBuckets.count(MAX_MAGNITUDE);
+    // Each stripe is one array: the bucket counts, then the sum and the max
+    private static final int SUM = BUCKETS;
+    private static final int MAX = BUCKETS + 1;
+
+    private final AtomicLongArray[] stripes;
+    private final int mask;
+
+    public ConcurrentHistogram() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentHistogram(int stripeCount) {
+        int size = 1;
+        while (size < Math.min(stripeCount, 64)) {
+            size <<= 1;
+        }
+        this.stripes = new AtomicLongArray[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+        this.mask = size - 1;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        AtomicLongArray stripe = stripes[stripe()];
+        stripe.getAndIncrement(LogLinearBuckets.index(value));
+        stripe.getAndAdd(SUM, value);
+        long max;
+        while (value > (max = stripe.get(MAX)) && !stripe.compareAndSet(MAX, max, value)) {
+            // Another thread raised the max first; check again
+        }
+    }
+
+    // Threads with consecutive IDs land on different stripes
+    @SuppressWarnings("deprecation")
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += stripe.get(i);
+            }
+            sum += stripe.get(SUM);
+            max = Math.max(max, stripe.get(MAX));
+        }
+        return new HistogramSnapshot(counts, sum, max);
+    }
+}
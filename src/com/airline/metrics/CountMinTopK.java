@@ -0,0 +1,119 @@
+package com.airline.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Approximate heaviest keys in fixed memory. Counts go into a count-min sketch: four rows of striped
+// counters, each key adding to one counter per row, with the smallest of its four as the estimate (never
+// below the true count while counts stay non-negative). Next to it a small candidate set holds the keys
+// with the largest estimates. A key already in the set only costs the counter updates; any other key is
+// admitted, under a lock, once its estimate passes the weakest candidate's.
+public class CountMinTopK<K> {
+    public record Entry<K>(K key, long estimate) {
+    }
+
+    private static final int DEPTH = 4;
+    private static final Comparator<Entry<?>> HEAVIEST_FIRST = Comparator.comparingLong((Entry<?> entry) -> entry.estimate()).reversed();
+
+    private final LongAdder[] cells;
+    private final int width;
+    private final int capacity;
+    private final Set<K> candidates = ConcurrentHashMap.newKeySet();
+    // Estimate a key must beat to displace a candidate; zero until the set is full
+    private volatile long admissionThreshold;
+
+    // Tracks up to capacity candidate keys; width counters per row, rounded up to a power of two
+    public CountMinTopK(int capacity, int width) {
+        if (capacity <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Capacity and width must be positive");
+        }
+        this.capacity = capacity;
+        this.width = Integer.highestOneBit(Math.max(2, width) * 2 - 1);
+        this.cells = new LongAdder[DEPTH * this.width];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new LongAdder();
+        }
+    }
+
+    // A negative count takes back an earlier addition, e.g. a cancelled booking
+    public void add(K key, long count) {
+        long hash = HyperLogLog.mix(key.hashCode());
+        for (int row = 0; row < DEPTH; row++) {
+            cells[cell(hash, row)].add(count);
+        }
+        if (count > 0 && !candidates.contains(key)) {
+            long estimate = estimate(key);
+            if (estimate > admissionThreshold) {
+                admit(key, estimate);
+            }
+        }
+    }
+
+    public long estimate(K key) {
+        long hash = HyperLogLog.mix(key.hashCode());
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, cells[cell(hash, row)].sum());
+        }
+        return Math.max(0, estimate);
+    }
+
+    // Up to limit candidates, largest estimate first
+    public List<Entry<K>> top(int limit) {
+        List<Entry<K>> entries = new ArrayList<>(capacity);
+        for (K key : candidates) {
+            long estimate = estimate(key);
+            if (estimate > 0) {
+                entries.add(new Entry<>(key, estimate));
+            }
+        }
+        entries.sort(HEAVIEST_FIRST);
+        return entries.size() > limit ? new ArrayList<>(entries.subList(0, Math.max(0, limit))) : entries;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private synchronized void admit(K key, long estimate) {
+        if (candidates.contains(key)) {
+            return;
+        }
+        if (candidates.size() < capacity) {
+            candidates.add(key);
+        } else {
+            Entry<K> weakest = weakest();
+            if (estimate <= weakest.estimate()) {
+                admissionThreshold = weakest.estimate();
+                return;
+            }
+            candidates.remove(weakest.key());
+            candidates.add(key);
+        }
+        if (candidates.size() == capacity) {
+            admissionThreshold = weakest().estimate();
+        }
+    }
+
+    private Entry<K> weakest() {
+        Entry<K> weakest = null;
+        for (K key : candidates) {
+            long estimate = estimate(key);
+            if (weakest == null || estimate < weakest.estimate()) {
+                weakest = new Entry<>(key, estimate);
+            }
+        }
+        return weakest;
+    }
+
+    // Row r uses hash h1 + r * h2, which behaves like independent hashes for a sketch this shallow
+    private int cell(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return row * width + ((h1 + row * h2) & (width - 1));
+    }
+}
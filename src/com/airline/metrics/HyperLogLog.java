@@ -0,0 +1,78 @@
+package com.airline.metrics;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+// Distinct-count estimate in fixed memory (HyperLogLog). Each 64-bit hash picks a register by its top
+// precision bits, and the register keeps the longest run of leading zeros seen in the rest. Registers only
+// grow, so adding is a read and, rarely, a compare-and-set; the harmonic sum the estimate needs is kept
+// up to date as registers grow, so estimate() does not scan them. Standard error is about
+// 1.04 / sqrt(2^precision): 0.8% at the default 14.
+public class HyperLogLog {
+    private final int precision;
+    private final AtomicIntegerArray registers;
+    // Sum of 2^-register over all registers, and how many are still zero
+    private final DoubleAdder inverseSum = new DoubleAdder();
+    private final LongAdder zeros = new LongAdder();
+
+    public HyperLogLog() {
+        this(14);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be 4 to 18: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new AtomicIntegerArray(1 << precision);
+        inverseSum.add(1 << precision);
+        zeros.add(1 << precision);
+    }
+
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // The guard bit caps the run at 64 - precision + 1
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        int current;
+        while (rank > (current = registers.get(index))) {
+            if (registers.compareAndSet(index, current, rank)) {
+                inverseSum.add(Math.scalb(1.0, -rank) - Math.scalb(1.0, -current));
+                if (current == 0) {
+                    zeros.decrement();
+                }
+                return;
+            }
+        }
+    }
+
+    public long estimate() {
+        int m = 1 << precision;
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double raw = alpha * m * m / inverseSum.sum();
+        long empty = zeros.sum();
+        if (raw <= 2.5 * m && empty > 0) {
+            // Small counts: most registers are still empty, so count those instead (linear counting)
+            return Math.round(m * Math.log((double) m / empty));
+        }
+        return Math.round(raw);
+    }
+
+    // 64-bit hash of text with case ignored, so "Ann Lee" and "ann lee" count once
+    public static long hashIgnoreCase(CharSequence text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ Character.toLowerCase(text.charAt(i))) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // Spreads every input bit over the whole word (the MurmurHash3 finalizer)
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,38 @@
+package com.airline.metrics;
+
+// Bucket layout shared by ConcurrentHistogram and benchmark.LatencyHistogram: values below 32 get a bucket
+// each, and every power-of-two range above is split into 32 linear sub-buckets, so a value's bucket bounds
+// it to about 3%
+public final class LogLinearBuckets {
+    public static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private LogLinearBuckets() {
+    }
+
+    // Buckets needed for values up to 2^(maxMagnitude + 1) - 1
+    public static int count(int maxMagnitude) {
+        return (maxMagnitude - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    }
+
+    public static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value); // >= SUB_BUCKET_BITS
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    // Largest value that lands in the bucket
+    public static long upperBound(int index) {
+        int range = index / SUB_BUCKETS;
+        int subBucket = index % SUB_BUCKETS;
+        if (range == 0) {
+            return subBucket;
+        }
+        int shift = range - 1;
+        return (((long) (SUB_BUCKETS + subBucket) + 1) << shift) - 1;
+    }
+}
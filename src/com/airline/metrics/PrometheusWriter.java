@@ -0,0 +1,73 @@
+package com.airline.metrics;
+
+// Writes metrics in the Prometheus text exposition format (version 0.0.4). Samples of one metric must be
+// written together; HELP and TYPE are written before the first one.
+public class PrometheusWriter {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final StringBuilder out = new StringBuilder();
+    private String family;
+
+    public PrometheusWriter counter(String name, String help, long value, String... labels) {
+        header(name, "counter", help);
+        sample(name, labels, null, Long.toString(value));
+        return this;
+    }
+
+    public PrometheusWriter gauge(String name, String help, double value, String... labels) {
+        header(name, "gauge", help);
+        sample(name, labels, null, format(value));
+        return this;
+    }
+
+    // Nanosecond histogram written as a summary in seconds: quantiles, sum and count
+    public PrometheusWriter summary(String name, String help, HistogramSnapshot snapshot, String... labels) {
+        header(name, "summary", help);
+        for (double quantile : QUANTILES) {
+            sample(name, labels, "quantile=\"" + quantile + "\"", format(snapshot.percentile(quantile * 100) / 1e9));
+        }
+        sample(name + "_sum", labels, null, format(snapshot.getSum() / 1e9));
+        sample(name + "_count", labels, null, Long.toString(snapshot.getCount()));
+        return this;
+    }
+
+    private void header(String name, String type, String help) {
+        if (!name.equals(family)) {
+            family = name;
+            out.append("# HELP ").append(name).append(' ').append(help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+    }
+
+    // Labels are name, value pairs
+    private void sample(String name, String[] labels, String extra, String value) {
+        out.append(name);
+        if (labels.length > 0 || extra != null) {
+            out.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            if (extra != null) {
+                out.append(labels.length > 0 ? "," : "").append(extra);
+            }
+            out.append('}');
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.airline.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Event counts over sliding windows of whole seconds, up to a fixed longest window. The current second is
+// a striped counter; when the second rolls over, the first caller folds it into a ring of running totals,
+// one per past second. A window's count is then the difference of two running totals, so reading any
+// window costs the same however busy it was. Counting takes a lock only once per second.
+public class SlidingWindowCounter {
+    private final int maxWindowSeconds;
+    // totals[i] is the number of events up to the end of the second in seconds[i]
+    private final long[] totals;
+    private final long[] seconds;
+    private final LongAdder pending = new LongAdder();
+    private long completed;
+    private long firstSecond;
+    private volatile long currentSecond = Long.MIN_VALUE;
+
+    public SlidingWindowCounter(int maxWindowSeconds) {
+        if (maxWindowSeconds <= 0) {
+            throw new IllegalArgumentException("Window must be at least one second: " + maxWindowSeconds);
+        }
+        this.maxWindowSeconds = maxWindowSeconds;
+        this.totals = new long[maxWindowSeconds + 1];
+        this.seconds = new long[maxWindowSeconds + 1];
+    }
+
+    // An event from a second that has already rolled over counts towards the current one
+    public void add(long epochSecond, long count) {
+        if (epochSecond > currentSecond) {
+            advance(epochSecond);
+        }
+        pending.add(count);
+    }
+
+    // Events in the last windowSeconds seconds up to and including nowSecond
+    public synchronized long sum(long nowSecond, int windowSeconds) {
+        if (windowSeconds <= 0 || windowSeconds > maxWindowSeconds) {
+            throw new IllegalArgumentException("Window must be 1 to " + maxWindowSeconds + " seconds: " + windowSeconds);
+        }
+        if (currentSecond == Long.MIN_VALUE) {
+            return 0;
+        }
+        advance(nowSecond);
+        return completed + pending.sum() - totalAt(currentSecond - windowSeconds);
+    }
+
+    public int getMaxWindowSeconds() {
+        return maxWindowSeconds;
+    }
+
+    private synchronized void advance(long now) {
+        long current = currentSecond;
+        if (now <= current) {
+            return;
+        }
+        if (current == Long.MIN_VALUE) {
+            firstSecond = now;
+        } else {
+            completed += pending.sumThenReset();
+            // Seconds without events repeat the running total; only the ones a window can still reach
+            for (long second = Math.max(current, now - totals.length); second < now; second++) {
+                int slot = (int) Math.floorMod(second, (long) totals.length);
+                totals[slot] = completed;
+                seconds[slot] = second;
+            }
+        }
+        currentSecond = now;
+    }
+
+    private long totalAt(long second) {
+        if (second < firstSecond) {
+            return 0;
+        }
+        int slot = (int) Math.floorMod(second, (long) totals.length);
+        return seconds[slot] == second ? totals[slot] : 0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.airline.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Each thread claims a range of blockSize IDs from a shared counter and hands them out locally,
+// so the shared counter is touched once per block instead of once per booking.
+// IDs are unique but only increase within a thread.
+public class BlockIdGenerator implements ReservationIdGenerator {
+    private final String prefix;
+    private final int minDigits;
+    private final int blockSize;
+    private final AtomicLong nextBlockStart;
+    private final ThreadLocal<long[]> ranges = ThreadLocal.withInitial(() -> new long[]{0, 0});
+
+    public BlockIdGenerator(int blockSize) {
+        this("RES", 4, 1, blockSize);
+    }
+
+    public BlockIdGenerator(String prefix, int minDigits, long firstId, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be at least 1. Requested: " + blockSize);
+        }
+        this.prefix = prefix;
+        this.minDigits = minDigits;
+        this.blockSize = blockSize;
+        this.nextBlockStart = new AtomicLong(firstId);
+    }
+
+    @Override
+    public String nextId() {
+        // range[0] is the next ID to hand out, range[1] the end of the block (exclusive)
+        long[] range = ranges.get();
+        if (range[0] == range[1]) {
+            range[0] = nextBlockStart.getAndAdd(blockSize);
+            range[1] = range[0] + blockSize;
+        }
+        return ReservationIdGenerator.format(prefix, range[0]++, minDigits);
+    }
+
+    @Override
+    public String[] nextIds(int count) {
+        long first = allocateBlock(count);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = format(first + i);
+        }
+        return ids;
+    }
+
+    // Blocks already claimed by running threads are unaffected; only new blocks start past the observed ID
+    @Override
+    public void observe(String reservationId) {
+        long id = ReservationIdGenerator.parse(prefix, reservationId);
+        if (id >= 0) {
+            nextBlockStart.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+
+    // Reserves count consecutive IDs in one step and returns the first of them
+    public long allocateBlock(int count) {
+        return nextBlockStart.getAndAdd(count);
+    }
+
+    public String format(long id) {
+        return ReservationIdGenerator.format(prefix, id, minDigits);
+    }
+}
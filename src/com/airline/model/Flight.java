@@ -1,18 +1,48 @@
 package com.airline.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 public class Flight {
     private String flightNumber;
+    private String origin;
     private String destination;
     private LocalDateTime departureTime;
-    private int availableSeats;
+    private LocalDateTime arrivalTime;
+    private final int capacity;
+    // Updated only through compare-and-set so concurrent bookers can never oversell
+    private volatile int availableSeats;
+    // When set, seats live in this counter instead of availableSeats
+    private volatile SeatCounter seatCounter;
+    // Which seats are taken; the seat count above stays the authority on how many are left
+    private volatile SeatMap seatMap;
+    private volatile FlightListener listener;
+
+    private static final VarHandle AVAILABLE_SEATS;
+
+    static {
+        try {
+            AVAILABLE_SEATS = MethodHandles.lookup().findVarHandle(Flight.class, "availableSeats", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     public Flight(String flightNumber, String destination, LocalDateTime departureTime, int availableSeats) {
+        this(flightNumber, null, destination, departureTime, null, availableSeats);
+    }
+
+    // Origin and arrival time are needed for connecting itineraries; flights without them are direct-search only
+    public Flight(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                  LocalDateTime arrivalTime, int availableSeats) {
         this.flightNumber = flightNumber;
+        this.origin = origin;
         this.destination = destination;
         this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.capacity = availableSeats;
         this.availableSeats = availableSeats;
     }
 
@@ -25,12 +55,27 @@ public class Flight {
         this.flightNumber = flightNumber;
     }
 
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+        if (listener != null) {
+            listener.scheduleChanged(this, destination, departureTime);
+        }
+    }
+
     public String getDestination() {
         return destination;
     }
 
     public void setDestination(String destination) {
+        String previousDestination = this.destination;
         this.destination = destination;
+        if (listener != null) {
+            listener.scheduleChanged(this, previousDestination, departureTime);
+        }
     }
 
     public LocalDateTime getDepartureTime() {
@@ -38,36 +83,122 @@ public class Flight {
     }
 
     public void setDepartureTime(LocalDateTime departureTime) {
+        LocalDateTime previousDepartureTime = this.departureTime;
         this.departureTime = departureTime;
+        if (listener != null) {
+            listener.scheduleChanged(this, destination, previousDepartureTime);
+        }
+    }
+
+    public LocalDateTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(LocalDateTime arrivalTime) {
+        this.arrivalTime = arrivalTime;
+        if (listener != null) {
+            listener.scheduleChanged(this, destination, departureTime);
+        }
     }
 
     public int getAvailableSeats() {
-        return availableSeats;
+        SeatCounter counter = seatCounter;
+        return counter == null ? availableSeats : counter.get();
     }
 
     public void setAvailableSeats(int availableSeats) {
-        this.availableSeats = availableSeats;
+        SeatCounter counter = seatCounter;
+        int previousSeats = counter == null
+                ? (int) AVAILABLE_SEATS.getAndSet(this, availableSeats)
+                : counter.getAndSet(availableSeats);
+        notifySeatsChanged(previousSeats, availableSeats);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public SeatCounter getSeatCounter() {
+        return seatCounter;
+    }
+
+    // Moves seat accounting to an external counter, which is taken as the authoritative count
+    public void useSeatCounter(SeatCounter counter) {
+        int previousSeats = getAvailableSeats();
+        this.seatCounter = counter;
+        notifySeatsChanged(previousSeats, getAvailableSeats());
+    }
+
+    public SeatMap getSeatMap() {
+        return seatMap;
+    }
+
+    // Gives the flight assigned seating. The map must have one seat per unit of capacity and is
+    // set before the flight takes bookings; seats already sold are not carried over
+    public void setSeatMap(SeatMap seatMap) {
+        if (seatMap != null && seatMap.getSeatCount() != capacity) {
+            throw new IllegalArgumentException("Seat map has " + seatMap.getSeatCount() + " seats but flight "
+                    + flightNumber + " has capacity " + capacity);
+        }
+        this.seatMap = seatMap;
+    }
+
+    public FlightListener getListener() {
+        return listener;
+    }
+
+    public void setListener(FlightListener listener) {
+        this.listener = listener;
     }
 
     public boolean bookSeats(int seats) {
         if (seats <= 0) {
             return false; // Cannot book 0 or negative seats
         }
-        if (seats <= availableSeats) {
-            availableSeats -= seats;
-            return true;
+        SeatCounter counter = seatCounter;
+        while (true) {
+            int previousSeats = counter == null ? availableSeats : counter.get();
+            if (seats > previousSeats) {
+                return false;
+            }
+            boolean updated = counter == null
+                    ? AVAILABLE_SEATS.compareAndSet(this, previousSeats, previousSeats - seats)
+                    : counter.compareAndSet(previousSeats, previousSeats - seats);
+            if (updated) {
+                notifySeatsChanged(previousSeats, previousSeats - seats);
+                return true;
+            }
+            FlightListener listener = this.listener;
+            if (listener != null) {
+                listener.seatUpdateContended(this);
+            }
         }
-        return false;
     }
 
     public void releaseSeats(int seats) {
-        availableSeats += seats;
+        if (seats <= 0) {
+            return;
+        }
+        SeatCounter counter = seatCounter;
+        int previousSeats = counter == null ? (int) AVAILABLE_SEATS.getAndAdd(this, seats) : counter.getAndAdd(seats);
+        notifySeatsChanged(previousSeats, previousSeats + seats);
+    }
+
+    private void notifySeatsChanged(int previousSeats, int currentSeats) {
+        FlightListener listener = this.listener;
+        if (listener != null) {
+            listener.seatsChanged(this, previousSeats, currentSeats);
+        }
     }
 
     @Override
     public String toString() {
-        return String.format("Flight %s to %s | Departure: %s | Available Seats: %d",
-                flightNumber, destination, departureTime, availableSeats);
+        if (origin == null) {
+            return String.format("Flight %s to %s | Departure: %s | Available Seats: %d",
+                    flightNumber, destination, departureTime, getAvailableSeats());
+        }
+        return String.format("Flight %s from %s to %s | Departure: %s | Arrival: %s | Available Seats: %d",
+                flightNumber, origin, destination, departureTime, arrivalTime, getAvailableSeats());
     }
 
     @Override
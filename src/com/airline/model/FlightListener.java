@@ -0,0 +1,15 @@
+package com.airline.model;
+
+import java.time.LocalDateTime;
+
+public interface FlightListener {
+    // Called after the destination or departure time of a flight has changed
+    void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime);
+
+    // Called after seats have been booked or released on a flight
+    void seatsChanged(Flight flight, int previousSeats, int currentSeats);
+
+    // Called when a seat update lost a compare-and-set race with another booker and is retrying
+    default void seatUpdateContended(Flight flight) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.airline.model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class Itinerary {
+    private final List<Flight> legs;
+
+    public Itinerary(List<Flight> legs) {
+        if (legs.isEmpty()) {
+            throw new IllegalArgumentException("An itinerary needs at least one flight");
+        }
+        this.legs = List.copyOf(legs);
+    }
+
+    public List<Flight> getLegs() {
+        return legs;
+    }
+
+    public int getLegCount() {
+        return legs.size();
+    }
+
+    public String getOrigin() {
+        return legs.get(0).getOrigin();
+    }
+
+    public String getDestination() {
+        return legs.get(legs.size() - 1).getDestination();
+    }
+
+    public LocalDateTime getDepartureTime() {
+        return legs.get(0).getDepartureTime();
+    }
+
+    public LocalDateTime getArrivalTime() {
+        return legs.get(legs.size() - 1).getArrivalTime();
+    }
+
+    public Duration getTotalDuration() {
+        return Duration.between(getDepartureTime(), getArrivalTime());
+    }
+
+    // Fewest seats left on any leg
+    public int getAvailableSeats() {
+        int seats = Integer.MAX_VALUE;
+        for (Flight leg : legs) {
+            seats = Math.min(seats, leg.getAvailableSeats());
+        }
+        return seats;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(getOrigin()).append(" -> ").append(getDestination())
+                .append(" | Departure: ").append(getDepartureTime())
+                .append(" | Arrival: ").append(getArrivalTime())
+                .append(" | Legs: ");
+        for (int i = 0; i < legs.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(legs.get(i).getFlightNumber());
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Itinerary itinerary = (Itinerary) o;
+        return legs.equals(itinerary.legs);
+    }
+
+    @Override
+    public int hashCode() {
+        return legs.hashCode();
+    }
+}
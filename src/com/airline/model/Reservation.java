@@ -1,6 +1,7 @@
 package com.airline.model;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
 
 public class Reservation {
@@ -9,14 +10,42 @@ public class Reservation {
     private Flight flight;
     private int seatsBooked;
     private LocalDateTime reservationTime;
-    private static int nextId = 1;
+    // Empty unless the flight has a seat map
+    private List<String> seatNumbers;
+    private static volatile ReservationIdGenerator idGenerator = new SequentialIdGenerator();
 
     public Reservation(String customerName, Flight flight, int seatsBooked) {
-        this.reservationId = "RES" + String.format("%04d", nextId++);
+        this(idGenerator.nextId(), customerName, flight, seatsBooked, LocalDateTime.now());
+    }
+
+    public Reservation(String customerName, Flight flight, int seatsBooked, List<String> seatNumbers) {
+        this(idGenerator.nextId(), customerName, flight, seatsBooked, LocalDateTime.now(), seatNumbers);
+    }
+
+    public Reservation(String reservationId, String customerName, Flight flight, int seatsBooked, LocalDateTime reservationTime) {
+        this(reservationId, customerName, flight, seatsBooked, reservationTime, List.of());
+    }
+
+    public Reservation(String reservationId, String customerName, Flight flight, int seatsBooked, LocalDateTime reservationTime,
+                       List<String> seatNumbers) {
+        if (!seatNumbers.isEmpty() && seatNumbers.size() != seatsBooked) {
+            throw new IllegalArgumentException("Reservation for " + seatsBooked + " seats lists " + seatNumbers.size() + " seat numbers");
+        }
+        this.reservationId = reservationId;
         this.customerName = customerName;
         this.flight = flight;
         this.seatsBooked = seatsBooked;
-        this.reservationTime = LocalDateTime.now();
+        this.reservationTime = reservationTime;
+        this.seatNumbers = List.copyOf(seatNumbers);
+    }
+
+    public static ReservationIdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    // Applies to reservations created after the call; IDs already handed out are unaffected
+    public static void setIdGenerator(ReservationIdGenerator idGenerator) {
+        Reservation.idGenerator = Objects.requireNonNull(idGenerator);
     }
 
     // Getters
@@ -40,10 +69,15 @@ public class Reservation {
         return reservationTime;
     }
 
+    public List<String> getSeatNumbers() {
+        return seatNumbers;
+    }
+
     @Override
     public String toString() {
-        return String.format("Reservation ID: %s\nCustomer: %s\nFlight: %s\nSeats: %d\nBooked on: %s",
-                reservationId, customerName, flight.getFlightNumber(), seatsBooked, reservationTime);
+        String seats = seatNumbers.isEmpty() ? String.valueOf(seatsBooked) : seatsBooked + " (" + String.join(", ", seatNumbers) + ")";
+        return String.format("Reservation ID: %s\nCustomer: %s\nFlight: %s\nSeats: %s\nBooked on: %s",
+                reservationId, customerName, flight.getFlightNumber(), seats, reservationTime);
     }
 
     @Override
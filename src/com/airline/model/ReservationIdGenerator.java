@@ -0,0 +1,53 @@
+package com.airline.model;
+
+public interface ReservationIdGenerator {
+    String nextId();
+
+    // IDs for a batch of reservations; implementations can claim the whole range in one step
+    default String[] nextIds(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = nextId();
+        }
+        return ids;
+    }
+
+    // Called with IDs recovered from storage so the generator never hands them out again
+    default void observe(String reservationId) {
+    }
+
+    // Parses the numeric part of an ID with the given prefix, or returns -1 if it is not one of ours
+    static long parse(String prefix, String reservationId) {
+        if (reservationId == null || !reservationId.startsWith(prefix) || reservationId.length() == prefix.length()
+                || reservationId.length() - prefix.length() > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = prefix.length(); i < reservationId.length(); i++) {
+            char c = reservationId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Appends value as decimal digits, left-padded with zeros to minDigits, without String.format
+    static String format(String prefix, long value, int minDigits) {
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int width = Math.max(digits, minDigits);
+        char[] chars = new char[prefix.length() + width];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        int pos = chars.length;
+        long v = value;
+        for (int i = 0; i < width; i++) {
+            chars[--pos] = (char) ('0' + (v % 10));
+            v /= 10;
+        }
+        return new String(chars);
+    }
+}
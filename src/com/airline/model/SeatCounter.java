@@ -0,0 +1,13 @@
+package com.airline.model;
+
+// Seat count kept outside the Flight object, for example in memory shared with other processes.
+// Implementations must make every operation atomic with respect to all users of the counter.
+public interface SeatCounter {
+    int get();
+
+    int getAndSet(int seats);
+
+    boolean compareAndSet(int expectedSeats, int newSeats);
+
+    int getAndAdd(int delta);
+}
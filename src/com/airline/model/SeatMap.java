@@ -0,0 +1,366 @@
+package com.airline.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Seat-level inventory for one flight. Each row's occupancy is a bitset in one long, updated with
+// compare-and-set, so concurrent pickers never get the same seat and nothing locks the whole flight.
+//
+// The layout is a string of cabins separated by ';'. Each cabin is a class letter (F, J, W or Y), a row
+// range, ':' and the seat letters with '-' for aisles, optionally followed by '@' and its exit rows:
+//   "J1-8:AC-DG-HK;Y20-50:ABC-DEFG-HJK@30,31"
+// Seats are named by row and letter, e.g. "21C".
+public class SeatMap {
+    public enum CabinClass {
+        FIRST('F'), BUSINESS('J'), PREMIUM_ECONOMY('W'), ECONOMY('Y');
+
+        private final char code;
+
+        CabinClass(char code) {
+            this.code = code;
+        }
+
+        static CabinClass of(char code) {
+            for (CabinClass cabin : values()) {
+                if (cabin.code == code) {
+                    return cabin;
+                }
+            }
+            throw new IllegalArgumentException("Unknown cabin class: " + code);
+        }
+    }
+
+    public enum SeatAttribute {
+        WINDOW, AISLE, MIDDLE, EXIT_ROW
+    }
+
+    private final String layout;
+    private final Row[] rows;
+    private final int[] rowIndexByNumber;
+    private final AtomicLongArray occupied;
+    private final int seatCount;
+
+    // Seat letters, aisle positions and the adjacent-seat masks, shared by every row of a cabin
+    private static final class RowLayout {
+        final String letters;
+        final long aisleSide;
+        final long window;
+        final long allSeats;
+        // windows[n] holds every mask of n adjacent seats that no aisle splits
+        final long[][] windows;
+
+        RowLayout(String spec) {
+            StringBuilder seats = new StringBuilder();
+            List<int[]> blocks = new ArrayList<>();
+            int blockStart = 0;
+            for (int i = 0; i < spec.length(); i++) {
+                char c = spec.charAt(i);
+                if (c == '-') {
+                    blocks.add(new int[]{blockStart, seats.length()});
+                    blockStart = seats.length();
+                } else if (Character.isLetter(c) && seats.indexOf(String.valueOf(c)) < 0) {
+                    seats.append(c);
+                } else {
+                    throw new IllegalArgumentException("Invalid seat letters: " + spec);
+                }
+            }
+            blocks.add(new int[]{blockStart, seats.length()});
+            this.letters = seats.toString();
+            if (letters.isEmpty() || letters.length() > 64) {
+                throw new IllegalArgumentException("A row must have 1 to 64 seats: " + spec);
+            }
+            long aisle = 0;
+            for (int[] block : blocks) {
+                if (block[1] <= block[0]) {
+                    throw new IllegalArgumentException("Empty seat block in: " + spec);
+                }
+                if (block[0] > 0) {
+                    aisle |= 1L << block[0];
+                }
+                if (block[1] < letters.length()) {
+                    aisle |= 1L << (block[1] - 1);
+                }
+            }
+            this.aisleSide = aisle;
+            this.window = 1L | (1L << (letters.length() - 1));
+            this.allSeats = letters.length() == 64 ? -1L : (1L << letters.length()) - 1;
+            this.windows = new long[letters.length() + 1][];
+            for (int n = 1; n <= letters.length(); n++) {
+                List<Long> masks = new ArrayList<>();
+                long run = n == 64 ? -1L : (1L << n) - 1;
+                for (int[] block : blocks) {
+                    for (int start = block[0]; start + n <= block[1]; start++) {
+                        masks.add(run << start);
+                    }
+                }
+                windows[n] = masks.stream().mapToLong(Long::longValue).toArray();
+            }
+        }
+
+        int position(char letter) {
+            return letters.indexOf(letter);
+        }
+    }
+
+    private static final class Row {
+        final int number;
+        final CabinClass cabin;
+        final RowLayout layout;
+        final boolean exit;
+
+        Row(int number, CabinClass cabin, RowLayout layout, boolean exit) {
+            this.number = number;
+            this.cabin = cabin;
+            this.layout = layout;
+            this.exit = exit;
+        }
+    }
+
+    public SeatMap(String layout) {
+        this.layout = layout;
+        List<Row> parsed = new ArrayList<>();
+        Map<String, RowLayout> layouts = new HashMap<>();
+        int maxRow = 0;
+        for (String cabinSpec : layout.split(";")) {
+            try {
+                String[] exitSplit = cabinSpec.trim().split("@");
+                String[] rangeAndSeats = exitSplit[0].split(":");
+                CabinClass cabin = CabinClass.of(rangeAndSeats[0].charAt(0));
+                String[] range = rangeAndSeats[0].substring(1).split("-");
+                int first = Integer.parseInt(range[0]);
+                int last = range.length > 1 ? Integer.parseInt(range[1]) : first;
+                RowLayout rowLayout = layouts.computeIfAbsent(rangeAndSeats[1], RowLayout::new);
+                Set<Integer> exits = new HashSet<>();
+                if (exitSplit.length > 1) {
+                    for (String exit : exitSplit[1].split(",")) {
+                        exits.add(Integer.parseInt(exit.trim()));
+                    }
+                }
+                if (first < 1 || last < first) {
+                    throw new IllegalArgumentException("Invalid row range in cabin: " + cabinSpec);
+                }
+                for (int number = first; number <= last; number++) {
+                    parsed.add(new Row(number, cabin, rowLayout, exits.contains(number)));
+                }
+                maxRow = Math.max(maxRow, last);
+            } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cabin layout: " + cabinSpec, e);
+            }
+        }
+        this.rows = parsed.toArray(new Row[0]);
+        this.rowIndexByNumber = new int[maxRow + 1];
+        Arrays.fill(rowIndexByNumber, -1);
+        int seats = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (rowIndexByNumber[rows[i].number] >= 0) {
+                throw new IllegalArgumentException("Row " + rows[i].number + " appears in more than one cabin");
+            }
+            rowIndexByNumber[rows[i].number] = i;
+            seats += rows[i].layout.letters.length();
+        }
+        this.seatCount = seats;
+        this.occupied = new AtomicLongArray(rows.length);
+    }
+
+    public String getLayout() {
+        return layout;
+    }
+
+    public int getSeatCount() {
+        return seatCount;
+    }
+
+    public int getAvailableSeatCount() {
+        int taken = 0;
+        for (int i = 0; i < rows.length; i++) {
+            taken += Long.bitCount(occupied.get(i));
+        }
+        return seatCount - taken;
+    }
+
+    public boolean isAvailable(String seat) {
+        int[] location = locate(seat);
+        return (occupied.get(location[0]) & (1L << location[1])) == 0;
+    }
+
+    public CabinClass getCabin(String seat) {
+        return rows[locate(seat)[0]].cabin;
+    }
+
+    public Set<SeatAttribute> getAttributes(String seat) {
+        int[] location = locate(seat);
+        Row row = rows[location[0]];
+        long bit = 1L << location[1];
+        Set<SeatAttribute> attributes = EnumSet.noneOf(SeatAttribute.class);
+        if ((row.layout.window & bit) != 0) {
+            attributes.add(SeatAttribute.WINDOW);
+        }
+        if ((row.layout.aisleSide & bit) != 0) {
+            attributes.add(SeatAttribute.AISLE);
+        }
+        if (attributes.isEmpty()) {
+            attributes.add(SeatAttribute.MIDDLE);
+        }
+        if (row.exit) {
+            attributes.add(SeatAttribute.EXIT_ROW);
+        }
+        return attributes;
+    }
+
+    // Takes count seats next to each other in one row (no aisle between them), front of the cabin first.
+    // A null cabin means any cabin. Returns the seat names, or null if no row has that many together.
+    public List<String> allocateAdjacent(int count, CabinClass cabin) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Number of seats must be at least 1. Requested: " + count);
+        }
+        for (int i = 0; i < rows.length; i++) {
+            Row row = rows[i];
+            if ((cabin != null && row.cabin != cabin) || count >= row.layout.windows.length) {
+                continue;
+            }
+            long[] masks = row.layout.windows[count];
+            long current = occupied.get(i);
+            for (int m = 0; m < masks.length; m++) {
+                long mask = masks[m];
+                if ((current & mask) != 0) {
+                    continue;
+                }
+                if (occupied.compareAndSet(i, current, current | mask)) {
+                    return names(i, mask);
+                }
+                // Another picker changed this row; look at it again from the first window
+                current = occupied.get(i);
+                m = -1;
+            }
+        }
+        return null;
+    }
+
+    // Seats together if possible, otherwise the first free seats front to back.
+    // Returns null, taking nothing, if the cabin does not have count free seats.
+    public List<String> allocate(int count, CabinClass cabin) {
+        List<String> together = allocateAdjacent(count, cabin);
+        if (together != null) {
+            return together;
+        }
+        List<String> seats = new ArrayList<>(count);
+        List<long[]> taken = new ArrayList<>();
+        for (int i = 0; i < rows.length && seats.size() < count; i++) {
+            Row row = rows[i];
+            if (cabin != null && row.cabin != cabin) {
+                continue;
+            }
+            while (true) {
+                long current = occupied.get(i);
+                long free = ~current & row.layout.allSeats;
+                long mask = 0;
+                for (int needed = count - seats.size(); free != 0 && needed > 0; needed--) {
+                    long lowest = free & -free;
+                    mask |= lowest;
+                    free &= ~lowest;
+                }
+                if (mask == 0) {
+                    break;
+                }
+                if (occupied.compareAndSet(i, current, current | mask)) {
+                    taken.add(new long[]{i, mask});
+                    seats.addAll(names(i, mask));
+                    break;
+                }
+            }
+        }
+        if (seats.size() < count) {
+            for (long[] rowMask : taken) {
+                clear((int) rowMask[0], rowMask[1]);
+            }
+            return null;
+        }
+        return seats;
+    }
+
+    // Takes exactly these seats, or none of them if any is already taken
+    public boolean claim(Collection<String> seats) {
+        Map<Integer, Long> masks = masks(seats);
+        List<Map.Entry<Integer, Long>> claimed = new ArrayList<>();
+        for (Map.Entry<Integer, Long> entry : masks.entrySet()) {
+            int index = entry.getKey();
+            long mask = entry.getValue();
+            while (true) {
+                long current = occupied.get(index);
+                if ((current & mask) != 0) {
+                    for (Map.Entry<Integer, Long> undo : claimed) {
+                        clear(undo.getKey(), undo.getValue());
+                    }
+                    return false;
+                }
+                if (occupied.compareAndSet(index, current, current | mask)) {
+                    claimed.add(entry);
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    public void release(Collection<String> seats) {
+        masks(seats).forEach(this::clear);
+    }
+
+    private Map<Integer, Long> masks(Collection<String> seats) {
+        Map<Integer, Long> masks = new TreeMap<>();
+        for (String seat : seats) {
+            int[] location = locate(seat);
+            long bit = 1L << location[1];
+            Long previous = masks.put(location[0], masks.getOrDefault(location[0], 0L) | bit);
+            if (previous != null && (previous & bit) != 0) {
+                throw new IllegalArgumentException("Seat " + seat + " is listed twice");
+            }
+        }
+        return masks;
+    }
+
+    private void clear(int index, long mask) {
+        while (true) {
+            long current = occupied.get(index);
+            if (occupied.compareAndSet(index, current, current & ~mask)) {
+                return;
+            }
+        }
+    }
+
+    private List<String> names(int index, long mask) {
+        Row row = rows[index];
+        List<String> names = new ArrayList<>(Long.bitCount(mask));
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            names.add(row.number + String.valueOf(row.layout.letters.charAt(Long.numberOfTrailingZeros(bits))));
+        }
+        return names;
+    }
+
+    // Row index and seat position for a seat name such as "21C"
+    private int[] locate(String seat) {
+        int split = 0;
+        while (split < seat.length() && Character.isDigit(seat.charAt(split))) {
+            split++;
+        }
+        if (split == 0 || split != seat.length() - 1) {
+            throw new IllegalArgumentException("Invalid seat: " + seat);
+        }
+        int number = Integer.parseInt(seat.substring(0, split));
+        int index = number < rowIndexByNumber.length ? rowIndexByNumber[number] : -1;
+        int position = index < 0 ? -1 : rows[index].layout.position(Character.toUpperCase(seat.charAt(split)));
+        if (position < 0) {
+            throw new IllegalArgumentException("No seat " + seat + " on this aircraft");
+        }
+        return new int[]{index, position};
+    }
+}
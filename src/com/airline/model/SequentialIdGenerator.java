@@ -0,0 +1,43 @@
+package com.airline.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Monotonic IDs from a single atomic counter: RES0001, RES0002, ... RES10000
+public class SequentialIdGenerator implements ReservationIdGenerator {
+    private final String prefix;
+    private final int minDigits;
+    private final AtomicLong next;
+
+    public SequentialIdGenerator() {
+        this("RES", 4, 1);
+    }
+
+    public SequentialIdGenerator(String prefix, int minDigits, long firstId) {
+        this.prefix = prefix;
+        this.minDigits = minDigits;
+        this.next = new AtomicLong(firstId);
+    }
+
+    @Override
+    public String nextId() {
+        return ReservationIdGenerator.format(prefix, next.getAndIncrement(), minDigits);
+    }
+
+    @Override
+    public String[] nextIds(int count) {
+        long first = next.getAndAdd(count);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = ReservationIdGenerator.format(prefix, first + i, minDigits);
+        }
+        return ids;
+    }
+
+    @Override
+    public void observe(String reservationId) {
+        long id = ReservationIdGenerator.parse(prefix, reservationId);
+        if (id >= 0) {
+            next.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+}
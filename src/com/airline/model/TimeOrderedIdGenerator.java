@@ -0,0 +1,68 @@
+package com.airline.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Snowflake-style IDs for multi-node use: 41 bits of milliseconds since EPOCH_MILLIS, 10 bits of node ID
+// and a 12-bit sequence per millisecond. Encoded as 13 fixed-width base-32 characters, so IDs from
+// one node sort by creation time as plain strings.
+public class TimeOrderedIdGenerator implements ReservationIdGenerator {
+    static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final String prefix;
+    private final long node;
+    // Last issued (timestamp << SEQUENCE_BITS | sequence), advanced with compare-and-set
+    private final AtomicLong lastState = new AtomicLong();
+
+    public TimeOrderedIdGenerator(int node) {
+        this("RES", node);
+    }
+
+    public TimeOrderedIdGenerator(String prefix, int node) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE + ". Requested: " + node);
+        }
+        this.prefix = prefix;
+        this.node = node;
+    }
+
+    @Override
+    public String nextId() {
+        return encode(nextRawId());
+    }
+
+    public long nextRawId() {
+        while (true) {
+            long last = lastState.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long lastTimestamp = last >>> SEQUENCE_BITS;
+            long next;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond or the clock moved back: keep counting from the last timestamp,
+                // borrowing the next millisecond when the sequence overflows
+                next = last + 1;
+            }
+            if (lastState.compareAndSet(last, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    String encode(long rawId) {
+        char[] chars = new char[prefix.length() + ENCODED_LENGTH];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        for (int i = chars.length - 1; i >= prefix.length(); i--) {
+            chars[i] = ALPHABET[(int) (rawId & 31)];
+            rawId >>>= 5;
+        }
+        return new String(chars);
+    }
+}
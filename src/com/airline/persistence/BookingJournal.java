@@ -0,0 +1,356 @@
+package com.airline.persistence;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.model.SeatMap;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Append-only binary journal of flights, schedule changes, bookings and cancellations with group commit.
+// Callers append their record and then wait until it is durable. Whichever waiter finds no flush in
+// progress writes out everything appended so far and fsyncs it once for the whole group, while the
+// others wait; appends keep going into a second buffer in the meantime.
+public class BookingJournal implements BookingLog, AutoCloseable {
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+
+    // All guarded by lock
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private long appendedPosition = -1;
+    private long durablePosition = -1;
+    private boolean flushing;
+    private IOException failure;
+    private long appendCount;
+    private long syncCount;
+
+    private BookingJournal(Path file, boolean fsync) throws IOException {
+        this.file = file;
+        this.fsync = fsync;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Opens a journal for appending after the last valid record, dropping any torn tail
+    public static BookingJournal open(Path file) throws IOException {
+        return open(file, true);
+    }
+
+    // fsync = false skips the force() on commit, trading durability on power loss for speed (tests, benchmarks)
+    public static BookingJournal open(Path file, boolean fsync) throws IOException {
+        BookingJournal journal = new BookingJournal(file, fsync);
+        try {
+            journal.startAppendingAt(JournalReader.replay(file, new JournalReplayer(null)));
+        } catch (IOException | RuntimeException e) {
+            journal.channel.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    // Rebuilds a FlightService from the journal and keeps journaling its changes to the same file
+    public static FlightService recover(Path file) throws IOException {
+        return recover(file, true);
+    }
+
+    public static FlightService recover(Path file, boolean fsync) throws IOException {
+        return recover(file, fsync, null);
+    }
+
+    // Starts from the snapshot, when there is one, and replays only the records after it
+    static FlightService recover(Path file, boolean fsync, BookingSnapshot snapshot) throws IOException {
+        BookingJournal journal = new BookingJournal(file, fsync);
+        FlightService service = new FlightService(journal);
+        try {
+            long from = JournalCodec.FILE_HEADER_SIZE;
+            if (snapshot != null) {
+                from = snapshot.getJournalPosition();
+                if (from > JournalCodec.FILE_HEADER_SIZE && journal.channel.size() < from) {
+                    throw new IOException("Journal " + file + " ends before the snapshot position " + from);
+                }
+                snapshot.restoreInto(service);
+            }
+            journal.startAppendingAt(JournalReader.replay(file, from, new JournalReplayer(service)));
+        } catch (IOException | RuntimeException e) {
+            journal.channel.close();
+            throw e;
+        }
+        return service;
+    }
+
+    void startAppendingAt(long validEnd) throws IOException {
+        if (channel.size() < JournalCodec.FILE_HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(JournalCodec.FILE_HEADER_SIZE);
+            header.putInt(JournalCodec.MAGIC).putInt(0).flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(true);
+            validEnd = JournalCodec.FILE_HEADER_SIZE;
+        } else if (channel.size() > validEnd) {
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        lock.lock();
+        try {
+            appendedPosition = validEnd;
+            durablePosition = validEnd;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flightAdded(Flight flight) {
+        commit(JournalCodec.flightAdded(flight));
+    }
+
+    @Override
+    public void flightsAdded(List<Flight> flights) {
+        if (flights.isEmpty()) {
+            return;
+        }
+        try {
+            long end = 0;
+            for (Flight flight : flights) {
+                end = append(JournalCodec.flightAdded(flight));
+            }
+            awaitDurable(end);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write booking journal " + file, e);
+        }
+    }
+
+    @Override
+    public void flightRescheduled(Flight flight) {
+        commit(JournalCodec.flightRescheduled(flight));
+    }
+
+    @Override
+    public void reservationBooked(Reservation reservation) {
+        commit(JournalCodec.reservationBooked(reservation));
+    }
+
+    @Override
+    public void reservationsBooked(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        try {
+            long end = 0;
+            for (Reservation reservation : reservations) {
+                end = append(JournalCodec.reservationBooked(reservation));
+            }
+            awaitDurable(end);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write booking journal " + file, e);
+        }
+    }
+
+    @Override
+    public void reservationCancelled(Reservation reservation) {
+        commit(JournalCodec.reservationCancelled(reservation));
+    }
+
+    private void commit(byte[] record) {
+        try {
+            awaitDurable(append(record));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write booking journal " + file, e);
+        }
+    }
+
+    // Buffers a record and returns the file position it ends at
+    long append(byte[] record) throws IOException {
+        lock.lock();
+        try {
+            checkWritable();
+            if (pending.remaining() < record.length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + record.length));
+                pending.flip();
+                larger.put(pending);
+                pending = larger;
+            }
+            pending.put(record);
+            appendedPosition += record.length;
+            appendCount++;
+            return appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void awaitDurable(long position) throws IOException {
+        lock.lock();
+        try {
+            while (durablePosition < position) {
+                checkWritable();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                // Become the flusher for everything appended so far
+                flushing = true;
+                ByteBuffer batch = pending;
+                pending = spare;
+                long start = durablePosition;
+                long target = appendedPosition;
+                IOException error = null;
+                lock.unlock();
+                try {
+                    batch.flip();
+                    long writePosition = start;
+                    while (batch.hasRemaining()) {
+                        writePosition += channel.write(batch, writePosition);
+                    }
+                    if (fsync) {
+                        channel.force(false);
+                    }
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    batch.clear();
+                    lock.lock();
+                }
+                spare = batch;
+                flushing = false;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durablePosition = target;
+                    syncCount++;
+                }
+                flushed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal is unusable after an earlier write failure", failure);
+        }
+        if (appendedPosition < 0) {
+            throw new IOException("Journal is not open for appending");
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Position up to which records are known to be on disk
+    public long getDurablePosition() {
+        lock.lock();
+        try {
+            return durablePosition;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getAppendCount() {
+        lock.lock();
+        try {
+            return appendCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Number of write-and-fsync rounds; appendCount / syncCount is the average group size
+    public long getSyncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        long position;
+        lock.lock();
+        try {
+            position = appendedPosition;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (position >= 0 && failure == null) {
+                awaitDurable(position);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    // Applies journal records to a FlightService; with a null service it only validates the records
+    static class JournalReplayer implements JournalReader.Handler {
+        private final FlightService service;
+
+        JournalReplayer(FlightService service) {
+            this.service = service;
+        }
+
+        @Override
+        public void flightAdded(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                                LocalDateTime arrivalTime, int capacity, int availableSeats, String seatLayout) {
+            if (service != null) {
+                Flight flight = new Flight(flightNumber, origin, destination, departureTime, arrivalTime, capacity);
+                flight.setAvailableSeats(availableSeats);
+                if (seatLayout != null) {
+                    flight.setSeatMap(new SeatMap(seatLayout));
+                }
+                service.restoreFlight(flight);
+            }
+        }
+
+        @Override
+        public void flightRescheduled(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                                      LocalDateTime arrivalTime) {
+            if (service != null) {
+                Flight flight = service.getFlight(flightNumber);
+                if (flight == null) {
+                    throw new IllegalStateException("Journal reschedules unknown flight " + flightNumber);
+                }
+                service.restoreSchedule(flight, origin, destination, departureTime, arrivalTime);
+            }
+        }
+
+        @Override
+        public void reservationBooked(String reservationId, String customerName, String flightNumber, int seats, LocalDateTime reservationTime,
+                                      List<String> seatNumbers) {
+            if (service != null) {
+                Flight flight = service.getFlight(flightNumber);
+                if (flight == null) {
+                    throw new IllegalStateException("Journal books " + reservationId + " on unknown flight " + flightNumber);
+                }
+                service.restoreReservation(new Reservation(reservationId, customerName, flight, seats, reservationTime, seatNumbers));
+            }
+        }
+
+        @Override
+        public void reservationCancelled(String reservationId) {
+            if (service != null) {
+                service.restoreCancellation(reservationId);
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.airline.persistence;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.model.SeatMap;
+import com.airline.service.FlightService;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Flight and reservation state as of a journal position. It is built by applying journal records, so it
+// is exactly the state a full replay up to that position would produce, and it never reads live objects
+// that bookings are changing.
+//
+// File layout: [int magic][int version][long journal position][int flight count], then per flight its
+// fields followed by [int reservation count] and its reservations, then [int CRC32C of everything before].
+class BookingSnapshot implements JournalReader.Handler {
+    static final int MAGIC = 0x46525331; // "FRS1"
+    static final int VERSION = 3; // 2 added flight origin and arrival time, 3 seat layouts and seat numbers
+
+    private final Map<String, FlightState> flights = new LinkedHashMap<>();
+    private final Map<String, FlightState> flightByReservation = new HashMap<>();
+    private long journalPosition;
+    private int reservationCount;
+
+    BookingSnapshot(long journalPosition) {
+        this.journalPosition = journalPosition;
+    }
+
+    long getJournalPosition() {
+        return journalPosition;
+    }
+
+    int getFlightCount() {
+        return flights.size();
+    }
+
+    int getReservationCount() {
+        return reservationCount;
+    }
+
+    // Applies journal records up to the given position and moves the snapshot forward to it
+    long catchUp(Path journalFile, long toPosition) throws IOException {
+        journalPosition = JournalReader.replay(journalFile, journalPosition, toPosition, this);
+        return journalPosition;
+    }
+
+    @Override
+    public void flightAdded(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                            LocalDateTime arrivalTime, int capacity, int availableSeats, String seatLayout) {
+        // FlightService rejects duplicate flight numbers, so the journal never repeats one
+        flights.putIfAbsent(flightNumber, new FlightState(flightNumber, origin, destination, departureTime,
+                arrivalTime, capacity, availableSeats, seatLayout));
+    }
+
+    @Override
+    public void flightRescheduled(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                                  LocalDateTime arrivalTime) {
+        FlightState flight = flights.get(flightNumber);
+        if (flight == null) {
+            throw new IllegalStateException("Journal reschedules unknown flight " + flightNumber);
+        }
+        flight.origin = origin;
+        flight.destination = destination;
+        flight.departureTime = departureTime;
+        flight.arrivalTime = arrivalTime;
+    }
+
+    @Override
+    public void reservationBooked(String reservationId, String customerName, String flightNumber, int seats, LocalDateTime reservationTime,
+                                  List<String> seatNumbers) {
+        FlightState flight = flights.get(flightNumber);
+        if (flight == null) {
+            throw new IllegalStateException("Journal books " + reservationId + " on unknown flight " + flightNumber);
+        }
+        if (flight.reservations.put(reservationId, new ReservationState(reservationId, customerName, seats, reservationTime, seatNumbers)) == null) {
+            reservationCount++;
+        }
+        flight.availableSeats -= seats;
+        flightByReservation.put(reservationId, flight);
+    }
+
+    @Override
+    public void reservationCancelled(String reservationId) {
+        FlightState flight = flightByReservation.remove(reservationId);
+        if (flight != null) {
+            ReservationState removed = flight.reservations.remove(reservationId);
+            flight.availableSeats += removed.seats;
+            reservationCount--;
+        }
+    }
+
+    // Re-creates the flights and reservations in a FlightService without journaling them again
+    void restoreInto(FlightService service) {
+        for (FlightState state : flights.values()) {
+            Flight flight = new Flight(state.flightNumber, state.origin, state.destination, state.departureTime,
+                    state.arrivalTime, state.capacity);
+            // restoreReservation takes the seats of each reservation off the flight again
+            int booked = 0;
+            for (ReservationState reservation : state.reservations.values()) {
+                booked += reservation.seats;
+            }
+            flight.setAvailableSeats(state.availableSeats + booked);
+            if (state.seatLayout != null) {
+                flight.setSeatMap(new SeatMap(state.seatLayout));
+            }
+            service.restoreFlight(flight);
+            for (ReservationState reservation : state.reservations.values()) {
+                service.restoreReservation(new Reservation(reservation.reservationId, reservation.customerName,
+                        flight, reservation.seats, reservation.reservationTime, reservation.seatNumbers));
+            }
+        }
+    }
+
+    void write(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (OutputStream stream = Files.newOutputStream(file)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(stream, crc), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalPosition);
+            out.writeInt(flights.size());
+            for (FlightState flight : flights.values()) {
+                writeString(out, flight.flightNumber);
+                writeString(out, flight.origin);
+                writeString(out, flight.destination);
+                writeTime(out, flight.departureTime);
+                writeTime(out, flight.arrivalTime);
+                out.writeInt(flight.capacity);
+                out.writeInt(flight.availableSeats);
+                writeString(out, flight.seatLayout);
+                out.writeInt(flight.reservations.size());
+                for (ReservationState reservation : flight.reservations.values()) {
+                    writeString(out, reservation.reservationId);
+                    writeString(out, reservation.customerName);
+                    out.writeInt(reservation.seats);
+                    writeTime(out, reservation.reservationTime);
+                    writeString(out, String.join(",", reservation.seatNumbers));
+                }
+            }
+            out.flush();
+            // The checksum covers everything above, so it is written straight to the file
+            DataOutputStream trailer = new DataOutputStream(stream);
+            trailer.writeInt((int) crc.getValue());
+            trailer.flush();
+        }
+    }
+
+    static BookingSnapshot read(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(stream, crc));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a booking snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            BookingSnapshot snapshot = new BookingSnapshot(in.readLong());
+            int flightCount = in.readInt();
+            for (int i = 0; i < flightCount; i++) {
+                FlightState flight = version == 1
+                        ? new FlightState(readString(in), null, readString(in), readTime(in), null, in.readInt(), in.readInt(), null)
+                        : new FlightState(readString(in), readString(in), readString(in), readTime(in), readTime(in), in.readInt(),
+                                in.readInt(), version >= 3 ? readString(in) : null);
+                snapshot.flights.put(flight.flightNumber, flight);
+                int reservations = in.readInt();
+                for (int j = 0; j < reservations; j++) {
+                    ReservationState reservation = new ReservationState(readString(in), readString(in), in.readInt(), readTime(in),
+                            version >= 3 ? JournalCodec.splitSeatNumbers(readString(in)) : List.of());
+                    flight.reservations.put(reservation.reservationId, reservation);
+                    snapshot.flightByReservation.put(reservation.reservationId, flight);
+                }
+                snapshot.reservationCount += reservations;
+            }
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(stream).readInt() != expected) {
+                throw new IOException("Snapshot checksum mismatch: " + file);
+            }
+            return snapshot;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        out.writeLong(time == null ? Long.MIN_VALUE : time.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(time == null ? 0 : time.getNano());
+    }
+
+    private static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static class FlightState {
+        final String flightNumber;
+        String origin;
+        String destination;
+        LocalDateTime departureTime;
+        LocalDateTime arrivalTime;
+        final int capacity;
+        int availableSeats;
+        final String seatLayout;
+        final Map<String, ReservationState> reservations = new LinkedHashMap<>();
+
+        FlightState(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                    LocalDateTime arrivalTime, int capacity, int availableSeats, String seatLayout) {
+            this.flightNumber = flightNumber;
+            this.origin = origin;
+            this.destination = destination;
+            this.departureTime = departureTime;
+            this.arrivalTime = arrivalTime;
+            this.capacity = capacity;
+            this.availableSeats = availableSeats;
+            this.seatLayout = seatLayout;
+        }
+    }
+
+    private record ReservationState(String reservationId, String customerName, int seats, LocalDateTime reservationTime,
+                                    List<String> seatNumbers) {
+    }
+}
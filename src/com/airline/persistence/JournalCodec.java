@@ -0,0 +1,181 @@
+package com.airline.persistence;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// Binary layout of journal records: [int body length][int CRC32C of body][body], where the body starts
+// with a one-byte record type. Strings are a short byte length (-1 for null) followed by UTF-8 bytes;
+// timestamps are UTC epoch seconds plus nanoseconds. Fields added later go at the end of a body and are
+// only written when set, so older records simply end before them.
+final class JournalCodec {
+    static final int MAGIC = 0x46524a31; // "FRJ1"
+    static final int FILE_HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+
+    static final byte FLIGHT_ADDED = 1;
+    static final byte RESERVATION_BOOKED = 2;
+    static final byte RESERVATION_CANCELLED = 3;
+    // Replaces FLIGHT_ADDED with origin and arrival time; FLIGHT_ADDED is still read from older journals
+    static final byte FLIGHT_SCHEDULED = 4;
+    // A flight's whole schedule after a change to its origin, destination or times
+    static final byte FLIGHT_RESCHEDULED = 5;
+
+    private JournalCodec() {
+    }
+
+    static byte[] flightAdded(Flight flight) {
+        byte[] number = utf8(flight.getFlightNumber());
+        byte[] origin = utf8(flight.getOrigin());
+        byte[] destination = utf8(flight.getDestination());
+        byte[] seatLayout = flight.getSeatMap() == null ? null : utf8(flight.getSeatMap().getLayout());
+        ByteBuffer body = body(1 + string(number) + string(origin) + string(destination) + 2 * time() + 8
+                + (seatLayout == null ? 0 : string(seatLayout)));
+        body.put(FLIGHT_SCHEDULED);
+        putString(body, number);
+        putString(body, origin);
+        putString(body, destination);
+        putTime(body, flight.getDepartureTime());
+        putTime(body, flight.getArrivalTime());
+        body.putInt(flight.getCapacity());
+        body.putInt(flight.getAvailableSeats());
+        if (seatLayout != null) {
+            putString(body, seatLayout);
+        }
+        return seal(body);
+    }
+
+    static byte[] flightRescheduled(Flight flight) {
+        byte[] number = utf8(flight.getFlightNumber());
+        byte[] origin = utf8(flight.getOrigin());
+        byte[] destination = utf8(flight.getDestination());
+        ByteBuffer body = body(1 + string(number) + string(origin) + string(destination) + 2 * time());
+        body.put(FLIGHT_RESCHEDULED);
+        putString(body, number);
+        putString(body, origin);
+        putString(body, destination);
+        putTime(body, flight.getDepartureTime());
+        putTime(body, flight.getArrivalTime());
+        return seal(body);
+    }
+
+    static byte[] reservationBooked(Reservation reservation) {
+        byte[] id = utf8(reservation.getReservationId());
+        byte[] customer = utf8(reservation.getCustomerName());
+        byte[] flight = utf8(reservation.getFlight().getFlightNumber());
+        byte[] seatNumbers = reservation.getSeatNumbers().isEmpty() ? null : utf8(String.join(",", reservation.getSeatNumbers()));
+        ByteBuffer body = body(1 + string(id) + string(customer) + string(flight) + 4 + time()
+                + (seatNumbers == null ? 0 : string(seatNumbers)));
+        body.put(RESERVATION_BOOKED);
+        putString(body, id);
+        putString(body, customer);
+        putString(body, flight);
+        body.putInt(reservation.getSeatsBooked());
+        putTime(body, reservation.getReservationTime());
+        if (seatNumbers != null) {
+            putString(body, seatNumbers);
+        }
+        return seal(body);
+    }
+
+    static byte[] reservationCancelled(Reservation reservation) {
+        byte[] id = utf8(reservation.getReservationId());
+        ByteBuffer body = body(1 + string(id));
+        body.put(RESERVATION_CANCELLED);
+        putString(body, id);
+        return seal(body);
+    }
+
+    // Leaves room for the record header, which seal fills in once the body is complete
+    private static ByteBuffer body(int bodyLength) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + bodyLength);
+        buffer.position(RECORD_HEADER_SIZE);
+        return buffer;
+    }
+
+    private static byte[] seal(ByteBuffer buffer) {
+        byte[] record = buffer.array();
+        int bodyLength = record.length - RECORD_HEADER_SIZE;
+        buffer.putInt(0, bodyLength);
+        buffer.putInt(4, checksum(buffer, RECORD_HEADER_SIZE, bodyLength));
+        return record;
+    }
+
+    static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int string(byte[] bytes) {
+        return 2 + (bytes == null ? 0 : bytes.length);
+    }
+
+    private static int time() {
+        return 12;
+    }
+
+    static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putShort((short) -1);
+        } else {
+            if (bytes.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Value too long for the journal: " + bytes.length + " bytes");
+            }
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(buffer.position(), bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    // Optional trailing string: null when the record ends before it
+    static String getOptionalString(ByteBuffer buffer) {
+        return buffer.hasRemaining() ? getString(buffer) : null;
+    }
+
+    static List<String> splitSeatNumbers(String seatNumbers) {
+        return seatNumbers == null || seatNumbers.isEmpty() ? List.of() : List.of(seatNumbers.split(","));
+    }
+
+    static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        if (time == null) {
+            buffer.putLong(Long.MIN_VALUE);
+            buffer.putInt(0);
+        } else {
+            buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(time.getNano());
+        }
+    }
+
+    static LocalDateTime getTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,124 @@
+package com.airline.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Replays a booking journal through memory-mapped windows of the file. Stops at the first torn or
+// corrupt record, which is where an interrupted append left off.
+public class JournalReader {
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+
+    public interface Handler {
+        void flightAdded(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                         LocalDateTime arrivalTime, int capacity, int availableSeats, String seatLayout);
+
+        void flightRescheduled(String flightNumber, String origin, String destination, LocalDateTime departureTime,
+                               LocalDateTime arrivalTime);
+
+        void reservationBooked(String reservationId, String customerName, String flightNumber, int seats, LocalDateTime reservationTime,
+                               List<String> seatNumbers);
+
+        void reservationCancelled(String reservationId);
+    }
+
+    private JournalReader() {
+    }
+
+    // Returns the file position just past the last valid record
+    public static long replay(Path file, Handler handler) throws IOException {
+        return replay(file, JournalCodec.FILE_HEADER_SIZE, handler);
+    }
+
+    public static long replay(Path file, long fromPosition, Handler handler) throws IOException {
+        return replay(file, fromPosition, Long.MAX_VALUE, handler);
+    }
+
+    // Replays records that lie entirely between fromPosition and toPosition
+    public static long replay(Path file, long fromPosition, long toPosition, Handler handler) throws IOException {
+        if (!Files.exists(file)) {
+            return JournalCodec.FILE_HEADER_SIZE;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = Math.min(channel.size(), toPosition);
+            if (channel.size() < JournalCodec.FILE_HEADER_SIZE) {
+                return JournalCodec.FILE_HEADER_SIZE;
+            }
+            checkHeader(channel.map(FileChannel.MapMode.READ_ONLY, 0, JournalCodec.FILE_HEADER_SIZE), file);
+
+            long position = Math.max(fromPosition, JournalCodec.FILE_HEADER_SIZE);
+            while (position < size) {
+                long windowSize = Math.min(WINDOW_SIZE, size - position);
+                boolean lastWindow = position + windowSize == size;
+                int consumed = replayWindow(channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize), handler);
+                position += consumed;
+                // Whatever is left of the last window is a torn tail; in earlier windows a record that
+                // straddles the boundary is picked up by the next window, and no progress means corruption
+                if (lastWindow || consumed == 0) {
+                    break;
+                }
+            }
+            return position;
+        }
+    }
+
+    static void checkHeader(ByteBuffer header, Path file) throws IOException {
+        if (header.getInt(0) != JournalCodec.MAGIC) {
+            throw new IOException("Not a booking journal: " + file);
+        }
+    }
+
+    // Replays whole records from the window and returns the number of bytes consumed
+    private static int replayWindow(ByteBuffer window, Handler handler) {
+        int position = 0;
+        int limit = window.limit();
+        while (limit - position >= JournalCodec.RECORD_HEADER_SIZE) {
+            int bodyLength = window.getInt(position);
+            if (bodyLength <= 0 || bodyLength > limit - position - JournalCodec.RECORD_HEADER_SIZE) {
+                break;
+            }
+            int bodyStart = position + JournalCodec.RECORD_HEADER_SIZE;
+            if (JournalCodec.checksum(window, bodyStart, bodyLength) != window.getInt(position + 4)) {
+                break;
+            }
+            ByteBuffer body = window.slice(bodyStart, bodyLength);
+            dispatch(body, handler);
+            position = bodyStart + bodyLength;
+        }
+        return position;
+    }
+
+    static void dispatch(ByteBuffer body, Handler handler) {
+        byte type = body.get();
+        switch (type) {
+            case JournalCodec.FLIGHT_ADDED:
+                handler.flightAdded(JournalCodec.getString(body), null, JournalCodec.getString(body),
+                        JournalCodec.getTime(body), null, body.getInt(), body.getInt(), null);
+                break;
+            case JournalCodec.FLIGHT_SCHEDULED:
+                handler.flightAdded(JournalCodec.getString(body), JournalCodec.getString(body), JournalCodec.getString(body),
+                        JournalCodec.getTime(body), JournalCodec.getTime(body), body.getInt(), body.getInt(),
+                        JournalCodec.getOptionalString(body));
+                break;
+            case JournalCodec.FLIGHT_RESCHEDULED:
+                handler.flightRescheduled(JournalCodec.getString(body), JournalCodec.getString(body), JournalCodec.getString(body),
+                        JournalCodec.getTime(body), JournalCodec.getTime(body));
+                break;
+            case JournalCodec.RESERVATION_BOOKED:
+                handler.reservationBooked(JournalCodec.getString(body), JournalCodec.getString(body),
+                        JournalCodec.getString(body), body.getInt(), JournalCodec.getTime(body),
+                        JournalCodec.splitSeatNumbers(JournalCodec.getOptionalString(body)));
+                break;
+            case JournalCodec.RESERVATION_CANCELLED:
+                handler.reservationCancelled(JournalCodec.getString(body));
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.airline.persistence;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.FlightService;
+
+import java.nio.ByteBuffer;
+
+// Single journal records as byte arrays, for shipping the booking stream to another node instead of a file.
+// The bytes are exactly what BookingJournal appends, header and checksum included.
+public final class JournalRecords {
+    private JournalRecords() {
+    }
+
+    public static byte[] flightAdded(Flight flight) {
+        return JournalCodec.flightAdded(flight);
+    }
+
+    public static byte[] flightRescheduled(Flight flight) {
+        return JournalCodec.flightRescheduled(flight);
+    }
+
+    public static byte[] reservationBooked(Reservation reservation) {
+        return JournalCodec.reservationBooked(reservation);
+    }
+
+    public static byte[] reservationCancelled(Reservation reservation) {
+        return JournalCodec.reservationCancelled(reservation);
+    }
+
+    // Hands one record to the handler; throws IllegalArgumentException if it is torn or corrupt
+    public static void replay(byte[] record, JournalReader.Handler handler) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        int bodyLength = record.length - JournalCodec.RECORD_HEADER_SIZE;
+        if (bodyLength <= 0 || buffer.getInt(0) != bodyLength
+                || JournalCodec.checksum(buffer, JournalCodec.RECORD_HEADER_SIZE, bodyLength) != buffer.getInt(4)) {
+            throw new IllegalArgumentException("Corrupt journal record of " + record.length + " bytes");
+        }
+        JournalReader.dispatch(buffer.slice(JournalCodec.RECORD_HEADER_SIZE, bodyLength), handler);
+    }
+
+    // Applies records to the service through its restore methods, as journal recovery does
+    public static JournalReader.Handler applyTo(FlightService service) {
+        return new BookingJournal.JournalReplayer(service);
+    }
+}
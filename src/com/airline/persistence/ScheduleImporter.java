@@ -0,0 +1,632 @@
+package com.airline.persistence;
+
+import com.airline.model.Flight;
+import com.airline.service.FlightService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Bulk schedule loading from CSV or the compact binary schedule format. Files are memory-mapped and cut
+// into chunks that are parsed in parallel on a fork-join pool, each chunk mapping only its own part of the
+// file. Parsing works on the mapped bytes: airport names are decoded once per chunk and shared, and equal
+// timestamps share one LocalDateTime, so most rows cost one Flight, one flight number and two timestamps
+// at most. Flights come back in file order; load hands them to FlightService.addFlights in one batch.
+//
+// CSV: flightNumber,origin,destination,departureTime,arrivalTime,capacity with times as 2024-01-15T10:30 or
+// 2024-01-15T10:30:00. Origin and arrival time may be empty; fields may be double-quoted but cannot span
+// lines, since chunks are cut at line breaks; an optional header line starting with "flightNumber", blank
+// lines and lines starting with # are skipped.
+//
+// Binary: [int magic "FRS1"][int version][int airport count][int flight count], the airport names as a
+// short length plus UTF-8 bytes, then one fixed 36-byte record per flight: [byte number length][15 bytes
+// flight number][int origin index or -1][int destination index][int departure][int arrival or MIN_VALUE]
+// [int capacity], with times in UTC epoch minutes.
+public final class ScheduleImporter {
+    static final int BINARY_MAGIC = 0x46525331; // "FRS1"
+    static final int BINARY_VERSION = 1;
+    static final int RECORD_SIZE = 36;
+    static final int MAX_FLIGHT_NUMBER = 15;
+    static final int MAX_LINE = 4096;
+    private static final int NO_TIME = Integer.MIN_VALUE;
+    private static final long MIN_CHUNK = 1 << 20;
+
+    private ScheduleImporter() {
+    }
+
+    // Loads the file into the service, picking the format from its first bytes; returns the number of flights
+    public static int load(Path file, FlightService service) throws IOException {
+        List<Flight> flights = read(file);
+        service.addFlights(flights);
+        return flights.size();
+    }
+
+    public static List<Flight> read(Path file) throws IOException {
+        return read(file, ForkJoinPool.commonPool());
+    }
+
+    public static List<Flight> read(Path file, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() >= 4 && channel.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt(0) == BINARY_MAGIC) {
+                return readBinary(channel, file, pool);
+            }
+            return readCsv(channel, pool);
+        }
+    }
+
+    public static List<Flight> readCsv(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readCsv(channel, ForkJoinPool.commonPool());
+        }
+    }
+
+    public static List<Flight> readBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readBinary(channel, file, ForkJoinPool.commonPool());
+        }
+    }
+
+    private static List<Flight> readCsv(FileChannel channel, ForkJoinPool pool) throws IOException {
+        long size = channel.size();
+        long chunkSize = chunkSize(size, pool);
+        List<ForkJoinTask<List<Flight>>> chunks = new ArrayList<>();
+        for (long start = 0; start < size; start += chunkSize) {
+            long from = start;
+            long to = Math.min(size, start + chunkSize);
+            chunks.add(pool.submit(() -> new CsvChunk(channel, size, from, to).parse()));
+        }
+        return join(chunks);
+    }
+
+    private static List<Flight> readBinary(FileChannel channel, Path file, ForkJoinPool pool) throws IOException {
+        long size = channel.size();
+        if (size < 16) {
+            throw new IOException("Not a binary schedule: " + file);
+        }
+        ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+        if (header.getInt(0) != BINARY_MAGIC || header.getInt(4) != BINARY_VERSION) {
+            throw new IOException("Not a version " + BINARY_VERSION + " binary schedule: " + file);
+        }
+        String[] airports = new String[header.getInt(8)];
+        int flightCount = header.getInt(12);
+        header.position(16);
+        for (int i = 0; i < airports.length; i++) {
+            airports[i] = JournalCodec.getString(header);
+        }
+        long recordsStart = header.position();
+        if (size != recordsStart + (long) flightCount * RECORD_SIZE) {
+            throw new IOException("Binary schedule " + file + " should hold " + flightCount + " flights but is " + size + " bytes");
+        }
+        long perChunk = Math.max(1, chunkSize(size, pool) / RECORD_SIZE);
+        List<ForkJoinTask<List<Flight>>> chunks = new ArrayList<>();
+        for (long first = 0; first < flightCount; first += perChunk) {
+            long position = recordsStart + first * RECORD_SIZE;
+            int count = (int) Math.min(perChunk, flightCount - first);
+            long firstRecord = first;
+            chunks.add(pool.submit(() -> parseRecords(channel.map(FileChannel.MapMode.READ_ONLY, position, (long) count * RECORD_SIZE),
+                    firstRecord, count, airports)));
+        }
+        return join(chunks);
+    }
+
+    private static long chunkSize(long size, ForkJoinPool pool) {
+        // A few chunks per worker so an uneven chunk does not leave the others idle
+        long chunks = Math.max(1, pool.getParallelism() * 4L);
+        return Math.max(MIN_CHUNK, Math.min(Integer.MAX_VALUE - MAX_LINE, (size + chunks - 1) / chunks));
+    }
+
+    private static List<Flight> join(List<ForkJoinTask<List<Flight>>> chunks) throws IOException {
+        List<List<Flight>> parsed = new ArrayList<>(chunks.size());
+        int total = 0;
+        try {
+            for (ForkJoinTask<List<Flight>> chunk : chunks) {
+                List<Flight> flights = chunk.join();
+                parsed.add(flights);
+                total += flights.size();
+            }
+        } catch (RuntimeException e) {
+            RuntimeException failure = unwrap(e);
+            if (failure instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw failure;
+        }
+        List<Flight> flights = new ArrayList<>(total);
+        for (List<Flight> part : parsed) {
+            flights.addAll(part);
+        }
+        return flights;
+    }
+
+    // join rethrows a failure from another worker as a copy of the same type whose cause is the original
+    private static RuntimeException unwrap(RuntimeException e) {
+        if (e.getCause() instanceof RuntimeException cause && cause.getClass() == e.getClass()) {
+            return cause;
+        }
+        return e;
+    }
+
+    private static List<Flight> parseRecords(ByteBuffer records, long firstRecord, int count, String[] airports) {
+        TimeCache times = new TimeCache();
+        byte[] number = new byte[MAX_FLIGHT_NUMBER];
+        List<Flight> flights = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int at = i * RECORD_SIZE;
+            int length = records.get(at);
+            if (length <= 0 || length > MAX_FLIGHT_NUMBER) {
+                throw new IllegalArgumentException("Corrupt binary schedule record " + (firstRecord + i) + ": flight number length " + length);
+            }
+            records.get(at + 1, number, 0, length);
+            int origin = records.getInt(at + 16);
+            int destination = records.getInt(at + 20);
+            if (origin < -1 || origin >= airports.length || destination < 0 || destination >= airports.length) {
+                throw new IllegalArgumentException("Corrupt binary schedule record " + (firstRecord + i) + ": airport indexes "
+                        + origin + " and " + destination + " with " + airports.length + " airports");
+            }
+            int arrival = records.getInt(at + 28);
+            flights.add(new Flight(new String(number, 0, length, StandardCharsets.UTF_8), origin < 0 ? null : airports[origin],
+                    airports[destination], times.ofEpochMinute(records.getInt(at + 24)),
+                    arrival == NO_TIME ? null : times.ofEpochMinute(arrival), records.getInt(at + 32)));
+        }
+        return flights;
+    }
+
+    public static void writeCsv(Path file, Collection<Flight> flights) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("flightNumber,origin,destination,departureTime,arrivalTime,capacity\n");
+            for (Flight flight : flights) {
+                out.write(csvField(flight.getFlightNumber()));
+                out.write(',');
+                out.write(csvField(flight.getOrigin()));
+                out.write(',');
+                out.write(csvField(flight.getDestination()));
+                out.write(',');
+                out.write(csvTime(flight.getDepartureTime()));
+                out.write(',');
+                out.write(csvTime(flight.getArrivalTime()));
+                out.write(',');
+                out.write(Integer.toString(flight.getCapacity()));
+                out.write('\n');
+            }
+        }
+    }
+
+    public static void writeBinary(Path file, Collection<Flight> flights) throws IOException {
+        Map<String, Integer> airports = new LinkedHashMap<>();
+        for (Flight flight : flights) {
+            if (flight.getOrigin() != null) {
+                airports.putIfAbsent(flight.getOrigin(), airports.size());
+            }
+            airports.putIfAbsent(flight.getDestination(), airports.size());
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putInt(BINARY_MAGIC).putInt(BINARY_VERSION).putInt(airports.size()).putInt(flights.size());
+            for (String airport : airports.keySet()) {
+                byte[] name = airport.getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 2 + name.length) {
+                    drain(channel, buffer);
+                }
+                JournalCodec.putString(buffer, name);
+            }
+            for (Flight flight : flights) {
+                if (buffer.remaining() < RECORD_SIZE) {
+                    drain(channel, buffer);
+                }
+                byte[] number = flight.getFlightNumber().getBytes(StandardCharsets.UTF_8);
+                if (number.length == 0 || number.length > MAX_FLIGHT_NUMBER) {
+                    throw new IllegalArgumentException("Flight number must be 1 to " + MAX_FLIGHT_NUMBER + " bytes: " + flight.getFlightNumber());
+                }
+                int at = buffer.position();
+                buffer.put((byte) number.length).put(number).position(at + 16);
+                buffer.putInt(flight.getOrigin() == null ? -1 : airports.get(flight.getOrigin()));
+                buffer.putInt(airports.get(flight.getDestination()));
+                buffer.putInt(epochMinute(flight.getDepartureTime(), flight));
+                buffer.putInt(flight.getArrivalTime() == null ? NO_TIME : epochMinute(flight.getArrivalTime(), flight));
+                buffer.putInt(flight.getCapacity());
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int epochMinute(LocalDateTime time, Flight flight) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            throw new IllegalArgumentException("Binary schedules hold whole minutes; flight " + flight.getFlightNumber() + " has " + time);
+        }
+        return Math.toIntExact(time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("CSV schedule fields cannot contain line breaks: " + value);
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String csvTime(LocalDateTime time) {
+        return time == null ? "" : time.truncatedTo(ChronoUnit.SECONDS).toString();
+    }
+
+    // Parses the lines that start inside [from, to) of the file; a line running past to is read to its end
+    private static final class CsvChunk {
+        private static final int FIELDS = 6;
+
+        private final FileChannel channel;
+        private final long fileSize;
+        private final long from;
+        private final long to;
+        private final TimeCache times = new TimeCache();
+        private final TextPool airports = new TextPool();
+        private final Map<String, String> quotedAirports = new HashMap<>();
+        private final int[] fieldStart = new int[FIELDS];
+        private final int[] fieldEnd = new int[FIELDS];
+        private final boolean[] quoted = new boolean[FIELDS];
+        private byte[] scratch = new byte[64];
+        private ByteBuffer buffer;
+        private int lineStart;
+        private long mapStart;
+
+        CsvChunk(FileChannel channel, long fileSize, long from, long to) {
+            this.channel = channel;
+            this.fileSize = fileSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        List<Flight> parse() {
+            mapStart = Math.max(0, from - 1);
+            long mapEnd = Math.min(fileSize, to + MAX_LINE);
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int position = (int) (from - mapStart);
+            int limit = (int) (to - mapStart);
+            boolean lastChunk = mapEnd == fileSize;
+            List<Flight> flights = new ArrayList<>((int) Math.min(Integer.MAX_VALUE - 8, (to - from) / 48));
+            // A line that started in the previous chunk belongs to that chunk
+            if (from > 0 && buffer.get(position - 1) != '\n') {
+                position = lineEnd(position, lastChunk) + 1;
+            }
+            boolean first = from == 0;
+            while (position < limit) {
+                int end = lineEnd(position, lastChunk);
+                int contentEnd = end > position && buffer.get(end - 1) == '\r' ? end - 1 : end;
+                if (contentEnd > position && buffer.get(position) != '#' && !(first && startsWith(position, contentEnd, "flightNumber"))) {
+                    flights.add(parseLine(position, contentEnd));
+                }
+                first = false;
+                position = end + 1;
+            }
+            return flights;
+        }
+
+        private int lineEnd(int position, boolean lastChunk) {
+            int limit = buffer.limit();
+            for (int i = position; i < limit; i++) {
+                if (buffer.get(i) == '\n') {
+                    return i;
+                }
+            }
+            if (!lastChunk) {
+                throw error(position, "line is longer than " + MAX_LINE + " bytes");
+            }
+            return limit;
+        }
+
+        private boolean startsWith(int position, int end, String prefix) {
+            if (end - position < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (buffer.get(position + i) != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Flight parseLine(int position, int end) {
+            lineStart = position;
+            int field = 0;
+            int at = position;
+            while (true) {
+                if (field == FIELDS) {
+                    throw error(position, "more than " + FIELDS + " fields");
+                }
+                quoted[field] = at < end && buffer.get(at) == '"';
+                if (quoted[field]) {
+                    fieldStart[field] = at + 1;
+                    at++;
+                    while (true) {
+                        if (at >= end) {
+                            throw error(position, "unterminated quote");
+                        }
+                        if (buffer.get(at) == '"') {
+                            if (at + 1 < end && buffer.get(at + 1) == '"') {
+                                at += 2;
+                                continue;
+                            }
+                            break;
+                        }
+                        at++;
+                    }
+                    fieldEnd[field] = at;
+                    at++;
+                    if (at < end && buffer.get(at) != ',') {
+                        throw error(position, "text after a closing quote");
+                    }
+                } else {
+                    fieldStart[field] = at;
+                    while (at < end && buffer.get(at) != ',') {
+                        at++;
+                    }
+                    fieldEnd[field] = at;
+                }
+                field++;
+                if (at >= end) {
+                    break;
+                }
+                at++; // the comma
+            }
+            if (field != FIELDS) {
+                throw error(position, "expected " + FIELDS + " fields but found " + field);
+            }
+            if (fieldStart[0] == fieldEnd[0] || fieldStart[2] == fieldEnd[2] || fieldStart[3] == fieldEnd[3]) {
+                throw error(position, "flight number, destination and departure time are required");
+            }
+            try {
+                return new Flight(text(0), airport(1), airport(2), time(3), time(4), number(5, position));
+            } catch (DateTimeException e) {
+                throw error(position, e.getMessage());
+            }
+        }
+
+        private String text(int field) {
+            int length = fieldEnd[field] - fieldStart[field];
+            if (quoted[field]) {
+                return unquote(field);
+            }
+            if (scratch.length < length) {
+                scratch = new byte[length * 2];
+            }
+            buffer.get(fieldStart[field], scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private String airport(int field) {
+            if (fieldStart[field] == fieldEnd[field]) {
+                return null;
+            }
+            if (quoted[field]) {
+                String name = unquote(field);
+                return quotedAirports.computeIfAbsent(name, n -> n);
+            }
+            return airports.get(buffer, fieldStart[field], fieldEnd[field]);
+        }
+
+        private String unquote(int field) {
+            byte[] bytes = new byte[fieldEnd[field] - fieldStart[field]];
+            buffer.get(fieldStart[field], bytes);
+            return new String(bytes, StandardCharsets.UTF_8).replace("\"\"", "\"");
+        }
+
+        // yyyy-MM-ddTHH:mm or yyyy-MM-ddTHH:mm:ss; a space may stand in for the T
+        private LocalDateTime time(int field) {
+            int at = fieldStart[field];
+            int length = fieldEnd[field] - at;
+            if (length == 0) {
+                return null;
+            }
+            if ((length != 16 && length != 19) || buffer.get(at + 4) != '-' || buffer.get(at + 7) != '-'
+                    || (buffer.get(at + 10) != 'T' && buffer.get(at + 10) != ' ') || buffer.get(at + 13) != ':'
+                    || (length == 19 && buffer.get(at + 16) != ':')) {
+                throw error(lineStart, "time must look like 2024-01-15T10:30");
+            }
+            int year = digits(at, 4);
+            int month = digits(at + 5, 2);
+            int day = digits(at + 8, 2);
+            int hour = digits(at + 11, 2);
+            int minute = digits(at + 14, 2);
+            int second = length == 19 ? digits(at + 17, 2) : 0;
+            return times.of(year, month, day, hour, minute, second);
+        }
+
+        private int digits(int at, int count) {
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                int digit = buffer.get(at + i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw error(lineStart, "expected a digit");
+                }
+                value = value * 10 + digit;
+            }
+            return value;
+        }
+
+        private int number(int field, int line) {
+            int at = fieldStart[field];
+            int end = fieldEnd[field];
+            if (at == end || end - at > 9) {
+                throw error(line, "capacity must be a number of seats");
+            }
+            int value = digits(at, end - at);
+            if (value <= 0) {
+                throw error(line, "capacity must be positive");
+            }
+            return value;
+        }
+
+        private IllegalArgumentException error(int position, String message) {
+            return new IllegalArgumentException("Schedule line at byte " + (mapStart + position) + ": " + message);
+        }
+    }
+
+    // Decoded strings keyed by their bytes, so a name that repeats on every line is decoded once per chunk
+    private static final class TextPool {
+        private byte[][] keys = new byte[256][];
+        private String[] values = new String[256];
+        private int size;
+
+        String get(ByteBuffer buffer, int from, int to) {
+            int hash = 1;
+            for (int i = from; i < to; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+            int mask = keys.length - 1;
+            int slot = mix(hash) & mask;
+            for (byte[] key = keys[slot]; key != null; key = keys[slot]) {
+                if (key.length == to - from && matches(key, buffer, from)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            byte[] key = new byte[to - from];
+            buffer.get(from, key);
+            String value = new String(key, StandardCharsets.UTF_8);
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return value;
+        }
+
+        private static boolean matches(byte[] key, ByteBuffer buffer, int from) {
+            for (int i = 0; i < key.length; i++) {
+                if (key[i] != buffer.get(from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = mix(Arrays.hashCode(oldKeys[i])) & mask;
+                    while (keys[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    // One LocalDateTime per distinct timestamp in a chunk; schedules repeat the same departure banks all season
+    private static final class TimeCache {
+        private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+        private long[] keys = new long[1024];
+        private LocalDateTime[] values = new LocalDateTime[1024];
+        private int size;
+
+        LocalDateTime ofEpochMinute(int epochMinute) {
+            LocalDateTime cached = lookup(epochMinute * 60L);
+            return cached != null ? cached : store(epochMinute * 60L, LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC));
+        }
+
+        LocalDateTime of(int year, int month, int day, int hour, int minute, int second) {
+            if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month) || hour > 23 || minute > 59 || second > 59) {
+                throw new DateTimeException(String.format("invalid date or time %04d-%02d-%02dT%02d:%02d:%02d", year, month, day, hour, minute, second));
+            }
+            long epochSecond = epochDay(year, month, day) * 86_400 + hour * 3_600L + minute * 60L + second;
+            LocalDateTime cached = lookup(epochSecond);
+            return cached != null ? cached : store(epochSecond, LocalDateTime.of(year, month, day, hour, minute, second));
+        }
+
+        private LocalDateTime lookup(long key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(Long.hashCode(key)) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        private LocalDateTime store(long key, LocalDateTime value) {
+            int mask = keys.length - 1;
+            int slot = mix(Long.hashCode(key)) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                long[] oldKeys = keys;
+                LocalDateTime[] oldValues = values;
+                keys = new long[oldKeys.length * 2];
+                values = new LocalDateTime[oldKeys.length * 2];
+                size = 0;
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldValues[i] != null) {
+                        store(oldKeys[i], oldValues[i]);
+                    }
+                }
+            }
+            return value;
+        }
+
+        private static int daysInMonth(int year, int month) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return month == 2 && leap ? 29 : DAYS_IN_MONTH[month - 1];
+        }
+
+        // Days since 1970-01-01 in the proleptic Gregorian calendar, without building a LocalDate
+        private static long epochDay(int year, int month, int day) {
+            long y = month <= 2 ? year - 1 : year;
+            long era = Math.floorDiv(y, 400);
+            long yearOfEra = y - era * 400;
+            long dayOfYear = (153L * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+            long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+            return era * 146_097 + dayOfEra - 719_468;
+        }
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16) ^ (hash >>> 7);
+    }
+}
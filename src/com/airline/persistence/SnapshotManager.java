@@ -0,0 +1,173 @@
+package com.airline.persistence;
+
+import com.airline.service.FlightService;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Writes periodic snapshots of the journaled state so recovery only replays the journal tail.
+// The manager keeps its own copy of the state and moves it forward by applying the journal records
+// written since the last snapshot, up to the durable position. Bookings never wait for a snapshot, and
+// each snapshot is exactly the state at a journal position.
+public class SnapshotManager implements AutoCloseable {
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private final BookingJournal journal;
+    private final Path directory;
+    private BookingSnapshot state;
+    private ScheduledExecutorService scheduler;
+    private final LongAdder failures = new LongAdder();
+    private volatile Exception lastFailure;
+
+    public SnapshotManager(BookingJournal journal, Path directory) throws IOException {
+        this.journal = journal;
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.state = loadLatestOrEmpty(directory, this::failed);
+    }
+
+    // Background snapshots that failed and snapshot files skipped as unreadable
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    // The most recent of those failures, or null if there was none
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    private void failed(Exception e) {
+        lastFailure = e;
+        failures.increment();
+    }
+
+    // Takes a snapshot every interval on a background thread
+    public synchronized void start(Duration interval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "booking-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (IOException | RuntimeException e) {
+                // The next run starts again from the last good snapshot
+                failed(e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized SnapshotStats snapshot() throws IOException {
+        long begin = System.nanoTime();
+        long from = state.getJournalPosition();
+        try {
+            state.catchUp(journal.getFile(), journal.getDurablePosition());
+        } catch (IOException | RuntimeException e) {
+            // The in-memory copy may be half updated; start again from the last good file next time
+            state = loadLatestOrEmpty(directory, this::failed);
+            throw e;
+        }
+        long caughtUp = System.nanoTime();
+
+        long position = state.getJournalPosition();
+        Path target = directory.resolve(fileName(position));
+        Path temporary = directory.resolve(fileName(position) + ".tmp");
+        state.write(temporary);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long written = System.nanoTime();
+        deleteOlderSnapshots();
+
+        return new SnapshotStats(position, position - from, state.getFlightCount(), state.getReservationCount(),
+                Files.size(target), (caughtUp - begin) / 1_000_000, (written - caughtUp) / 1_000_000);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            scheduler = null;
+        }
+    }
+
+    // Loads the latest readable snapshot in the directory and replays the journal from its position
+    public static FlightService recover(Path journalFile, Path directory) throws IOException {
+        return recover(journalFile, directory, true);
+    }
+
+    public static FlightService recover(Path journalFile, Path directory, boolean fsync) throws IOException {
+        // A damaged snapshot only means replaying more of the journal, so recovery goes on without it
+        return BookingJournal.recover(journalFile, fsync, loadLatest(directory, skipped -> { }));
+    }
+
+    static BookingSnapshot loadLatestOrEmpty(Path directory, Consumer<IOException> skipped) throws IOException {
+        BookingSnapshot latest = loadLatest(directory, skipped);
+        return latest != null ? latest : new BookingSnapshot(JournalCodec.FILE_HEADER_SIZE);
+    }
+
+    static BookingSnapshot loadLatest(Path directory, Consumer<IOException> skipped) throws IOException {
+        for (Path file : snapshotFiles(directory)) {
+            try {
+                return BookingSnapshot.read(file);
+            } catch (IOException e) {
+                // Fall back to an older snapshot if the newest one is damaged
+                skipped.accept(new IOException("Skipping unreadable snapshot " + file, e));
+            }
+        }
+        return null;
+    }
+
+    // Newest first
+    static List<Path> snapshotFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return files;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed());
+        return files;
+    }
+
+    private void deleteOlderSnapshots() throws IOException {
+        List<Path> files = snapshotFiles(directory);
+        for (int i = SNAPSHOTS_KEPT; i < files.size(); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    // Zero-padded so that file names sort by journal position
+    private static String fileName(long journalPosition) {
+        String position = Long.toString(journalPosition);
+        return PREFIX + "0".repeat(19 - position.length()) + position + SUFFIX;
+    }
+
+    public record SnapshotStats(long journalPosition, long journalBytesApplied, int flights, int reservations,
+                                long sizeBytes, long catchUpMillis, long writeMillis) {
+        @Override
+        public String toString() {
+            return String.format("Snapshot at %d: %d flights, %d reservations, %.1f MB, catch-up %d ms, write %d ms",
+                    journalPosition, flights, reservations, sizeBytes / 1e6, catchUpMillis, writeMillis);
+        }
+    }
+}
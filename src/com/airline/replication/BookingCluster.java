@@ -0,0 +1,118 @@
+package com.airline.replication;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.FlightService;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// A primary and its replicas in one process, wired over a transport. Writes go to the primary's
+// FlightService; searches and customer lookups are spread round-robin over the replicas that are fresh
+// and fall back to the primary when none is. failover promotes the reachable replica holding the most records.
+public class BookingCluster implements AutoCloseable {
+    private final ReplicationTransport transport;
+    private final List<BookingNode> nodes = new ArrayList<>();
+    private final int minAcks;
+    private final Duration ackTimeout;
+    private final AtomicInteger nextReader = new AtomicInteger();
+    private volatile BookingNode primary;
+
+    public BookingCluster(LocalTransport transport, int replicas, int minAcks, Duration maxStaleness, Duration ackTimeout) {
+        this(transport, createNodes(replicas + 1, maxStaleness, transport), minAcks, ackTimeout);
+    }
+
+    // The first node becomes the primary; the transport must already reach every node
+    public BookingCluster(ReplicationTransport transport, List<BookingNode> nodes, int minAcks, Duration ackTimeout) {
+        this.transport = transport;
+        this.nodes.addAll(nodes);
+        this.minAcks = minAcks;
+        this.ackTimeout = ackTimeout;
+        promote(nodes.get(0));
+    }
+
+    private static List<BookingNode> createNodes(int count, Duration maxStaleness, LocalTransport transport) {
+        List<BookingNode> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BookingNode node = new BookingNode("node-" + i, maxStaleness);
+            transport.register(node);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    public BookingNode getPrimary() {
+        return primary;
+    }
+
+    // Every node other than the primary, including fenced and unreachable ones
+    public List<BookingNode> getReplicas() {
+        List<BookingNode> replicas = new ArrayList<>(nodes);
+        replicas.remove(primary);
+        return replicas;
+    }
+
+    public FlightService writes() {
+        return primary.getFlightService();
+    }
+
+    public List<Flight> searchFlights(String destination, LocalDate date) {
+        return read(node -> node.searchFlights(destination, date));
+    }
+
+    public List<Reservation> getCustomerReservations(String customerName) {
+        return read(node -> node.getCustomerReservations(customerName));
+    }
+
+    private <T> T read(Function<BookingNode, T> query) {
+        List<BookingNode> replicas = getReplicas();
+        int start = nextReader.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            BookingNode replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.getRole() == BookingNode.Role.REPLICA && replica.isFresh() && transport.isReachable(replica.getNodeId())) {
+                return query.apply(replica);
+            }
+        }
+        return query.apply(primary);
+    }
+
+    // Promotes the reachable replica with the most records; the old primary is fenced on its next write
+    public BookingNode failover() {
+        BookingNode best = null;
+        for (BookingNode replica : getReplicas()) {
+            if (replica.getRole() == BookingNode.Role.REPLICA && transport.isReachable(replica.getNodeId())
+                    && (best == null || replica.getSequence() > best.getSequence())) {
+                best = replica;
+            }
+        }
+        if (best == null) {
+            throw new IllegalStateException("No reachable replica to promote");
+        }
+        promote(best);
+        return best;
+    }
+
+    private void promote(BookingNode node) {
+        long highestEpoch = 0;
+        List<String> replicaIds = new ArrayList<>();
+        for (BookingNode other : nodes) {
+            highestEpoch = Math.max(highestEpoch, other.getEpoch());
+            if (other != node && other.getRole() == BookingNode.Role.REPLICA) {
+                replicaIds.add(other.getNodeId());
+            }
+        }
+        node.promote(transport, replicaIds, Math.min(minAcks, replicaIds.size()), ackTimeout, highestEpoch);
+        primary = node;
+    }
+
+    @Override
+    public void close() {
+        for (BookingNode node : nodes) {
+            node.close();
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.airline.replication;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.persistence.JournalReader;
+import com.airline.persistence.JournalRecords;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+// One node of a primary/replica booking cluster; every node holds a full FlightService.
+// The primary turns each flight, booking and cancellation into a journal record with the next sequence
+// number and ships it to its replicas before acknowledging it. The write succeeds once minAcks replicas
+// hold the record, so promoting the most up-to-date replica never loses an acknowledged booking. Like the
+// journal's group commit, whichever writer finds no shipment in progress ships everything appended so far.
+// A primary that cannot reach minAcks replicas stops taking writes (FENCED); every promotion starts a new
+// epoch and replicas refuse batches from older ones, so a deposed primary is fenced on its next write.
+// Replicas apply records through the FlightService restore methods and serve reads while they were last
+// known to be caught up no more than maxStaleness ago.
+public class BookingNode implements AutoCloseable {
+    public enum Role {
+        PRIMARY,
+        REPLICA,
+        FENCED
+    }
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final String nodeId;
+    private final FlightService flightService;
+    private final JournalReader.Handler applier;
+    private final long maxStalenessNanos;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition shipped = lock.newCondition();
+
+    // All guarded by lock
+    private final List<byte[]> records = new ArrayList<>(); // record i has sequence i + 1
+    private final Map<String, Long> replicaSequences = new LinkedHashMap<>();
+    private long epoch;
+    private long epochStart;
+    private ReplicationTransport transport;
+    private int minAcks;
+    private long ackTimeoutNanos;
+    private long replicatedSequence;
+    private boolean shipping;
+    private ScheduledExecutorService heartbeats;
+
+    private volatile Role role = Role.REPLICA;
+    // Primary: last time minAcks replicas acknowledged it; replica: last time it held everything the primary had
+    private volatile long confirmedAtNanos = NEVER;
+
+    public BookingNode(String nodeId, Duration maxStaleness) {
+        this(nodeId, maxStaleness, System::nanoTime);
+    }
+
+    public BookingNode(String nodeId, Duration maxStaleness, LongSupplier clock) {
+        this.nodeId = nodeId;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.clock = clock;
+        this.flightService = new FlightService(new ReplicatedLog());
+        this.applier = JournalRecords.applyTo(flightService);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public long getEpoch() {
+        lock.lock();
+        try {
+            return epoch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Last sequence this node holds
+    public long getSequence() {
+        lock.lock();
+        try {
+            return records.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes go through the primary's service; on any other node they fail with IllegalStateException
+    public FlightService getFlightService() {
+        return flightService;
+    }
+
+    // Makes this node the primary of a new epoch, shipping to the given replicas. A replica promoted after a
+    // failover keeps everything it holds and first catches the other replicas up to it
+    public void promote(ReplicationTransport transport, Collection<String> replicaIds, int minAcks, Duration ackTimeout) {
+        promote(transport, replicaIds, minAcks, ackTimeout, 0);
+    }
+
+    // The new epoch is above both this node's and any epoch in use elsewhere, which the cluster knows even
+    // when this node missed the batches that would have told it
+    void promote(ReplicationTransport transport, Collection<String> replicaIds, int minAcks, Duration ackTimeout, long highestEpoch) {
+        if (minAcks < 0 || minAcks > replicaIds.size()) {
+            throw new IllegalArgumentException("Need between 0 and " + replicaIds.size() + " acknowledgements. Requested: " + minAcks);
+        }
+        lock.lock();
+        try {
+            if (role != Role.REPLICA) {
+                throw new IllegalStateException("Only a replica can be promoted; node " + nodeId + " is " + role);
+            }
+            this.transport = transport;
+            this.minAcks = minAcks;
+            this.ackTimeoutNanos = ackTimeout.toNanos();
+            epoch = Math.max(epoch, highestEpoch) + 1;
+            epochStart = records.size();
+            replicatedSequence = records.size();
+            replicaSequences.clear();
+            for (String replicaId : replicaIds) {
+                // Assume the replica is level with us; its first answer says otherwise
+                replicaSequences.put(replicaId, (long) records.size());
+            }
+            confirmedAtNanos = minAcks == 0 ? Long.MAX_VALUE : clock.getAsLong();
+            role = Role.PRIMARY;
+        } finally {
+            lock.unlock();
+        }
+        heartbeat();
+    }
+
+    // Sends every replica what it is missing, or an empty batch, so replicas stay fresh while writes are quiet
+    public void heartbeat() {
+        lock.lock();
+        try {
+            if (role == Role.PRIMARY && !shipping) {
+                ship();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Heartbeats on a daemon thread; stopped by close
+    public void startHeartbeats(Duration interval) {
+        lock.lock();
+        try {
+            if (heartbeats == null) {
+                heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "replication-heartbeat-" + nodeId);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                heartbeats.scheduleAtFixedRate(this::heartbeat, 0, interval.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Replica side of the transport: applies the records it does not hold yet and returns its last sequence.
+    // A batch that starts past the end of this node's records changes nothing; the primary resends from there
+    public long receive(ReplicationBatch batch) {
+        lock.lock();
+        try {
+            if (role != Role.REPLICA) {
+                throw new IllegalStateException("Node " + nodeId + " is " + role + " and takes no replication batches");
+            }
+            if (batch.epoch() < epoch) {
+                throw new IllegalStateException("Node " + nodeId + " follows epoch " + epoch + "; refusing a batch from epoch " + batch.epoch());
+            }
+            if (batch.epoch() > epoch) {
+                if (records.size() > batch.epochStart()) {
+                    // Records past the new primary's starting point were never acknowledged by it
+                    throw new IllegalStateException("Node " + nodeId + " holds " + records.size() + " records but epoch " + batch.epoch()
+                            + " started at " + batch.epochStart() + "; the node must be rebuilt");
+                }
+                epoch = batch.epoch();
+            }
+            if (batch.firstSequence() <= records.size() + 1) {
+                List<byte[]> incoming = batch.records();
+                for (int i = (int) (records.size() + 1 - batch.firstSequence()); i < incoming.size(); i++) {
+                    JournalRecords.replay(incoming.get(i), applier);
+                    records.add(incoming.get(i));
+                }
+            }
+            if (records.size() >= batch.primarySequence()) {
+                confirmedAtNanos = clock.getAsLong();
+            }
+            return records.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // True while reads here reflect the primary as of no more than maxStaleness ago
+    public boolean isFresh() {
+        Role current = role;
+        long confirmed = confirmedAtNanos;
+        return current != Role.FENCED && confirmed != NEVER && clock.getAsLong() - confirmed <= maxStalenessNanos;
+    }
+
+    public long getStalenessNanos() {
+        long confirmed = confirmedAtNanos;
+        return confirmed == NEVER ? Long.MAX_VALUE : Math.max(0, clock.getAsLong() - confirmed);
+    }
+
+    public List<Flight> searchFlights(String destination, LocalDate date) {
+        checkFresh();
+        return flightService.searchFlights(destination, date);
+    }
+
+    public List<Reservation> getCustomerReservations(String customerName) {
+        checkFresh();
+        return flightService.getCustomerReservations(customerName);
+    }
+
+    private void checkFresh() {
+        if (!isFresh()) {
+            throw new IllegalStateException("Node " + nodeId + " is " + role + " and too stale to serve reads");
+        }
+    }
+
+    // Appends records as the primary and returns once minAcks replicas hold them
+    private void commit(List<byte[]> appended) {
+        lock.lock();
+        try {
+            if (role != Role.PRIMARY) {
+                throw new IllegalStateException("Node " + nodeId + " is " + role + "; writes go to the primary");
+            }
+            records.addAll(appended);
+            long sequence = records.size();
+            while (replicatedSequence < sequence) {
+                if (role != Role.PRIMARY) {
+                    throw new UncheckedIOException(new IOException("Node " + nodeId + " lost its replicas and was fenced"));
+                }
+                if (shipping) {
+                    shipped.awaitUninterruptibly();
+                } else if (!ship()) {
+                    role = Role.FENCED;
+                    shipped.signalAll();
+                    throw new UncheckedIOException(new IOException("Fewer than " + minAcks + " replicas acknowledged sequence "
+                            + sequence + "; node " + nodeId + " was fenced"));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held, which it lets go of while waiting for the replicas. Returns whether minAcks
+    // replicas acknowledged everything appended before the shipment started
+    private boolean ship() {
+        shipping = true;
+        long upTo = records.size();
+        Map<String, ReplicationBatch> batches = new LinkedHashMap<>();
+        replicaSequences.forEach((replicaId, held) -> batches.put(replicaId, batch(held, upTo)));
+        Map<String, Long> answers;
+        lock.unlock();
+        try {
+            answers = send(batches, upTo);
+        } finally {
+            lock.lock();
+            shipping = false;
+            shipped.signalAll();
+        }
+        int acks = 0;
+        for (Map.Entry<String, Long> answer : answers.entrySet()) {
+            replicaSequences.put(answer.getKey(), answer.getValue());
+            if (answer.getValue() >= upTo) {
+                acks++;
+            }
+        }
+        if (acks < minAcks) {
+            return false;
+        }
+        replicatedSequence = Math.max(replicatedSequence, upTo);
+        confirmedAtNanos = minAcks == 0 ? Long.MAX_VALUE : clock.getAsLong();
+        return true;
+    }
+
+    // Called with the lock held
+    private ReplicationBatch batch(long held, long upTo) {
+        long from = Math.min(held, upTo);
+        return new ReplicationBatch(epoch, epochStart, from + 1, List.copyOf(records.subList((int) from, (int) upTo)), upTo);
+    }
+
+    // Sends every batch and waits up to the ack timeout; returns the sequence each replica that answered holds.
+    // A replica that is behind the batch it was sent gets one more batch starting where it left off
+    private Map<String, Long> send(Map<String, ReplicationBatch> batches, long upTo) {
+        Map<String, CompletableFuture<Long>> pending = new LinkedHashMap<>();
+        batches.forEach((replicaId, batch) -> pending.put(replicaId, transport.send(replicaId, batch)));
+        long deadline = System.nanoTime() + ackTimeoutNanos;
+        Map<String, Long> answers = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<Long>> entry : pending.entrySet()) {
+            String replicaId = entry.getKey();
+            Long held = await(entry.getValue(), deadline);
+            if (held != null && held < batches.get(replicaId).firstSequence() - 1) {
+                ReplicationBatch catchUp;
+                lock.lock();
+                try {
+                    catchUp = batch(held, upTo);
+                } finally {
+                    lock.unlock();
+                }
+                Long caughtUp = await(transport.send(replicaId, catchUp), deadline);
+                held = caughtUp == null ? held : caughtUp;
+            }
+            if (held != null) {
+                answers.put(replicaId, held);
+            }
+        }
+        return answers;
+    }
+
+    private static Long await(CompletableFuture<Long> answer, long deadline) {
+        try {
+            return answer.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (heartbeats != null) {
+                heartbeats.shutdownNow();
+                heartbeats = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        flightService.close();
+    }
+
+    // The node's FlightService writes through here; only a primary accepts the writes
+    private class ReplicatedLog implements BookingLog {
+        @Override
+        public void flightAdded(Flight flight) {
+            commit(List.of(JournalRecords.flightAdded(flight)));
+        }
+
+        @Override
+        public void flightsAdded(List<Flight> flights) {
+            List<byte[]> batch = new ArrayList<>(flights.size());
+            for (Flight flight : flights) {
+                batch.add(JournalRecords.flightAdded(flight));
+            }
+            commit(batch);
+        }
+
+        @Override
+        public void flightRescheduled(Flight flight) {
+            commit(List.of(JournalRecords.flightRescheduled(flight)));
+        }
+
+        @Override
+        public void reservationBooked(Reservation reservation) {
+            commit(List.of(JournalRecords.reservationBooked(reservation)));
+        }
+
+        @Override
+        public void reservationsBooked(List<Reservation> reservations) {
+            List<byte[]> batch = new ArrayList<>(reservations.size());
+            for (Reservation reservation : reservations) {
+                batch.add(JournalRecords.reservationBooked(reservation));
+            }
+            commit(batch);
+        }
+
+        @Override
+        public void reservationCancelled(Reservation reservation) {
+            commit(List.of(JournalRecords.reservationCancelled(reservation)));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.airline.replication;
+
+import java.net.ConnectException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-process transport: delivers batches by calling the target node directly on the sender's thread.
+// disconnect fakes a crashed or partitioned node until reconnect.
+public class LocalTransport implements ReplicationTransport {
+    private final Map<String, BookingNode> nodes = new ConcurrentHashMap<>();
+    private final Set<String> disconnected = ConcurrentHashMap.newKeySet();
+
+    public void register(BookingNode node) {
+        nodes.put(node.getNodeId(), node);
+    }
+
+    public void disconnect(String nodeId) {
+        disconnected.add(nodeId);
+    }
+
+    public void reconnect(String nodeId) {
+        disconnected.remove(nodeId);
+    }
+
+    @Override
+    public boolean isReachable(String nodeId) {
+        return nodes.containsKey(nodeId) && !disconnected.contains(nodeId);
+    }
+
+    @Override
+    public CompletableFuture<Long> send(String nodeId, ReplicationBatch batch) {
+        BookingNode node = nodes.get(nodeId);
+        if (node == null || disconnected.contains(nodeId)) {
+            return CompletableFuture.failedFuture(new ConnectException("Node " + nodeId + " is unreachable"));
+        }
+        try {
+            return CompletableFuture.completedFuture(node.receive(batch));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
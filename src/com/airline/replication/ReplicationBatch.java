@@ -0,0 +1,9 @@
+package com.airline.replication;
+
+import java.util.List;
+
+// Records firstSequence, firstSequence + 1, ... from the primary of the given epoch. epochStart is the last
+// sequence the primary held when it was promoted, primarySequence the last one it holds now; a batch with
+// no records is a heartbeat.
+public record ReplicationBatch(long epoch, long epochStart, long firstSequence, List<byte[]> records, long primarySequence) {
+}
@@ -0,0 +1,12 @@
+package com.airline.replication;
+
+import java.util.concurrent.CompletableFuture;
+
+// Carries replication batches from the primary to its replicas
+public interface ReplicationTransport {
+    // Completes with the last sequence the node holds once it has taken the batch, or exceptionally if the
+    // node cannot be reached or refuses the batch
+    CompletableFuture<Long> send(String nodeId, ReplicationBatch batch);
+
+    boolean isReachable(String nodeId);
+}
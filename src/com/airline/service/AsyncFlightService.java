@@ -0,0 +1,159 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.Itinerary;
+import com.airline.model.Reservation;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Non-blocking facade over FlightService. Each call runs on its own virtual thread when the JDK has them
+// (21+) and on a cached platform thread pool otherwise, so a call blocked on the journal's fsync never
+// holds up other callers. At most maxInFlight calls run at once; beyond that a call waits up to
+// admissionTimeoutMillis for a slot and then fails with RejectedExecutionException instead of queueing
+// without bound.
+public class AsyncFlightService implements AutoCloseable {
+    private final FlightService flightService;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long admissionTimeoutMillis;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AsyncFlightService(FlightService flightService, int maxInFlight) {
+        this(flightService, maxInFlight, 0);
+    }
+
+    public AsyncFlightService(FlightService flightService, int maxInFlight, long admissionTimeoutMillis) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("In-flight limit must be at least 1. Requested: " + maxInFlight);
+        }
+        this.flightService = flightService;
+        this.maxInFlight = maxInFlight;
+        this.admissionTimeoutMillis = admissionTimeoutMillis;
+        this.inFlight = new Semaphore(maxInFlight);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtualThreads ? virtual : newPlatformThreadExecutor();
+    }
+
+    public CompletableFuture<List<Flight>> searchFlights(String destination, LocalDate date) {
+        return submit(() -> flightService.searchFlights(destination, date));
+    }
+
+    public CompletableFuture<List<Itinerary>> searchItineraries(ItineraryQuery query) {
+        return submit(() -> flightService.searchItineraries(query));
+    }
+
+    public CompletableFuture<Reservation> bookFlight(String customerName, Flight flight, int seats) {
+        return submit(() -> flightService.bookFlight(customerName, flight, seats));
+    }
+
+    public CompletableFuture<List<BookingResult>> bookFlights(List<BookingRequest> requests, boolean allOrNothing) {
+        return submit(() -> flightService.bookFlights(requests, allOrNothing));
+    }
+
+    public CompletableFuture<Boolean> cancelReservation(Reservation reservation) {
+        return submit(() -> flightService.cancelReservation(reservation));
+    }
+
+    public CompletableFuture<List<Reservation>> getCustomerReservations(String customerName) {
+        return submit(() -> flightService.getCustomerReservations(customerName));
+    }
+
+    public FlightService getFlightService() {
+        return flightService;
+    }
+
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        if (!admit()) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Too many requests in flight (limit " + maxInFlight + ")"));
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                T value = null;
+                Throwable failure = null;
+                try {
+                    value = call.get();
+                } catch (Throwable e) {
+                    failure = e;
+                }
+                // Free the slot first so callbacks chained on the future can issue their next call
+                inFlight.release();
+                if (failure == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(failure);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            rejected.incrementAndGet();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private boolean admit() {
+        if (admissionTimeoutMillis <= 0) {
+            return inFlight.tryAcquire();
+        }
+        try {
+            return inFlight.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Null when the JDK has no virtual threads; looked up reflectively so the code still runs on Java 17
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "flight-service-async");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.airline.service;
+
+import com.airline.metrics.CountMinTopK;
+import com.airline.metrics.HyperLogLog;
+import com.airline.metrics.SlidingWindowCounter;
+import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+import com.airline.model.Reservation;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Running booking figures for dashboards, updated as bookings and cancellations happen instead of
+// recomputed from the reservation lists. A booking only adds to striped counters and sketches, to its
+// flight's booked seats and to the totals of the route the flight is filed under. Every query reads a
+// fixed amount of state however many flights and bookings there are. Top destinations and routes come
+// from count-min sketches and distinct customers from a HyperLogLog, so those figures are estimates;
+// the rest are exact, except that a booking racing a reschedule of its flight may be counted on
+// either route. Load factors count booked seats, not seats on hold.
+public class BookingAnalytics implements FlightListener {
+    public static final Duration MAX_WINDOW = Duration.ofHours(1);
+    // Enough candidates that the top 20 are stable while shares shift
+    private static final int TRACKED = 64;
+    private static final int SKETCH_WIDTH = 2048;
+    private static final Comparator<RouteLoad> BUSIEST_FIRST = Comparator.comparingLong(RouteLoad::seatsBooked).reversed();
+
+    private final LongSupplier clockMillis;
+    private final LongAdder bookings = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final LongAdder seatsBooked = new LongAdder();
+    private final LongAdder seatsCancelled = new LongAdder();
+    private final LongAdder capacity = new LongAdder();
+    private final SlidingWindowCounter recentBookings = new SlidingWindowCounter((int) MAX_WINDOW.toSeconds());
+    private final SlidingWindowCounter recentCancellations = new SlidingWindowCounter((int) MAX_WINDOW.toSeconds());
+    private final CountMinTopK<String> destinations = new CountMinTopK<>(TRACKED, SKETCH_WIDTH);
+    // Keyed by the route's totals object, whose identity hash and equality are cheaper than the names'
+    private final CountMinTopK<RouteTotals> routes = new CountMinTopK<>(TRACKED, SKETCH_WIDTH);
+    private final HyperLogLog customers = new HyperLogLog();
+    private final ConcurrentHashMap<Route, RouteTotals> routeTotals = new ConcurrentHashMap<>();
+    // Keyed by identity, as a flight's number says nothing about which flight object it is
+    private final ConcurrentHashMap<FlightKey, FlightTotals> flightTotals = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+
+    BookingAnalytics() {
+        this(System::currentTimeMillis);
+    }
+
+    BookingAnalytics(LongSupplier clockMillis) {
+        this.clockMillis = clockMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Bookings and cancellations made while disabled are not counted
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    void add(Flight flight) {
+        capacity.add(flight.getCapacity());
+        RouteTotals route = totalsOf(flight.getOrigin(), flight.getDestination());
+        route.flights.increment();
+        route.capacity.add(flight.getCapacity());
+        flightTotals.put(new FlightKey(flight), new FlightTotals(route));
+    }
+
+    // Forgets archived flights; their bookings stay in the route and overall totals
+    void removeAll(List<Flight> flights) {
+        for (Flight flight : flights) {
+            flightTotals.remove(new FlightKey(flight));
+        }
+    }
+
+    // live is false for bookings replayed at recovery, which are counted but are not recent activity
+    void booked(Reservation reservation, boolean live) {
+        if (!enabled) {
+            return;
+        }
+        int seats = reservation.getSeatsBooked();
+        bookings.increment();
+        seatsBooked.add(seats);
+        if (live) {
+            recentBookings.add(clockMillis.getAsLong() / 1000, 1);
+        }
+        record(reservation, seats);
+        if (reservation.getCustomerName() != null) {
+            customers.add(HyperLogLog.hashIgnoreCase(reservation.getCustomerName()));
+        }
+    }
+
+    void cancelled(Reservation reservation, boolean live) {
+        if (!enabled) {
+            return;
+        }
+        int seats = reservation.getSeatsBooked();
+        cancellations.increment();
+        seatsCancelled.add(seats);
+        if (live) {
+            recentCancellations.add(clockMillis.getAsLong() / 1000, 1);
+        }
+        record(reservation, -seats);
+    }
+
+    private void record(Reservation reservation, int seats) {
+        Flight flight = reservation.getFlight();
+        FlightTotals totals = flightTotals.get(new FlightKey(flight));
+        if (totals != null) {
+            totals.seatsBooked.add(seats);
+            RouteTotals route = totals.route;
+            route.seatsBooked.add(seats);
+            routes.add(route, seats);
+        }
+        String destination = flight.getDestination();
+        if (destination != null) {
+            destinations.add(destination, seats);
+        }
+    }
+
+    @Override
+    public void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+        FlightTotals totals = flightTotals.get(new FlightKey(flight));
+        if (totals == null) {
+            return;
+        }
+        // Compared with the route the flight is filed under, since a new origin comes with the old
+        // destination as the previous one
+        synchronized (totals) {
+            RouteTotals from = totals.route;
+            RouteTotals to = totalsOf(flight.getOrigin(), flight.getDestination());
+            if (from == to) {
+                return;
+            }
+            // The flight takes its seats and the seats booked on it to the new route
+            long booked = totals.seatsBooked.sum();
+            from.flights.decrement();
+            from.capacity.add(-flight.getCapacity());
+            from.seatsBooked.add(-booked);
+            to.flights.increment();
+            to.capacity.add(flight.getCapacity());
+            to.seatsBooked.add(booked);
+            totals.route = to;
+        }
+    }
+
+    @Override
+    public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+        // Load factors follow reservations, so holds and direct seat count changes do not move them
+    }
+
+    public long getBookings() {
+        return bookings.sum();
+    }
+
+    public long getCancellations() {
+        return cancellations.sum();
+    }
+
+    public long getSeatsBooked() {
+        return seatsBooked.sum();
+    }
+
+    public long getSeatsCancelled() {
+        return seatsCancelled.sum();
+    }
+
+    // Seats booked, net of cancellations, over seats scheduled across every flight
+    public double getLoadFactor() {
+        long seats = capacity.sum();
+        return seats == 0 ? 0 : (double) (seatsBooked.sum() - seatsCancelled.sum()) / seats;
+    }
+
+    // Seats booked on the flight, net of cancellations, over its capacity; 0 for flights this service does not list
+    public double getLoadFactor(Flight flight) {
+        FlightTotals totals = flightTotals.get(new FlightKey(flight));
+        return totals == null || flight.getCapacity() == 0 ? 0 : (double) totals.seatsBooked.sum() / flight.getCapacity();
+    }
+
+    public RouteLoad getRouteLoad(String origin, String destination) {
+        RouteTotals totals = routeTotals.get(new Route(origin, destination));
+        return totals == null ? new RouteLoad(origin, destination, 0, 0, 0) : totals.snapshot();
+    }
+
+    // Average rate over the window just ended, which may be up to MAX_WINDOW long
+    public double getBookingsPerMinute(Duration window) {
+        return perMinute(recentBookings, window);
+    }
+
+    public double getCancellationsPerMinute(Duration window) {
+        return perMinute(recentCancellations, window);
+    }
+
+    // Up to limit destinations (at most 64) by estimated seats booked
+    public List<DestinationTraffic> getTopDestinations(int limit) {
+        List<DestinationTraffic> top = new ArrayList<>();
+        for (CountMinTopK.Entry<String> entry : destinations.top(limit)) {
+            top.add(new DestinationTraffic(entry.key(), entry.estimate()));
+        }
+        return top;
+    }
+
+    // Up to limit routes (at most 64) with the most seats booked: the sketch picks the candidates, and each
+    // is reported with its exact figures
+    public List<RouteLoad> getTopRoutes(int limit) {
+        List<RouteLoad> top = new ArrayList<>();
+        for (CountMinTopK.Entry<RouteTotals> entry : routes.top(TRACKED)) {
+            top.add(entry.key().snapshot());
+        }
+        top.sort(BUSIEST_FIRST);
+        return top.size() > limit ? new ArrayList<>(top.subList(0, Math.max(0, limit))) : top;
+    }
+
+    public long getDistinctCustomers() {
+        return customers.estimate();
+    }
+
+    // Human-readable summary for a console or log line
+    public String toText() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("bookings: %d (%d seats), cancellations: %d (%d seats), distinct customers: ~%d%n",
+                getBookings(), getSeatsBooked(), getCancellations(), getSeatsCancelled(), getDistinctCustomers()));
+        out.append(String.format("bookings per minute: %.1f (1 min), %.1f (5 min), %.1f (15 min), %.1f (60 min)%n",
+                getBookingsPerMinute(Duration.ofMinutes(1)), getBookingsPerMinute(Duration.ofMinutes(5)),
+                getBookingsPerMinute(Duration.ofMinutes(15)), getBookingsPerMinute(Duration.ofMinutes(60))));
+        out.append(String.format("load factor: %.1f%%%n", getLoadFactor() * 100));
+        for (DestinationTraffic destination : getTopDestinations(5)) {
+            out.append(String.format("top destination: %s ~%d seats%n", destination.destination(), destination.seatsBooked()));
+        }
+        for (RouteLoad route : getTopRoutes(5)) {
+            out.append(String.format("top route: %s - %s %d/%d seats (%.1f%%)%n", route.origin() == null ? "?" : route.origin(),
+                    route.destination(), route.seatsBooked(), route.capacity(), route.loadFactor() * 100));
+        }
+        return out.toString();
+    }
+
+    private RouteTotals totalsOf(String origin, String destination) {
+        return routeTotals.computeIfAbsent(new Route(origin, destination), RouteTotals::new);
+    }
+
+    private double perMinute(SlidingWindowCounter counter, Duration window) {
+        long seconds = window.toSeconds();
+        if (seconds < 1 || window.compareTo(MAX_WINDOW) > 0) {
+            throw new IllegalArgumentException("Window must be 1 second to " + MAX_WINDOW + ": " + window);
+        }
+        return counter.sum(clockMillis.getAsLong() / 1000, (int) seconds) * 60.0 / seconds;
+    }
+
+    private record Route(String origin, String destination) {
+    }
+
+    private record FlightKey(Flight flight) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FlightKey other && other.flight == flight;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(flight);
+        }
+    }
+
+    // What is kept per flight: its booked seats and the route it is counted under
+    private static final class FlightTotals {
+        private final LongAdder seatsBooked = new LongAdder();
+        private volatile RouteTotals route;
+
+        FlightTotals(RouteTotals route) {
+            this.route = route;
+        }
+    }
+
+    private static final class RouteTotals {
+        private final Route route;
+        private final LongAdder flights = new LongAdder();
+        private final LongAdder seatsBooked = new LongAdder();
+        private final LongAdder capacity = new LongAdder();
+
+        RouteTotals(Route route) {
+            this.route = route;
+        }
+
+        RouteLoad snapshot() {
+            return new RouteLoad(route.origin(), route.destination(), flights.intValue(), seatsBooked.sum(), capacity.sum());
+        }
+    }
+}
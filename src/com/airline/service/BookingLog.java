@@ -0,0 +1,49 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+
+import java.util.List;
+
+// Durable record of state changes. FlightService calls these before acknowledging an operation;
+// each method returns only once the change is safely stored and throws UncheckedIOException otherwise.
+public interface BookingLog {
+    BookingLog NONE = new BookingLog() {
+        @Override
+        public void flightAdded(Flight flight) {
+        }
+
+        @Override
+        public void reservationBooked(Reservation reservation) {
+        }
+
+        @Override
+        public void reservationCancelled(Reservation reservation) {
+        }
+    };
+
+    void flightAdded(Flight flight);
+
+    // Logs many new flights, e.g. a schedule import; implementations can make them durable at once
+    default void flightsAdded(List<Flight> flights) {
+        for (Flight flight : flights) {
+            flightAdded(flight);
+        }
+    }
+
+    void reservationBooked(Reservation reservation);
+
+    // Logs a batch of bookings; implementations can make the whole batch durable at once
+    default void reservationsBooked(List<Reservation> reservations) {
+        for (Reservation reservation : reservations) {
+            reservationBooked(reservation);
+        }
+    }
+
+    void reservationCancelled(Reservation reservation);
+
+    // Logs a flight's whole schedule after its origin, destination or times changed. Called once the change
+    // is visible, so a failure here leaves it in memory but not in the log
+    default void flightRescheduled(Flight flight) {
+    }
+}
@@ -0,0 +1,32 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+
+public class BookingRequest {
+    private final String customerName;
+    private final Flight flight;
+    private final int seats;
+
+    public BookingRequest(String customerName, Flight flight, int seats) {
+        this.customerName = customerName;
+        this.flight = flight;
+        this.seats = seats;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public Flight getFlight() {
+        return flight;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    @Override
+    public String toString() {
+        return seats + " seat(s) on " + (flight == null ? "no flight" : flight.getFlightNumber()) + " for " + customerName;
+    }
+}
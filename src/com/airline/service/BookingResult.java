@@ -0,0 +1,46 @@
+package com.airline.service;
+
+import com.airline.model.Reservation;
+
+public class BookingResult {
+    private final BookingRequest request;
+    private final Reservation reservation;
+    private final String failureReason;
+
+    private BookingResult(BookingRequest request, Reservation reservation, String failureReason) {
+        this.request = request;
+        this.reservation = reservation;
+        this.failureReason = failureReason;
+    }
+
+    static BookingResult booked(BookingRequest request, Reservation reservation) {
+        return new BookingResult(request, reservation, null);
+    }
+
+    static BookingResult failed(BookingRequest request, String failureReason) {
+        return new BookingResult(request, null, failureReason);
+    }
+
+    public boolean isSuccess() {
+        return reservation != null;
+    }
+
+    public BookingRequest getRequest() {
+        return request;
+    }
+
+    // Null when the booking failed
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    // Null when the booking succeeded
+    public String getFailureReason() {
+        return failureReason;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "Booked " + reservation.getReservationId() : "Failed: " + failureReason;
+    }
+}
@@ -0,0 +1,160 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Flights ordered by departure time, overall and per normalized destination, for time-window searches
+// and for finding departed flights to archive. A window is one range query on a skip list, so its cost
+// depends on the flights in the window, not on the size of the schedule. Reads do not lock; adds and
+// schedule changes are serialized. Every flight is listed, sold out or not, and searches check seats.
+class DepartureIndex implements FlightListener {
+    private final ConcurrentSkipListMap<DepartureKey, Flight> all = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<DepartureKey, Flight>> byDestination = new ConcurrentHashMap<>();
+    private final Map<Flight, Registration> registrations = new IdentityHashMap<>();
+    private long nextSequence;
+
+    synchronized void add(Flight flight) {
+        if (!registrations.containsKey(flight)) {
+            register(flight, nextSequence++, null);
+        }
+    }
+
+    // Bulk form of add; imported flights share destination strings, so each one is normalized once
+    synchronized void addAll(List<Flight> flights) {
+        Map<String, String> normalized = new HashMap<>();
+        for (Flight flight : flights) {
+            if (!registrations.containsKey(flight)) {
+                register(flight, nextSequence++, normalized);
+            }
+        }
+    }
+
+    synchronized void remove(Flight flight) {
+        Registration registration = registrations.remove(flight);
+        if (registration != null) {
+            unlink(registration);
+        }
+    }
+
+    synchronized void removeAll(List<Flight> flights) {
+        for (Flight flight : flights) {
+            remove(flight);
+        }
+    }
+
+    // Flights with seats left departing in [from, to), earliest first; a null destination means any
+    List<Flight> between(String destination, LocalDateTime from, LocalDateTime to) {
+        List<Flight> result = new ArrayList<>();
+        ConcurrentSkipListMap<DepartureKey, Flight> departures = departuresTo(destination);
+        if (departures != null && from.isBefore(to)) {
+            collect(departures, from, to, result);
+        }
+        return result;
+    }
+
+    // Flights with seats left departing between earliest and latest on each day from first to last,
+    // earliest first. A latest time before the earliest runs the window past midnight, so 22:00 to 02:00
+    // finds the night's red-eyes and 18:00 to 00:00 the whole evening
+    List<Flight> daily(String destination, LocalDate first, LocalDate last, LocalTime earliest, LocalTime latest) {
+        List<Flight> result = new ArrayList<>();
+        ConcurrentSkipListMap<DepartureKey, Flight> departures = departuresTo(destination);
+        if (departures == null || earliest.equals(latest)) {
+            return result;
+        }
+        boolean overnight = latest.isBefore(earliest);
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            collect(departures, day.atTime(earliest), (overnight ? day.plusDays(1) : day).atTime(latest), result);
+        }
+        return result;
+    }
+
+    // Every flight departing before the cutoff, sold out or not, earliest first
+    List<Flight> departedBefore(LocalDateTime cutoff) {
+        return new ArrayList<>(all.headMap(DepartureKey.first(cutoff)).values());
+    }
+
+    @Override
+    public synchronized void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+        Registration registration = registrations.remove(flight);
+        if (registration != null) {
+            unlink(registration);
+            register(flight, registration.sequence, null);
+        }
+    }
+
+    @Override
+    public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+        // Seats are checked when a search runs, so sold-out flights stay listed
+    }
+
+    private ConcurrentSkipListMap<DepartureKey, Flight> departuresTo(String destination) {
+        return destination == null ? all : byDestination.get(FlightIndex.normalize(destination));
+    }
+
+    private static void collect(ConcurrentSkipListMap<DepartureKey, Flight> departures, LocalDateTime from, LocalDateTime to,
+                                List<Flight> result) {
+        for (Flight flight : departures.subMap(DepartureKey.first(from), DepartureKey.first(to)).values()) {
+            if (flight.getAvailableSeats() > 0) {
+                result.add(flight);
+            }
+        }
+    }
+
+    private void register(Flight flight, long sequence, Map<String, String> normalized) {
+        LocalDateTime departure = flight.getDepartureTime();
+        if (departure == null) {
+            // Kept so the flight is listed if it later gets a departure time
+            registrations.put(flight, new Registration(null, null, sequence));
+            return;
+        }
+        DepartureKey key = new DepartureKey(departure, sequence);
+        all.put(key, flight);
+        String destination = null;
+        if (flight.getDestination() != null) {
+            destination = normalized == null ? FlightIndex.normalize(flight.getDestination())
+                    : normalized.computeIfAbsent(flight.getDestination(), FlightIndex::normalize);
+            byDestination.computeIfAbsent(destination, d -> new ConcurrentSkipListMap<>()).put(key, flight);
+        }
+        registrations.put(flight, new Registration(destination, key, sequence));
+    }
+
+    private void unlink(Registration registration) {
+        if (registration.key == null) {
+            return;
+        }
+        all.remove(registration.key);
+        if (registration.destination != null) {
+            ConcurrentSkipListMap<DepartureKey, Flight> departures = byDestination.get(registration.destination);
+            if (departures != null) {
+                departures.remove(registration.key);
+            }
+        }
+    }
+
+    private record DepartureKey(LocalDateTime departure, long sequence) implements Comparable<DepartureKey> {
+        // Sorts before every flight departing at the given time
+        static DepartureKey first(LocalDateTime departure) {
+            return new DepartureKey(departure, Long.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(DepartureKey other) {
+            int byTime = departure.compareTo(other.departure);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private record Registration(String destination, DepartureKey key, long sequence) {
+    }
+}
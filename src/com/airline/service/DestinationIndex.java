@@ -0,0 +1,342 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Autocomplete over destination names: a trie of names folded to lower case without accents, where each
+// name keeps the sorted departure times of its flights so the number of upcoming flights is one binary
+// search. Typed text matches any name it is a prefix of, and from 4 characters on also names it is a prefix
+// of after one edit (two from 8 characters), walking the trie with one edit-distance row per node.
+// Updated as flights are added and rescheduled; every flight counts, sold out or not.
+public class DestinationIndex implements FlightListener {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Comparator<DestinationSuggestion> RANKING = Comparator.comparingInt(DestinationSuggestion::editDistance)
+            .thenComparing(Comparator.comparingInt(DestinationSuggestion::upcomingFlights).reversed())
+            .thenComparing(DestinationSuggestion::destination);
+
+    private final Node root = new Node();
+    private final Map<Flight, Registration> registrations = new IdentityHashMap<>();
+    private int destinationCount;
+
+    public synchronized void add(Flight flight) {
+        if (!registrations.containsKey(flight)) {
+            register(flight, true, null);
+        }
+    }
+
+    // Bulk form of add: departures are appended and each destination is sorted once at the end
+    public synchronized void addAll(Collection<Flight> flights) {
+        List<Destination> touched = new ArrayList<>();
+        // Imported flights share destination strings, so each name is folded and looked up once
+        Map<String, Node> nodes = new HashMap<>();
+        for (Flight flight : flights) {
+            if (!registrations.containsKey(flight)) {
+                Destination destination = register(flight, false, nodes);
+                if (destination != null && !destination.unsorted) {
+                    destination.unsorted = true;
+                    touched.add(destination);
+                }
+            }
+        }
+        for (Destination destination : touched) {
+            Arrays.sort(destination.departures, 0, destination.count);
+            destination.unsorted = false;
+        }
+    }
+
+    public synchronized void remove(Flight flight) {
+        Registration registration = registrations.remove(flight);
+        if (registration != null) {
+            unlink(registration);
+        }
+    }
+
+    // Bulk form of remove: each destination's departures are compacted once instead of once per flight
+    public synchronized void removeAll(Collection<Flight> flights) {
+        Map<Destination, Destination> removed = new IdentityHashMap<>();
+        for (Flight flight : flights) {
+            Registration registration = registrations.remove(flight);
+            if (registration != null && registration.node != null) {
+                removed.computeIfAbsent(registration.node.destination, d -> new Destination(d.name)).append(registration.departure);
+            }
+        }
+        for (Map.Entry<Destination, Destination> entry : removed.entrySet()) {
+            Destination destination = entry.getKey();
+            Destination gone = entry.getValue();
+            Arrays.sort(gone.departures, 0, gone.count);
+            destination.removeAll(gone);
+            if (destination.count == 0) {
+                destinationCount--;
+            }
+        }
+    }
+
+    // Destinations with flights departing after the given time, best match first: closest spelling, then
+    // most upcoming flights
+    public synchronized List<DestinationSuggestion> suggest(String typed, LocalDateTime after, int limit) {
+        String query = typed == null ? "" : fold(typed).strip();
+        if (query.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        Search search = new Search(query.toCharArray(), maxEdits(query.length()), after.toEpochSecond(ZoneOffset.UTC));
+        int[] row = new int[query.length() + 1];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = i;
+        }
+        for (int i = 0; i < root.childCount; i++) {
+            search.walk(root.children[i], root.labels[i], row, Integer.MAX_VALUE);
+        }
+        search.matches.sort(RANKING);
+        return search.matches.size() > limit ? new ArrayList<>(search.matches.subList(0, limit)) : search.matches;
+    }
+
+    public synchronized int destinationCount() {
+        return destinationCount;
+    }
+
+    @Override
+    public synchronized void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+        Registration registration = registrations.remove(flight);
+        if (registration != null) {
+            unlink(registration);
+            register(flight, true, null);
+        }
+    }
+
+    @Override
+    public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+        // Suggestions count scheduled flights, not seats
+    }
+
+    static int maxEdits(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    // Lower case without accents, so "zurich" finds Zürich
+    static String fold(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) >= 0x80) {
+                return MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+            }
+        }
+        return lower;
+    }
+
+    // Returns the flight's destination, or null if it has none yet
+    private Destination register(Flight flight, boolean sorted, Map<String, Node> nodes) {
+        if (flight.getDestination() == null || flight.getDepartureTime() == null) {
+            // Remembered anyway so a later reschedule that sets them picks the flight up
+            registrations.put(flight, new Registration(null, 0));
+            return null;
+        }
+        Node node = nodes == null ? nodeFor(flight.getDestination()) : nodes.computeIfAbsent(flight.getDestination(), this::nodeFor);
+        if (node.destination.count == 0) {
+            destinationCount++;
+        }
+        long departure = flight.getDepartureTime().toEpochSecond(ZoneOffset.UTC);
+        if (sorted) {
+            node.destination.add(departure);
+        } else {
+            node.destination.append(departure);
+        }
+        registrations.put(flight, new Registration(node, departure));
+        return node.destination;
+    }
+
+    private Node nodeFor(String destination) {
+        String key = fold(destination).strip();
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childFor(key.charAt(i));
+        }
+        if (node.destination == null) {
+            node.destination = new Destination(destination.strip());
+        }
+        return node;
+    }
+
+    private void unlink(Registration registration) {
+        Node node = registration.node;
+        if (node != null && node.destination.remove(registration.departure) && node.destination.count == 0) {
+            destinationCount--;
+        }
+    }
+
+    private record Registration(Node node, long departure) {
+    }
+
+    // Trie node; children are kept sorted by label
+    private static final class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private Destination destination;
+
+        Node childFor(char label) {
+            int index = Arrays.binarySearch(labels, 0, childCount, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insert = -index - 1;
+            if (childCount == labels.length) {
+                int capacity = Math.max(2, childCount * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, insert, labels, insert + 1, childCount - insert);
+            System.arraycopy(children, insert, children, insert + 1, childCount - insert);
+            Node child = new Node();
+            labels[insert] = label;
+            children[insert] = child;
+            childCount++;
+            return child;
+        }
+    }
+
+    // A destination name as first added, with its flights' departures (UTC epoch seconds) in sorted order
+    private static final class Destination {
+        private final String name;
+        private long[] departures = new long[4];
+        private int count;
+        // Set while a bulk add has appended departures out of order
+        private boolean unsorted;
+
+        Destination(String name) {
+            this.name = name;
+        }
+
+        void add(long departure) {
+            int insert = insertionPoint(departure);
+            if (count == departures.length) {
+                departures = Arrays.copyOf(departures, count * 2);
+            }
+            System.arraycopy(departures, insert, departures, insert + 1, count - insert);
+            departures[insert] = departure;
+            count++;
+        }
+
+        void append(long departure) {
+            if (count == departures.length) {
+                departures = Arrays.copyOf(departures, count * 2);
+            }
+            departures[count++] = departure;
+        }
+
+        boolean remove(long departure) {
+            int index = Arrays.binarySearch(departures, 0, count, departure);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(departures, index + 1, departures, index, count - index - 1);
+            count--;
+            return true;
+        }
+
+        // Drops one copy of each of the other destination's departures, which must be sorted
+        void removeAll(Destination other) {
+            int kept = 0;
+            int next = 0;
+            for (int i = 0; i < count; i++) {
+                while (next < other.count && other.departures[next] < departures[i]) {
+                    next++;
+                }
+                if (next < other.count && other.departures[next] == departures[i]) {
+                    next++;
+                } else {
+                    departures[kept++] = departures[i];
+                }
+            }
+            count = kept;
+        }
+
+        int countAfter(long time) {
+            return count - insertionPoint(time + 1);
+        }
+
+        // First position holding a value >= departure
+        private int insertionPoint(long departure) {
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (departures[mid] < departure) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class Search {
+        private final char[] query;
+        private final int maxEdits;
+        private final long after;
+        private final List<DestinationSuggestion> matches = new ArrayList<>();
+
+        Search(char[] query, int maxEdits, long after) {
+            this.query = query;
+            this.maxEdits = maxEdits;
+            this.after = after;
+        }
+
+        // previous is the edit-distance row of the parent path; best is the fewest edits with which the whole
+        // query matched some prefix of the path so far
+        void walk(Node node, char label, int[] previous, int best) {
+            int[] row = new int[previous.length];
+            row[0] = previous[0] + 1;
+            int rowMin = row[0];
+            for (int i = 1; i < row.length; i++) {
+                int substitute = previous[i - 1] + (query[i - 1] == label ? 0 : 1);
+                row[i] = Math.min(substitute, Math.min(row[i - 1], previous[i]) + 1);
+                rowMin = Math.min(rowMin, row[i]);
+            }
+            best = Math.min(best, row[row.length - 1]);
+            if (rowMin > maxEdits) {
+                // No deeper path can match better; if the query already matched, everything below does
+                if (best <= maxEdits) {
+                    collect(node, best);
+                }
+                return;
+            }
+            if (best <= maxEdits) {
+                offer(node.destination, best);
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                walk(node.children[i], node.labels[i], row, best);
+            }
+        }
+
+        private void collect(Node node, int distance) {
+            offer(node.destination, distance);
+            for (int i = 0; i < node.childCount; i++) {
+                collect(node.children[i], distance);
+            }
+        }
+
+        private void offer(Destination destination, int distance) {
+            if (destination != null) {
+                int upcoming = destination.countAfter(after);
+                if (upcoming > 0) {
+                    matches.add(new DestinationSuggestion(destination.name, upcoming, distance));
+                }
+            }
+        }
+    }
+}
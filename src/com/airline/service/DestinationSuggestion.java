@@ -0,0 +1,6 @@
+package com.airline.service;
+
+// An autocomplete match: the destination as flights spell it, how many of its flights are still to depart,
+// and how many edits the typed text needed to match it (0 for a plain prefix)
+public record DestinationSuggestion(String destination, int upcomingFlights, int editDistance) {
+}
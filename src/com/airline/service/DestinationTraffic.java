@@ -0,0 +1,5 @@
+package com.airline.service;
+
+// Estimated seats booked to a destination, net of cancellations; never below the true figure
+public record DestinationTraffic(String destination, long seatsBooked) {
+}
@@ -0,0 +1,72 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Departed flights moved out of a FlightService by archiveDepartedFlights, with the reservations they
+// departed with. Kept for lookups only: archived flights are in no search index and their reservations
+// can no longer be cancelled. An archived flight keeps its number, so addFlight will not reuse it.
+// Reservations are filed under the flight object rather than its number. The archive is in memory
+// and not journaled; after a restart the departed flights come back from the journal as active until
+// the next archiving pass.
+public class FlightArchive {
+    private final ConcurrentHashMap<String, Flight> byNumber = new ConcurrentHashMap<>();
+    private final Map<Flight, List<Reservation>> byFlight = new IdentityHashMap<>();
+    private final ReservationStore reservations = new ReservationStore();
+
+    FlightArchive() {
+    }
+
+    void add(Flight flight, List<Reservation> booked) {
+        synchronized (byFlight) {
+            byFlight.put(flight, new ArrayList<>(booked));
+        }
+        if (flight.getFlightNumber() != null) {
+            byNumber.put(flight.getFlightNumber(), flight);
+        }
+        for (Reservation reservation : booked) {
+            reservations.add(reservation);
+        }
+    }
+
+    public Flight getFlight(String flightNumber) {
+        return byNumber.get(flightNumber);
+    }
+
+    public boolean contains(Flight flight) {
+        synchronized (byFlight) {
+            return byFlight.containsKey(flight);
+        }
+    }
+
+    public List<Reservation> getFlightReservations(Flight flight) {
+        synchronized (byFlight) {
+            List<Reservation> booked = byFlight.get(flight);
+            return booked == null ? new ArrayList<>() : new ArrayList<>(booked);
+        }
+    }
+
+    public List<Reservation> getCustomerReservations(String customerName) {
+        return reservations.findByCustomer(customerName);
+    }
+
+    public Reservation getReservation(String reservationId) {
+        return reservations.get(reservationId);
+    }
+
+    public int getFlightCount() {
+        synchronized (byFlight) {
+            return byFlight.size();
+        }
+    }
+
+    public int getReservationCount() {
+        return reservations.size();
+    }
+}
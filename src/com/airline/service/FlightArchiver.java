@@ -0,0 +1,88 @@
+package com.airline.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Archives a FlightService's departed flights on a schedule, keeping each one active for keepFor after it
+// departs so late lookups and same-day changes still find it. Each pass is one range query on the
+// departure index, so it costs the same however much history has already been archived.
+//
+// archiveNow() does the work and is driven either by the background thread from start() or by the caller.
+public class FlightArchiver implements AutoCloseable {
+    public static final Duration DEFAULT_INTERVAL = Duration.ofMinutes(1);
+
+    private final FlightService service;
+    private final Duration keepFor;
+    private final long intervalNanos;
+    private final Supplier<LocalDateTime> clock;
+    private final AtomicLong archived = new AtomicLong();
+    private volatile Thread thread;
+    private volatile boolean closed;
+
+    public FlightArchiver(FlightService service, Duration keepFor) {
+        this(service, keepFor, DEFAULT_INTERVAL, LocalDateTime::now);
+    }
+
+    public FlightArchiver(FlightService service, Duration keepFor, Duration interval, Supplier<LocalDateTime> clock) {
+        if (keepFor.isNegative()) {
+            throw new IllegalArgumentException("Time to keep departed flights cannot be negative: " + keepFor);
+        }
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Archiving interval must be positive: " + interval);
+        }
+        this.service = service;
+        this.keepFor = keepFor;
+        this.intervalNanos = interval.toNanos();
+        this.clock = clock;
+    }
+
+    // Archives once per interval on a daemon thread
+    public synchronized FlightArchiver start() {
+        if (thread == null && !closed) {
+            thread = new Thread(this::run, "flight-archiver");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return this;
+    }
+
+    private void run() {
+        while (!closed) {
+            archiveNow();
+            LockSupport.parkNanos(this, intervalNanos);
+        }
+    }
+
+    // Archives every flight that departed more than keepFor ago and returns how many it archived
+    public synchronized int archiveNow() {
+        int count = service.archiveDepartedFlights(clock.get().minus(keepFor));
+        archived.addAndGet(count);
+        return count;
+    }
+
+    public long getArchivedCount() {
+        return archived.get();
+    }
+
+    public Duration getKeepFor() {
+        return keepFor;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread running = thread;
+        if (running != null) {
+            LockSupport.unpark(running);
+            try {
+                running.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+// Immutable, versioned snapshot of the flights in a FlightService, in the order they were added.
+// FlightService publishes a new version when a flight is added, rescheduled or archived; seat counts are
+// read live from the flights and do not create versions. Readers can hold a catalog and page through it
+// without copying: appends share the backing array, and each catalog only sees the slots it was published with.
+public final class FlightCatalog {
+    public enum Order {
+        ADDED(null),
+        DEPARTURE_TIME(Comparator.comparing(Flight::getDepartureTime, Comparator.nullsLast(Comparator.naturalOrder()))),
+        FLIGHT_NUMBER(Comparator.comparing(Flight::getFlightNumber, Comparator.nullsLast(Comparator.naturalOrder()))),
+        DESTINATION(Comparator.comparing((Flight flight) -> FlightIndex.normalize(flight.getDestination()),
+                Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Flight::getDepartureTime, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        private final Comparator<Flight> comparator;
+
+        Order(Comparator<Flight> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    static final FlightCatalog EMPTY = new FlightCatalog(0, new Flight[0], 0);
+
+    private final long version;
+    private final Flight[] flights;
+    private final int size;
+    // Sorted orders are built on first use and kept for the life of this version
+    private final Flight[][] sorted = new Flight[Order.values().length][];
+
+    private FlightCatalog(long version, Flight[] flights, int size) {
+        this.version = version;
+        this.flights = flights;
+        this.size = size;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Flight get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for catalog of " + size + " flights");
+        }
+        return flights[index];
+    }
+
+    // Read-only view in the order flights were added
+    public List<Flight> getFlights() {
+        return new View(flights, 0, size);
+    }
+
+    public List<Flight> sorted(Order order) {
+        return new View(orderedFlights(order), 0, size);
+    }
+
+    // Up to limit flights starting at offset; an offset past the end gives an empty page
+    public List<Flight> page(Order order, int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative. Offset: " + offset + ", Limit: " + limit);
+        }
+        int from = Math.min(offset, size);
+        int to = (int) Math.min((long) from + limit, size);
+        return new View(orderedFlights(order), from, to);
+    }
+
+    private Flight[] orderedFlights(Order order) {
+        if (order == Order.ADDED) {
+            return flights;
+        }
+        Flight[] ordered;
+        synchronized (sorted) {
+            ordered = sorted[order.ordinal()];
+            if (ordered == null) {
+                ordered = Arrays.copyOf(flights, size);
+                // Stable, so flights that compare equal keep the order they were added in
+                Arrays.sort(ordered, order.comparator);
+                sorted[order.ordinal()] = ordered;
+            }
+        }
+        return ordered;
+    }
+
+    // Called by the single writer with the latest catalog only, so the shared array's free slots are never contended
+    FlightCatalog withFlight(Flight flight) {
+        Flight[] target = flights;
+        if (size == target.length) {
+            target = Arrays.copyOf(flights, Math.max(16, size * 2));
+        }
+        target[size] = flight;
+        return new FlightCatalog(version + 1, target, size + 1);
+    }
+
+    FlightCatalog withFlights(List<Flight> added) {
+        Flight[] target = flights;
+        if (size + added.size() > target.length) {
+            target = Arrays.copyOf(flights, Math.max(16, Math.max(size * 2, size + added.size())));
+        }
+        for (int i = 0; i < added.size(); i++) {
+            target[size + i] = added.get(i);
+        }
+        return new FlightCatalog(version + 1, target, size + added.size());
+    }
+
+    // The flights that remain, in the order they were added, in a new array: readers of older versions keep
+    // the slots they were published with
+    FlightCatalog without(Collection<Flight> removed) {
+        Set<Flight> gone = Collections.newSetFromMap(new IdentityHashMap<>());
+        gone.addAll(removed);
+        Flight[] kept = new Flight[Math.max(16, size - gone.size())];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (!gone.contains(flights[i])) {
+                kept[count++] = flights[i];
+            }
+        }
+        return new FlightCatalog(version + 1, kept, count);
+    }
+
+    // Same flights under a new version, so cached sort orders are rebuilt after a schedule change
+    FlightCatalog nextVersion() {
+        return new FlightCatalog(version + 1, flights, size);
+    }
+
+    private static final class View extends AbstractList<Flight> implements RandomAccess {
+        private final Flight[] flights;
+        private final int from;
+        private final int to;
+
+        View(Flight[] flights, int from, int to) {
+            this.flights = flights;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Flight get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + (to - from));
+            }
+            return flights[from + index];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
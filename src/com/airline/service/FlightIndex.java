@@ -0,0 +1,274 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Bookable flights keyed by normalized destination and departure date, in the order they were added.
+// Buckets are copied on write: readers take the current bucket without locking, writers serialize on the
+// index and replace the buckets they change
+class FlightIndex implements FlightListener {
+    private static final Flight[] NO_FLIGHTS = new Flight[0];
+    private static final long[] NO_SEQUENCES = new long[0];
+
+    private final Map<SearchKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<Flight, Long> sequences = new IdentityHashMap<>();
+    private long nextSequence;
+
+    synchronized void add(Flight flight) {
+        if (sequences.containsKey(flight)) {
+            return;
+        }
+        sequences.put(flight, nextSequence++);
+        refresh(flight, flight.getDestination(), flight.getDepartureTime());
+    }
+
+    // Bulk form of add; imported flights share destination strings, so each one is normalized once
+    // and each bucket is copied once for the whole batch
+    synchronized void addAll(List<Flight> flights) {
+        Map<String, String> normalized = new HashMap<>();
+        Map<SearchKey, List<Flight>> added = new HashMap<>();
+        for (Flight flight : flights) {
+            if (sequences.putIfAbsent(flight, nextSequence) != null) {
+                continue;
+            }
+            nextSequence++;
+            if (flight.getDestination() != null && flight.getDepartureTime() != null
+                    && (flight.getAvailableSeats() > 0 || flight.getSeatCounter() != null)) {
+                SearchKey key = new SearchKey(normalized.computeIfAbsent(flight.getDestination(), FlightIndex::normalize),
+                        flight.getDepartureTime().toLocalDate());
+                added.computeIfAbsent(key, k -> new ArrayList<>()).add(flight);
+            }
+        }
+        for (Map.Entry<SearchKey, List<Flight>> entry : added.entrySet()) {
+            // New sequences are higher than any listed one, so the batch goes at the end of the bucket
+            List<Flight> batch = entry.getValue();
+            long[] batchSequences = new long[batch.size()];
+            for (int i = 0; i < batchSequences.length; i++) {
+                batchSequences[i] = sequences.get(batch.get(i));
+            }
+            Bucket bucket = buckets.get(entry.getKey());
+            buckets.put(entry.getKey(), (bucket == null ? Bucket.EMPTY : bucket).append(batchSequences, batch.toArray(NO_FLIGHTS)));
+        }
+    }
+
+    synchronized void remove(Flight flight) {
+        Long sequence = sequences.remove(flight);
+        if (sequence != null) {
+            unlink(SearchKey.of(flight.getDestination(), flight.getDepartureTime()), sequence);
+        }
+    }
+
+    synchronized void removeAll(List<Flight> flights) {
+        for (Flight flight : flights) {
+            remove(flight);
+        }
+    }
+
+    List<Flight> search(String destination, LocalDate date) {
+        if (destination == null || date == null) {
+            return new ArrayList<>();
+        }
+        Bucket bucket = buckets.get(new SearchKey(normalize(destination), date));
+        if (bucket == null) {
+            return new ArrayList<>();
+        }
+        List<Flight> result = new ArrayList<>(bucket.flights.length);
+        for (Flight flight : bucket.flights) {
+            if (flight.getAvailableSeats() > 0) {
+                result.add(flight);
+            }
+        }
+        return result;
+    }
+
+    // Every flight listed under the key, sold out or not: flights on shared seat counters stay listed
+    // after selling out, so callers must still check seats
+    Flight[] candidates(SearchKey key) {
+        Bucket bucket = buckets.get(key);
+        return bucket == null ? NO_FLIGHTS : bucket.flights.clone();
+    }
+
+    // Visits the matches in the bucket as it was when the call started, without copying it or holding a lock
+    int forEach(String destination, LocalDate date, Consumer<? super Flight> action) {
+        if (destination == null || date == null) {
+            return 0;
+        }
+        Bucket bucket = buckets.get(new SearchKey(normalize(destination), date));
+        if (bucket == null) {
+            return 0;
+        }
+        int visited = 0;
+        for (Flight flight : bucket.flights) {
+            if (flight.getAvailableSeats() > 0) {
+                action.accept(flight);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    @Override
+    public synchronized void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+        Long sequence = sequences.get(flight);
+        if (sequence == null) {
+            return;
+        }
+        unlink(SearchKey.of(previousDestination, previousDepartureTime), sequence);
+        refresh(flight, flight.getDestination(), flight.getDepartureTime());
+    }
+
+    @Override
+    public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+        // Only a sell-out or the first seat coming back changes which flights match
+        if ((previousSeats > 0) != (currentSeats > 0)) {
+            synchronized (this) {
+                if (sequences.containsKey(flight)) {
+                    refresh(flight, flight.getDestination(), flight.getDepartureTime());
+                }
+            }
+        }
+    }
+
+    // Re-reads the seat count under the lock so out-of-order notifications still settle on the latest state
+    private void refresh(Flight flight, String destination, LocalDateTime departureTime) {
+        SearchKey key = SearchKey.of(destination, departureTime);
+        if (key == null) {
+            return;
+        }
+        long sequence = sequences.get(flight);
+        // Flights with shared seat counters stay listed: other processes can free seats without notifying us,
+        // and search filters sold-out flights when it reads the bucket
+        if (flight.getAvailableSeats() > 0 || flight.getSeatCounter() != null) {
+            Bucket bucket = buckets.get(key);
+            Bucket updated = (bucket == null ? Bucket.EMPTY : bucket).with(sequence, flight);
+            if (updated != bucket) {
+                buckets.put(key, updated);
+            }
+        } else {
+            unlink(key, sequence);
+        }
+    }
+
+    private void unlink(SearchKey key, long sequence) {
+        if (key == null) {
+            return;
+        }
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        Bucket updated = bucket.without(sequence);
+        if (updated == Bucket.EMPTY) {
+            buckets.remove(key);
+        } else if (updated != bucket) {
+            buckets.put(key, updated);
+        }
+    }
+
+    // Folds case one code point at a time, upper-casing and then lower-casing, which is how equalsIgnoreCase
+    // compares; String.toLowerCase would split "İstanbul" into two characters and stop it matching "istanbul"
+    static String normalize(String destination) {
+        int length = destination.length();
+        int i = 0;
+        while (i < length) {
+            int c = destination.codePointAt(i);
+            if (fold(c) != c) {
+                break;
+            }
+            i += Character.charCount(c);
+        }
+        if (i == length) {
+            return destination;
+        }
+        StringBuilder folded = new StringBuilder(length).append(destination, 0, i);
+        while (i < length) {
+            int c = destination.codePointAt(i);
+            folded.appendCodePoint(fold(c));
+            i += Character.charCount(c);
+        }
+        return folded.toString();
+    }
+
+    private static int fold(int c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    // One bucket's flights in sequence order; never changed once published
+    private record Bucket(long[] sequences, Flight[] flights) {
+        static final Bucket EMPTY = new Bucket(NO_SEQUENCES, NO_FLIGHTS);
+
+        Bucket with(long sequence, Flight flight) {
+            int at = Arrays.binarySearch(sequences, sequence);
+            if (at >= 0) {
+                return this;
+            }
+            int insert = -at - 1;
+            long[] newSequences = new long[sequences.length + 1];
+            Flight[] newFlights = new Flight[flights.length + 1];
+            System.arraycopy(sequences, 0, newSequences, 0, insert);
+            System.arraycopy(flights, 0, newFlights, 0, insert);
+            newSequences[insert] = sequence;
+            newFlights[insert] = flight;
+            System.arraycopy(sequences, insert, newSequences, insert + 1, sequences.length - insert);
+            System.arraycopy(flights, insert, newFlights, insert + 1, flights.length - insert);
+            return new Bucket(newSequences, newFlights);
+        }
+
+        Bucket append(long[] addedSequences, Flight[] addedFlights) {
+            long[] newSequences = Arrays.copyOf(sequences, sequences.length + addedSequences.length);
+            Flight[] newFlights = Arrays.copyOf(flights, flights.length + addedFlights.length);
+            System.arraycopy(addedSequences, 0, newSequences, sequences.length, addedSequences.length);
+            System.arraycopy(addedFlights, 0, newFlights, flights.length, addedFlights.length);
+            return new Bucket(newSequences, newFlights);
+        }
+
+        // EMPTY when the last flight goes, this when the sequence is not listed
+        Bucket without(long sequence) {
+            int at = Arrays.binarySearch(sequences, sequence);
+            if (at < 0) {
+                return this;
+            }
+            if (sequences.length == 1) {
+                return EMPTY;
+            }
+            long[] newSequences = new long[sequences.length - 1];
+            Flight[] newFlights = new Flight[flights.length - 1];
+            System.arraycopy(sequences, 0, newSequences, 0, at);
+            System.arraycopy(flights, 0, newFlights, 0, at);
+            System.arraycopy(sequences, at + 1, newSequences, at, newSequences.length - at);
+            System.arraycopy(flights, at + 1, newFlights, at, newFlights.length - at);
+            return new Bucket(newSequences, newFlights);
+        }
+    }
+
+    record SearchKey(String destination, LocalDate date) {
+        static SearchKey of(String destination, LocalDateTime departureTime) {
+            if (destination == null || departureTime == null) {
+                return null;
+            }
+            return new SearchKey(normalize(destination), departureTime.toLocalDate());
+        }
+
+        // The record's own hash barely separates similar names on nearby dates, which piles large schedules
+        // into a few hash bins
+        @Override
+        public int hashCode() {
+            return 31 * destination.hashCode() + Long.hashCode(date.toEpochDay() * 0x9E3779B97F4A7C15L);
+        }
+    }
+}
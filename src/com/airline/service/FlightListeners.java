@@ -0,0 +1,42 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Fans flight changes out to every structure that FlightService keeps in step with its flights
+class FlightListeners implements FlightListener {
+    private final List<FlightListener> listeners = new CopyOnWriteArrayList<>();
+
+    void add(FlightListener listener) {
+        listeners.add(listener);
+    }
+
+    void remove(FlightListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+        for (FlightListener listener : listeners) {
+            listener.scheduleChanged(flight, previousDestination, previousDepartureTime);
+        }
+    }
+
+    @Override
+    public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+        for (FlightListener listener : listeners) {
+            listener.seatsChanged(flight, previousSeats, currentSeats);
+        }
+    }
+
+    @Override
+    public void seatUpdateContended(Flight flight) {
+        for (FlightListener listener : listeners) {
+            listener.seatUpdateContended(flight);
+        }
+    }
+}
@@ -1,89 +1,1112 @@
 package com.airline.service;
 
 import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+import com.airline.model.Itinerary;
 import com.airline.model.Reservation;
+import com.airline.model.SeatMap;
 
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
-public class FlightService {
-    private List<Flight> flights;
-    private List<Reservation> reservations;
+public class FlightService implements AutoCloseable {
+    // Replaced, never mutated; writers publish under catalogLock
+    private volatile FlightCatalog catalog;
+    private final Object catalogLock = new Object();
+    private Map<String, Flight> flightsByNumber;
+    private ReservationStore reservations;
+    private FlightIndex flightIndex;
+    private SearchCache searchCache;
+    private RouteGraph routeGraph;
+    private DestinationIndex destinationIndex;
+    private DepartureIndex departureIndex;
+    private FlightListeners flightListeners;
+    // Set on every flight: passes changes to flightListeners and then logs schedule changes
+    private final FlightListener flightListener;
+    private BookingLog bookingLog;
+    private final Map<String, SeatHold> holds = new ConcurrentHashMap<>();
+    private final AtomicLong holdSequence = new AtomicLong();
+    private final LongAdder holdsPlaced = new LongAdder();
+    private final LongAdder holdsConfirmed = new LongAdder();
+    private final LongAdder holdsReleased = new LongAdder();
+    private final LongAdder holdsExpired = new LongAdder();
+    private volatile HoldTimer holdTimer;
+    // Whether holdTimer was started here rather than set by the caller, and so is stopped by close()
+    private boolean ownsHoldTimer;
+    private boolean closed;
+    private final ConcurrentHashMap<Flight, FlightWaitlist> waitlists = new ConcurrentHashMap<>();
+    private final AtomicLong waitlistSequence = new AtomicLong();
+    private final ServiceMetrics metrics = new ServiceMetrics(this::getHoldMetrics);
+    private final BookingAnalytics analytics = new BookingAnalytics();
+    private final FlightArchive archive = new FlightArchive();
 
     public FlightService() {
-        this.flights = new ArrayList<>();
-        this.reservations = new ArrayList<>();
+        this(BookingLog.NONE);
         initializeSampleFlights();
     }
 
+    // Starts empty; every flight, booking and cancellation is written to the log before it is acknowledged
+    public FlightService(BookingLog bookingLog) {
+        this.catalog = FlightCatalog.EMPTY;
+        this.flightsByNumber = new ConcurrentHashMap<>();
+        this.reservations = new ReservationStore();
+        this.flightIndex = new FlightIndex();
+        this.searchCache = new SearchCache(flightIndex, SearchCache.DEFAULT_CAPACITY);
+        this.routeGraph = new RouteGraph();
+        this.destinationIndex = new DestinationIndex();
+        this.departureIndex = new DepartureIndex();
+        this.flightListeners = new FlightListeners();
+        flightListeners.add(flightIndex);
+        // After the index, so a search that misses the cache reads the index as already updated
+        flightListeners.add(searchCache);
+        flightListeners.add(routeGraph);
+        flightListeners.add(destinationIndex);
+        flightListeners.add(departureIndex);
+        flightListeners.add(metrics);
+        flightListeners.add(analytics);
+        flightListeners.add(new FlightListener() {
+            @Override
+            public void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+                // Sorted catalog views depend on the schedule, so readers get a new version
+                synchronized (catalogLock) {
+                    catalog = catalog.nextVersion();
+                }
+            }
+
+            @Override
+            public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+            }
+        });
+        this.flightListener = new FlightListener() {
+            @Override
+            public void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+                flightListeners.scheduleChanged(flight, previousDestination, previousDepartureTime);
+                FlightService.this.bookingLog.flightRescheduled(flight);
+            }
+
+            @Override
+            public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+                flightListeners.seatsChanged(flight, previousSeats, currentSeats);
+            }
+
+            @Override
+            public void seatUpdateContended(Flight flight) {
+                flightListeners.seatUpdateContended(flight);
+            }
+        };
+        this.bookingLog = bookingLog;
+    }
+
     private void initializeSampleFlights() {
-        flights.add(new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150));
-        flights.add(new Flight("AA102", "New York", LocalDateTime.of(2024, 1, 15, 18, 45), 120));
-        flights.add(new Flight("BA201", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 200));
-        flights.add(new Flight("LH301", "Berlin", LocalDateTime.of(2024, 1, 17, 9, 15), 80));
-        flights.add(new Flight("EK401", "Dubai", LocalDateTime.of(2024, 1, 15, 22, 10), 100));
-        flights.add(new Flight("SQ501", "Singapore", LocalDateTime.of(2024, 1, 18, 16, 45), 90));
+        addFlight(new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150));
+        addFlight(new Flight("AA102", "New York", LocalDateTime.of(2024, 1, 15, 18, 45), 120));
+        addFlight(new Flight("BA201", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 200));
+        addFlight(new Flight("LH301", "Berlin", LocalDateTime.of(2024, 1, 17, 9, 15), 80));
+        addFlight(new Flight("EK401", "Dubai", LocalDateTime.of(2024, 1, 15, 22, 10), 100));
+        addFlight(new Flight("SQ501", "Singapore", LocalDateTime.of(2024, 1, 18, 16, 45), 90));
     }
 
     public List<Flight> searchFlights(String destination, LocalDate date) {
-        return flights.stream()
-                .filter(flight -> flight.getDestination().equalsIgnoreCase(destination))
-                .filter(flight -> flight.getDepartureTime().toLocalDate().equals(date))
-                .filter(flight -> flight.getAvailableSeats() > 0)
-                .collect(Collectors.toList());
+        long start = metrics.start();
+        List<Flight> flights = searchCache.search(destination, date);
+        metrics.succeeded(ServiceMetrics.Operation.SEARCH, start);
+        return flights;
+    }
+
+    // Flights with seats left departing in [from, to), earliest first. A null destination searches every
+    // destination, e.g. for a departures board
+    public List<Flight> searchFlights(String destination, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Search window ends before it starts: " + from + " to " + to);
+        }
+        long start = metrics.start();
+        List<Flight> flights = departureIndex.between(destination, from, to);
+        metrics.succeeded(ServiceMetrics.Operation.SEARCH, start);
+        return flights;
+    }
+
+    // Flexible dates: flights with seats left from flexibleDays before the date to flexibleDays after it,
+    // earliest first
+    public List<Flight> searchFlights(String destination, LocalDate date, int flexibleDays) {
+        if (flexibleDays < 0) {
+            throw new IllegalArgumentException("Flexible days cannot be negative: " + flexibleDays);
+        }
+        return searchFlights(destination, date.minusDays(flexibleDays).atStartOfDay(),
+                date.plusDays(flexibleDays + 1L).atStartOfDay());
+    }
+
+    // Flights with seats left departing in the same time-of-day window on each day from firstDate to
+    // lastDate, earliest first, e.g. evening departures over a week. The window includes earliest and
+    // excludes latest; a latest time before the earliest runs it past midnight
+    public List<Flight> searchFlights(String destination, LocalDate firstDate, LocalDate lastDate, LocalTime earliest,
+                                      LocalTime latest) {
+        if (lastDate.isBefore(firstDate)) {
+            throw new IllegalArgumentException("Last date is before the first: " + firstDate + " to " + lastDate);
+        }
+        long start = metrics.start();
+        List<Flight> flights = departureIndex.daily(destination, firstDate, lastDate, earliest, latest);
+        metrics.succeeded(ServiceMetrics.Operation.SEARCH, start);
+        return flights;
+    }
+
+    // Streaming searchFlights returning the match count; the action runs without the index locked
+    public int forEachFlight(String destination, LocalDate date, Consumer<? super Flight> action) {
+        long start = metrics.start();
+        int count = flightIndex.forEach(destination, date, action);
+        metrics.succeeded(ServiceMetrics.Operation.SEARCH, start);
+        return count;
+    }
+
+    // Autocomplete for the destination box: names the typed text is a prefix of, allowing for typos once a
+    // few characters are in, ranked by closeness and then by how many flights are still to depart
+    public List<DestinationSuggestion> suggestDestinations(String typed, int limit) {
+        return suggestDestinations(typed, LocalDateTime.now(), limit);
+    }
+
+    public List<DestinationSuggestion> suggestDestinations(String typed, LocalDateTime after, int limit) {
+        return destinationIndex.suggest(typed, after, limit);
+    }
+
+    // Direct and connecting itineraries from origin to destination leaving on the query date
+    public List<Itinerary> searchItineraries(ItineraryQuery query) {
+        return routeGraph.search(query);
     }
 
     public Reservation bookFlight(String customerName, Flight flight, int seats) {
+        return book(customerName, flight, seats, null, null);
+    }
+
+    // On a flight with a seat map, seats together in the first row of the cabin that has room for them
+    public Reservation bookFlight(String customerName, Flight flight, int seats, SeatMap.CabinClass cabin) {
+        return book(customerName, flight, seats, cabin, null);
+    }
+
+    // Books exactly these seats, e.g. ["12A", "12B"], or none of them if any is taken
+    public Reservation bookFlight(String customerName, Flight flight, List<String> seatNumbers) {
+        if (flight.getSeatMap() == null) {
+            throw new IllegalArgumentException("Flight " + flight.getFlightNumber() + " has no seat map");
+        }
+        return book(customerName, flight, seatNumbers.size(), null, seatNumbers);
+    }
+
+    private Reservation book(String customerName, Flight flight, int seats, SeatMap.CabinClass cabin, List<String> seatNumbers) {
+        long start = metrics.start();
+        try {
+            List<String> assigned = takeSeats(flight, seats, cabin, seatNumbers);
+            // Create reservation and make it durable before anyone can see it
+            Reservation reservation = commit(new Reservation(customerName, flight, seats, assigned));
+            metrics.succeeded(ServiceMetrics.Operation.BOOK, start);
+            return reservation;
+        } catch (RuntimeException e) {
+            metrics.failed(ServiceMetrics.Operation.BOOK, bookingFailure(e, seats, seatNumbers != null), start);
+            throw e;
+        }
+    }
+
+    // takeSeats and commit signal every expected failure with one of these exception types
+    private static ServiceMetrics.Failure bookingFailure(RuntimeException e, int seats, boolean specificSeats) {
+        if (e instanceof UncheckedIOException) {
+            return ServiceMetrics.Failure.STORAGE_ERROR;
+        }
+        if (e instanceof IllegalArgumentException) {
+            if (seats <= 0) {
+                return ServiceMetrics.Failure.INVALID_REQUEST;
+            }
+            return specificSeats ? ServiceMetrics.Failure.SEAT_UNAVAILABLE : ServiceMetrics.Failure.NOT_ENOUGH_SEATS;
+        }
+        return ServiceMetrics.Failure.OTHER;
+    }
+
+    // Takes the seat count and, on a flight with a seat map, the seats themselves; returns the seat numbers
+    private static List<String> takeSeats(Flight flight, int seats, SeatMap.CabinClass cabin, List<String> seatNumbers) {
         // Validate seat count first
         if (seats <= 0) {
             throw new IllegalArgumentException("Number of seats must be at least 1. Requested: " + seats);
         }
 
-        // Check if seats are available
-        if (flight.getAvailableSeats() < seats) {
+        // Book the seats; the check and the decrement are a single atomic step on the flight
+        if (!flight.bookSeats(seats)) {
             throw new IllegalArgumentException("Not enough seats available. Available: " + flight.getAvailableSeats() + ", Requested: " + seats);
         }
 
-        // Book the seats
-        boolean success = flight.bookSeats(seats);
-        if (!success) {
-            throw new IllegalStateException("Failed to book seats. Please try again.");
+        // Then pick the actual seats; the count taken above guarantees enough are free on the map
+        SeatMap seatMap = flight.getSeatMap();
+        if (seatMap == null) {
+            return List.of();
+        }
+        if (seatNumbers != null) {
+            boolean claimed;
+            try {
+                claimed = seatMap.claim(seatNumbers);
+            } catch (IllegalArgumentException e) {
+                // Unknown or repeated seat number
+                flight.releaseSeats(seats);
+                throw e;
+            }
+            if (!claimed) {
+                flight.releaseSeats(seats);
+                throw new IllegalArgumentException("Seats already taken on flight " + flight.getFlightNumber() + ": " + seatNumbers);
+            }
+            return seatNumbers;
         }
+        List<String> assigned = seatMap.allocate(seats, cabin);
+        if (assigned == null) {
+            flight.releaseSeats(seats);
+            throw new IllegalArgumentException("Not enough seats available in " + cabin + ". Requested: " + seats);
+        }
+        return assigned;
+    }
 
-        // Create reservation
-        Reservation reservation = new Reservation(customerName, flight, seats);
-        reservations.add(reservation);
+    // Logs a reservation whose seats are already taken and makes it visible; gives the seats back on failure
+    private Reservation commit(Reservation reservation) {
+        return commit(reservation, true);
+    }
 
+    // Without releaseOnFailure the seats stay taken on failure and the caller decides where they go
+    private Reservation commit(Reservation reservation, boolean releaseOnFailure) {
+        try {
+            if (reservations.isClosed(reservation.getFlight().getFlightNumber())) {
+                throw new IllegalStateException("Flight " + reservation.getFlight().getFlightNumber() + " has been archived");
+            }
+            bookingLog.reservationBooked(reservation);
+        } catch (RuntimeException e) {
+            if (releaseOnFailure) {
+                releaseSeats(reservation);
+            }
+            throw e;
+        }
+        boolean added;
+        try {
+            added = reservations.add(reservation);
+        } catch (IllegalStateException archived) {
+            // Archived between the check and the log write
+            unlog(reservation, archived);
+            if (releaseOnFailure) {
+                releaseSeats(reservation);
+            }
+            throw archived;
+        }
+        if (!added) {
+            if (releaseOnFailure) {
+                releaseSeats(reservation);
+            }
+            throw new IllegalStateException("Duplicate reservation ID: " + reservation.getReservationId());
+        }
+        analytics.booked(reservation, true);
         return reservation;
     }
 
+    // Logs a cancellation for a booking that was logged but refused by the store, so replay drops it too
+    private void unlog(Reservation reservation, RuntimeException refusal) {
+        try {
+            bookingLog.reservationCancelled(reservation);
+        } catch (RuntimeException e) {
+            refusal.addSuppressed(e);
+        }
+    }
+
+    // Holds seats for the given time while the customer checks out. Held seats are off sale until the hold
+    // is confirmed into a reservation, released, or expires; holds are not journaled, so a restart frees them
+    public SeatHold holdSeats(String customerName, Flight flight, int seats, Duration holdFor) {
+        return hold(customerName, flight, seats, null, holdFor);
+    }
+
+    public SeatHold holdSeats(String customerName, Flight flight, List<String> seatNumbers, Duration holdFor) {
+        if (flight.getSeatMap() == null) {
+            throw new IllegalArgumentException("Flight " + flight.getFlightNumber() + " has no seat map");
+        }
+        return hold(customerName, flight, seatNumbers.size(), seatNumbers, holdFor);
+    }
+
+    private SeatHold hold(String customerName, Flight flight, int seats, List<String> seatNumbers, Duration holdFor) {
+        if (holdFor.isNegative() || holdFor.isZero()) {
+            throw new IllegalArgumentException("Hold time must be positive: " + holdFor);
+        }
+        HoldTimer timer = getHoldTimer();
+        long start = metrics.start();
+        List<String> assigned;
+        try {
+            assigned = takeSeats(flight, seats, null, seatNumbers);
+        } catch (RuntimeException e) {
+            metrics.failed(ServiceMetrics.Operation.HOLD, bookingFailure(e, seats, seatNumbers != null), start);
+            throw e;
+        }
+        SeatHold hold = new SeatHold("HOLD" + holdSequence.incrementAndGet(), customerName, flight, seats, assigned,
+                timer.now() + holdFor.toNanos(), this);
+        holds.put(hold.getHoldId(), hold);
+        holdsPlaced.increment();
+        timer.schedule(hold);
+        metrics.succeeded(ServiceMetrics.Operation.HOLD, start);
+        return hold;
+    }
+
+    // Turns a hold into a reservation. Fails if the hold has expired or was already confirmed or released
+    public Reservation confirmHold(SeatHold hold) {
+        long start = metrics.start();
+        if (hold.getStatus() == SeatHold.Status.HELD && getHoldTimer().now() - hold.getExpiresAtNanos() >= 0) {
+            // Due but the timer has not got to it yet
+            expireHold(hold);
+        }
+        if (!hold.end(SeatHold.Status.CONFIRMED)) {
+            metrics.failed(ServiceMetrics.Operation.CONFIRM_HOLD, ServiceMetrics.Failure.HOLD_ENDED, start);
+            throw new IllegalStateException("Hold " + hold.getHoldId() + " can no longer be confirmed: " + hold.getStatus());
+        }
+        holds.remove(hold.getHoldId(), hold);
+        holdsConfirmed.increment();
+        try {
+            Reservation reservation = commit(new Reservation(hold.getCustomerName(), hold.getFlight(), hold.getSeats(), hold.getSeatNumbers()));
+            metrics.succeeded(ServiceMetrics.Operation.CONFIRM_HOLD, start);
+            return reservation;
+        } catch (RuntimeException e) {
+            metrics.failed(ServiceMetrics.Operation.CONFIRM_HOLD, bookingFailure(e, hold.getSeats(), false), start);
+            throw e;
+        }
+    }
+
+    // Gives held seats back early; false if the hold had already ended
+    public boolean releaseHold(SeatHold hold) {
+        if (!hold.end(SeatHold.Status.RELEASED)) {
+            return false;
+        }
+        holds.remove(hold.getHoldId(), hold);
+        holdsReleased.increment();
+        freeSeats(hold.getFlight(), hold.getSeats(), hold.getSeatNumbers());
+        return true;
+    }
+
+    // Called by the HoldTimer when a hold is due
+    boolean expireHold(SeatHold hold) {
+        if (!hold.end(SeatHold.Status.EXPIRED)) {
+            return false;
+        }
+        holds.remove(hold.getHoldId(), hold);
+        holdsExpired.increment();
+        freeSeats(hold.getFlight(), hold.getSeats(), hold.getSeatNumbers());
+        return true;
+    }
+
+    public SeatHold getHold(String holdId) {
+        return holds.get(holdId);
+    }
+
+    // Call counts, failures and latencies; recording can be switched off with setEnabled(false)
+    public ServiceMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Hit ratio and switch for the cache in front of searchFlights
+    public SearchCache getSearchCache() {
+        return searchCache;
+    }
+
+    // Running load factors, booking rates, top destinations and routes, and distinct customers
+    public BookingAnalytics getAnalytics() {
+        return analytics;
+    }
+
+    public HoldMetrics getHoldMetrics() {
+        HoldTimer timer = holdTimer;
+        return new HoldMetrics(holds.size(), holdsPlaced.sum(), holdsConfirmed.sum(), holdsReleased.sum(), holdsExpired.sum(),
+                timer == null ? 0 : timer.getExpiryLagNanos(), timer == null ? 0 : timer.getMaxExpiryLagNanos());
+    }
+
+    // The timer that expires holds; started on first use unless one was set
+    public HoldTimer getHoldTimer() {
+        HoldTimer timer = holdTimer;
+        if (timer == null) {
+            synchronized (this) {
+                timer = holdTimer;
+                if (timer == null) {
+                    if (closed) {
+                        throw new IllegalStateException("Flight service is closed");
+                    }
+                    timer = new HoldTimer().start();
+                    holdTimer = timer;
+                    ownsHoldTimer = true;
+                }
+            }
+        }
+        return timer;
+    }
+
+    // Replaces the hold timer, e.g. with one on a test clock that is advanced by hand. Set it before placing holds
+    public synchronized void setHoldTimer(HoldTimer holdTimer) {
+        if (!holds.isEmpty()) {
+            throw new IllegalStateException("Cannot replace the hold timer while holds are open");
+        }
+        if (ownsHoldTimer) {
+            this.holdTimer.close();
+            ownsHoldTimer = false;
+        }
+        this.holdTimer = holdTimer;
+    }
+
+    // Stops the hold timer this service started; open holds no longer expire. A timer passed to
+    // setHoldTimer belongs to the caller and is left running
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (ownsHoldTimer) {
+            holdTimer.close();
+            ownsHoldTimer = false;
+        }
+    }
+
+    // Queues the customer for seats on the flight, e.g. once bookFlight has failed for lack of them. Seats
+    // freed by a cancellation, an ended hold or a raised overbooking limit go to the waitlist before they
+    // go back on sale, on the thread that freed them. The front entry is booked as soon as its seats are
+    // all free; entries behind it wait their turn even if they need fewer. If seats are free when the
+    // customer joins and nobody is ahead, the entry is booked at once. On an archived flight the entry
+    // comes back already failed
+    public WaitlistEntry joinWaitlist(String customerName, Flight flight, int seats, int priority) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Number of seats must be at least 1. Requested: " + seats);
+        }
+        if (priority < 0 || priority > WaitlistEntry.MAX_PRIORITY) {
+            throw new IllegalArgumentException("Priority must be 0 to " + WaitlistEntry.MAX_PRIORITY + ": " + priority);
+        }
+        WaitlistEntry entry = new WaitlistEntry("WAIT" + waitlistSequence.incrementAndGet(), customerName, flight, seats, priority);
+        FlightWaitlist waitlist = waitlistOf(flight);
+        List<WaitlistEntry> failed = new ArrayList<>();
+        boolean added;
+        synchronized (waitlist) {
+            // Archiving closes the flight before its waitlist, so a waitlist made for it after that is
+            // closed here rather than left behind
+            if (reservations.isClosed(flight.getFlightNumber())) {
+                failed.addAll(waitlist.close());
+                waitlists.remove(flight, waitlist);
+            }
+            added = waitlist.add(entry);
+        }
+        if (!added) {
+            failed.add(entry);
+        }
+        completeAll(failed);
+        if (added) {
+            serveWaitlist(flight);
+        }
+        return entry;
+    }
+
+    // False if the entry had already been booked or left
+    public boolean leaveWaitlist(WaitlistEntry entry) {
+        FlightWaitlist waitlist = waitlists.get(entry.getFlight());
+        if (waitlist == null) {
+            return false;
+        }
+        synchronized (waitlist) {
+            if (!waitlist.leave(entry)) {
+                return false;
+            }
+        }
+        entry.completeReservation();
+        return true;
+    }
+
+    // Entries still waiting, in the order they will be served
+    public List<WaitlistEntry> getWaitlist(Flight flight) {
+        FlightWaitlist waitlist = waitlists.get(flight);
+        if (waitlist == null) {
+            return new ArrayList<>();
+        }
+        synchronized (waitlist) {
+            return waitlist.entries();
+        }
+    }
+
+    // Lets the flight sell up to extraSeats more than its capacity, expecting no-shows. Raising the limit
+    // puts the extra seats on sale, waitlist first; lowering it takes unsold ones off sale and fails if too
+    // few are unsold. Limits are not journaled, so set them again after recovery. Flights with a seat map
+    // cannot be overbooked, since every booking there needs a seat of its own
+    public void setOverbookingLimit(Flight flight, int extraSeats) {
+        if (extraSeats < 0) {
+            throw new IllegalArgumentException("Overbooking limit cannot be negative: " + extraSeats);
+        }
+        if (extraSeats > 0 && flight.getSeatMap() != null) {
+            throw new IllegalArgumentException("Flight " + flight.getFlightNumber() + " has a seat map and cannot be overbooked");
+        }
+        if (reservations.isClosed(flight.getFlightNumber())) {
+            throw new IllegalStateException("Flight " + flight.getFlightNumber() + " has been archived");
+        }
+        FlightWaitlist waitlist = waitlistOf(flight);
+        List<WaitlistEntry> served = List.of();
+        synchronized (waitlist) {
+            int change = extraSeats - waitlist.getOverbookingLimit();
+            if (change < 0 && !flight.bookSeats(-change)) {
+                throw new IllegalStateException("Cannot lower the overbooking limit of flight " + flight.getFlightNumber()
+                        + " to " + extraSeats + ": only " + flight.getAvailableSeats() + " seats are unsold");
+            }
+            waitlist.setOverbookingLimit(extraSeats);
+            if (change > 0) {
+                served = serve(flight, waitlist, change, List.of());
+            }
+        }
+        completeAll(served);
+    }
+
+    public int getOverbookingLimit(Flight flight) {
+        FlightWaitlist waitlist = waitlists.get(flight);
+        if (waitlist == null) {
+            return 0;
+        }
+        synchronized (waitlist) {
+            return waitlist.getOverbookingLimit();
+        }
+    }
+
+    private FlightWaitlist waitlistOf(Flight flight) {
+        return waitlists.computeIfAbsent(flight, f -> new FlightWaitlist());
+    }
+
+    // Books the front of the flight's waitlist from the seats already on sale, e.g. when a customer joins
+    private void serveWaitlist(Flight flight) {
+        FlightWaitlist waitlist = waitlists.isEmpty() ? null : waitlists.get(flight);
+        if (waitlist == null) {
+            return;
+        }
+        List<WaitlistEntry> served;
+        synchronized (waitlist) {
+            served = serve(flight, waitlist, 0, List.of());
+        }
+        completeAll(served);
+    }
+
+    // Gives seats that a cancellation or an ended hold let go of to the flight's waitlist, and puts what
+    // the waitlist does not take back on sale. The seats only go on sale after the waitlist has had them,
+    // so a booking racing the cancellation cannot get in ahead of a waitlisted customer
+    private void freeSeats(Flight flight, int seats, List<String> seatNumbers) {
+        FlightWaitlist waitlist = waitlists.isEmpty() ? null : waitlists.get(flight);
+        if (waitlist == null) {
+            releaseSeats(flight, seats, seatNumbers);
+            return;
+        }
+        List<WaitlistEntry> served;
+        synchronized (waitlist) {
+            served = serve(flight, waitlist, seats, seatNumbers);
+        }
+        completeAll(served);
+    }
+
+    // Books the front of the waitlist, first from the freed seats, which are still off sale, and then
+    // from the seats on sale, taken with the same atomic step as any booking. Called under the waitlist's
+    // lock, so two cancellations freeing seats at once can neither hand the same seat out twice nor book
+    // the same entry twice. Each entry served needs at least one seat, so a cancellation does a bounded
+    // amount of work however long the list; a booking that fails ends the pass with the one entry failed.
+    // Freed seats left over go on sale at the end. Returns the entries served, whose futures the caller
+    // completes once the lock is let go
+    private List<WaitlistEntry> serve(Flight flight, FlightWaitlist waitlist, int freed, List<String> freedSeatNumbers) {
+        int pooled = freed;
+        List<String> pooledSeats = new ArrayList<>(freedSeatNumbers);
+        List<WaitlistEntry> served = new ArrayList<>();
+        WaitlistEntry next;
+        while ((next = waitlist.next()) != null) {
+            int fromPool = Math.min(next.getSeats(), pooled);
+            List<String> seatNumbers;
+            try {
+                seatNumbers = fromPool == next.getSeats() ? new ArrayList<>()
+                        : new ArrayList<>(takeSeats(flight, next.getSeats() - fromPool, null, null));
+            } catch (IllegalArgumentException notEnoughSeats) {
+                break;
+            }
+            List<String> fromPooledSeats = pooledSeats.subList(0, Math.min(fromPool, pooledSeats.size()));
+            seatNumbers.addAll(0, fromPooledSeats);
+            fromPooledSeats.clear();
+            pooled -= fromPool;
+            waitlist.removeNext(next);
+            served.add(next);
+            try {
+                next.booked(commit(new Reservation(next.getCustomerName(), flight, next.getSeats(), seatNumbers), false));
+            } catch (RuntimeException e) {
+                // Most likely the log is failing, and would fail every entry behind this one too; they keep
+                // their place and the seats go back on sale
+                next.failed(e);
+                pooled += next.getSeats();
+                pooledSeats.addAll(seatNumbers);
+                break;
+            }
+        }
+        if (pooled > 0) {
+            releaseSeats(flight, pooled, pooledSeats);
+        }
+        return served;
+    }
+
+    private static void completeAll(List<WaitlistEntry> served) {
+        for (WaitlistEntry entry : served) {
+            entry.completeReservation();
+        }
+    }
+
+    // Frees seats on the map before the count, so a booker that gets the count finds them free
+    private static void releaseSeats(Flight flight, int seats, List<String> seatNumbers) {
+        if (!seatNumbers.isEmpty() && flight.getSeatMap() != null) {
+            flight.getSeatMap().release(seatNumbers);
+        }
+        flight.releaseSeats(seats);
+    }
+
+    private static void releaseSeats(Reservation reservation) {
+        releaseSeats(reservation.getFlight(), reservation.getSeatsBooked(), reservation.getSeatNumbers());
+    }
+
+    // Books many requests at once and returns one result per request, in request order.
+    // Requests are grouped by flight so each flight's seat counter changes once per batch, reservation IDs
+    // are claimed as a block and the batch is logged with a single durable write. Without allOrNothing,
+    // requests that do not fit are failed in request order and the rest are booked; with allOrNothing,
+    // either every request is booked or none is.
+    public List<BookingResult> bookFlights(List<BookingRequest> requests, boolean allOrNothing) {
+        long start = metrics.start();
+        try {
+            List<BookingResult> results = bookBatch(requests, allOrNothing);
+            metrics.succeeded(ServiceMetrics.Operation.BOOK_BATCH, start);
+            return results;
+        } catch (RuntimeException e) {
+            metrics.failed(ServiceMetrics.Operation.BOOK_BATCH, e instanceof UncheckedIOException
+                    ? ServiceMetrics.Failure.STORAGE_ERROR : ServiceMetrics.Failure.OTHER, start);
+            throw e;
+        }
+    }
+
+    private List<BookingResult> bookBatch(List<BookingRequest> requests, boolean allOrNothing) {
+        BookingResult[] results = new BookingResult[requests.size()];
+        Map<Flight, List<Integer>> byFlight = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            if (request.getFlight() == null) {
+                results[i] = BookingResult.failed(request, "No flight selected");
+            } else if (request.getSeats() <= 0) {
+                results[i] = BookingResult.failed(request, "Number of seats must be at least 1. Requested: " + request.getSeats());
+            } else {
+                byFlight.computeIfAbsent(request.getFlight(), f -> new ArrayList<>()).add(i);
+            }
+        }
+        if (allOrNothing && byFlight.values().stream().mapToInt(List::size).sum() < requests.size()) {
+            return failAll(requests, results, "Batch rejected: another request in the group is invalid");
+        }
+        // Archived flights would only be refused by the store after the batch is logged
+        for (Iterator<Map.Entry<Flight, List<Integer>>> it = byFlight.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Flight, List<Integer>> entry = it.next();
+            String flightNumber = entry.getKey().getFlightNumber();
+            if (reservations.isClosed(flightNumber)) {
+                if (allOrNothing) {
+                    return failAll(requests, results, "Batch rejected: flight " + flightNumber + " has been archived");
+                }
+                for (int index : entry.getValue()) {
+                    results[index] = BookingResult.failed(requests.get(index), "Flight " + flightNumber + " has been archived");
+                }
+                it.remove();
+            }
+        }
+
+        // Take seats flight by flight; each flight's counter sees one compare-and-set per attempt
+        Map<Flight, Integer> taken = new LinkedHashMap<>();
+        List<Integer> granted = new ArrayList<>();
+        for (Map.Entry<Flight, List<Integer>> entry : byFlight.entrySet()) {
+            Flight flight = entry.getKey();
+            List<Integer> indexes = entry.getValue();
+            int seats = allOrNothing ? takeAll(flight, requests, indexes) : takeInOrder(flight, requests, indexes, results);
+            if (allOrNothing && seats < 0) {
+                taken.forEach(Flight::releaseSeats);
+                return failAll(requests, results, "Batch rejected: not enough seats on flight " + flight.getFlightNumber());
+            }
+            if (seats > 0) {
+                taken.put(flight, seats);
+            }
+            for (int index : indexes) {
+                if (results[index] == null) {
+                    granted.add(index);
+                }
+            }
+        }
+
+        granted.sort(null);
+        String[] ids = Reservation.getIdGenerator().nextIds(granted.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<Reservation> booked = new ArrayList<>(granted.size());
+        for (int i = 0; i < granted.size(); i++) {
+            BookingRequest request = requests.get(granted.get(i));
+            SeatMap seatMap = request.getFlight().getSeatMap();
+            // The seats were counted out above, so the map has room for every granted request
+            List<String> seatNumbers = seatMap == null ? List.of() : seatMap.allocate(request.getSeats(), null);
+            booked.add(new Reservation(ids[i], request.getCustomerName(), request.getFlight(), request.getSeats(), now, seatNumbers));
+        }
+        try {
+            bookingLog.reservationsBooked(booked);
+        } catch (RuntimeException e) {
+            for (Reservation reservation : booked) {
+                releaseSeats(reservation);
+            }
+            throw e;
+        }
+        List<Reservation> added = new ArrayList<>(booked.size());
+        for (int i = 0; i < booked.size(); i++) {
+            Reservation reservation = booked.get(i);
+            int index = granted.get(i);
+            IllegalStateException archived = null;
+            String refusal;
+            try {
+                refusal = reservations.add(reservation) ? null : "Duplicate reservation ID: " + reservation.getReservationId();
+            } catch (IllegalStateException e) {
+                // Archived after the check above
+                archived = e;
+                refusal = e.getMessage();
+            }
+            if (refusal == null) {
+                added.add(reservation);
+                results[index] = BookingResult.booked(requests.get(index), reservation);
+            } else if (allOrNothing) {
+                rollBack(booked, added, archived == null ? reservation : null);
+                Arrays.fill(results, null);
+                return failAll(requests, results, "Batch rejected: " + refusal);
+            } else {
+                if (archived != null) {
+                    unlog(reservation, archived);
+                }
+                releaseSeats(reservation);
+                results[index] = BookingResult.failed(requests.get(index), refusal);
+            }
+        }
+        for (Reservation reservation : added) {
+            analytics.booked(reservation, true);
+        }
+        return Arrays.asList(results);
+    }
+
+    // Undoes a logged all-or-nothing batch that the store refused part of: takes the reservations already
+    // added back out, logs every one as cancelled so replay drops the batch too, and gives all the seats
+    // back. A duplicate ID is not logged as cancelled, since replay would cancel the reservation that owns it.
+    // A reservation someone cancelled in the meantime has already been logged and released
+    private void rollBack(List<Reservation> booked, List<Reservation> added, Reservation duplicate) {
+        Set<Reservation> cancelled = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Reservation reservation : added) {
+            if (reservations.remove(reservation.getReservationId()) == null) {
+                cancelled.add(reservation);
+            }
+        }
+        RuntimeException failure = null;
+        for (Reservation reservation : booked) {
+            if (cancelled.contains(reservation)) {
+                continue;
+            }
+            if (reservation != duplicate) {
+                try {
+                    bookingLog.reservationCancelled(reservation);
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            releaseSeats(reservation);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Takes the seats for every request on the flight in one step, or returns -1 if they do not all fit
+    private static int takeAll(Flight flight, List<BookingRequest> requests, List<Integer> indexes) {
+        int total = 0;
+        for (int index : indexes) {
+            total += requests.get(index).getSeats();
+        }
+        return flight.bookSeats(total) ? total : -1;
+    }
+
+    // Grants requests in order while they fit, fails the rest and takes the granted seats in one step
+    private static int takeInOrder(Flight flight, List<BookingRequest> requests, List<Integer> indexes, BookingResult[] results) {
+        while (true) {
+            int available = flight.getAvailableSeats();
+            int total = 0;
+            for (int index : indexes) {
+                int seats = requests.get(index).getSeats();
+                if (total + seats <= available) {
+                    total += seats;
+                    results[index] = null;
+                } else {
+                    results[index] = BookingResult.failed(requests.get(index),
+                            "Not enough seats available. Available: " + (available - total) + ", Requested: " + seats);
+                }
+            }
+            // Retry with a fresh count if another booker got in between the read and the update
+            if (total == 0 || flight.bookSeats(total)) {
+                return total;
+            }
+        }
+    }
+
+    private static List<BookingResult> failAll(List<BookingRequest> requests, BookingResult[] results, String reason) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = BookingResult.failed(requests.get(i), reason);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
     public List<Reservation> getCustomerReservations(String customerName) {
-        return reservations.stream()
-                .filter(reservation -> reservation.getCustomerName().equalsIgnoreCase(customerName))
-                .collect(Collectors.toList());
+        return reservations.findByCustomer(customerName);
+    }
+
+    // Streaming form of getCustomerReservations, with the same locking caveat as forEachFlight
+    public int forEachCustomerReservation(String customerName, Consumer<? super Reservation> action) {
+        return reservations.forEachByCustomer(customerName, action);
+    }
+
+    public List<Reservation> getFlightReservations(Flight flight) {
+        return reservations.findByFlight(flight.getFlightNumber());
+    }
+
+    public Reservation getReservation(String reservationId) {
+        return reservations.get(reservationId);
     }
 
     public boolean cancelReservation(Reservation reservation) {
-        if (reservations.remove(reservation)) {
-            // Release the booked seats
-            reservation.getFlight().releaseSeats(reservation.getSeatsBooked());
+        long start = metrics.start();
+        // Only the thread that actually removes the reservation releases its seats
+        Reservation removed = reservations.remove(reservation.getReservationId());
+        if (removed != null) {
+            try {
+                bookingLog.reservationCancelled(removed);
+            } catch (RuntimeException e) {
+                reservations.add(removed);
+                metrics.failed(ServiceMetrics.Operation.CANCEL, e instanceof UncheckedIOException
+                        ? ServiceMetrics.Failure.STORAGE_ERROR : ServiceMetrics.Failure.OTHER, start);
+                throw e;
+            }
+            // Waitlisted customers get first call on the freed seats; the rest go back on sale
+            analytics.cancelled(removed, true);
+            freeSeats(removed.getFlight(), removed.getSeatsBooked(), removed.getSeatNumbers());
+            metrics.succeeded(ServiceMetrics.Operation.CANCEL, start);
             return true;
         }
+        metrics.failed(ServiceMetrics.Operation.CANCEL, ServiceMetrics.Failure.NOT_FOUND, start);
         return false;
     }
 
     public void addFlight(Flight flight) {
-        flights.add(flight);
+        // Claim the flight number first so two flights with the same number never reach the log
+        claimFlightNumber(flight);
+        try {
+            bookingLog.flightAdded(flight);
+        } catch (RuntimeException e) {
+            if (flight.getFlightNumber() != null) {
+                flightsByNumber.remove(flight.getFlightNumber(), flight);
+            }
+            throw e;
+        }
+        registerFlight(flight);
+    }
+
+    // Adds a whole schedule at once. Duplicate flight numbers reject the batch before anything is logged,
+    // the log gets the flights as one write and each index takes them under a single lock acquisition
+    public void addFlights(List<Flight> flights) {
+        List<Flight> claimed = new ArrayList<>(flights.size());
+        try {
+            for (Flight flight : flights) {
+                claimFlightNumber(flight);
+                claimed.add(flight);
+            }
+            bookingLog.flightsAdded(flights);
+        } catch (RuntimeException e) {
+            for (Flight flight : claimed) {
+                if (flight.getFlightNumber() != null) {
+                    flightsByNumber.remove(flight.getFlightNumber(), flight);
+                }
+            }
+            throw e;
+        }
+        synchronized (catalogLock) {
+            catalog = catalog.withFlights(flights);
+        }
+        for (Flight flight : flights) {
+            flight.setListener(flightListener);
+        }
+        flightIndex.addAll(flights);
+        searchCache.added(flights);
+        routeGraph.addAll(flights);
+        destinationIndex.addAll(flights);
+        departureIndex.addAll(flights);
+        for (Flight flight : flights) {
+            analytics.add(flight);
+        }
+    }
+
+    // Moves every flight departing before the cutoff, with its reservations, out of the search indexes,
+    // the catalog and the reservation store into the archive, so searches, scans and lookups only work
+    // on flights still to come. Customers still waitlisted are failed, and bookings on an archived flight
+    // are refused. Archived flight numbers cannot be added again, and archived flights stay in the running
+    // analytics totals. Returns how many flights were archived. FlightArchiver calls this on a schedule;
+    // archiving is not journaled, so it starts again from the journal after a restart
+    public int archiveDepartedFlights(LocalDateTime cutoff) {
+        List<Flight> departed = departureIndex.departedBefore(cutoff);
+        if (departed.isEmpty()) {
+            return 0;
+        }
+        synchronized (catalogLock) {
+            catalog = catalog.without(departed);
+        }
+        for (Flight flight : departed) {
+            flight.setListener(null);
+        }
+        flightIndex.removeAll(departed);
+        searchCache.removed(departed);
+        routeGraph.removeAll(departed);
+        destinationIndex.removeAll(departed);
+        departureIndex.removeAll(departed);
+        analytics.removeAll(departed);
+        for (Flight flight : departed) {
+            // From here on a booking still committing on the flight, including a waitlist entry being
+            // served, is refused rather than landing in the store after the flight has gone
+            List<Reservation> booked = reservations.closeFlight(flight.getFlightNumber());
+            // Archived before the number is let go, so addFlight never finds it free
+            archive.add(flight, booked);
+            if (flight.getFlightNumber() != null) {
+                flightsByNumber.remove(flight.getFlightNumber(), flight);
+            }
+            closeWaitlist(flight);
+        }
+        return departed.size();
+    }
+
+    private void closeWaitlist(Flight flight) {
+        FlightWaitlist waitlist = waitlists.remove(flight);
+        if (waitlist == null) {
+            return;
+        }
+        List<WaitlistEntry> closed;
+        synchronized (waitlist) {
+            closed = waitlist.close();
+        }
+        completeAll(closed);
+    }
+
+    // Departed flights and their reservations, moved out by archiveDepartedFlights
+    public FlightArchive getArchive() {
+        return archive;
+    }
+
+    public BookingLog getBookingLog() {
+        return bookingLog;
+    }
+
+    public Flight getFlight(String flightNumber) {
+        return flightsByNumber.get(flightNumber);
+    }
+
+    // Recovery path: re-applies logged state without writing it to the log again
+    public void restoreFlight(Flight flight) {
+        claimFlightNumber(flight);
+        registerFlight(flight);
+    }
+
+    // Recovery path: applies a logged schedule change and updates the indexes without logging it again.
+    // The flight has no listener while its fields change, so only replay may change it meanwhile
+    public void restoreSchedule(Flight flight, String origin, String destination, LocalDateTime departureTime,
+                                LocalDateTime arrivalTime) {
+        String previousDestination = flight.getDestination();
+        LocalDateTime previousDepartureTime = flight.getDepartureTime();
+        flight.setListener(null);
+        try {
+            flight.setOrigin(origin);
+            flight.setDestination(destination);
+            flight.setDepartureTime(departureTime);
+            flight.setArrivalTime(arrivalTime);
+        } finally {
+            flight.setListener(flightListener);
+        }
+        flightListeners.scheduleChanged(flight, previousDestination, previousDepartureTime);
+    }
+
+    public void restoreReservation(Reservation reservation) {
+        // Applied unconditionally; the log only holds bookings that succeeded, in an order that may
+        // interleave differently with cancellations than the original seat updates did
+        Flight flight = reservation.getFlight();
+        flight.setAvailableSeats(flight.getAvailableSeats() - reservation.getSeatsBooked());
+        if (!reservation.getSeatNumbers().isEmpty() && flight.getSeatMap() != null
+                && !flight.getSeatMap().claim(reservation.getSeatNumbers())) {
+            throw new IllegalStateException("Reservation " + reservation.getReservationId() + " holds seats that are already taken: "
+                    + reservation.getSeatNumbers());
+        }
+        reservations.add(reservation);
+        analytics.booked(reservation, false);
+        Reservation.getIdGenerator().observe(reservation.getReservationId());
+    }
+
+    public boolean restoreCancellation(String reservationId) {
+        Reservation removed = reservations.remove(reservationId);
+        if (removed != null) {
+            releaseSeats(removed);
+            analytics.cancelled(removed, false);
+            return true;
+        }
+        return false;
+    }
+
+    private void claimFlightNumber(Flight flight) {
+        String flightNumber = flight.getFlightNumber();
+        if (flightNumber != null && flightsByNumber.putIfAbsent(flightNumber, flight) != null) {
+            throw new IllegalArgumentException("Flight " + flightNumber + " already exists");
+        }
+        // Archived numbers stay taken: the journal still holds the departed flight, and recovery replays it
+        if (flightNumber != null && archive.getFlight(flightNumber) != null) {
+            flightsByNumber.remove(flightNumber, flight);
+            throw new IllegalArgumentException("Flight " + flightNumber + " already exists in the archive");
+        }
+    }
+
+    private void registerFlight(Flight flight) {
+        synchronized (catalogLock) {
+            catalog = catalog.withFlight(flight);
+        }
+        // Keep the search index and route graph in step with schedule and seat changes
+        flight.setListener(flightListener);
+        flightIndex.add(flight);
+        searchCache.added(flight);
+        routeGraph.add(flight);
+        destinationIndex.add(flight);
+        departureIndex.add(flight);
+        analytics.add(flight);
+    }
+
+    // Notified of schedule and seat changes on every flight in this service
+    public void addFlightListener(FlightListener listener) {
+        flightListeners.add(listener);
+    }
+
+    public void removeFlightListener(FlightListener listener) {
+        flightListeners.remove(listener);
+    }
+
+    // Current catalog version; hold on to it for a consistent view across several reads
+    public FlightCatalog getCatalog() {
+        return catalog;
     }
 
+    // Read-only view of the current catalog, not a copy
     public List<Flight> getAllFlights() {
-        return new ArrayList<>(flights);
+        return catalog.getFlights();
     }
 
     public List<Reservation> getAllReservations() {
-        return new ArrayList<>(reservations);
+        return reservations.findAll();
     }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.airline.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+// One flight's waitlist and overbooking limit. Entries are served highest priority first and in arrival
+// order within a priority. Each priority has its own FIFO queue, so joining, leaving and taking the front
+// entry cost the same however long the list is: an entry that leaves is only marked, and dropped when it
+// reaches the front. FlightService holds the lock while it changes the list or hands out seats from it.
+class FlightWaitlist {
+    private final List<ArrayDeque<WaitlistEntry>> queues = new ArrayList<>();
+    private int waiting;
+    private int overbookingLimit;
+    private boolean closed;
+
+    FlightWaitlist() {
+        for (int priority = 0; priority <= WaitlistEntry.MAX_PRIORITY; priority++) {
+            queues.add(new ArrayDeque<>());
+        }
+    }
+
+    // Fails the entry instead if the waitlist has been closed; false then
+    boolean add(WaitlistEntry entry) {
+        if (closed) {
+            entry.failed(departed(entry));
+            return false;
+        }
+        queues.get(entry.getPriority()).addLast(entry);
+        waiting++;
+        return true;
+    }
+
+    // Fails every waiting entry and turns away any that join later. Returns the failed entries, whose
+    // futures the caller completes once the lock is let go
+    List<WaitlistEntry> close() {
+        closed = true;
+        List<WaitlistEntry> failed = entries();
+        for (WaitlistEntry entry : failed) {
+            entry.failed(departed(entry));
+        }
+        waiting = 0;
+        return failed;
+    }
+
+    private static IllegalStateException departed(WaitlistEntry entry) {
+        return new IllegalStateException("Flight " + entry.getFlight().getFlightNumber() + " departed before seats came free");
+    }
+
+    boolean leave(WaitlistEntry entry) {
+        if (entry.getStatus() != WaitlistEntry.Status.WAITING) {
+            return false;
+        }
+        entry.left();
+        waiting--;
+        return true;
+    }
+
+    // The entry to serve next, or null if nobody is waiting
+    WaitlistEntry next() {
+        if (waiting == 0) {
+            return null;
+        }
+        for (int priority = WaitlistEntry.MAX_PRIORITY; priority >= 0; priority--) {
+            ArrayDeque<WaitlistEntry> queue = queues.get(priority);
+            WaitlistEntry head;
+            while ((head = queue.peekFirst()) != null && head.getStatus() != WaitlistEntry.Status.WAITING) {
+                queue.pollFirst();
+            }
+            if (head != null) {
+                return head;
+            }
+        }
+        return null;
+    }
+
+    // Takes next() off the list once its seats are secured
+    void removeNext(WaitlistEntry entry) {
+        queues.get(entry.getPriority()).pollFirst();
+        waiting--;
+    }
+
+    int size() {
+        return waiting;
+    }
+
+    // Waiting entries in serving order
+    List<WaitlistEntry> entries() {
+        List<WaitlistEntry> entries = new ArrayList<>(waiting);
+        for (int priority = WaitlistEntry.MAX_PRIORITY; priority >= 0; priority--) {
+            for (WaitlistEntry entry : queues.get(priority)) {
+                if (entry.getStatus() == WaitlistEntry.Status.WAITING) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    int getOverbookingLimit() {
+        return overbookingLimit;
+    }
+
+    void setOverbookingLimit(int overbookingLimit) {
+        this.overbookingLimit = overbookingLimit;
+    }
+}
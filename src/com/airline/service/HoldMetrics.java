@@ -0,0 +1,6 @@
+package com.airline.service;
+
+// Seat hold counters for a FlightService. Lag is how far behind the clock expiry ran, in nanoseconds
+public record HoldMetrics(int activeHolds, long placed, long confirmed, long released, long expired,
+                          long expiryLagNanos, long maxExpiryLagNanos) {
+}
@@ -0,0 +1,178 @@
+package com.airline.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+// Expires seat holds with a hashed timing wheel: a ring of buckets, one per tick, where a hold goes in the
+// bucket of the tick it expires on. Scheduling is a queue append and each tick only looks at one bucket,
+// so the cost does not grow with the number of open holds. Holds due more than one turn of the wheel
+// away stay in their bucket until the turn they are due on. Confirmed or released holds are not removed
+// from their bucket; they are dropped when it comes around.
+//
+// advance() does the work and is driven either by the background thread from start() or by the caller.
+public class HoldTimer implements AutoCloseable {
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+    public static final int DEFAULT_WHEEL_SIZE = 4096;
+
+    private final long tickNanos;
+    private final List<SeatHold>[] wheel;
+    private final int mask;
+    private final LongSupplier clock;
+    private final long startNanos;
+    // Holds scheduled since the last advance; only the advancing thread touches the wheel
+    private final Queue<SeatHold> incoming = new ConcurrentLinkedQueue<>();
+    private final Object advanceLock = new Object();
+    private long processedTicks;
+    private final AtomicLong expired = new AtomicLong();
+    private volatile long expiryLagNanos;
+    private volatile long maxExpiryLagNanos;
+    private volatile Thread thread;
+    private volatile boolean closed;
+
+    public HoldTimer() {
+        this(DEFAULT_TICK, DEFAULT_WHEEL_SIZE, System::nanoTime);
+    }
+
+    // wheelSize is rounded up to a power of two; the clock is in nanoseconds, like System.nanoTime
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HoldTimer(Duration tick, int wheelSize, LongSupplier clock) {
+        if (tick.isNegative() || tick.isZero() || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick and wheel size must be positive");
+        }
+        this.tickNanos = tick.toNanos();
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new List[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayList<>();
+        }
+        this.mask = size - 1;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+    }
+
+    public long now() {
+        return clock.getAsLong();
+    }
+
+    // Advances the wheel once per tick on a daemon thread
+    public synchronized HoldTimer start() {
+        if (thread == null && !closed) {
+            thread = new Thread(this::run, "seat-hold-timer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return this;
+    }
+
+    private void run() {
+        while (!closed) {
+            long nextTick;
+            synchronized (advanceLock) {
+                nextTick = startNanos + (processedTicks + 1) * tickNanos;
+            }
+            long wait = nextTick - now();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            advance();
+        }
+    }
+
+    void schedule(SeatHold hold) {
+        incoming.add(hold);
+    }
+
+    // Expires every hold that is due by now and returns how many it expired
+    public int advance() {
+        synchronized (advanceLock) {
+            long now = now();
+            for (SeatHold hold; (hold = incoming.poll()) != null; ) {
+                wheel[(int) (tickOf(hold.getExpiresAtNanos()) & mask)].add(hold);
+            }
+            // Only ticks that have fully elapsed are processed, so everything in their buckets is due
+            long targetTicks = (now - startNanos) / tickNanos;
+            if (targetTicks <= processedTicks) {
+                return 0;
+            }
+            // How long ago the oldest unprocessed tick ended, i.e. the longest any hold in this pass waited
+            long lag = now - (startNanos + (processedTicks + 1) * tickNanos);
+            expiryLagNanos = lag;
+            if (lag > maxExpiryLagNanos) {
+                maxExpiryLagNanos = lag;
+            }
+            // After a long stall every bucket is due, but each only needs one visit
+            long from = Math.max(processedTicks, targetTicks - wheel.length);
+            int count = 0;
+            for (long tick = from; tick < targetTicks; tick++) {
+                count += expireBucket(wheel[(int) (tick & mask)], now);
+            }
+            processedTicks = targetTicks;
+            return count;
+        }
+    }
+
+    // Holds that are already due land in the bucket that is processed next
+    private long tickOf(long deadline) {
+        long tick = Math.floorDiv(deadline - startNanos, tickNanos);
+        return Math.max(tick, processedTicks);
+    }
+
+    private int expireBucket(List<SeatHold> bucket, long now) {
+        int count = 0;
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            SeatHold hold = bucket.get(i);
+            boolean open = hold.getStatus() == SeatHold.Status.HELD;
+            if (open && hold.getExpiresAtNanos() > now) {
+                continue; // Due on a later turn of the wheel
+            }
+            SeatHold last = bucket.remove(bucket.size() - 1);
+            if (i < bucket.size()) {
+                bucket.set(i, last);
+            }
+            if (open && hold.service.expireHold(hold)) {
+                count++;
+            }
+        }
+        expired.addAndGet(count);
+        return count;
+    }
+
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    // How far behind the clock the latest expiry pass ran, in nanoseconds; about one tick when keeping up
+    public long getExpiryLagNanos() {
+        return expiryLagNanos;
+    }
+
+    public long getMaxExpiryLagNanos() {
+        return maxExpiryLagNanos;
+    }
+
+    public Duration getTick() {
+        return Duration.ofNanos(tickNanos);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread running = thread;
+        if (running != null) {
+            LockSupport.unpark(running);
+            try {
+                running.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
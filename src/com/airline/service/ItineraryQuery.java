@@ -0,0 +1,95 @@
+package com.airline.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+public class ItineraryQuery {
+    public enum Order {
+        EARLIEST_ARRIVAL,
+        FEWEST_LEGS
+    }
+
+    private final String origin;
+    private final String destination;
+    private final LocalDate date;
+    private int maxResults = 5;
+    private Order order = Order.EARLIEST_ARRIVAL;
+    private Duration minLayover = Duration.ofMinutes(45);
+    private Duration maxLayover = Duration.ofHours(6);
+    private int maxLegs = 3;
+    private int seats = 1;
+
+    public ItineraryQuery(String origin, String destination, LocalDate date) {
+        this.origin = origin;
+        this.destination = destination;
+        this.date = date;
+    }
+
+    public ItineraryQuery maxResults(int maxResults) {
+        this.maxResults = maxResults;
+        return this;
+    }
+
+    public ItineraryQuery order(Order order) {
+        this.order = order;
+        return this;
+    }
+
+    public ItineraryQuery layover(Duration minLayover, Duration maxLayover) {
+        if (minLayover.isNegative() || maxLayover.compareTo(minLayover) < 0) {
+            throw new IllegalArgumentException("Invalid layover window: " + minLayover + " to " + maxLayover);
+        }
+        this.minLayover = minLayover;
+        this.maxLayover = maxLayover;
+        return this;
+    }
+
+    public ItineraryQuery maxLegs(int maxLegs) {
+        if (maxLegs < 1) {
+            throw new IllegalArgumentException("An itinerary needs at least one leg. Requested: " + maxLegs);
+        }
+        this.maxLegs = maxLegs;
+        return this;
+    }
+
+    public ItineraryQuery seats(int seats) {
+        this.seats = seats;
+        return this;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public Duration getMinLayover() {
+        return minLayover;
+    }
+
+    public Duration getMaxLayover() {
+        return maxLayover;
+    }
+
+    public int getMaxLegs() {
+        return maxLegs;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+}
@@ -0,0 +1,162 @@
+package com.airline.service;
+
+import com.airline.model.Reservation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Concurrent reservation store indexed by reservation ID, customer and flight.
+// ConcurrentHashMap locks per hash bin, so writers for different customers and flights do not contend;
+// the per-customer and per-flight maps keep bookings in the order they were made. A reservation is linked
+// into its customer and flight buckets inside the ID map's update for that ID, so nothing can look it up
+// by ID and remove it before it is linked, and removal unlinks it before the ID is free again.
+class ReservationStore {
+    private final ConcurrentHashMap<String, Stored> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<String, Reservation>> byCustomer = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Map<String, Reservation>> byFlight = new ConcurrentHashMap<>();
+    // Flights archived away; a reservation for one of them is refused when it is linked
+    private final Set<String> closedFlights = ConcurrentHashMap.newKeySet();
+    // Booking order for findAll, so adding a reservation stays a constant-time hash update
+    private final AtomicLong sequence = new AtomicLong();
+
+    private record Stored(Reservation reservation, long sequence) {
+    }
+
+    // False if the ID is taken; throws IllegalStateException if the flight was closed by closeFlight
+    boolean add(Reservation reservation) {
+        Stored stored = new Stored(reservation, sequence.getAndIncrement());
+        return byId.computeIfAbsent(reservation.getReservationId(), id -> {
+            // Flight first, so a refused reservation has not been linked anywhere yet
+            link(byFlight, reservation.getFlight().getFlightNumber(), reservation, closedFlights);
+            link(byCustomer, customerKey(reservation.getCustomerName()), reservation, Set.of());
+            return stored;
+        }) == stored;
+    }
+
+    // Refuses reservations for the flight from now on and removes the ones it has, in booking order.
+    // Closing takes the flight's bucket lock, so every add for the flight either got in before and is
+    // returned here, or comes after and is refused
+    List<Reservation> closeFlight(String flightNumber) {
+        if (flightNumber == null) {
+            return new ArrayList<>();
+        }
+        List<Reservation> booked = new ArrayList<>();
+        byFlight.compute(flightNumber, (k, bucket) -> {
+            closedFlights.add(k);
+            booked.addAll(snapshot(bucket));
+            return bucket;
+        });
+        // A cancellation can get to some of them first
+        booked.removeIf(reservation -> remove(reservation.getReservationId()) == null);
+        return booked;
+    }
+
+    boolean isClosed(String flightNumber) {
+        return flightNumber != null && closedFlights.contains(flightNumber);
+    }
+
+    // Returns the stored reservation that was removed, or null if the ID was not present
+    Reservation remove(String reservationId) {
+        Reservation[] removed = new Reservation[1];
+        byId.computeIfPresent(reservationId, (id, stored) -> {
+            Reservation reservation = stored.reservation();
+            unlink(byCustomer, customerKey(reservation.getCustomerName()), id);
+            unlink(byFlight, reservation.getFlight().getFlightNumber(), id);
+            removed[0] = reservation;
+            return null;
+        });
+        return removed[0];
+    }
+
+    Reservation get(String reservationId) {
+        Stored stored = byId.get(reservationId);
+        return stored == null ? null : stored.reservation();
+    }
+
+    List<Reservation> findByCustomer(String customerName) {
+        return snapshot(byCustomer.get(customerKey(customerName)));
+    }
+
+    int forEachByCustomer(String customerName, Consumer<? super Reservation> action) {
+        Map<String, Reservation> bucket = byCustomer.get(customerKey(customerName));
+        if (bucket == null) {
+            return 0;
+        }
+        synchronized (bucket) {
+            bucket.values().forEach(action);
+            return bucket.size();
+        }
+    }
+
+    List<Reservation> findByFlight(String flightNumber) {
+        return snapshot(byFlight.get(flightNumber));
+    }
+
+    // In booking order; sorting here keeps the cost off the booking path
+    List<Reservation> findAll() {
+        List<Stored> all = new ArrayList<>(byId.values());
+        all.sort(Comparator.comparingLong(Stored::sequence));
+        List<Reservation> reservations = new ArrayList<>(all.size());
+        for (Stored stored : all) {
+            reservations.add(stored.reservation());
+        }
+        return reservations;
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    private static void link(ConcurrentHashMap<String, Map<String, Reservation>> index, String key, Reservation reservation,
+                             Set<String> closed) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, bucket) -> {
+            if (closed.contains(k)) {
+                throw new IllegalStateException("Flight " + k + " has been archived; reservation "
+                        + reservation.getReservationId() + " was not booked");
+            }
+            if (bucket == null) {
+                bucket = new LinkedHashMap<>();
+            }
+            synchronized (bucket) {
+                bucket.put(reservation.getReservationId(), reservation);
+            }
+            return bucket;
+        });
+    }
+
+    private static void unlink(ConcurrentHashMap<String, Map<String, Reservation>> index, String key, String reservationId) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, bucket) -> {
+            synchronized (bucket) {
+                bucket.remove(reservationId);
+                return bucket.isEmpty() ? null : bucket;
+            }
+        });
+    }
+
+    private static List<Reservation> snapshot(Map<String, Reservation> bucket) {
+        if (bucket == null) {
+            return new ArrayList<>();
+        }
+        synchronized (bucket) {
+            return new ArrayList<>(bucket.values());
+        }
+    }
+
+    static String customerKey(String customerName) {
+        return customerName == null ? null : customerName.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,222 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+import com.airline.model.Itinerary;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Time-dependent route graph: for every airport, the flights leaving it ordered by departure time.
+// A connection from flight A is any flight leaving A's destination inside the layover window after A
+// lands, found with a range query on that airport's departures. Flights are added and moved one at a
+// time as the schedule changes; the graph is never rebuilt.
+class RouteGraph implements FlightListener {
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<DepartureKey, Edge>> departures = new ConcurrentHashMap<>();
+    private final Map<Flight, Registration> registrations = new IdentityHashMap<>();
+    private long nextSequence;
+
+    synchronized void add(Flight flight) {
+        if (registrations.containsKey(flight)) {
+            return;
+        }
+        register(flight, nextSequence++);
+    }
+
+    // Bulk form of add; imported flights share airport strings, so each one is normalized once
+    synchronized void addAll(List<Flight> flights) {
+        Map<String, String> normalized = new HashMap<>();
+        for (Flight flight : flights) {
+            if (registrations.containsKey(flight)) {
+                continue;
+            }
+            DepartureKey key = new DepartureKey(flight.getDepartureTime(), nextSequence++);
+            if (isRoutable(flight)) {
+                String origin = normalized.computeIfAbsent(flight.getOrigin(), FlightIndex::normalize);
+                Edge edge = new Edge(flight, normalized.computeIfAbsent(flight.getDestination(), FlightIndex::normalize));
+                departures.computeIfAbsent(origin, o -> new ConcurrentSkipListMap<>()).put(key, edge);
+                registrations.put(flight, new Registration(origin, key));
+            } else {
+                registrations.put(flight, new Registration(null, key));
+            }
+        }
+    }
+
+    synchronized void remove(Flight flight) {
+        Registration registration = registrations.remove(flight);
+        if (registration != null) {
+            unlink(registration);
+        }
+    }
+
+    synchronized void removeAll(List<Flight> flights) {
+        for (Flight flight : flights) {
+            remove(flight);
+        }
+    }
+
+    @Override
+    public synchronized void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+        Registration registration = registrations.remove(flight);
+        if (registration != null) {
+            unlink(registration);
+            register(flight, registration.key.sequence);
+        }
+    }
+
+    @Override
+    public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+        // Seats are checked when a query runs, so sold-out flights stay in the graph
+    }
+
+    private void register(Flight flight, long sequence) {
+        if (isRoutable(flight)) {
+            String origin = FlightIndex.normalize(flight.getOrigin());
+            DepartureKey key = new DepartureKey(flight.getDepartureTime(), sequence);
+            Edge edge = new Edge(flight, FlightIndex.normalize(flight.getDestination()));
+            departures.computeIfAbsent(origin, o -> new ConcurrentSkipListMap<>()).put(key, edge);
+            registrations.put(flight, new Registration(origin, key));
+        } else {
+            // Kept so the flight joins the graph if it later gets an origin and arrival time
+            registrations.put(flight, new Registration(null, new DepartureKey(null, sequence)));
+        }
+    }
+
+    private void unlink(Registration registration) {
+        if (registration.origin != null) {
+            ConcurrentSkipListMap<DepartureKey, Edge> airport = departures.get(registration.origin);
+            if (airport != null) {
+                airport.remove(registration.key);
+            }
+        }
+    }
+
+    private static boolean isRoutable(Flight flight) {
+        return flight.getOrigin() != null && flight.getDestination() != null && flight.getDepartureTime() != null
+                && flight.getArrivalTime() != null && !flight.getArrivalTime().isBefore(flight.getDepartureTime());
+    }
+
+    // Best-first search over partial itineraries, ordered by arrival time or by leg count then arrival.
+    // Partial itineraries that end with the same flight after the same number of legs land at the same
+    // time and have the same connections ahead, so each flight is expanded at most maxResults times per
+    // leg count. Arriving earlier at an airport on another flight proves nothing: the layover window can
+    // let a later arrival make a connection that an earlier one misses.
+    List<Itinerary> search(ItineraryQuery query) {
+        if (query.getOrigin() == null || query.getDestination() == null || query.getDate() == null || query.getMaxResults() <= 0) {
+            return new ArrayList<>();
+        }
+        String origin = FlightIndex.normalize(query.getOrigin());
+        String destination = FlightIndex.normalize(query.getDestination());
+        int maxLegs = query.getMaxLegs();
+        int maxResults = query.getMaxResults();
+
+        Comparator<Label> order = query.getOrder() == ItineraryQuery.Order.FEWEST_LEGS
+                ? Comparator.comparingInt((Label label) -> label.legs).thenComparing(label -> label.arrival)
+                : Comparator.comparing((Label label) -> label.arrival).thenComparingInt(label -> label.legs);
+        PriorityQueue<Label> queue = new PriorityQueue<>(order);
+
+        LocalDateTime dayStart = query.getDate().atStartOfDay();
+        for (Edge edge : window(origin, dayStart, dayStart.plusDays(1), false)) {
+            offer(queue, null, edge, query, destination, origin);
+        }
+
+        List<Itinerary> results = new ArrayList<>();
+        Map<Flight, int[]> expansions = new IdentityHashMap<>();
+        while (!queue.isEmpty() && results.size() < maxResults) {
+            Label label = queue.poll();
+            String airport = label.airport;
+            if (airport.equals(destination)) {
+                results.add(label.toItinerary());
+                continue;
+            }
+            if (label.legs >= maxLegs) {
+                continue;
+            }
+            int[] counts = expansions.computeIfAbsent(label.flight, f -> new int[maxLegs + 1]);
+            if (counts[label.legs]++ >= maxResults) {
+                continue;
+            }
+            LocalDateTime earliest = label.arrival.plus(query.getMinLayover());
+            LocalDateTime latest = label.arrival.plus(query.getMaxLayover());
+            for (Edge next : window(airport, earliest, latest, true)) {
+                // The last allowed leg has to reach the destination
+                if (label.legs + 1 == maxLegs && !next.destination.equals(destination)) {
+                    continue;
+                }
+                offer(queue, label, next, query, destination, origin);
+            }
+        }
+        return results;
+    }
+
+    private Iterable<Edge> window(String airport, LocalDateTime from, LocalDateTime to, boolean inclusive) {
+        ConcurrentSkipListMap<DepartureKey, Edge> flights = departures.get(airport);
+        if (flights == null) {
+            return Collections.emptyList();
+        }
+        NavigableMap<DepartureKey, Edge> range = flights.subMap(
+                new DepartureKey(from, Long.MIN_VALUE), true,
+                new DepartureKey(to, inclusive ? Long.MAX_VALUE : Long.MIN_VALUE), inclusive);
+        return range.values();
+    }
+
+    private static void offer(PriorityQueue<Label> queue, Label previous, Edge edge, ItineraryQuery query,
+                              String destination, String origin) {
+        Flight flight = edge.flight;
+        if (flight.getAvailableSeats() < query.getSeats()) {
+            return;
+        }
+        // Flights can be rescheduled while a query runs; skip ones that are no longer routable
+        LocalDateTime arrival = flight.getArrivalTime();
+        if (arrival == null) {
+            return;
+        }
+        String next = edge.destination;
+        if (next.equals(origin)) {
+            return;
+        }
+        // No airport twice in one itinerary
+        for (Label label = previous; label != null; label = label.previous) {
+            if (label.airport.equals(next)) {
+                return;
+            }
+        }
+        queue.add(new Label(flight, next, previous, previous == null ? 1 : previous.legs + 1, arrival));
+    }
+
+    private record DepartureKey(LocalDateTime departure, long sequence) implements Comparable<DepartureKey> {
+        @Override
+        public int compareTo(DepartureKey other) {
+            int byTime = departure.compareTo(other.departure);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private record Registration(String origin, DepartureKey key) {
+    }
+
+    // A flight leaving an airport, with its normalized destination worked out once
+    private record Edge(Flight flight, String destination) {
+    }
+
+    private record Label(Flight flight, String airport, Label previous, int legs, LocalDateTime arrival) {
+        Itinerary toItinerary() {
+            List<Flight> legs = new ArrayList<>(this.legs);
+            for (Label label = this; label != null; label = label.previous) {
+                legs.add(label.flight);
+            }
+            Collections.reverse(legs);
+            return new Itinerary(legs);
+        }
+    }
+}
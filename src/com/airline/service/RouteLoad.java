@@ -0,0 +1,8 @@
+package com.airline.service;
+
+// Seats booked against seats scheduled on one route; origin is null for flights that only have a destination
+public record RouteLoad(String origin, String destination, int flights, long seatsBooked, long capacity) {
+    public double loadFactor() {
+        return capacity == 0 ? 0 : (double) seatsBooked / capacity;
+    }
+}
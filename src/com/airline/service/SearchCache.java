@@ -0,0 +1,271 @@
+package com.airline.service;
+
+import com.airline.metrics.HyperLogLog;
+import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded cache of searchFlights results in front of FlightIndex, so a popular destination and date pair
+// is answered with one array copy instead of a walk over its flights reading each one's seats. Every
+// change that alters a result invalidates its key before the change returns: a flight added or
+// rescheduled, or selling out or getting seats back. A search that starts after such a change has
+// returned therefore never sees the old result. Flights on shared seat counters can change without
+// notice, so results holding one are re-checked seat by seat on every hit. Invalidations are counted
+// per segment, and a result computed while one ran is not stored. Entries are split over segments,
+// each an LRU list under its own lock. When a segment is full a new key only gets in if a small
+// frequency sketch says it is asked for more often than the entry it would evict (TinyLFU admission),
+// which keeps one-off searches from flushing the popular ones.
+public class SearchCache implements FlightListener {
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int SEGMENTS = 16;
+
+    private final FlightIndex index;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private volatile boolean enabled = true;
+
+    SearchCache(FlightIndex index, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.index = index;
+        this.capacity = capacity;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment((capacity + SEGMENTS - 1) / SEGMENTS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Disabled, every search goes to the index; invalidation carries on so re-enabling is safe
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    List<Flight> search(String destination, LocalDate date) {
+        if (destination == null || date == null) {
+            return new ArrayList<>();
+        }
+        FlightIndex.SearchKey key = new FlightIndex.SearchKey(FlightIndex.normalize(destination), date);
+        if (!enabled) {
+            return available(index.candidates(key));
+        }
+        Segment segment = segmentFor(key);
+        Result cached = segment.get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached.recheck ? available(cached.flights) : new ArrayList<>(Arrays.asList(cached.flights));
+        }
+        misses.increment();
+        // An invalidation between reading the generation and storing the result means the result may
+        // predate it, so the segment refuses to store it
+        long generation = segment.generation();
+        Flight[] candidates = index.candidates(key);
+        List<Flight> result = available(candidates);
+        boolean recheck = false;
+        for (Flight flight : candidates) {
+            recheck |= flight.getSeatCounter() != null;
+        }
+        segment.put(key, recheck ? new Result(candidates, true) : new Result(result.toArray(new Flight[0]), false), generation);
+        return result;
+    }
+
+    // Called once the index has taken the flights
+    void added(List<Flight> flights) {
+        for (Flight flight : flights) {
+            invalidate(flight.getDestination(), flight.getDepartureTime());
+        }
+    }
+
+    void added(Flight flight) {
+        invalidate(flight.getDestination(), flight.getDepartureTime());
+    }
+
+    // Called once the index has dropped the flights
+    void removed(List<Flight> flights) {
+        for (Flight flight : flights) {
+            invalidate(flight.getDestination(), flight.getDepartureTime());
+        }
+    }
+
+    @Override
+    public void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+        invalidate(previousDestination, previousDepartureTime);
+        invalidate(flight.getDestination(), flight.getDepartureTime());
+    }
+
+    @Override
+    public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+        // Only a sell-out or the first seat coming back changes which flights match
+        if ((previousSeats > 0) != (currentSeats > 0)) {
+            invalidate(flight.getDestination(), flight.getDepartureTime());
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private static List<Flight> available(Flight[] flights) {
+        List<Flight> result = new ArrayList<>(flights.length);
+        for (Flight flight : flights) {
+            if (flight.getAvailableSeats() > 0) {
+                result.add(flight);
+            }
+        }
+        return result;
+    }
+
+    private void invalidate(String destination, LocalDateTime departureTime) {
+        FlightIndex.SearchKey key = FlightIndex.SearchKey.of(destination, departureTime);
+        if (key != null) {
+            segmentFor(key).invalidate(key);
+            invalidations.increment();
+        }
+    }
+
+    private Segment segmentFor(FlightIndex.SearchKey key) {
+        return segments[(int) (HyperLogLog.mix(key.hashCode()) >>> 60) & (SEGMENTS - 1)];
+    }
+
+    // Matching flights, or with recheck set, every listed flight to filter by seats on each hit
+    private record Result(Flight[] flights, boolean recheck) {
+    }
+
+    private static final class Segment {
+        private static final int DEPTH = 4;
+
+        private final int capacity;
+        private final LinkedHashMap<FlightIndex.SearchKey, Result> entries;
+        // Four rows of counters capped at 15, halved every sampleLimit lookups so old popularity fades
+        private final byte[] frequencies;
+        private final int width;
+        private final int sampleLimit;
+        private int samples;
+        // Bumped by every invalidation, so a result computed across one is not stored
+        private long generation;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+            this.width = Integer.highestOneBit(Math.max(16, capacity * 4) * 2 - 1);
+            this.frequencies = new byte[DEPTH * width];
+            this.sampleLimit = 10 * width;
+        }
+
+        synchronized Result get(FlightIndex.SearchKey key) {
+            record(key);
+            return entries.get(key);
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        synchronized void put(FlightIndex.SearchKey key, Result result, long expectedGeneration) {
+            if (generation != expectedGeneration || entries.containsKey(key)) {
+                return;
+            }
+            if (entries.size() >= capacity) {
+                Iterator<Map.Entry<FlightIndex.SearchKey, Result>> eldest = entries.entrySet().iterator();
+                FlightIndex.SearchKey victim = eldest.next().getKey();
+                if (frequency(key) <= frequency(victim)) {
+                    return;
+                }
+                eldest.remove();
+            }
+            entries.put(key, result);
+        }
+
+        synchronized void invalidate(FlightIndex.SearchKey key) {
+            generation++;
+            entries.remove(key);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized void clear() {
+            generation++;
+            entries.clear();
+        }
+
+        private void record(FlightIndex.SearchKey key) {
+            long hash = HyperLogLog.mix(key.hashCode());
+            for (int row = 0; row < DEPTH; row++) {
+                int cell = cell(hash, row);
+                if (frequencies[cell] < 15) {
+                    frequencies[cell]++;
+                }
+            }
+            if (++samples >= sampleLimit) {
+                samples = 0;
+                for (int i = 0; i < frequencies.length; i++) {
+                    frequencies[i] >>= 1;
+                }
+            }
+        }
+
+        private int frequency(FlightIndex.SearchKey key) {
+            long hash = HyperLogLog.mix(key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++) {
+                frequency = Math.min(frequency, frequencies[cell(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int cell(long hash, int row) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            return row * width + ((h1 + row * h2) & (width - 1));
+        }
+    }
+}
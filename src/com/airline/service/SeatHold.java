@@ -0,0 +1,85 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+// Seats taken off a flight for a limited time while a customer checks out. The hold ends exactly once:
+// confirmed into a reservation, released by the customer, or expired by the service's HoldTimer.
+public class SeatHold {
+    public enum Status {
+        HELD, CONFIRMED, RELEASED, EXPIRED
+    }
+
+    private final String holdId;
+    private final String customerName;
+    private final Flight flight;
+    private final int seats;
+    private final List<String> seatNumbers;
+    private final long expiresAtNanos;
+    final FlightService service;
+    // Changed only by compare-and-set away from HELD, so confirm and expiry cannot both win
+    private volatile Status status = Status.HELD;
+
+    private static final VarHandle STATUS;
+
+    static {
+        try {
+            STATUS = MethodHandles.lookup().findVarHandle(SeatHold.class, "status", Status.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    SeatHold(String holdId, String customerName, Flight flight, int seats, List<String> seatNumbers, long expiresAtNanos,
+             FlightService service) {
+        this.holdId = holdId;
+        this.customerName = customerName;
+        this.flight = flight;
+        this.seats = seats;
+        this.seatNumbers = List.copyOf(seatNumbers);
+        this.expiresAtNanos = expiresAtNanos;
+        this.service = service;
+    }
+
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public Flight getFlight() {
+        return flight;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    // Empty unless the flight has a seat map
+    public List<String> getSeatNumbers() {
+        return seatNumbers;
+    }
+
+    // On the clock of the HoldTimer that tracks the hold
+    public long getExpiresAtNanos() {
+        return expiresAtNanos;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    boolean end(Status outcome) {
+        return STATUS.compareAndSet(this, Status.HELD, outcome);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Hold %s for %s on flight %s: %d seats, %s", holdId, customerName, flight.getFlightNumber(), seats, status);
+    }
+}
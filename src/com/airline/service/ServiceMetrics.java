@@ -0,0 +1,168 @@
+package com.airline.service;
+
+import com.airline.metrics.ConcurrentHistogram;
+import com.airline.metrics.HistogramSnapshot;
+import com.airline.metrics.PrometheusWriter;
+import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Call counts, failure reasons and latency histograms for FlightService operations, plus how often seat
+// updates had to retry because another booker changed the flight at the same moment. Recording is a
+// couple of striped-counter increments and no allocation; when disabled it skips the clock reads too.
+public class ServiceMetrics implements FlightListener {
+    public enum Operation {
+        SEARCH, BOOK, BOOK_BATCH, CANCEL, HOLD, CONFIRM_HOLD;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public enum Failure {
+        INVALID_REQUEST, NOT_ENOUGH_SEATS, SEAT_UNAVAILABLE, NOT_FOUND, HOLD_ENDED, STORAGE_ERROR, OTHER;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // Returned by start() while disabled so the matching record call does nothing
+    static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final Failure[] FAILURES = Failure.values();
+
+    private final LongAdder[] calls = new LongAdder[OPERATIONS.length];
+    private final LongAdder[][] failures = new LongAdder[OPERATIONS.length][FAILURES.length];
+    private final ConcurrentHistogram[] latencies = new ConcurrentHistogram[OPERATIONS.length];
+    private final LongAdder contendedSeatUpdates = new LongAdder();
+    private final Supplier<HoldMetrics> holdMetrics;
+    private volatile boolean enabled = true;
+
+    ServiceMetrics(Supplier<HoldMetrics> holdMetrics) {
+        this.holdMetrics = holdMetrics;
+        for (int op = 0; op < OPERATIONS.length; op++) {
+            calls[op] = new LongAdder();
+            latencies[op] = new ConcurrentHistogram();
+            for (int reason = 0; reason < FAILURES.length; reason++) {
+                failures[op][reason] = new LongAdder();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    void succeeded(Operation operation, long start) {
+        if (start != NOT_TIMED) {
+            long elapsed = System.nanoTime() - start;
+            calls[operation.ordinal()].increment();
+            latencies[operation.ordinal()].record(elapsed);
+        }
+    }
+
+    // Failed calls count as calls and their latency is recorded with the rest
+    void failed(Operation operation, Failure failure, long start) {
+        if (start != NOT_TIMED) {
+            failures[operation.ordinal()][failure.ordinal()].increment();
+            succeeded(operation, start);
+        }
+    }
+
+    @Override
+    public void scheduleChanged(Flight flight, String previousDestination, LocalDateTime previousDepartureTime) {
+    }
+
+    @Override
+    public void seatsChanged(Flight flight, int previousSeats, int currentSeats) {
+    }
+
+    @Override
+    public void seatUpdateContended(Flight flight) {
+        if (enabled) {
+            contendedSeatUpdates.increment();
+        }
+    }
+
+    public long getCalls(Operation operation) {
+        return calls[operation.ordinal()].sum();
+    }
+
+    public long getFailures(Operation operation, Failure failure) {
+        return failures[operation.ordinal()][failure.ordinal()].sum();
+    }
+
+    public HistogramSnapshot getLatency(Operation operation) {
+        return latencies[operation.ordinal()].snapshot();
+    }
+
+    public long getContendedSeatUpdates() {
+        return contendedSeatUpdates.sum();
+    }
+
+    // Human-readable table: one line per operation, then failures, contention and seat holds
+    public String toText() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-14s %10s %10s %10s %10s %10s %10s%n", "operation", "calls", "failed",
+                "p50 (us)", "p99 (us)", "p99.9 (us)", "max (us)"));
+        for (Operation operation : OPERATIONS) {
+            HistogramSnapshot latency = getLatency(operation);
+            long failed = 0;
+            for (Failure failure : FAILURES) {
+                failed += getFailures(operation, failure);
+            }
+            out.append(String.format("%-14s %10d %10d %10.1f %10.1f %10.1f %10.1f%n", operation.label(), latency.getCount(), failed,
+                    latency.percentile(50) / 1e3, latency.percentile(99) / 1e3, latency.percentile(99.9) / 1e3, latency.getMax() / 1e3));
+        }
+        for (Operation operation : OPERATIONS) {
+            for (Failure failure : FAILURES) {
+                long count = getFailures(operation, failure);
+                if (count > 0) {
+                    out.append(String.format("failed %s: %s %d%n", operation.label(), failure.label(), count));
+                }
+            }
+        }
+        out.append(String.format("contended seat updates: %d%n", getContendedSeatUpdates()));
+        HoldMetrics holds = holdMetrics.get();
+        out.append(String.format("seat holds: %d open, %d placed, %d confirmed, %d released, %d expired, expiry lag %.1f ms (max %.1f ms)%n",
+                holds.activeHolds(), holds.placed(), holds.confirmed(), holds.released(), holds.expired(),
+                holds.expiryLagNanos() / 1e6, holds.maxExpiryLagNanos() / 1e6));
+        return out.toString();
+    }
+
+    public String toPrometheus() {
+        PrometheusWriter out = new PrometheusWriter();
+        for (Operation operation : OPERATIONS) {
+            out.summary("flight_service_latency_seconds", "Latency of FlightService calls, failed ones included",
+                    getLatency(operation), "operation", operation.label());
+        }
+        for (Operation operation : OPERATIONS) {
+            for (Failure failure : FAILURES) {
+                out.counter("flight_service_failures_total", "Failed FlightService calls by reason",
+                        getFailures(operation, failure), "operation", operation.label(), "reason", failure.label());
+            }
+        }
+        out.counter("flight_service_contended_seat_updates_total",
+                "Seat count updates retried because another booker changed the flight first", getContendedSeatUpdates());
+        HoldMetrics holds = holdMetrics.get();
+        out.gauge("flight_service_seat_holds", "Seat holds currently open", holds.activeHolds());
+        out.counter("flight_service_seat_holds_expired_total", "Seat holds that expired and released their seats", holds.expired());
+        out.gauge("flight_service_seat_hold_expiry_lag_seconds", "How far behind the clock the latest hold expiry pass ran",
+                holds.expiryLagNanos() / 1e9);
+        return out.toString();
+    }
+}
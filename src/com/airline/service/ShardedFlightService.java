@@ -0,0 +1,258 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+// Flights and their reservations partitioned by flight number across N shards. Each shard is a FlightService
+// with a single thread and queue of its own: every call for a flight is queued to the owning shard and run
+// there in arrival order, so a shard's seat updates never race and a hot flight only holds up its own shard.
+// Reads that span shards (a customer's reservations, a search by destination, a lookup by reservation ID)
+// are sent to every shard at once and the answers merged.
+public class ShardedFlightService implements AutoCloseable {
+    private static final Comparator<Flight> BY_DEPARTURE = Comparator.comparing(Flight::getDepartureTime)
+            .thenComparing(Flight::getFlightNumber);
+    private static final Comparator<Reservation> BY_RESERVATION_TIME = Comparator.comparing(Reservation::getReservationTime)
+            .thenComparing(Reservation::getReservationId);
+
+    private final FlightService[] shards;
+    private final ExecutorService[] executors;
+
+    public ShardedFlightService(int shardCount) {
+        this(shardCount, shard -> BookingLog.NONE);
+    }
+
+    // Each shard writes to its own log, so shards never share a journal or its fsync
+    public ShardedFlightService(int shardCount, IntFunction<BookingLog> logForShard) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Shard count must be at least 1. Requested: " + shardCount);
+        }
+        this.shards = new FlightService[shardCount];
+        this.executors = new ExecutorService[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String name = "flight-shard-" + i;
+            shards[i] = new FlightService(logForShard.apply(i));
+            executors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(String flightNumber) {
+        if (flightNumber == null) {
+            return 0;
+        }
+        int hash = flightNumber.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    // The shard's own service, e.g. for its metrics or its log. Writes should still go through this class
+    public FlightService getShard(int shard) {
+        return shards[shard];
+    }
+
+    public CompletableFuture<Void> addFlight(Flight flight) {
+        return submit(shardOf(flight.getFlightNumber()), service -> {
+            service.addFlight(flight);
+            return null;
+        });
+    }
+
+    // Reads the owning shard's flight table directly; flight lookups never wait behind bookings
+    public Flight getFlight(String flightNumber) {
+        return shards[shardOf(flightNumber)].getFlight(flightNumber);
+    }
+
+    public CompletableFuture<Reservation> bookFlight(String customerName, Flight flight, int seats) {
+        return submit(shardOf(flight), service -> service.bookFlight(customerName, flight, seats));
+    }
+
+    public CompletableFuture<Reservation> bookFlight(String customerName, Flight flight, List<String> seatNumbers) {
+        return submit(shardOf(flight), service -> service.bookFlight(customerName, flight, seatNumbers));
+    }
+
+    public CompletableFuture<Boolean> cancelReservation(Reservation reservation) {
+        return submit(shardOf(reservation.getFlight()), service -> service.cancelReservation(reservation));
+    }
+
+    // Each shard books its part of the batch as one FlightService batch. With allOrNothing the shards
+    // cannot commit together, so if any part is rejected the parts that were booked are cancelled again
+    // and every request fails; requests that failed on their own keep their own reason. If a part throws,
+    // e.g. because its shard's log failed, the other parts are cancelled in either mode and the returned
+    // future fails with that error, so a caller that sees the failure is left holding no reservations
+    public CompletableFuture<List<BookingResult>> bookFlights(List<BookingRequest> requests, boolean allOrNothing) {
+        List<List<Integer>> indexesByShard = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            indexesByShard.add(new ArrayList<>());
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            indexesByShard.get(shardOf(requests.get(i).getFlight())).add(i);
+        }
+        List<Integer> used = new ArrayList<>();
+        List<CompletableFuture<List<BookingResult>>> parts = new ArrayList<>();
+        for (int shard = 0; shard < shards.length; shard++) {
+            List<Integer> indexes = indexesByShard.get(shard);
+            if (!indexes.isEmpty()) {
+                List<BookingRequest> part = new ArrayList<>(indexes.size());
+                for (int index : indexes) {
+                    part.add(requests.get(index));
+                }
+                used.add(shard);
+                parts.add(submit(shard, service -> service.bookFlights(part, allOrNothing)));
+            }
+        }
+        // Wait for every part to settle, failed or not, so none is still booking when the rollback runs
+        CompletableFuture<?>[] settled = new CompletableFuture<?>[parts.size()];
+        for (int i = 0; i < parts.size(); i++) {
+            settled[i] = parts.get(i).handle((part, error) -> null);
+        }
+        return CompletableFuture.allOf(settled).thenCompose(done -> {
+            BookingResult[] results = new BookingResult[requests.size()];
+            String rejection = null;
+            Throwable failure = null;
+            for (int i = 0; i < parts.size(); i++) {
+                List<Integer> indexes = indexesByShard.get(used.get(i));
+                List<BookingResult> part;
+                try {
+                    part = parts.get(i).join();
+                } catch (CompletionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    continue;
+                }
+                for (int j = 0; j < part.size(); j++) {
+                    results[indexes.get(j)] = part.get(j);
+                    if (allOrNothing && rejection == null && !part.get(j).isSuccess()) {
+                        // A shard rejects its whole part, and says why on the requests it did not single out
+                        String reason = part.get(j).getFailureReason();
+                        rejection = reason.startsWith("Batch rejected") ? reason : "Batch rejected: another request in the group is invalid";
+                    }
+                }
+            }
+            if (failure != null) {
+                Throwable cause = failure;
+                return cancelBooked(results).handle((cancelled, error) -> {
+                    throw new CompletionException(cause);
+                });
+            }
+            if (rejection == null) {
+                return CompletableFuture.completedFuture(Arrays.asList(results));
+            }
+            return rollBack(requests, results, rejection);
+        });
+    }
+
+    private CompletableFuture<List<BookingResult>> rollBack(List<BookingRequest> requests, BookingResult[] results, String reason) {
+        return cancelBooked(results).thenApply(done -> {
+            for (int i = 0; i < results.length; i++) {
+                if (results[i].isSuccess()) {
+                    results[i] = BookingResult.failed(requests.get(i), reason);
+                }
+            }
+            return Arrays.asList(results);
+        });
+    }
+
+    // Results of a part that threw are missing and have nothing to cancel
+    private CompletableFuture<Void> cancelBooked(BookingResult[] results) {
+        List<CompletableFuture<Boolean>> cancellations = new ArrayList<>();
+        for (BookingResult result : results) {
+            if (result != null && result.isSuccess()) {
+                cancellations.add(cancelReservation(result.getReservation()));
+            }
+        }
+        return CompletableFuture.allOf(cancellations.toArray(new CompletableFuture<?>[0]));
+    }
+
+    // Matching flights from every shard, ordered by departure time
+    public CompletableFuture<List<Flight>> searchFlights(String destination, LocalDate date) {
+        return gather(service -> service.searchFlights(destination, date), BY_DEPARTURE);
+    }
+
+    // A customer's reservations from every shard, oldest first
+    public CompletableFuture<List<Reservation>> getCustomerReservations(String customerName) {
+        return gather(service -> service.getCustomerReservations(customerName), BY_RESERVATION_TIME);
+    }
+
+    public CompletableFuture<List<Reservation>> getFlightReservations(Flight flight) {
+        return submit(shardOf(flight), service -> service.getFlightReservations(flight));
+    }
+
+    // Reservation IDs do not say which shard issued them, so every shard is asked
+    public CompletableFuture<Reservation> getReservation(String reservationId) {
+        return gather(service -> {
+            Reservation reservation = service.getReservation(reservationId);
+            return reservation == null ? List.<Reservation>of() : List.of(reservation);
+        }, null).thenApply(found -> found.isEmpty() ? null : found.get(0));
+    }
+
+    private int shardOf(Flight flight) {
+        return flight == null ? 0 : shardOf(flight.getFlightNumber());
+    }
+
+    private <T> CompletableFuture<List<T>> gather(Function<FlightService, List<T>> read, Comparator<? super T> order) {
+        List<CompletableFuture<List<T>>> parts = new ArrayList<>(shards.length);
+        for (int shard = 0; shard < shards.length; shard++) {
+            parts.add(submit(shard, read));
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<T> merged = new ArrayList<>();
+            for (CompletableFuture<List<T>> part : parts) {
+                merged.addAll(part.join());
+            }
+            if (order != null) {
+                merged.sort(order);
+            }
+            return merged;
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(int shard, Function<FlightService, T> call) {
+        FlightService service = shards[shard];
+        Supplier<T> task = () -> call.apply(service);
+        try {
+            return CompletableFuture.supplyAsync(task, executors[shard]);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Stops taking calls, waits for every shard to finish the calls already queued and closes the shards
+    @Override
+    public void close() {
+        for (ExecutorService executor : executors) {
+            executor.shutdown();
+        }
+        try {
+            for (ExecutorService executor : executors) {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (FlightService shard : shards) {
+            shard.close();
+        }
+    }
+}
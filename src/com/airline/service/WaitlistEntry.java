@@ -0,0 +1,97 @@
+package com.airline.service;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+
+import java.util.concurrent.CompletableFuture;
+
+// A customer waiting for seats on a flight. The entry ends exactly once: booked when seats come free and it
+// is at the front of the waitlist, left by the customer, or failed if the booking could not be saved or the
+// flight was archived first. getReservation() completes when the entry ends, so callers can react without polling.
+public class WaitlistEntry {
+    public enum Status {
+        WAITING, BOOKED, LEFT, FAILED
+    }
+
+    // Priorities run from 0 to MAX_PRIORITY; higher ones are served first
+    public static final int MAX_PRIORITY = 9;
+
+    private final String entryId;
+    private final String customerName;
+    private final Flight flight;
+    private final int seats;
+    private final int priority;
+    private final CompletableFuture<Reservation> reservation = new CompletableFuture<>();
+    // Changed only under the flight's waitlist lock; the future is completed after the lock is let go, so
+    // callbacks on it do not hold up other cancellations on the flight
+    private volatile Status status = Status.WAITING;
+    private Reservation booked;
+    private RuntimeException failure;
+
+    WaitlistEntry(String entryId, String customerName, Flight flight, int seats, int priority) {
+        this.entryId = entryId;
+        this.customerName = customerName;
+        this.flight = flight;
+        this.seats = seats;
+        this.priority = priority;
+    }
+
+    public String getEntryId() {
+        return entryId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public Flight getFlight() {
+        return flight;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    // Completes with the reservation once booked; cancelled if the customer leaves, and failed with the
+    // storage error if the booking could not be saved
+    public CompletableFuture<Reservation> getReservation() {
+        return reservation;
+    }
+
+    void booked(Reservation booked) {
+        this.booked = booked;
+        status = Status.BOOKED;
+    }
+
+    void left() {
+        status = Status.LEFT;
+    }
+
+    void failed(RuntimeException cause) {
+        this.failure = cause;
+        status = Status.FAILED;
+    }
+
+    void completeReservation() {
+        switch (status) {
+            case BOOKED -> reservation.complete(booked);
+            case LEFT -> reservation.cancel(false);
+            case FAILED -> reservation.completeExceptionally(failure);
+            default -> throw new IllegalStateException("Waitlist entry " + entryId + " is still waiting");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Waitlist %s for %s on flight %s: %d seats, priority %d, %s", entryId, customerName,
+                flight.getFlightNumber(), seats, priority, status);
+    }
+}
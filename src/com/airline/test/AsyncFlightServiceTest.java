@@ -0,0 +1,126 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.AsyncFlightService;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncFlightServiceTest {
+
+    @Test
+    void testAsyncSearchBookAndCancel() throws Exception {
+        FlightService flightService = new FlightService();
+        try (AsyncFlightService async = new AsyncFlightService(flightService, 16)) {
+            List<Flight> found = async.searchFlights("London", LocalDate.of(2024, 1, 16)).join();
+            assertEquals(1, found.size());
+            Flight flight = found.get(0);
+            int before = flight.getAvailableSeats();
+
+            Reservation reservation = async.bookFlight("John Doe", flight, 2).join();
+            assertEquals(before - 2, flight.getAvailableSeats());
+            assertEquals(1, async.getCustomerReservations("John Doe").join().size());
+
+            assertTrue(async.cancelReservation(reservation).join());
+            assertEquals(before, flight.getAvailableSeats());
+        }
+    }
+
+    @Test
+    void testCallsRunOnVirtualThreadsWhenTheJdkHasThem() throws Exception {
+        AtomicReference<String> caller = new AtomicReference<>();
+        FlightService flightService = new FlightService() {
+            @Override
+            public List<Flight> searchFlights(String destination, LocalDate date) {
+                caller.set(Thread.currentThread().getName());
+                return super.searchFlights(destination, date);
+            }
+        };
+        try (AsyncFlightService async = new AsyncFlightService(flightService, 4)) {
+            boolean available = Runtime.version().feature() >= 21;
+            assertEquals(available, async.usesVirtualThreads());
+            async.searchFlights("London", LocalDate.of(2024, 1, 16)).get();
+            // Thread.isVirtual only exists on 21+, so the platform threads are told apart by name
+            assertEquals(!available, "flight-service-async".equals(caller.get()));
+        }
+    }
+
+    @Test
+    void testFailuresCompleteTheFutureExceptionally() throws Exception {
+        FlightService flightService = new FlightService();
+        Flight flight = flightService.getAllFlights().get(0);
+        try (AsyncFlightService async = new AsyncFlightService(flightService, 16)) {
+            CompletionException error = assertThrows(CompletionException.class,
+                    () -> async.bookFlight("John Doe", flight, flight.getAvailableSeats() + 1).join());
+            assertTrue(error.getCause() instanceof IllegalArgumentException);
+            assertEquals(0, async.getInFlight());
+        }
+    }
+
+    @Test
+    void testConcurrentAsyncBookingsNeverOversell() throws Exception {
+        FlightService flightService = new FlightService();
+        Flight flight = new Flight("AS100", "Lisbon", LocalDateTime.of(2024, 3, 1, 9, 0), 500);
+        flightService.addFlight(flight);
+        try (AsyncFlightService async = new AsyncFlightService(flightService, 64, 10_000)) {
+            List<CompletableFuture<Reservation>> bookings = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                bookings.add(async.bookFlight("Customer " + i, flight, 1));
+            }
+            int booked = 0;
+            for (CompletableFuture<Reservation> booking : bookings) {
+                try {
+                    booking.join();
+                    booked++;
+                } catch (CompletionException e) {
+                    assertTrue(e.getCause() instanceof IllegalArgumentException);
+                }
+            }
+            assertEquals(500, booked);
+            assertEquals(0, flight.getAvailableSeats());
+        }
+    }
+
+    @Test
+    void testRejectsWhenInFlightLimitIsReached() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        // Search blocks on a slow destination lookup so the single slot stays taken
+        FlightService flightService = new FlightService() {
+            @Override
+            public List<Flight> searchFlights(String destination, LocalDate date) {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.searchFlights(destination, date);
+            }
+        };
+        try (AsyncFlightService async = new AsyncFlightService(flightService, 1)) {
+            CompletableFuture<List<Flight>> slow = async.searchFlights("London", LocalDate.of(2024, 1, 16));
+            entered.await();
+            CompletionException error = assertThrows(CompletionException.class,
+                    () -> async.searchFlights("Dubai", LocalDate.of(2024, 1, 15)).join());
+            assertTrue(error.getCause() instanceof RejectedExecutionException);
+            assertEquals(1, async.getRejectedCount());
+
+            release.countDown();
+            assertEquals(1, slow.join().size());
+            assertEquals(1, async.searchFlights("Dubai", LocalDate.of(2024, 1, 15)).join().size());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.airline.test;
+
+import com.airline.metrics.CountMinTopK;
+import com.airline.metrics.HyperLogLog;
+import com.airline.metrics.SlidingWindowCounter;
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingAnalytics;
+import com.airline.service.BookingLog;
+import com.airline.service.DestinationTraffic;
+import com.airline.service.FlightService;
+import com.airline.service.RouteLoad;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingAnalyticsTest {
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2024, 5, 10, 9, 0);
+
+    private FlightService flightService;
+    private BookingAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService(BookingLog.NONE);
+        analytics = flightService.getAnalytics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightService.close();
+    }
+
+    @Test
+    void testLoadFactorsFollowBookingsAndReschedules() {
+        Flight morning = new Flight("BA1", "Boston", "London", DEPARTURE, DEPARTURE.plusHours(7), 100);
+        Flight evening = new Flight("BA2", "Boston", "London", DEPARTURE.plusHours(10), DEPARTURE.plusHours(17), 100);
+        flightService.addFlights(List.of(morning, evening));
+        Reservation group = flightService.bookFlight("Ann Lee", morning, 40);
+        flightService.bookFlight("Bo Chen", evening, 10);
+
+        assertEquals(0.4, analytics.getLoadFactor(morning), 1e-9);
+        RouteLoad route = analytics.getRouteLoad("Boston", "London");
+        assertEquals(new RouteLoad("Boston", "London", 2, 50, 200), route);
+        assertEquals(0.25, route.loadFactor(), 1e-9);
+        assertEquals(0.25, analytics.getLoadFactor(), 1e-9);
+
+        // A rescheduled flight takes its sold seats to the new route
+        evening.setDestination("Dublin");
+        assertEquals(new RouteLoad("Boston", "London", 1, 40, 100), analytics.getRouteLoad("Boston", "London"));
+        assertEquals(new RouteLoad("Boston", "Dublin", 1, 10, 100), analytics.getRouteLoad("Boston", "Dublin"));
+
+        // Held seats are off sale but not booked
+        flightService.holdSeats("Cy Moss", morning, 5, Duration.ofMinutes(10));
+        assertEquals(0.4, analytics.getLoadFactor(morning), 1e-9);
+
+        assertTrue(flightService.cancelReservation(group));
+        assertEquals(0, analytics.getRouteLoad("Boston", "London").seatsBooked());
+        assertEquals(0.05, analytics.getLoadFactor(), 1e-9);
+        assertEquals(2, analytics.getBookings());
+        assertEquals(1, analytics.getCancellations());
+        assertEquals(50, analytics.getSeatsBooked());
+        assertEquals(40, analytics.getSeatsCancelled());
+    }
+
+    @Test
+    void testNewOriginsMoveRouteTotals() {
+        Flight flight = new Flight("BA3", "Boston", "London", DEPARTURE, DEPARTURE.plusHours(7), 100);
+        flightService.addFlight(flight);
+        flightService.bookFlight("Ann Lee", flight, 30);
+
+        flight.setOrigin("New York");
+        assertEquals(new RouteLoad("Boston", "London", 0, 0, 0), analytics.getRouteLoad("Boston", "London"));
+        assertEquals(new RouteLoad("New York", "London", 1, 30, 100), analytics.getRouteLoad("New York", "London"));
+
+        // Later bookings land on the route the flight now flies, and times alone do not move it
+        flightService.bookFlight("Bo Chen", flight, 5);
+        flight.setDepartureTime(DEPARTURE.plusHours(1));
+        assertEquals(new RouteLoad("New York", "London", 1, 35, 100), analytics.getRouteLoad("New York", "London"));
+        assertEquals(0.35, analytics.getLoadFactor(flight), 1e-9);
+        // Only the flight object this service lists counts, not another with its number
+        assertEquals(0, analytics.getLoadFactor(new Flight("BA3", "New York", "London", DEPARTURE, DEPARTURE.plusHours(7), 100)), 1e-9);
+    }
+
+    @Test
+    void testTopDestinationsRoutesAndCustomers() {
+        String[] destinations = {"Paris", "Rome", "Oslo", "Lima", "Cairo", "Seoul", "Quito", "Perth"};
+        Flight[] flights = new Flight[destinations.length];
+        for (int i = 0; i < destinations.length; i++) {
+            flights[i] = new Flight("TK" + i, "Istanbul", destinations[i], DEPARTURE, DEPARTURE.plusHours(4), 100_000);
+            flightService.addFlight(flights[i]);
+        }
+        // Destination i gets 2^(8-i) bookings: Paris 256, Rome 128, ...
+        for (int i = 0; i < destinations.length; i++) {
+            for (int b = 0; b < 1 << (destinations.length - i); b++) {
+                flightService.bookFlight("customer " + b, flights[i], 1);
+            }
+        }
+        flightService.bookFlight("CUSTOMER 1", flights[0], 1);
+
+        List<DestinationTraffic> top = analytics.getTopDestinations(3);
+        assertEquals(3, top.size());
+        assertEquals("Paris", top.get(0).destination());
+        assertEquals("Rome", top.get(1).destination());
+        assertEquals("Oslo", top.get(2).destination());
+        assertTrue(top.get(0).seatsBooked() >= 257);
+
+        List<RouteLoad> routes = analytics.getTopRoutes(2);
+        assertEquals(new RouteLoad("Istanbul", "Paris", 1, 257, 100_000), routes.get(0));
+        assertEquals("Rome", routes.get(1).destination());
+
+        // 256 distinct names, one of them also booked in upper case
+        assertEquals(256, analytics.getDistinctCustomers(), 5);
+        assertTrue(analytics.getBookingsPerMinute(Duration.ofMinutes(1)) >= 511);
+        assertEquals(0, analytics.getCancellationsPerMinute(Duration.ofMinutes(5)), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> analytics.getBookingsPerMinute(Duration.ofHours(2)));
+    }
+
+    @Test
+    void testSlidingWindowCounter() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60);
+        assertEquals(0, counter.sum(1_000, 60));
+        counter.add(1_000, 5);
+        counter.add(1_001, 2);
+        counter.add(1_030, 1);
+        assertEquals(8, counter.sum(1_030, 60));
+        assertEquals(1, counter.sum(1_030, 10));
+        assertEquals(3, counter.sum(1_059, 59));
+        assertEquals(3, counter.sum(1_060, 60));
+        assertEquals(1, counter.sum(1_061, 60));
+        // Long idle gaps leave nothing behind
+        counter.add(5_000, 4);
+        assertEquals(4, counter.sum(5_000, 60));
+        assertEquals(0, counter.sum(5_100, 60));
+        assertThrows(IllegalArgumentException.class, () -> counter.sum(5_100, 61));
+    }
+
+    @Test
+    void testSketchAccuracy() {
+        HyperLogLog distinct = new HyperLogLog();
+        for (int i = 0; i < 200_000; i++) {
+            distinct.add(HyperLogLog.hashIgnoreCase("passenger-" + i));
+            distinct.add(HyperLogLog.hashIgnoreCase("PASSENGER-" + i));
+        }
+        assertEquals(200_000, distinct.estimate(), 200_000 * 0.03);
+
+        // Zipf-like traffic over 10,000 keys: the heaviest ten must be found in order
+        CountMinTopK<String> sketch = new CountMinTopK<>(32, 2048);
+        Random random = new Random(11);
+        for (int i = 0; i < 300_000; i++) {
+            int rank = (int) Math.min(9_999, Math.floor(1 / (random.nextDouble() + 1e-4)) - 1);
+            sketch.add("key" + rank, 1);
+        }
+        List<CountMinTopK.Entry<String>> top = sketch.top(10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("key" + i, top.get(i).key());
+        }
+        long before = sketch.estimate("key0");
+        sketch.add("key0", -100);
+        assertEquals(before - 100, sketch.estimate("key0"));
+    }
+}
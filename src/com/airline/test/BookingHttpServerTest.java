@@ -0,0 +1,213 @@
+package com.airline.test;
+
+import com.airline.http.BookingHttpServer;
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingHttpServerTest {
+    private FlightService flightService;
+    private BookingHttpServer server;
+    private Socket socket;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        flightService = new FlightService();
+        server = new BookingHttpServer(flightService, new InetSocketAddress("127.0.0.1", 0), 2).start();
+        socket = new Socket("127.0.0.1", server.getPort());
+        socket.setSoTimeout(5_000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        assertEquals(0, server.getFailureCount(), () -> String.valueOf(server.getLastFailure()));
+        socket.close();
+        server.close();
+    }
+
+    @Test
+    void testSearchReturnsBookableFlights() throws IOException {
+        send("GET /flights?destination=new%20york&date=2024-01-15 HTTP/1.1\r\nHost: localhost\r\n\r\n");
+        Response response = readResponse();
+        assertEquals(200, response.status);
+        assertTrue(response.body.contains("\"flightNumber\":\"AA101\""));
+        assertTrue(response.body.contains("\"flightNumber\":\"AA102\""));
+        assertTrue(response.body.contains("\"departureTime\":\"2024-01-15T10:30:00\""));
+    }
+
+    @Test
+    void testBookListAndCancelOnOneKeepAliveConnection() throws IOException {
+        send(post("{\"customerName\": \"Jane \\\"JD\\\" Doe\", \"flightNumber\": \"BA201\", \"seats\": 3}"));
+        Response booked = readResponse();
+        assertEquals(201, booked.status);
+        assertTrue(booked.body.contains("\"customerName\":\"Jane \\\"JD\\\" Doe\""));
+        assertEquals(197, flightService.getFlight("BA201").getAvailableSeats());
+        String reservationId = booked.field("reservationId");
+
+        send("GET /reservations?customer=jane+%22JD%22+doe HTTP/1.1\r\n\r\n");
+        Response listed = readResponse();
+        assertEquals(200, listed.status);
+        assertTrue(listed.body.contains(reservationId));
+
+        send("DELETE /reservations/" + reservationId + " HTTP/1.1\r\n\r\n");
+        assertEquals(200, readResponse().status);
+        assertEquals(200, flightService.getFlight("BA201").getAvailableSeats());
+
+        send("DELETE /reservations/" + reservationId + " HTTP/1.1\r\n\r\n");
+        assertEquals(404, readResponse().status);
+    }
+
+    @Test
+    void testPipelinedRequestsAreAnsweredInOrder() throws IOException {
+        // Three requests in a single write, the last one split across two writes
+        String bookOne = post("{\"customerName\":\"A\",\"flightNumber\":\"LH301\",\"seats\":1}");
+        String bookTwo = post("{\"customerName\":\"B\",\"flightNumber\":\"LH301\",\"seats\":2}");
+        String flight = "GET /flights/LH301 HTTP/1.1\r\n\r\n";
+        send(bookOne + bookTwo + flight.substring(0, 10));
+        send(flight.substring(10));
+
+        Response first = readResponse();
+        Response second = readResponse();
+        Response third = readResponse();
+        assertEquals("A", first.field("customerName"));
+        assertEquals("B", second.field("customerName"));
+        assertEquals(200, third.status);
+        assertTrue(third.body.contains("\"availableSeats\":77"));
+    }
+
+    @Test
+    void testErrorsMapToStatusCodes() throws IOException {
+        send(post("{\"customerName\":\"A\",\"flightNumber\":\"XX999\",\"seats\":1}"));
+        assertEquals(404, readResponse().status);
+        send(post("{\"customerName\":\"A\",\"flightNumber\":\"EK401\",\"seats\":101}"));
+        assertEquals(409, readResponse().status);
+        send(post("{\"customerName\":\"A\",\"flightNumber\":\"EK401\",\"seats\":0}"));
+        assertEquals(400, readResponse().status);
+        send(post("{\"customerName\":"));
+        assertEquals(400, readResponse().status);
+        send(post("{null:\"A\",\"flightNumber\":\"EK401\",\"seats\":1}"));
+        assertEquals(400, readResponse().status);
+        send("GET /flights?destination=Dubai&date=tomorrow HTTP/1.1\r\n\r\n");
+        assertEquals(400, readResponse().status);
+        send("PUT /flights HTTP/1.1\r\n\r\n");
+        assertEquals(405, readResponse().status);
+        assertEquals(100, flightService.getFlight("EK401").getAvailableSeats());
+    }
+
+    @Test
+    void testBookingOnAFlightArchivedMidRequestIsAConflict() throws IOException {
+        // The flight is archived after the route has looked it up, while the booking is being logged
+        FlightService[] service = new FlightService[1];
+        BookingLog archiving = new BookingLog() {
+            @Override
+            public void flightAdded(Flight flight) {
+            }
+
+            @Override
+            public void reservationBooked(Reservation reservation) {
+                service[0].archiveDepartedFlights(reservation.getFlight().getDepartureTime().plusMinutes(1));
+            }
+
+            @Override
+            public void reservationCancelled(Reservation reservation) {
+            }
+        };
+        service[0] = new FlightService(archiving);
+        service[0].addFlight(new Flight("EK401", "Dubai", java.time.LocalDateTime.of(2024, 1, 15, 22, 10), 100));
+        socket.close();
+        server.close();
+        server = new BookingHttpServer(service[0], new InetSocketAddress("127.0.0.1", 0), 2).start();
+        socket = new Socket("127.0.0.1", server.getPort());
+        socket.setSoTimeout(5_000);
+
+        send(post("{\"customerName\":\"A\",\"flightNumber\":\"EK401\",\"seats\":1}"));
+        Response response = readResponse();
+        assertEquals(409, response.status);
+        assertTrue(response.body.contains("archived"), response.body);
+        assertNull(service[0].getFlight("EK401"));
+    }
+
+    @Test
+    void testConnectionCloseIsHonoured() throws IOException {
+        send("GET /flights/SQ501 HTTP/1.1\r\nConnection: close\r\n\r\n");
+        assertEquals(200, readResponse().status);
+        assertEquals(-1, socket.getInputStream().read());
+    }
+
+    @Test
+    void testAddedFlightsAreVisibleToSearch() throws IOException {
+        flightService.addFlight(new Flight("AF700", "Paris", java.time.LocalDateTime.of(2024, 2, 1, 7, 5), 10));
+        send("GET /flights?destination=Paris&date=2024-02-01 HTTP/1.1\r\n\r\n");
+        Response response = readResponse();
+        assertTrue(response.body.contains("\"availableSeats\":10"));
+    }
+
+    @Test
+    void testDestinationAutocomplete() throws IOException {
+        flightService.addFlight(new Flight("FI600", "Reykjavík", java.time.LocalDateTime.now().plusDays(3), 180));
+        send("GET /destinations?q=reykjavik&limit=5 HTTP/1.1\r\n\r\n");
+        Response response = readResponse();
+        assertEquals(200, response.status);
+        assertTrue(response.body.contains("{\"destination\":\"Reykjavík\",\"upcomingFlights\":1,\"editDistance\":0}"), response.body);
+
+        send("GET /destinations?limit=5 HTTP/1.1\r\n\r\n");
+        assertEquals(400, readResponse().status);
+    }
+
+    private static String post(String json) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        return "POST /reservations HTTP/1.1\r\nContent-Type: application/json\r\nContent-Length: " + body.length + "\r\n\r\n" + json;
+    }
+
+    private void send(String request) throws IOException {
+        OutputStream out = socket.getOutputStream();
+        out.write(request.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private Response readResponse() throws IOException {
+        InputStream in = socket.getInputStream();
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        while (!head.toString(StandardCharsets.ISO_8859_1).endsWith("\r\n\r\n")) {
+            int b = in.read();
+            if (b < 0) {
+                throw new IOException("Connection closed mid-response");
+            }
+            head.write(b);
+        }
+        String headers = head.toString(StandardCharsets.ISO_8859_1);
+        int status = Integer.parseInt(headers.substring(9, 12));
+        int lengthAt = headers.indexOf("Content-Length: ") + 16;
+        int length = Integer.parseInt(headers.substring(lengthAt, headers.indexOf("\r\n", lengthAt)));
+        return new Response(status, new String(in.readNBytes(length), StandardCharsets.UTF_8));
+    }
+
+    private static class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        String field(String name) {
+            int start = body.indexOf("\"" + name + "\":\"") + name.length() + 4;
+            return body.substring(start, body.indexOf('"', start));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.model.SeatMap;
+import com.airline.persistence.BookingJournal;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingJournalTest {
+    private Path directory;
+    private Path journalFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-test");
+        journalFile = directory.resolve("bookings.journal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testRecoverRebuildsFlightsAndReservations() throws IOException {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        flightService.addFlight(new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150));
+        flightService.addFlight(new Flight("BA201", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 200));
+        flightService.addFlight(new Flight("UA900", "Chicago", "Denver", LocalDateTime.of(2024, 1, 16, 7, 0),
+                LocalDateTime.of(2024, 1, 16, 9, 30), 120));
+
+        Reservation kept = flightService.bookFlight("John Doe", flightService.getFlight("AA101"), 2);
+        Reservation cancelled = flightService.bookFlight("Jane Doe", flightService.getFlight("AA101"), 3);
+        flightService.bookFlight("Jane Doe", flightService.getFlight("BA201"), 4);
+        flightService.cancelReservation(cancelled);
+        close(flightService);
+
+        FlightService recovered = BookingJournal.recover(journalFile, false);
+        assertEquals(3, recovered.getAllFlights().size());
+        assertEquals("Chicago", recovered.getFlight("UA900").getOrigin());
+        assertEquals(LocalDateTime.of(2024, 1, 16, 9, 30), recovered.getFlight("UA900").getArrivalTime());
+        assertEquals(148, recovered.getFlight("AA101").getAvailableSeats());
+        assertEquals(196, recovered.getFlight("BA201").getAvailableSeats());
+        assertEquals(150, recovered.getFlight("AA101").getCapacity());
+
+        Reservation restored = recovered.getReservation(kept.getReservationId());
+        assertNotNull(restored);
+        assertEquals("John Doe", restored.getCustomerName());
+        assertEquals(kept.getReservationTime(), restored.getReservationTime());
+        assertNull(recovered.getReservation(cancelled.getReservationId()));
+        assertEquals(1, recovered.getCustomerReservations("Jane Doe").size());
+        assertEquals(1, recovered.searchFlights("New York", LocalDate.of(2024, 1, 15)).size());
+
+        // New bookings after recovery keep being journaled
+        recovered.bookFlight("Late Booker", recovered.getFlight("BA201"), 1);
+        close(recovered);
+        assertEquals(195, BookingJournal.recover(journalFile, false).getFlight("BA201").getAvailableSeats());
+    }
+
+    @Test
+    void testRecoverRestoresSeatAssignments() throws IOException {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        Flight flight = new Flight("QF1", "Sydney", "London", LocalDateTime.of(2024, 2, 1, 16, 0),
+                LocalDateTime.of(2024, 2, 2, 5, 0), 10);
+        flight.setSeatMap(new SeatMap("J1:AC-DF;Y5:ABC-DEF@5"));
+        flightService.addFlight(flight);
+        Reservation window = flightService.bookFlight("Ann Lee", flight, List.of("1A"));
+        Reservation cancelled = flightService.bookFlight("Bob Smith", flight, 3, SeatMap.CabinClass.ECONOMY);
+        flightService.cancelReservation(cancelled);
+        flightService.bookFlight("Cy Young", flight, List.of("5B", "5C"));
+        close(flightService);
+
+        FlightService recovered = BookingJournal.recover(journalFile, false);
+        SeatMap seatMap = recovered.getFlight("QF1").getSeatMap();
+        assertEquals("J1:AC-DF;Y5:ABC-DEF@5", seatMap.getLayout());
+        assertEquals(7, seatMap.getAvailableSeatCount());
+        assertEquals(7, recovered.getFlight("QF1").getAvailableSeats());
+        assertEquals(List.of("1A"), recovered.getReservation(window.getReservationId()).getSeatNumbers());
+        assertTrue(seatMap.isAvailable("5A"));
+        assertFalse(seatMap.isAvailable("5C"));
+        close(recovered);
+    }
+
+    @Test
+    void testRecoverIgnoresTornTail() throws IOException {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        flightService.addFlight(new Flight("LH301", "Berlin", LocalDateTime.of(2024, 1, 17, 9, 15), 80));
+        flightService.bookFlight("Bob Smith", flightService.getFlight("LH301"), 5);
+        close(flightService);
+
+        // Simulate a crash in the middle of writing a record
+        long validSize = Files.size(journalFile);
+        Files.write(journalFile, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        FlightService recovered = BookingJournal.recover(journalFile, false);
+        assertEquals(75, recovered.getFlight("LH301").getAvailableSeats());
+        assertEquals(validSize, Files.size(journalFile));
+
+        recovered.bookFlight("Bob Smith", recovered.getFlight("LH301"), 1);
+        close(recovered);
+        assertEquals(74, BookingJournal.recover(journalFile, false).getFlight("LH301").getAvailableSeats());
+    }
+
+    @Test
+    void testConcurrentBookingsAreAllJournaled() throws Exception {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        flightService.addFlight(new Flight("EK401", "Dubai", LocalDateTime.of(2024, 1, 15, 22, 10), 10_000));
+        Flight flight = flightService.getFlight("EK401");
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String customer = "Customer " + t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    flightService.bookFlight(customer, flight, 1);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        close(flightService);
+
+        FlightService recovered = BookingJournal.recover(journalFile, false);
+        assertEquals(6_000, recovered.getFlight("EK401").getAvailableSeats());
+        Set<String> ids = new HashSet<>();
+        for (Reservation reservation : recovered.getAllReservations()) {
+            assertTrue(ids.add(reservation.getReservationId()));
+        }
+        assertEquals(4_000, ids.size());
+    }
+
+    @Test
+    void testArchivedFlightNumbersCannotBeReusedAcrossRecovery() throws IOException {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        Flight departed = new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150);
+        flightService.addFlight(departed);
+        flightService.bookFlight("John Doe", departed, 2);
+        assertEquals(1, flightService.archiveDepartedFlights(LocalDateTime.of(2024, 1, 16, 0, 0)));
+
+        assertThrows(IllegalArgumentException.class, () -> flightService.addFlight(
+                new Flight("AA101", "New York", LocalDateTime.of(2024, 2, 15, 10, 30), 150)));
+        assertNull(flightService.getFlight("AA101"));
+        assertSame(departed, flightService.getArchive().getFlight("AA101"));
+        close(flightService);
+
+        // The journal holds the one AA101, which comes back active until it is archived again
+        FlightService recovered = BookingJournal.recover(journalFile, false);
+        assertEquals(148, recovered.getFlight("AA101").getAvailableSeats());
+        assertEquals(1, recovered.getAllFlights().size());
+        assertEquals(1, recovered.archiveDepartedFlights(LocalDateTime.of(2024, 1, 16, 0, 0)));
+        assertEquals(1, recovered.getArchive().getReservationCount());
+        close(recovered);
+    }
+
+    @Test
+    void testRecoverReplaysScheduleChanges() throws IOException {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        Flight flight = new Flight("UA900", "Chicago", "Denver", LocalDateTime.of(2024, 1, 16, 7, 0),
+                LocalDateTime.of(2024, 1, 16, 9, 30), 120);
+        flightService.addFlight(flight);
+        flightService.bookFlight("John Doe", flight, 2);
+        flight.setOrigin("Milwaukee");
+        flight.setDestination("Boulder");
+        flight.setDepartureTime(LocalDateTime.of(2024, 1, 17, 6, 0));
+        flight.setArrivalTime(LocalDateTime.of(2024, 1, 17, 8, 45));
+        close(flightService);
+
+        FlightService recovered = BookingJournal.recover(journalFile, false);
+        Flight restored = recovered.getFlight("UA900");
+        assertEquals("Milwaukee", restored.getOrigin());
+        assertEquals("Boulder", restored.getDestination());
+        assertEquals(LocalDateTime.of(2024, 1, 17, 6, 0), restored.getDepartureTime());
+        assertEquals(LocalDateTime.of(2024, 1, 17, 8, 45), restored.getArrivalTime());
+        assertEquals(118, restored.getAvailableSeats());
+        // Replay keeps the indexes in step and does not journal the change a second time
+        assertTrue(recovered.searchFlights("Denver", LocalDate.of(2024, 1, 16)).isEmpty());
+        assertEquals(List.of(restored), recovered.searchFlights("Boulder", LocalDate.of(2024, 1, 17)));
+        assertEquals(0, ((BookingJournal) recovered.getBookingLog()).getAppendCount());
+
+        restored.setDestination("Aspen");
+        close(recovered);
+        assertEquals("Aspen", BookingJournal.recover(journalFile, false).getFlight("UA900").getDestination());
+    }
+
+    @Test
+    void testRejectsForeignFile() throws IOException {
+        Files.write(journalFile, new byte[]{'n', 'o', 't', ' ', 'a', ' ', 'j', 'o', 'u', 'r', 'n', 'a', 'l'});
+        assertThrows(IOException.class, () -> BookingJournal.recover(journalFile, false));
+    }
+
+    private static void close(FlightService flightService) throws IOException {
+        ((BookingJournal) flightService.getBookingLog()).close();
+    }
+}
@@ -0,0 +1,100 @@
+package com.airline.test;
+
+import com.airline.inventory.ColumnarInventory;
+import com.airline.inventory.FlightRow;
+import com.airline.model.Flight;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarInventoryTest {
+
+    @Test
+    void testRowsRoundTripThroughColumns() {
+        ColumnarInventory inventory = new ColumnarInventory();
+        int row = inventory.add("UA900", "Chicago", "Tokyo", LocalDateTime.of(2024, 3, 1, 11, 5),
+                LocalDateTime.of(2024, 3, 2, 14, 40), 300, 280);
+        inventory.add(new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150));
+
+        FlightRow view = inventory.row(row);
+        assertEquals("UA900", view.getFlightNumber());
+        assertEquals("Chicago", view.getOrigin());
+        assertEquals("Tokyo", view.getDestination());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 11, 5), view.getDepartureTime());
+        assertEquals(LocalDateTime.of(2024, 3, 2, 14, 40), view.getArrivalTime());
+        assertEquals(300, view.getCapacity());
+        assertEquals(280, view.getAvailableSeats());
+
+        FlightRow second = inventory.row(inventory.find("AA101"));
+        assertNull(second.getOrigin());
+        assertNull(second.getArrivalTime());
+        assertEquals(-1, inventory.find("XX1"));
+
+        Flight copy = view.toFlight();
+        assertEquals("UA900", copy.getFlightNumber());
+        assertEquals(280, copy.getAvailableSeats());
+        assertEquals(300, copy.getCapacity());
+    }
+
+    @Test
+    void testScanMatchesDestinationDateAndSeats() {
+        ColumnarInventory inventory = new ColumnarInventory();
+        inventory.add(new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150));
+        inventory.add(new Flight("AA102", "NEW YORK", LocalDateTime.of(2024, 1, 15, 23, 59), 120));
+        inventory.add(new Flight("AA103", "New York", LocalDateTime.of(2024, 1, 16, 0, 0), 120));
+        inventory.add(new Flight("BA201", "London", LocalDateTime.of(2024, 1, 15, 14, 20), 200));
+        int soldOut = inventory.add(new Flight("AA104", "New York", LocalDateTime.of(2024, 1, 15, 6, 0), 1));
+        assertTrue(inventory.bookSeats(soldOut, 1));
+
+        List<String> found = new ArrayList<>();
+        int matches = inventory.scan("new york", LocalDate.of(2024, 1, 15),
+                row -> found.add(inventory.row(row).getFlightNumber()));
+        assertEquals(2, matches);
+        assertEquals(List.of("AA101", "AA102"), found);
+        assertEquals(0, inventory.scan("Paris", LocalDate.of(2024, 1, 15), row -> fail("unexpected match")));
+
+        inventory.reschedule(inventory.find("BA201"), "New York", LocalDateTime.of(2024, 1, 15, 8, 0));
+        assertEquals(3, inventory.scan("New York", LocalDate.of(2024, 1, 15), row -> { }));
+    }
+
+    @Test
+    void testRejectsDuplicatesAndSecondPrecisionTimes() {
+        ColumnarInventory inventory = new ColumnarInventory();
+        inventory.add(new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150));
+        assertThrows(IllegalArgumentException.class,
+                () -> inventory.add(new Flight("AA101", "Boston", LocalDateTime.of(2024, 1, 15, 11, 0), 150)));
+        assertThrows(IllegalArgumentException.class,
+                () -> inventory.add(new Flight("AA102", "Boston", LocalDateTime.of(2024, 1, 15, 11, 0, 30), 150)));
+        assertEquals(1, inventory.size());
+    }
+
+    @Test
+    void testGrowsAcrossChunksWithoutLosingSeatUpdates() throws Exception {
+        ColumnarInventory inventory = new ColumnarInventory();
+        int first = inventory.add(new Flight("F0", "Oslo", LocalDateTime.of(2024, 2, 1, 9, 0), 100_000));
+        AtomicInteger booked = new AtomicInteger();
+        Thread booker = new Thread(() -> {
+            while (inventory.bookSeats(first, 1)) {
+                booked.incrementAndGet();
+            }
+        });
+        booker.start();
+        // Keep adding rows past the first chunk while the seat column is being updated
+        for (int i = 1; i < 150_000; i++) {
+            inventory.add("F" + i, null, "Oslo", LocalDateTime.of(2024, 2, 1, 9, 0).plusMinutes(i % 1440), null, 10, 10);
+        }
+        booker.join();
+
+        assertEquals(150_000, inventory.size());
+        assertEquals(100_000, booked.get());
+        assertEquals(0, inventory.row(first).getAvailableSeats());
+        assertEquals(149_999, inventory.find("F149999"));
+        assertEquals("F70000", inventory.row(70_000).getFlightNumber());
+    }
+}
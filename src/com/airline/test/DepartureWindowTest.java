@@ -0,0 +1,196 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.FlightArchive;
+import com.airline.service.FlightArchiver;
+import com.airline.service.FlightService;
+import com.airline.service.WaitlistEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepartureWindowTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 10);
+
+    private FlightService flightService;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService(BookingLog.NONE);
+    }
+
+    private Flight add(String flightNumber, String destination, LocalDateTime departure) {
+        Flight flight = new Flight(flightNumber, destination, departure, 10);
+        flightService.addFlight(flight);
+        return flight;
+    }
+
+    private static List<String> numbers(List<Flight> flights) {
+        List<String> numbers = new ArrayList<>();
+        for (Flight flight : flights) {
+            numbers.add(flight.getFlightNumber());
+        }
+        return numbers;
+    }
+
+    @Test
+    void testTimeWindowsAreSortedByDeparture() {
+        add("AF3", "Paris", DAY.atTime(21, 0));
+        add("AF1", "Paris", DAY.atTime(7, 30));
+        add("AF2", "Paris", DAY.atTime(12, 0));
+        add("LH1", "Berlin", DAY.atTime(9, 0));
+        Flight soldOut = add("AF4", "Paris", DAY.atTime(15, 0));
+        flightService.bookFlight("Group", soldOut, 10);
+
+        assertEquals(List.of("AF1", "AF2", "AF3"), numbers(flightService.searchFlights("paris", DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay())));
+        // The end of the window is excluded
+        assertEquals(List.of("AF1"), numbers(flightService.searchFlights("Paris", DAY.atTime(7, 30), DAY.atTime(12, 0))));
+        assertEquals(List.of("AF1", "LH1", "AF2"), numbers(flightService.searchFlights(null, DAY.atTime(7, 0), DAY.atTime(13, 0))));
+        assertEquals(List.of(), flightService.searchFlights("Rome", DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()));
+        assertThrows(IllegalArgumentException.class, () -> flightService.searchFlights("Paris", DAY.atTime(13, 0), DAY.atTime(12, 0)));
+
+        // Seats coming back and schedule changes are picked up
+        flightService.cancelReservation(flightService.getFlightReservations(soldOut).get(0));
+        flightService.getFlight("AF3").setDepartureTime(DAY.atTime(6, 0));
+        flightService.getFlight("LH1").setDestination("Paris");
+        assertEquals(List.of("AF3", "AF1", "LH1", "AF2", "AF4"),
+                numbers(flightService.searchFlights("Paris", DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay())));
+    }
+
+    @Test
+    void testFlexibleDatesAndDailyTimeWindows() {
+        for (int offset = -5; offset <= 5; offset++) {
+            add("M" + (offset + 5), "Madrid", DAY.plusDays(offset).atTime(8, 0));
+            add("E" + (offset + 5), "Madrid", DAY.plusDays(offset).atTime(19, 0));
+            add("N" + (offset + 5), "Madrid", DAY.plusDays(offset).atTime(23, 30));
+        }
+        List<Flight> flexible = flightService.searchFlights("Madrid", DAY, 3);
+        assertEquals(21, flexible.size());
+        assertEquals("M2", flexible.get(0).getFlightNumber());
+        assertEquals("N8", flexible.get(20).getFlightNumber());
+        assertEquals(3, flightService.searchFlights("Madrid", DAY, 0).size());
+        assertThrows(IllegalArgumentException.class, () -> flightService.searchFlights("Madrid", DAY, -1));
+
+        // Evenings: 18:00 up to midnight
+        assertEquals(List.of("E4", "N4", "E5", "N5", "E6", "N6"),
+                numbers(flightService.searchFlights("Madrid", DAY.minusDays(1), DAY.plusDays(1), LocalTime.of(18, 0), LocalTime.MIDNIGHT)));
+        assertEquals(List.of("M5", "M6"),
+                numbers(flightService.searchFlights("Madrid", DAY, DAY.plusDays(1), LocalTime.of(6, 0), LocalTime.of(12, 0))));
+        // A window past midnight takes each night's late flights and the next morning's early ones
+        add("R", "Madrid", DAY.plusDays(1).atTime(1, 0));
+        assertEquals(List.of("N5", "R"),
+                numbers(flightService.searchFlights("Madrid", DAY, DAY, LocalTime.of(22, 0), LocalTime.of(2, 0))));
+        assertThrows(IllegalArgumentException.class,
+                () -> flightService.searchFlights("Madrid", DAY, DAY.minusDays(1), LocalTime.NOON, LocalTime.MIDNIGHT));
+    }
+
+    @Test
+    void testArchivingMovesDepartedFlightsAndReservations() {
+        Flight early = add("UA1", "Denver", DAY.atTime(6, 0));
+        Flight late = add("UA2", "Denver", DAY.atTime(18, 0));
+        Reservation onEarly = flightService.bookFlight("Ada", early, 2);
+        flightService.bookFlight("Ada", early, 8);
+        Reservation onLate = flightService.bookFlight("Ada", late, 1);
+        WaitlistEntry standby = flightService.joinWaitlist("Standby", early, 1, 0);
+
+        assertEquals(1, flightService.archiveDepartedFlights(DAY.atTime(12, 0)));
+        assertEquals(List.of(late), flightService.getAllFlights());
+        assertNull(flightService.getFlight("UA1"));
+        assertNull(flightService.getReservation(onEarly.getReservationId()));
+        assertEquals(List.of(onLate), flightService.getCustomerReservations("Ada"));
+        assertEquals(List.of(late), flightService.searchFlights("Denver", DAY));
+        assertEquals(List.of(late), flightService.searchFlights("Denver", DAY, 1));
+        assertFalse(flightService.cancelReservation(onEarly));
+
+        FlightArchive archive = flightService.getArchive();
+        assertSame(early, archive.getFlight("UA1"));
+        assertEquals(onEarly, archive.getReservation(onEarly.getReservationId()));
+        assertEquals(2, archive.getFlightReservations(early).size());
+        assertTrue(archive.contains(early));
+        // Reservations are filed under the flight itself, not a flight with the same number
+        assertEquals(List.of(), archive.getFlightReservations(new Flight("UA1", "Denver", DAY.atTime(6, 0), 10)));
+        assertThrows(IllegalArgumentException.class, () -> add("UA1", "Denver", DAY.plusDays(1).atTime(6, 0)));
+        assertEquals(2, archive.getReservationCount());
+        assertEquals(WaitlistEntry.Status.FAILED, standby.getStatus());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> standby.getReservation().get());
+        assertTrue(failure.getCause() instanceof IllegalStateException);
+        // Joining the waitlist of an archived flight fails at once instead of waiting forever
+        WaitlistEntry tooLate = flightService.joinWaitlist("Too Late", early, 1, 0);
+        assertEquals(WaitlistEntry.Status.FAILED, tooLate.getStatus());
+        assertThrows(ExecutionException.class, () -> tooLate.getReservation().get(1, TimeUnit.SECONDS));
+        assertTrue(flightService.getWaitlist(early).isEmpty());
+        assertThrows(IllegalStateException.class, () -> flightService.setOverbookingLimit(early, 2));
+
+        // Archived flights no longer reach the indexes
+        early.setDepartureTime(DAY.atTime(20, 0));
+        assertEquals(List.of(late), flightService.searchFlights("Denver", DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay()));
+        assertEquals(0, flightService.archiveDepartedFlights(DAY.atTime(12, 0)));
+    }
+
+    @Test
+    void testBookingsRacingArchivingEndUpArchivedOrRefused() throws InterruptedException {
+        Flight flight = new Flight("UA9", "Denver", DAY.atTime(6, 0), 100_000);
+        flightService.addFlight(flight);
+        List<Reservation> booked = new ArrayList<>();
+        Thread booker = new Thread(() -> {
+            while (true) {
+                try {
+                    booked.add(flightService.bookFlight("Racer", flight, 1));
+                } catch (IllegalStateException archived) {
+                    return;
+                }
+            }
+        });
+        booker.start();
+        while (booked.size() < 100) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, flightService.archiveDepartedFlights(DAY.atTime(12, 0)));
+        booker.join();
+
+        assertTrue(flightService.getAllReservations().isEmpty());
+        assertTrue(flightService.getCustomerReservations("Racer").isEmpty());
+        assertEquals(booked, flightService.getArchive().getFlightReservations(flight));
+        assertEquals(booked.size(), flight.getCapacity() - flight.getAvailableSeats());
+
+        // Bookings that still hold the archived flight are refused and give their seats back
+        int seatsLeft = flight.getAvailableSeats();
+        assertThrows(IllegalStateException.class, () -> flightService.bookFlight("Late", flight, 1));
+        assertFalse(flightService.bookFlights(List.of(new BookingRequest("Late", flight, 1)), false).get(0).isSuccess());
+        assertEquals(seatsLeft, flight.getAvailableSeats());
+        assertTrue(flightService.getCustomerReservations("Late").isEmpty());
+    }
+
+    @Test
+    void testArchiverKeepsFlightsForTheGivenTime() {
+        for (int hour = 0; hour < 24; hour++) {
+            add("DL" + hour, "Atlanta", DAY.atTime(hour, 0));
+        }
+        AtomicReference<LocalDateTime> now = new AtomicReference<>(DAY.atTime(9, 30));
+        try (FlightArchiver archiver = new FlightArchiver(flightService, Duration.ofHours(2), Duration.ofMinutes(1), now::get)) {
+            // Flights that left before 07:30 go
+            assertEquals(8, archiver.archiveNow());
+            assertEquals(0, archiver.archiveNow());
+            now.set(DAY.plusDays(2).atStartOfDay());
+            assertEquals(16, archiver.archiveNow());
+            assertEquals(24, archiver.getArchivedCount());
+            assertEquals(24, flightService.getArchive().getFlightCount());
+            assertTrue(flightService.getAllFlights().isEmpty());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new FlightArchiver(flightService, Duration.ofHours(-1)));
+    }
+}
@@ -0,0 +1,99 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.service.BookingLog;
+import com.airline.service.DestinationSuggestion;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DestinationIndexTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private FlightService flightService;
+    private int nextFlight;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService(BookingLog.NONE);
+        add("London", 3);
+        add("Lisbon", 2);
+        add("Los Angeles", 1);
+        add("Zürich", 1);
+        add("San Francisco", 1);
+        add("Santiago", 2);
+    }
+
+    private List<Flight> add(String destination, int flights) {
+        List<Flight> added = new ArrayList<>();
+        for (int i = 0; i < flights; i++) {
+            Flight flight = new Flight("DX" + nextFlight++, destination, NOW.plusDays(1 + i), 100);
+            flightService.addFlight(flight);
+            added.add(flight);
+        }
+        return added;
+    }
+
+    private static List<String> names(List<DestinationSuggestion> suggestions) {
+        List<String> names = new ArrayList<>();
+        for (DestinationSuggestion suggestion : suggestions) {
+            names.add(suggestion.destination());
+        }
+        return names;
+    }
+
+    @Test
+    void testPrefixSuggestionsAreRankedByUpcomingFlights() {
+        List<DestinationSuggestion> suggestions = flightService.suggestDestinations("l", NOW, 10);
+        assertEquals(List.of("London", "Lisbon", "Los Angeles"), names(suggestions));
+        assertEquals(3, suggestions.get(0).upcomingFlights());
+        assertEquals(0, suggestions.get(0).editDistance());
+
+        assertEquals(List.of("London", "Los Angeles"), names(flightService.suggestDestinations("LO", NOW, 10)));
+        assertEquals(List.of("Santiago", "San Francisco"), names(flightService.suggestDestinations("  san", NOW, 10)));
+        assertEquals(List.of("London"), names(flightService.suggestDestinations("l", NOW, 1)));
+        assertTrue(flightService.suggestDestinations("", NOW, 10).isEmpty());
+        assertTrue(flightService.suggestDestinations("q", NOW, 10).isEmpty());
+    }
+
+    @Test
+    void testTyposAndAccentsStillMatch() {
+        List<DestinationSuggestion> suggestions = flightService.suggestDestinations("londn", NOW, 10);
+        assertEquals(List.of("London"), names(suggestions));
+        assertEquals(1, suggestions.get(0).editDistance());
+
+        assertEquals(List.of("Zürich"), names(flightService.suggestDestinations("zurich", NOW, 10)));
+        assertEquals(List.of("San Francisco"), names(flightService.suggestDestinations("san fransisko", NOW, 10)));
+        // Exact prefixes rank ahead of fuzzy ones however many flights those have
+        add("Sanya", 5);
+        assertEquals(List.of("Santiago", "Sanya", "San Francisco"), names(flightService.suggestDestinations("sant", NOW, 10)));
+        // Too short to risk a guess
+        assertTrue(flightService.suggestDestinations("lnd", NOW, 10).isEmpty());
+    }
+
+    @Test
+    void testOnlyUpcomingFlightsCount() {
+        assertEquals(2, flightService.suggestDestinations("lon", NOW.plusDays(1), 10).get(0).upcomingFlights());
+        assertTrue(flightService.suggestDestinations("lon", NOW.plusDays(5), 10).isEmpty());
+    }
+
+    @Test
+    void testIndexFollowsNewAndRescheduledFlights() {
+        add("Lima", 4);
+        assertEquals("Lima", flightService.suggestDestinations("l", NOW, 10).get(0).destination());
+
+        List<Flight> moved = add("Oslo", 1);
+        moved.get(0).setDestination("Lisbon");
+        assertTrue(flightService.suggestDestinations("osl", NOW, 10).isEmpty());
+        assertEquals(3, flightService.suggestDestinations("lisbon", NOW, 10).get(0).upcomingFlights());
+
+        moved.get(0).setDepartureTime(NOW.minusDays(1));
+        assertEquals(2, flightService.suggestDestinations("lisbon", NOW, 10).get(0).upcomingFlights());
+    }
+}
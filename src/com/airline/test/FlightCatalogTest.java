@@ -0,0 +1,107 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightCatalog;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightCatalogTest {
+    private FlightService flightService;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService();
+    }
+
+    @Test
+    void testCatalogIsAStableSnapshot() {
+        FlightCatalog before = flightService.getCatalog();
+        List<Flight> view = before.getFlights();
+        assertEquals(6, before.size());
+
+        flightService.addFlight(new Flight("AF700", "Paris", LocalDateTime.of(2024, 1, 14, 7, 0), 50));
+
+        FlightCatalog after = flightService.getCatalog();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(7, after.size());
+        assertEquals("AF700", after.get(6).getFlightNumber());
+        // Readers holding the old version still see exactly what it was published with
+        assertEquals(6, before.size());
+        assertEquals(6, view.size());
+        assertThrows(IndexOutOfBoundsException.class, () -> before.get(6));
+    }
+
+    @Test
+    void testViewsAreReadOnly() {
+        List<Flight> flights = flightService.getAllFlights();
+        assertThrows(UnsupportedOperationException.class, () -> flights.remove(0));
+        assertThrows(UnsupportedOperationException.class,
+                () -> flights.add(new Flight("XX1", "Nowhere", LocalDateTime.now(), 1)));
+    }
+
+    @Test
+    void testSeatChangesDoNotPublishVersions() {
+        FlightCatalog before = flightService.getCatalog();
+        Flight flight = before.get(0);
+        flightService.bookFlight("John Doe", flight, 2);
+        assertSame(before, flightService.getCatalog());
+        assertEquals(148, before.get(0).getAvailableSeats());
+    }
+
+    @Test
+    void testSortedPages() {
+        FlightCatalog catalog = flightService.getCatalog();
+        List<Flight> byDeparture = catalog.sorted(FlightCatalog.Order.DEPARTURE_TIME);
+        for (int i = 1; i < byDeparture.size(); i++) {
+            assertFalse(byDeparture.get(i).getDepartureTime().isBefore(byDeparture.get(i - 1).getDepartureTime()));
+        }
+
+        List<Flight> first = catalog.page(FlightCatalog.Order.FLIGHT_NUMBER, 0, 4);
+        List<Flight> second = catalog.page(FlightCatalog.Order.FLIGHT_NUMBER, 4, 4);
+        assertEquals(List.of("AA101", "AA102", "BA201", "EK401"), numbers(first));
+        assertEquals(List.of("LH301", "SQ501"), numbers(second));
+        assertTrue(catalog.page(FlightCatalog.Order.FLIGHT_NUMBER, 10, 4).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> catalog.page(FlightCatalog.Order.ADDED, -1, 4));
+
+        List<Flight> byDestination = catalog.sorted(FlightCatalog.Order.DESTINATION);
+        assertEquals("Berlin", byDestination.get(0).getDestination());
+        assertEquals("Singapore", byDestination.get(5).getDestination());
+    }
+
+    @Test
+    void testRescheduleMakesANewVersionWithFreshOrder() {
+        FlightCatalog before = flightService.getCatalog();
+        assertEquals("AA101", before.sorted(FlightCatalog.Order.DEPARTURE_TIME).get(0).getFlightNumber());
+
+        Flight singapore = flightService.getFlight("SQ501");
+        singapore.setDepartureTime(LocalDateTime.of(2024, 1, 10, 8, 0));
+
+        FlightCatalog after = flightService.getCatalog();
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals("SQ501", after.sorted(FlightCatalog.Order.DEPARTURE_TIME).get(0).getFlightNumber());
+        // The old version keeps the order it already handed out
+        assertEquals("AA101", before.sorted(FlightCatalog.Order.DEPARTURE_TIME).get(0).getFlightNumber());
+    }
+
+    @Test
+    void testServicesDoNotShareCatalogStorage() {
+        FlightService first = new FlightService(BookingLog.NONE);
+        FlightService second = new FlightService(BookingLog.NONE);
+        first.addFlight(new Flight("F1", "Oslo", LocalDateTime.of(2024, 2, 1, 9, 0), 10));
+        second.addFlight(new Flight("S1", "Rome", LocalDateTime.of(2024, 2, 1, 9, 0), 10));
+        assertEquals("F1", first.getCatalog().get(0).getFlightNumber());
+        assertEquals("S1", second.getCatalog().get(0).getFlightNumber());
+    }
+
+    private static List<String> numbers(List<Flight> flights) {
+        return flights.stream().map(Flight::getFlightNumber).collect(Collectors.toList());
+    }
+}
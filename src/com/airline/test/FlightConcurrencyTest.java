@@ -0,0 +1,185 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.model.ReservationIdGenerator;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightConcurrencyTest {
+    private static final int THREADS = 16;
+
+    @Test
+    void testConcurrentBookingNeverOversells() throws Exception {
+        Flight flight = new Flight("ST100", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 1_000);
+        AtomicInteger booked = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                // Keep trying until the flight is sold out
+                while (flight.getAvailableSeats() > 0) {
+                    int seats = ThreadLocalRandom.current().nextInt(1, 4);
+                    if (flight.bookSeats(seats)) {
+                        booked.addAndGet(seats);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, flight.getAvailableSeats());
+        assertEquals(flight.getCapacity(), booked.get());
+    }
+
+    @Test
+    void testBookedPlusAvailableAlwaysEqualsCapacity() throws Exception {
+        Flight flight = new Flight("ST200", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 200);
+        AtomicLong held = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean negativeSeen = new AtomicBoolean(false);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Observer that checks seat counts never go negative while bookers race
+        Thread observer = new Thread(() -> {
+            while (running.get()) {
+                if (flight.getAvailableSeats() < 0) {
+                    negativeSeen.set(true);
+                }
+            }
+        });
+        observer.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int mine = 0;
+                for (int i = 0; i < 50_000; i++) {
+                    if (mine > 0 && random.nextBoolean()) {
+                        int seats = random.nextInt(1, mine + 1);
+                        flight.releaseSeats(seats);
+                        mine -= seats;
+                    } else {
+                        int seats = random.nextInt(1, 5);
+                        if (flight.bookSeats(seats)) {
+                            mine += seats;
+                        }
+                    }
+                }
+                held.addAndGet(mine);
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+        observer.join();
+
+        assertFalse(negativeSeen.get(), "Available seats went negative");
+        assertEquals(flight.getCapacity(), held.get() + flight.getAvailableSeats());
+    }
+
+    @Test
+    void testConcurrentServiceBookingsAndCancels() throws Exception {
+        FlightService flightService = new FlightService();
+        Flight flight = flightService.getAllFlights().get(0);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String customer = "Customer " + t;
+            Thread thread = new Thread(() -> {
+                awaitQuietly(start);
+                for (int i = 0; i < 2_000; i++) {
+                    try {
+                        Reservation reservation = flightService.bookFlight(customer, flight, 1);
+                        if (i % 2 == 0) {
+                            flightService.cancelReservation(reservation);
+                        }
+                    } catch (IllegalArgumentException soldOut) {
+                        // Expected once the flight fills up
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int booked = 0;
+        for (Reservation reservation : flightService.getFlightReservations(flight)) {
+            booked += reservation.getSeatsBooked();
+        }
+        assertEquals(flight.getCapacity(), booked + flight.getAvailableSeats());
+        assertEquals(flightService.getAllReservations().size(), flightService.getFlightReservations(flight).size());
+    }
+
+    @Test
+    void testCancelByIdRacingTheBookingLeavesNoTrace() throws Exception {
+        FlightService flightService = new FlightService();
+        int bookings = 20_000;
+        Flight flight = new Flight("RC1", "Oslo", LocalDateTime.of(2024, 6, 1, 9, 0), bookings);
+        flightService.addFlight(flight);
+        // Predictable IDs, so the canceller can cancel each reservation the moment it becomes visible
+        AtomicLong next = new AtomicLong();
+        ReservationIdGenerator original = Reservation.getIdGenerator();
+        Reservation.setIdGenerator(() -> "RACE-" + next.getAndIncrement());
+        try {
+            Thread canceller = new Thread(() -> {
+                for (int i = 0; i < bookings; i++) {
+                    Reservation reservation;
+                    while ((reservation = flightService.getReservation("RACE-" + i)) == null) {
+                        Thread.onSpinWait();
+                    }
+                    flightService.cancelReservation(reservation);
+                }
+            });
+            canceller.start();
+            for (int i = 0; i < bookings; i++) {
+                flightService.bookFlight("Racer", flight, 1);
+            }
+            canceller.join();
+        } finally {
+            Reservation.setIdGenerator(original);
+        }
+
+        assertTrue(flightService.getFlightReservations(flight).isEmpty());
+        assertTrue(flightService.getCustomerReservations("Racer").isEmpty());
+        assertTrue(flightService.getAllReservations().isEmpty());
+        assertEquals(bookings, flight.getAvailableSeats());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
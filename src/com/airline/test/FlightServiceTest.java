@@ -2,12 +2,18 @@ package com.airline.test;
 
 import com.airline.model.Flight;
 import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.BookingResult;
 import com.airline.service.FlightService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -170,4 +176,209 @@ class FlightServiceTest {
         assertEquals(initialCount + 1, allFlights.size());
         assertTrue(allFlights.contains(newFlight));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSearchFlightsExcludesSoldOutFlights() {
+        Flight flight = flightService.searchFlights("Berlin", LocalDate.of(2024, 1, 17)).get(0);
+
+        Reservation reservation = flightService.bookFlight("Group", flight, flight.getAvailableSeats());
+        assertTrue(flightService.searchFlights("Berlin", LocalDate.of(2024, 1, 17)).isEmpty());
+
+        // Released seats make the flight searchable again
+        flightService.cancelReservation(reservation);
+        assertEquals(1, flightService.searchFlights("berlin", LocalDate.of(2024, 1, 17)).size());
+    }
+
+    @Test
+    void testSearchFlightsAfterScheduleChange() {
+        Flight flight = flightService.searchFlights("Dubai", LocalDate.of(2024, 1, 15)).get(0);
+
+        flight.setDepartureTime(LocalDateTime.of(2024, 1, 16, 1, 0));
+        assertTrue(flightService.searchFlights("Dubai", LocalDate.of(2024, 1, 15)).isEmpty());
+        assertEquals(1, flightService.searchFlights("DUBAI", LocalDate.of(2024, 1, 16)).size());
+
+        flight.setDestination("Abu Dhabi");
+        assertTrue(flightService.searchFlights("Dubai", LocalDate.of(2024, 1, 16)).isEmpty());
+        assertEquals(flight, flightService.searchFlights("Abu Dhabi", LocalDate.of(2024, 1, 16)).get(0));
+    }
+
+    @Test
+    void testSearchFlightsMatchesDestinationsLikeEqualsIgnoreCase() {
+        LocalDateTime departure = LocalDateTime.of(2024, 2, 1, 9, 0);
+        flightService.addFlight(new Flight("TK1", "İstanbul", departure, 100));
+        flightService.addFlight(new Flight("TK2", "Diyarbakır", departure, 100));
+        flightService.addFlight(new Flight("OA1", "Θεσσαλονίκης", departure, 100));
+
+        for (String query : List.of("istanbul", "İSTANBUL", "DIYARBAKIR", "diyarbakir", "ΘΕΣΣΑΛΟΝΊΚΗΣ", "θεσσαλονίκησ")) {
+            List<Flight> found = flightService.searchFlights(query, departure.toLocalDate());
+            assertEquals(1, found.size(), query);
+            assertTrue(found.get(0).getDestination().equalsIgnoreCase(query), query);
+        }
+    }
+
+    @Test
+    void testForEachFlightActionMayBookTheFlightItVisits() {
+        List<String> visited = new ArrayList<>();
+        int count = flightService.forEachFlight("New York", LocalDate.of(2024, 1, 15), flight -> {
+            // Selling the flight out takes it off the index while the search is still visiting it
+            flightService.bookFlight("Group", flight, flight.getAvailableSeats());
+            visited.add(flight.getFlightNumber());
+        });
+
+        assertEquals(2, count);
+        assertEquals(List.of("AA101", "AA102"), visited);
+        assertTrue(flightService.searchFlights("New York", LocalDate.of(2024, 1, 15)).isEmpty());
+    }
+
+    @Test
+    void testReservationLookups() {
+        List<Flight> flights = flightService.getAllFlights();
+        Reservation first = flightService.bookFlight("John Doe", flights.get(0), 1);
+        Reservation second = flightService.bookFlight("JOHN DOE", flights.get(0), 2);
+        Reservation third = flightService.bookFlight("Jane Doe", flights.get(1), 1);
+
+        assertEquals(first, flightService.getReservation(first.getReservationId()));
+        assertNull(flightService.getReservation("RES-UNKNOWN"));
+
+        // Customer lookups ignore case and keep booking order
+        List<Reservation> johnsReservations = flightService.getCustomerReservations("john doe");
+        assertEquals(List.of(first, second), johnsReservations);
+
+        assertEquals(List.of(first, second), flightService.getFlightReservations(flights.get(0)));
+        assertEquals(List.of(first, second, third), flightService.getAllReservations());
+    }
+
+    @Test
+    void testCancelReservationTwice() {
+        Flight flight = flightService.getAllFlights().get(0);
+        int initialSeats = flight.getAvailableSeats();
+        Reservation reservation = flightService.bookFlight("John Doe", flight, 3);
+
+        assertTrue(flightService.cancelReservation(reservation));
+        assertFalse(flightService.cancelReservation(reservation));
+
+        // Seats are only released once
+        assertEquals(initialSeats, flight.getAvailableSeats());
+        assertNull(flightService.getReservation(reservation.getReservationId()));
+        assertTrue(flightService.getFlightReservations(flight).isEmpty());
+    }
+
+    @Test
+    void testAddDuplicateFlightNumber() {
+        Flight duplicate = new Flight("AA101", "Boston", LocalDateTime.of(2024, 2, 1, 12, 0), 150);
+
+        assertThrows(IllegalArgumentException.class, () -> flightService.addFlight(duplicate));
+        assertEquals("New York", flightService.getFlight("AA101").getDestination());
+        assertTrue(flightService.searchFlights("Boston", LocalDate.of(2024, 2, 1)).isEmpty());
+    }
+
+    @Test
+    void testBookFlightsBatch() {
+        Flight berlin = flightService.getFlight("LH301");   // 80 seats
+        Flight london = flightService.getFlight("BA201");   // 200 seats
+
+        List<BookingResult> results = flightService.bookFlights(List.of(
+                new BookingRequest("Agency A", berlin, 50),
+                new BookingRequest("Agency B", london, 10),
+                new BookingRequest("Agency C", berlin, 40),
+                new BookingRequest("Agency D", berlin, 30),
+                new BookingRequest("Agency E", london, 0)), false);
+
+        assertEquals(5, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess()); // only 30 left after Agency A
+        assertTrue(results.get(3).isSuccess());
+        assertFalse(results.get(4).isSuccess());
+        assertNotNull(results.get(2).getFailureReason());
+
+        assertEquals(0, berlin.getAvailableSeats());
+        assertEquals(190, london.getAvailableSeats());
+        assertEquals(50, results.get(0).getReservation().getSeatsBooked());
+        assertEquals(1, flightService.getCustomerReservations("Agency D").size());
+        assertEquals(3, flightService.getAllReservations().size());
+    }
+
+    @Test
+    void testBookFlightsAllOrNothing() {
+        Flight berlin = flightService.getFlight("LH301");
+        Flight london = flightService.getFlight("BA201");
+
+        List<BookingResult> rejected = flightService.bookFlights(List.of(
+                new BookingRequest("Charter", london, 150),
+                new BookingRequest("Charter", berlin, 81)), true);
+
+        assertFalse(rejected.get(0).isSuccess());
+        assertFalse(rejected.get(1).isSuccess());
+        // Seats taken on London are given back when Berlin cannot fit the group
+        assertEquals(200, london.getAvailableSeats());
+        assertEquals(80, berlin.getAvailableSeats());
+        assertTrue(flightService.getCustomerReservations("Charter").isEmpty());
+
+        List<BookingResult> booked = flightService.bookFlights(List.of(
+                new BookingRequest("Charter", london, 150),
+                new BookingRequest("Charter", berlin, 80)), true);
+
+        assertTrue(booked.get(0).isSuccess());
+        assertTrue(booked.get(1).isSuccess());
+        assertNotEquals(booked.get(0).getReservation().getReservationId(), booked.get(1).getReservation().getReservationId());
+        assertEquals(2, flightService.getCustomerReservations("Charter").size());
+    }
+
+    @Test
+    void testBookFlightsAllOrNothingWhenAFlightIsArchivedMidBatch() {
+        AtomicReference<FlightService> service = new AtomicReference<>();
+        AtomicBoolean archiveOnLog = new AtomicBoolean(true);
+        List<Reservation> loggedCancellations = new ArrayList<>();
+        FlightService flightService = new FlightService(new BookingLog() {
+            @Override
+            public void flightAdded(Flight flight) {
+            }
+
+            @Override
+            public void reservationBooked(Reservation reservation) {
+            }
+
+            // The batch has its seats by now; archiving here lands between the log write and the store
+            @Override
+            public void reservationsBooked(List<Reservation> reservations) {
+                if (archiveOnLog.getAndSet(false)) {
+                    service.get().archiveDepartedFlights(LocalDateTime.of(2024, 6, 1, 12, 0));
+                }
+            }
+
+            @Override
+            public void reservationCancelled(Reservation reservation) {
+                loggedCancellations.add(reservation);
+            }
+        });
+        service.set(flightService);
+        Flight late = new Flight("AR2", "Oslo", LocalDateTime.of(2024, 6, 1, 18, 0), 50);
+        Flight early = new Flight("AR1", "Oslo", LocalDateTime.of(2024, 6, 1, 6, 0), 50);
+        flightService.addFlight(late);
+        flightService.addFlight(early);
+
+        List<BookingResult> results = flightService.bookFlights(List.of(
+                new BookingRequest("Charter", late, 2),
+                new BookingRequest("Charter", early, 3)), true);
+
+        assertFalse(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(flightService.getAllReservations().isEmpty());
+        assertTrue(flightService.getArchive().getFlightReservations(early).isEmpty());
+        assertEquals(50, late.getAvailableSeats());
+        assertEquals(50, early.getAvailableSeats());
+        // Both were logged with the batch, so both are logged as cancelled again
+        assertEquals(2, loggedCancellations.size());
+
+        // Archived flights are refused before any seats are taken
+        List<BookingResult> partial = flightService.bookFlights(List.of(
+                new BookingRequest("Charter", late, 2),
+                new BookingRequest("Charter", early, 3)), false);
+        assertTrue(partial.get(0).isSuccess());
+        assertFalse(partial.get(1).isSuccess());
+        assertEquals(50, early.getAvailableSeats());
+        assertFalse(flightService.bookFlights(List.of(new BookingRequest("Charter", early, 1)), true).get(0).isSuccess());
+        assertEquals(List.of(partial.get(0).getReservation()), flightService.getAllReservations());
+    }
+}
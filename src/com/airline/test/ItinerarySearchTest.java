@@ -0,0 +1,119 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Itinerary;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import com.airline.service.ItineraryQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItinerarySearchTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+    private FlightService flightService;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService(BookingLog.NONE);
+        flightService.addFlight(flight("AB1", "Austin", "Boston", 8, 0, 10, 0));
+        flightService.addFlight(flight("BC1", "Boston", "Chicago", 11, 0, 13, 0));
+        flightService.addFlight(flight("BC2", "Boston", "Chicago", 10, 15, 12, 0)); // too tight a connection
+        flightService.addFlight(flight("BC3", "Boston", "Chicago", 19, 0, 21, 0)); // layover over 6 hours
+        flightService.addFlight(flight("AC1", "Austin", "Chicago", 9, 0, 15, 0));
+        flightService.addFlight(flight("BA1", "Boston", "Austin", 10, 50, 12, 50));
+    }
+
+    @Test
+    void testEarliestArrivalIncludesConnections() {
+        List<Itinerary> itineraries = flightService.searchItineraries(new ItineraryQuery("Austin", "Chicago", DAY));
+
+        assertEquals(2, itineraries.size());
+        assertEquals(List.of("AB1", "BC1"), numbers(itineraries.get(0)));
+        assertEquals(List.of("AC1"), numbers(itineraries.get(1)));
+        assertEquals(LocalDateTime.of(2024, 3, 1, 13, 0), itineraries.get(0).getArrivalTime());
+    }
+
+    @Test
+    void testFewestLegsPrefersDirectFlights() {
+        List<Itinerary> itineraries = flightService.searchItineraries(
+                new ItineraryQuery("austin", "CHICAGO", DAY).order(ItineraryQuery.Order.FEWEST_LEGS));
+
+        assertEquals(List.of("AC1"), numbers(itineraries.get(0)));
+        assertEquals(List.of("AB1", "BC1"), numbers(itineraries.get(1)));
+    }
+
+    @Test
+    void testLayoverWindowAndMaxResults() {
+        List<Itinerary> wide = flightService.searchItineraries(new ItineraryQuery("Austin", "Chicago", DAY)
+                .layover(Duration.ofMinutes(10), Duration.ofHours(10)).maxResults(10));
+        assertEquals(4, wide.size());
+        assertEquals(List.of("AB1", "BC2"), numbers(wide.get(0)));
+
+        List<Itinerary> first = flightService.searchItineraries(new ItineraryQuery("Austin", "Chicago", DAY).maxResults(1));
+        assertEquals(1, first.size());
+
+        List<Itinerary> directOnly = flightService.searchItineraries(new ItineraryQuery("Austin", "Chicago", DAY).maxLegs(1));
+        assertEquals(1, directOnly.size());
+    }
+
+    @Test
+    void testLaterArrivalCanMakeTheOnlyConnection() {
+        flightService.addFlight(flight("F1", "Albany", "Hub City", 6, 0, 8, 0));
+        flightService.addFlight(flight("F2", "Albany", "Hub City", 12, 0, 14, 0));
+        // More than six hours after F1 lands, so only F2 connects
+        flightService.addFlight(flight("F3", "Hub City", "Duluth", 19, 0, 21, 0));
+
+        for (int maxResults : new int[] {1, 5}) {
+            List<Itinerary> itineraries = flightService.searchItineraries(
+                    new ItineraryQuery("Albany", "Duluth", DAY).maxResults(maxResults));
+            assertEquals(1, itineraries.size());
+            assertEquals(List.of("F2", "F3"), numbers(itineraries.get(0)));
+        }
+    }
+
+    @Test
+    void testSoldOutLegsAreSkipped() {
+        Flight connection = flightService.getFlight("BC1");
+        flightService.bookFlight("Group", connection, connection.getAvailableSeats());
+
+        List<Itinerary> itineraries = flightService.searchItineraries(new ItineraryQuery("Austin", "Chicago", DAY));
+        assertEquals(1, itineraries.size());
+        assertEquals(List.of("AC1"), numbers(itineraries.get(0)));
+    }
+
+    @Test
+    void testGraphUpdatesIncrementally() {
+        flightService.addFlight(flight("CD1", "Chicago", "Denver", 14, 0, 16, 0));
+        List<Itinerary> itineraries = flightService.searchItineraries(new ItineraryQuery("Austin", "Denver", DAY));
+        assertEquals(List.of("AB1", "BC1", "CD1"), numbers(itineraries.get(0)));
+
+        // Moving the last leg too late breaks the connection
+        flightService.getFlight("CD1").setDepartureTime(LocalDateTime.of(2024, 3, 1, 22, 0));
+        flightService.getFlight("CD1").setArrivalTime(LocalDateTime.of(2024, 3, 2, 0, 0));
+        assertTrue(flightService.searchItineraries(new ItineraryQuery("Austin", "Denver", DAY)).isEmpty());
+    }
+
+    @Test
+    void testFlightsWithoutOriginAreNotRouted() {
+        flightService.addFlight(new Flight("XX1", "Chicago", LocalDateTime.of(2024, 3, 1, 9, 0), 100));
+        assertEquals(2, flightService.searchItineraries(new ItineraryQuery("Austin", "Chicago", DAY)).size());
+        assertTrue(flightService.searchItineraries(new ItineraryQuery("Boston", "Austin", LocalDate.of(2024, 3, 2))).isEmpty());
+    }
+
+    private static Flight flight(String number, String origin, String destination,
+                                 int departureHour, int departureMinute, int arrivalHour, int arrivalMinute) {
+        return new Flight(number, origin, destination, DAY.atTime(departureHour, departureMinute),
+                DAY.atTime(arrivalHour, arrivalMinute), 100);
+    }
+
+    private static List<String> numbers(Itinerary itinerary) {
+        return itinerary.getLegs().stream().map(Flight::getFlightNumber).toList();
+    }
+}
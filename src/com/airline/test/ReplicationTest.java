@@ -0,0 +1,162 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.replication.BookingCluster;
+import com.airline.replication.BookingNode;
+import com.airline.replication.LocalTransport;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+    private static final LocalDate DATE = LocalDate.of(2024, 6, 1);
+    private static final Duration ACK_TIMEOUT = Duration.ofSeconds(5);
+
+    private static Flight addFlight(BookingCluster cluster, String number) {
+        Flight flight = new Flight(number, "Madrid", DATE.atTime(8, 0), 50);
+        cluster.writes().addFlight(flight);
+        return flight;
+    }
+
+    @Test
+    void testBookingsReachEveryReplica() {
+        LocalTransport transport = new LocalTransport();
+        try (BookingCluster cluster = new BookingCluster(transport, 2, 2, Duration.ofMinutes(1), ACK_TIMEOUT)) {
+            Flight flight = addFlight(cluster, "RP100");
+            Reservation reservation = cluster.writes().bookFlight("Ada Park", flight, 3);
+            Reservation cancelled = cluster.writes().bookFlight("Ada Park", flight, 1);
+            assertTrue(cluster.writes().cancelReservation(cancelled));
+
+            for (BookingNode replica : cluster.getReplicas()) {
+                assertEquals(BookingNode.Role.REPLICA, replica.getRole());
+                assertEquals(cluster.getPrimary().getSequence(), replica.getSequence());
+                assertEquals(47, replica.getFlightService().getFlight("RP100").getAvailableSeats());
+                List<Reservation> found = replica.getCustomerReservations("Ada Park");
+                assertEquals(1, found.size());
+                assertEquals(reservation.getReservationId(), found.get(0).getReservationId());
+                assertEquals(1, replica.searchFlights("Madrid", DATE).size());
+            }
+            assertEquals(1, cluster.getCustomerReservations("Ada Park").size());
+
+            BookingNode replica = cluster.getReplicas().get(0);
+            Flight copy = replica.getFlightService().getFlight("RP100");
+            assertThrows(IllegalStateException.class, () -> replica.getFlightService().bookFlight("Ada Park", copy, 1));
+            assertEquals(47, copy.getAvailableSeats());
+        }
+    }
+
+    @Test
+    void testScheduleChangesReachEveryReplica() {
+        LocalTransport transport = new LocalTransport();
+        try (BookingCluster cluster = new BookingCluster(transport, 2, 2, Duration.ofMinutes(1), ACK_TIMEOUT)) {
+            Flight flight = addFlight(cluster, "RP200");
+            flight.setDestination("Seville");
+
+            for (BookingNode replica : cluster.getReplicas()) {
+                assertEquals(cluster.getPrimary().getSequence(), replica.getSequence());
+                assertEquals("Seville", replica.getFlightService().getFlight("RP200").getDestination());
+                assertTrue(replica.searchFlights("Madrid", DATE).isEmpty());
+                assertEquals(1, replica.searchFlights("Seville", DATE).size());
+            }
+        }
+    }
+
+    @Test
+    void testStaleReplicasStopServingReads() {
+        AtomicLong clock = new AtomicLong();
+        LocalTransport transport = new LocalTransport();
+        List<BookingNode> nodes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            BookingNode node = new BookingNode("node-" + i, Duration.ofSeconds(2), clock::get);
+            transport.register(node);
+            nodes.add(node);
+        }
+        try (BookingCluster cluster = new BookingCluster(transport, nodes, 1, ACK_TIMEOUT)) {
+            addFlight(cluster, "RP200");
+            BookingNode replica = nodes.get(1);
+            assertTrue(replica.isFresh());
+
+            clock.addAndGet(Duration.ofSeconds(3).toNanos());
+            assertFalse(replica.isFresh());
+            assertThrows(IllegalStateException.class, () -> replica.searchFlights("Madrid", DATE));
+
+            // The heartbeat confirms both sides again
+            cluster.getPrimary().heartbeat();
+            assertTrue(replica.isFresh());
+            assertEquals(1, replica.searchFlights("Madrid", DATE).size());
+
+            // A replica the primary cannot reach goes stale; cluster reads fall back to the primary
+            transport.disconnect(replica.getNodeId());
+            clock.addAndGet(Duration.ofSeconds(3).toNanos());
+            cluster.getPrimary().heartbeat();
+            assertFalse(replica.isFresh());
+            assertFalse(cluster.getPrimary().isFresh());
+            assertThrows(IllegalStateException.class, () -> cluster.searchFlights("Madrid", DATE));
+        }
+    }
+
+    @Test
+    void testFailoverKeepsAcknowledgedBookings() {
+        LocalTransport transport = new LocalTransport();
+        try (BookingCluster cluster = new BookingCluster(transport, 3, 1, Duration.ofMinutes(1), ACK_TIMEOUT)) {
+            Flight flight = addFlight(cluster, "RP300");
+            BookingNode oldPrimary = cluster.getPrimary();
+            BookingNode lagging = cluster.getReplicas().get(0);
+            List<Reservation> acknowledged = new ArrayList<>();
+            acknowledged.add(cluster.writes().bookFlight("Cy Moss", flight, 2));
+
+            // One replica drops out; the others keep acknowledging
+            transport.disconnect(lagging.getNodeId());
+            for (int i = 0; i < 5; i++) {
+                acknowledged.add(cluster.writes().bookFlight("Cy Moss", flight, 1));
+            }
+            // Then the primary fails
+            transport.disconnect(oldPrimary.getNodeId());
+            BookingNode promoted = cluster.failover();
+            assertFalse(lagging == promoted, "The lagging replica must not be promoted");
+            assertEquals(BookingNode.Role.PRIMARY, promoted.getRole());
+            assertTrue(promoted.getEpoch() > oldPrimary.getEpoch());
+
+            List<Reservation> found = promoted.getCustomerReservations("Cy Moss");
+            assertEquals(acknowledged.size(), found.size());
+            Flight promotedFlight = promoted.getFlightService().getFlight("RP300");
+            assertEquals(43, promotedFlight.getAvailableSeats());
+            Reservation afterFailover = cluster.writes().bookFlight("Cy Moss", promotedFlight, 1);
+            assertNotNull(afterFailover);
+
+            // The deposed primary is refused by the new epoch and fenced
+            assertThrows(UncheckedIOException.class, () -> oldPrimary.getFlightService().bookFlight("Cy Moss", flight, 1));
+            assertEquals(BookingNode.Role.FENCED, oldPrimary.getRole());
+
+            // The lagging replica comes back and is caught up by the next heartbeat
+            transport.reconnect(lagging.getNodeId());
+            cluster.getPrimary().heartbeat();
+            assertEquals(promoted.getSequence(), lagging.getSequence());
+            assertEquals(acknowledged.size() + 1, lagging.getCustomerReservations("Cy Moss").size());
+            assertEquals(42, lagging.getFlightService().getFlight("RP300").getAvailableSeats());
+        }
+    }
+
+    @Test
+    void testPrimaryWithoutEnoughReplicasIsFenced() {
+        LocalTransport transport = new LocalTransport();
+        try (BookingCluster cluster = new BookingCluster(transport, 2, 1, Duration.ofMinutes(1), Duration.ofMillis(100))) {
+            Flight flight = addFlight(cluster, "RP400");
+            for (BookingNode replica : cluster.getReplicas()) {
+                transport.disconnect(replica.getNodeId());
+            }
+            assertThrows(UncheckedIOException.class, () -> cluster.writes().bookFlight("Di Roe", flight, 4));
+            assertEquals(50, flight.getAvailableSeats());
+            assertEquals(BookingNode.Role.FENCED, cluster.getPrimary().getRole());
+            assertThrows(IllegalStateException.class, () -> cluster.writes().bookFlight("Di Roe", flight, 1));
+        }
+    }
+}
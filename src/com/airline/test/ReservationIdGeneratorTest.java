@@ -0,0 +1,91 @@
+package com.airline.test;
+
+import com.airline.model.BlockIdGenerator;
+import com.airline.model.ReservationIdGenerator;
+import com.airline.model.SequentialIdGenerator;
+import com.airline.model.TimeOrderedIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationIdGeneratorTest {
+
+    @Test
+    void testSequentialFormat() {
+        SequentialIdGenerator generator = new SequentialIdGenerator("RES", 4, 9_999);
+
+        assertEquals("RES9999", generator.nextId());
+        // Grows past four digits instead of wrapping or truncating
+        assertEquals("RES10000", generator.nextId());
+        assertEquals("RES0001", new SequentialIdGenerator().nextId());
+    }
+
+    @Test
+    void testFormatPadding() {
+        assertEquals("RES0000", ReservationIdGenerator.format("RES", 0, 4));
+        assertEquals("RES0042", ReservationIdGenerator.format("RES", 42, 4));
+        assertEquals("X9223372036854775807", ReservationIdGenerator.format("X", Long.MAX_VALUE, 4));
+    }
+
+    @Test
+    void testBlockGeneratorHandsOutRanges() {
+        BlockIdGenerator generator = new BlockIdGenerator(3);
+
+        assertEquals("RES0001", generator.nextId());
+        assertEquals("RES0002", generator.nextId());
+        assertEquals("RES0003", generator.nextId());
+        assertEquals("RES0004", generator.nextId());
+        assertEquals(7, generator.allocateBlock(10));
+    }
+
+    @Test
+    void testTimeOrderedIdsSortByCreation() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(5);
+        String previous = generator.nextId();
+        for (int i = 0; i < 100_000; i++) {
+            String next = generator.nextId();
+            assertTrue(next.compareTo(previous) > 0, next + " should sort after " + previous);
+            previous = next;
+        }
+        assertThrows(IllegalArgumentException.class, () -> new TimeOrderedIdGenerator(1024));
+    }
+
+    @Test
+    void testTimeOrderedIdsDifferAcrossNodes() {
+        TimeOrderedIdGenerator first = new TimeOrderedIdGenerator(1);
+        TimeOrderedIdGenerator second = new TimeOrderedIdGenerator(2);
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(ids.add(first.nextId()));
+            assertTrue(ids.add(second.nextId()));
+        }
+    }
+
+    @Test
+    void testConcurrentIdsAreUnique() throws Exception {
+        List<ReservationIdGenerator> generators = List.of(
+                new SequentialIdGenerator(), new BlockIdGenerator(64), new TimeOrderedIdGenerator(0));
+        for (ReservationIdGenerator generator : generators) {
+            Set<String> ids = ConcurrentHashMap.newKeySet();
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(8 * 20_000, ids.size(), generator.getClass().getSimpleName() + " produced duplicates");
+        }
+    }
+}
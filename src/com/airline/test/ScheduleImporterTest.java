@@ -0,0 +1,209 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.persistence.BookingJournal;
+import com.airline.persistence.ScheduleImporter;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleImporterTest {
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("schedule-test");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static void assertSameSchedule(List<Flight> expected, List<Flight> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Flight want = expected.get(i);
+            Flight got = actual.get(i);
+            assertEquals(want.getFlightNumber(), got.getFlightNumber());
+            assertEquals(want.getOrigin(), got.getOrigin());
+            assertEquals(want.getDestination(), got.getDestination());
+            assertEquals(want.getDepartureTime(), got.getDepartureTime());
+            assertEquals(want.getArrivalTime(), got.getArrivalTime());
+            assertEquals(want.getCapacity(), got.getCapacity());
+        }
+    }
+
+    private static List<Flight> sampleFlights() {
+        LocalDateTime departure = LocalDateTime.of(2024, 2, 29, 23, 55);
+        return List.of(
+                new Flight("AA101", "Boston", "New York", departure, departure.plusMinutes(75), 150),
+                new Flight("LX8", "Zürich", "São Paulo", departure.plusDays(1), null, 220),
+                new Flight("QF1", "Sydney", departure.plusHours(3), 300),
+                new Flight("XY9", "Washington, D.C.", "Say \"Hi\" Island", departure, departure.plusHours(2), 12));
+    }
+
+    @Test
+    void testCsvRoundTripAndLoad() throws IOException {
+        Path file = directory.resolve("schedule.csv");
+        List<Flight> flights = sampleFlights();
+        ScheduleImporter.writeCsv(file, flights);
+        assertSameSchedule(flights, ScheduleImporter.readCsv(file));
+
+        FlightService service = new FlightService(BookingLog.NONE);
+        assertEquals(4, ScheduleImporter.load(file, service));
+        assertEquals(1, service.searchFlights("New York", LocalDate.of(2024, 2, 29)).size());
+        assertEquals("São Paulo", service.suggestDestinations("sao", LocalDateTime.of(2024, 1, 1, 0, 0), 5).get(0).destination());
+    }
+
+    @Test
+    void testBinaryRoundTrip() throws IOException {
+        Path file = directory.resolve("schedule.bin");
+        List<Flight> flights = sampleFlights();
+        ScheduleImporter.writeBinary(file, flights);
+        assertSameSchedule(flights, ScheduleImporter.readBinary(file));
+        // read picks the format from the file itself
+        assertSameSchedule(flights, ScheduleImporter.read(file));
+
+        Flight seconds = new Flight("AB1", "Oslo", LocalDateTime.of(2024, 1, 1, 8, 0, 30), 50);
+        assertThrows(IllegalArgumentException.class, () -> ScheduleImporter.writeBinary(file, List.of(seconds)));
+    }
+
+    @Test
+    void testCorruptAirportIndexIsRejected() throws IOException {
+        Path file = directory.resolve("corrupt.bin");
+        List<Flight> flights = sampleFlights();
+        ScheduleImporter.writeBinary(file, flights);
+        byte[] bytes = Files.readAllBytes(file);
+        // The last record's destination index, 20 bytes into its 36
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 36 + 20, 1_000);
+        Files.write(file, bytes);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ScheduleImporter.readBinary(file));
+        assertTrue(e.getMessage().startsWith("Corrupt binary schedule record 3:"), e.getMessage());
+
+        // Records in later chunks are numbered from the start of the file
+        List<Flight> many = new ArrayList<>();
+        LocalDateTime departure = LocalDateTime.of(2024, 3, 1, 6, 0);
+        for (int i = 0; i < 60_000; i++) {
+            many.add(new Flight("FL" + i, "Origin" + (i % 7), "Destination" + (i % 13), departure.plusMinutes(i), null, 100));
+        }
+        ScheduleImporter.writeBinary(file, many);
+        bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 36 + 20, 1_000);
+        Files.write(file, bytes);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            e = assertThrows(IllegalArgumentException.class, () -> ScheduleImporter.read(file, pool));
+            assertTrue(e.getMessage().startsWith("Corrupt binary schedule record 59999:"), e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testCsvFieldsWithLineBreaksAreRejected() throws IOException {
+        Path file = directory.resolve("breaks.csv");
+        LocalDateTime departure = LocalDateTime.of(2024, 3, 1, 6, 0);
+        for (String destination : List.of("New\nYork", "New\r\nYork")) {
+            List<Flight> flights = List.of(new Flight("AA1", "Boston", destination, departure, null, 100));
+            assertThrows(IllegalArgumentException.class, () -> ScheduleImporter.writeCsv(file, flights));
+        }
+        // Quotes and commas still round-trip, in every chunk
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < 40_000; i++) {
+            flights.add(new Flight("FL" + i, "Washington, D.C.", "Say \"Hi\" Island " + i % 5, departure.plusMinutes(i), null, 100));
+        }
+        ScheduleImporter.writeCsv(file, flights);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertSameSchedule(flights, ScheduleImporter.read(file, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testLinesAcrossChunkBoundaries() throws IOException {
+        // Large enough for several 1 MB chunks, so lines straddle chunk edges
+        Path file = directory.resolve("large.csv");
+        List<Flight> flights = new ArrayList<>();
+        LocalDateTime first = LocalDateTime.of(2024, 3, 1, 6, 0);
+        for (int i = 0; i < 60_000; i++) {
+            flights.add(new Flight("FL" + i, "Origin" + (i % 7), "Destination" + (i % 13), first.plusMinutes(i * 5L),
+                    i % 3 == 0 ? null : first.plusMinutes(i * 5L + 90), 100 + i % 50));
+        }
+        ScheduleImporter.writeCsv(file, flights);
+        assertTrue(Files.size(file) > 3 << 20);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            assertSameSchedule(flights, ScheduleImporter.read(file, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testMalformedLinesAreRejected() throws IOException {
+        Path file = directory.resolve("bad.csv");
+        String header = "flightNumber,origin,destination,departureTime,arrivalTime,capacity\r\n";
+        Files.writeString(file, header + "# comment\r\n\r\nAA1,,Rome,2024-01-15 10:30,,90\r\n", StandardCharsets.UTF_8);
+        List<Flight> flights = ScheduleImporter.readCsv(file);
+        assertEquals(1, flights.size());
+        assertNull(flights.get(0).getOrigin());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 30), flights.get(0).getDepartureTime());
+
+        for (String line : List.of("AA1,,Rome,2023-02-29T10:30,,90", "AA1,,Rome,2024-01-15T10:30,,0",
+                "AA1,,Rome,2024-01-15T10:30,90", "AA1,,,2024-01-15T10:30,,90", "AA1,,Rome,15/01/2024 10:30,,90")) {
+            Files.writeString(file, header + line + "\n", StandardCharsets.UTF_8);
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ScheduleImporter.readCsv(file));
+            assertTrue(e.getMessage().contains("byte " + header.length()), e.getMessage());
+        }
+    }
+
+    @Test
+    void testBulkAddIsJournaled() throws IOException {
+        Path journalFile = directory.resolve("bookings.journal");
+        FlightService service = BookingJournal.recover(journalFile, false);
+        service.addFlights(sampleFlights());
+        service.bookFlight("Ann Lee", service.getFlight("LX8"), 2);
+        ((BookingJournal) service.getBookingLog()).close();
+
+        FlightService recovered = BookingJournal.recover(journalFile, false);
+        assertSameSchedule(sampleFlights(), new ArrayList<>(recovered.getAllFlights()));
+        assertEquals(218, recovered.getFlight("LX8").getAvailableSeats());
+        ((BookingJournal) recovered.getBookingLog()).close();
+    }
+
+    @Test
+    void testBulkAddRejectsDuplicatesAtomically() {
+        FlightService service = new FlightService(BookingLog.NONE);
+        service.addFlight(new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150));
+        List<Flight> batch = List.of(new Flight("BA201", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 200),
+                new Flight("AA101", "Paris", LocalDateTime.of(2024, 1, 17, 9, 0), 100));
+        assertThrows(IllegalArgumentException.class, () -> service.addFlights(batch));
+        assertNull(service.getFlight("BA201"));
+        assertEquals(1, service.getAllFlights().size());
+
+        service.addFlights(List.of(batch.get(0)));
+        assertEquals(1, service.searchFlights("London", LocalDate.of(2024, 1, 16)).size());
+    }
+}
@@ -0,0 +1,129 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import com.airline.service.SearchCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCacheTest {
+    private static final LocalDateTime MORNING = LocalDateTime.of(2024, 6, 1, 8, 0);
+    private static final LocalDate DAY = MORNING.toLocalDate();
+
+    private FlightService flightService;
+    private SearchCache cache;
+    private Flight first;
+    private Flight second;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService(BookingLog.NONE);
+        cache = flightService.getSearchCache();
+        first = new Flight("NY1", "New York", MORNING, 2);
+        second = new Flight("NY2", "New York", MORNING.plusHours(6), 100);
+        flightService.addFlight(first);
+        flightService.addFlight(second);
+    }
+
+    @Test
+    void testRepeatedSearchesHitTheCache() {
+        assertEquals(List.of(first, second), flightService.searchFlights("New York", DAY));
+        assertEquals(List.of(first, second), flightService.searchFlights("new york", DAY));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(0.5, cache.getHitRatio(), 1e-9);
+
+        // Callers get their own copy
+        flightService.searchFlights("New York", DAY).clear();
+        assertEquals(2, flightService.searchFlights("New York", DAY).size());
+
+        cache.setEnabled(false);
+        assertEquals(List.of(first, second), flightService.searchFlights("New York", DAY));
+        assertEquals(3, cache.getHits());
+    }
+
+    @Test
+    void testSellOutsAndReleasesShowAtOnce() {
+        flightService.searchFlights("New York", DAY);
+        Reservation reservation = flightService.bookFlight("Ann Lee", first, 2);
+        assertEquals(List.of(second), flightService.searchFlights("New York", DAY));
+
+        assertTrue(flightService.cancelReservation(reservation));
+        assertEquals(List.of(first, second), flightService.searchFlights("New York", DAY));
+        // Bookings that leave seats do not touch the entry
+        long invalidations = cache.getInvalidations();
+        flightService.bookFlight("Bo Chen", second, 5);
+        assertEquals(invalidations, cache.getInvalidations());
+        assertEquals(List.of(first, second), flightService.searchFlights("New York", DAY));
+    }
+
+    @Test
+    void testAddedAndRescheduledFlightsInvalidateTheirKeys() {
+        flightService.searchFlights("New York", DAY);
+        flightService.searchFlights("Boston", DAY);
+        Flight third = new Flight("NY3", "New York", MORNING.plusHours(9), 50);
+        flightService.addFlight(third);
+        assertEquals(List.of(first, second, third), flightService.searchFlights("New York", DAY));
+
+        second.setDestination("Boston");
+        assertEquals(List.of(first, third), flightService.searchFlights("New York", DAY));
+        assertEquals(List.of(second), flightService.searchFlights("Boston", DAY));
+
+        third.setDepartureTime(MORNING.plusDays(1));
+        assertEquals(List.of(first), flightService.searchFlights("New York", DAY));
+        assertEquals(List.of(third), flightService.searchFlights("New York", DAY.plusDays(1)));
+
+        flightService.addFlights(List.of(new Flight("BO9", "Boston", MORNING.plusHours(1), 10)));
+        assertEquals(2, flightService.searchFlights("Boston", DAY).size());
+    }
+
+    @Test
+    void testCacheStaysBounded() {
+        for (int day = 0; day < 3 * cache.getCapacity(); day++) {
+            flightService.searchFlights("New York", DAY.plusDays(day));
+            flightService.searchFlights("New York", DAY);
+        }
+        assertTrue(cache.size() <= cache.getCapacity());
+        // The key asked for every time survives the stream of one-off searches
+        long hits = cache.getHits();
+        assertEquals(2, flightService.searchFlights("New York", DAY).size());
+        assertEquals(hits + 1, cache.getHits());
+    }
+
+    @Test
+    void testNoStaleResultsWhileFlightsMove() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread mover = new Thread(() -> {
+            boolean away = false;
+            while (running.get()) {
+                second.setDestination(away ? "New York" : "Boston");
+                away = !away;
+            }
+        });
+        mover.start();
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                for (Flight flight : flightService.searchFlights("Boston", DAY)) {
+                    assertEquals(second, flight);
+                }
+                flightService.searchFlights("New York", DAY);
+            }
+        } finally {
+            running.set(false);
+            mover.join();
+        }
+        // Whatever the interleaving, once the flight stops moving both keys agree with it
+        boolean inBoston = "Boston".equals(second.getDestination());
+        assertEquals(inBoston ? List.of(first) : List.of(first, second), flightService.searchFlights("New York", DAY));
+        assertEquals(inBoston ? List.of(second) : List.of(), flightService.searchFlights("Boston", DAY));
+    }
+}
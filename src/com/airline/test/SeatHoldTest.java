@@ -0,0 +1,198 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.model.SeatMap;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import com.airline.service.HoldMetrics;
+import com.airline.service.HoldTimer;
+import com.airline.service.SeatHold;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatHoldTest {
+    private final AtomicLong clock = new AtomicLong();
+    private FlightService flightService;
+    private HoldTimer timer;
+    private Flight flight;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService(BookingLog.NONE);
+        // One-second ticks on a small wheel, so a few holds wrap around it
+        timer = new HoldTimer(Duration.ofSeconds(1), 8, clock::get);
+        flightService.setHoldTimer(timer);
+        flight = new Flight("BA201", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 10);
+        flightService.addFlight(flight);
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightService.close();
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+        timer.advance();
+    }
+
+    @Test
+    void testAbandonedHoldReleasesSeats() {
+        SeatHold hold = flightService.holdSeats("Jane Doe", flight, 4, Duration.ofMinutes(10));
+        assertEquals(6, flight.getAvailableSeats());
+        assertEquals(1, flightService.getHoldMetrics().activeHolds());
+
+        advance(Duration.ofMinutes(9));
+        assertEquals(SeatHold.Status.HELD, hold.getStatus());
+        advance(Duration.ofMinutes(1).plusSeconds(1));
+        assertEquals(SeatHold.Status.EXPIRED, hold.getStatus());
+        assertEquals(10, flight.getAvailableSeats());
+        assertThrows(IllegalStateException.class, () -> flightService.confirmHold(hold));
+
+        HoldMetrics metrics = flightService.getHoldMetrics();
+        assertEquals(0, metrics.activeHolds());
+        assertEquals(1, metrics.expired());
+        assertEquals(1, timer.getExpiredCount());
+        assertNull(flightService.getHold(hold.getHoldId()));
+    }
+
+    @Test
+    void testConfirmAndReleaseEndTheHold() {
+        SeatHold confirmed = flightService.holdSeats("Jane Doe", flight, 2, Duration.ofSeconds(30));
+        SeatHold released = flightService.holdSeats("John Doe", flight, 3, Duration.ofSeconds(30));
+        assertEquals(5, flight.getAvailableSeats());
+        assertThrows(IllegalArgumentException.class, () -> flightService.holdSeats("Late", flight, 6, Duration.ofSeconds(30)));
+
+        Reservation reservation = flightService.confirmHold(confirmed);
+        assertEquals(2, reservation.getSeatsBooked());
+        assertEquals(List.of(reservation), flightService.getCustomerReservations("Jane Doe"));
+        assertTrue(flightService.releaseHold(released));
+        assertFalse(flightService.releaseHold(released));
+        assertThrows(IllegalStateException.class, () -> flightService.confirmHold(confirmed));
+        assertEquals(8, flight.getAvailableSeats());
+
+        // Ended holds stay in the wheel until their bucket comes round, but are not expired again
+        advance(Duration.ofMinutes(1));
+        assertEquals(8, flight.getAvailableSeats());
+        HoldMetrics metrics = flightService.getHoldMetrics();
+        assertEquals(2, metrics.placed());
+        assertEquals(1, metrics.confirmed());
+        assertEquals(1, metrics.released());
+        assertEquals(0, metrics.expired());
+    }
+
+    @Test
+    void testHoldsLongerThanOneTurnOfTheWheel() {
+        SeatHold shortHold = flightService.holdSeats("A", flight, 1, Duration.ofSeconds(3));
+        SeatHold longHold = flightService.holdSeats("B", flight, 1, Duration.ofSeconds(19));
+        for (int second = 1; second <= 18; second++) {
+            advance(Duration.ofSeconds(1));
+        }
+        assertEquals(SeatHold.Status.EXPIRED, shortHold.getStatus());
+        assertEquals(SeatHold.Status.HELD, longHold.getStatus());
+        advance(Duration.ofSeconds(2));
+        assertEquals(SeatHold.Status.EXPIRED, longHold.getStatus());
+
+        // A hold that is due but not yet swept cannot be confirmed either
+        SeatHold due = flightService.holdSeats("C", flight, 1, Duration.ofSeconds(5));
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertThrows(IllegalStateException.class, () -> flightService.confirmHold(due));
+        assertEquals(10, flight.getAvailableSeats());
+
+        // A stalled timer catches up in one pass and reports how far behind it was
+        flightService.holdSeats("D", flight, 1, Duration.ofSeconds(2));
+        advance(Duration.ofSeconds(30));
+        assertEquals(10, flight.getAvailableSeats());
+        assertTrue(flightService.getHoldMetrics().maxExpiryLagNanos() >= TimeUnit.SECONDS.toNanos(28));
+    }
+
+    @Test
+    void testSeatMapHoldsKeepTheirSeats() {
+        try (FlightService seated = new FlightService(BookingLog.NONE)) {
+            seated.setHoldTimer(new HoldTimer(Duration.ofSeconds(1), 8, clock::get));
+            Flight widebody = new Flight("QF1", "Sydney", LocalDateTime.of(2024, 2, 1, 16, 0), 12);
+            widebody.setSeatMap(new SeatMap("Y1-2:ABC-DEF"));
+            seated.addFlight(widebody);
+
+            SeatHold hold = seated.holdSeats("Ann Lee", widebody, List.of("1A", "1B"), Duration.ofMinutes(5));
+            assertFalse(widebody.getSeatMap().isAvailable("1A"));
+            assertThrows(IllegalArgumentException.class, () -> seated.bookFlight("Bob", widebody, List.of("1B")));
+            Reservation reservation = seated.confirmHold(hold);
+            assertEquals(List.of("1A", "1B"), reservation.getSeatNumbers());
+
+            SeatHold abandoned = seated.holdSeats("Cy", widebody, 3, Duration.ofMinutes(5));
+            assertEquals(3, abandoned.getSeatNumbers().size());
+            clock.addAndGet(Duration.ofMinutes(6).toNanos());
+            seated.getHoldTimer().advance();
+            assertEquals(10, widebody.getSeatMap().getAvailableSeatCount());
+            assertEquals(10, widebody.getAvailableSeats());
+        }
+    }
+
+    @Test
+    void testBackgroundTimerExpiresHolds() throws InterruptedException {
+        try (FlightService live = new FlightService(BookingLog.NONE);
+             HoldTimer background = new HoldTimer(Duration.ofMillis(10), 64, System::nanoTime).start()) {
+            live.setHoldTimer(background);
+            Flight flight = new Flight("EK401", "Dubai", LocalDateTime.of(2024, 1, 15, 22, 10), 100);
+            live.addFlight(flight);
+            SeatHold hold = live.holdSeats("Jane Doe", flight, 5, Duration.ofMillis(50));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (hold.getStatus() == SeatHold.Status.HELD && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(SeatHold.Status.EXPIRED, hold.getStatus());
+            assertEquals(100, flight.getAvailableSeats());
+        }
+    }
+
+    @Test
+    void testCloseStopsTheTimerTheServiceStarted() {
+        Set<Thread> before = timerThreads();
+        FlightService service = new FlightService(BookingLog.NONE);
+        Flight flight = new Flight("EK402", "Dubai", LocalDateTime.of(2024, 1, 15, 22, 10), 100);
+        service.addFlight(flight);
+        service.holdSeats("Jane Doe", flight, 5, Duration.ofMinutes(5));
+        Set<Thread> started = timerThreads();
+        started.removeAll(before);
+        assertEquals(1, started.size());
+
+        service.close();
+        assertFalse(started.iterator().next().isAlive());
+        FlightService closed = new FlightService(BookingLog.NONE);
+        closed.close();
+        assertThrows(IllegalStateException.class, closed::getHoldTimer);
+
+        // A timer handed to the service belongs to the caller
+        try (HoldTimer background = new HoldTimer(Duration.ofMillis(10), 64, System::nanoTime).start()) {
+            FlightService borrowing = new FlightService(BookingLog.NONE);
+            borrowing.setHoldTimer(background);
+            borrowing.close();
+            assertSame(background, borrowing.getHoldTimer());
+            assertEquals(before.size() + 1, timerThreads().size());
+        }
+    }
+
+    private static Set<Thread> timerThreads() {
+        Set<Thread> timers = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().equals("seat-hold-timer")) {
+                timers.add(thread);
+            }
+        }
+        return timers;
+    }
+}
@@ -0,0 +1,156 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.model.SeatMap;
+import com.airline.model.SeatMap.CabinClass;
+import com.airline.model.SeatMap.SeatAttribute;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.BookingResult;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapTest {
+    // 2 business rows of 4 and 3 economy rows of 6 with an exit row
+    private static final String LAYOUT = "J1-2:AC-DF;Y10-12:ABC-DEF@11";
+
+    @Test
+    void testLayoutCabinsAndAttributes() {
+        SeatMap seatMap = new SeatMap(LAYOUT);
+        assertEquals(26, seatMap.getSeatCount());
+        assertEquals(26, seatMap.getAvailableSeatCount());
+        assertEquals(CabinClass.BUSINESS, seatMap.getCabin("1A"));
+        assertEquals(CabinClass.ECONOMY, seatMap.getCabin("12f"));
+        assertEquals(EnumSet.of(SeatAttribute.WINDOW), seatMap.getAttributes("10A"));
+        assertEquals(EnumSet.of(SeatAttribute.MIDDLE), seatMap.getAttributes("10B"));
+        assertEquals(EnumSet.of(SeatAttribute.AISLE), seatMap.getAttributes("10D"));
+        assertEquals(EnumSet.of(SeatAttribute.AISLE, SeatAttribute.EXIT_ROW), seatMap.getAttributes("11C"));
+
+        assertThrows(IllegalArgumentException.class, () -> seatMap.getCabin("3A"));
+        assertThrows(IllegalArgumentException.class, () -> seatMap.getCabin("10G"));
+        assertThrows(IllegalArgumentException.class, () -> new SeatMap("Q1-2:AB"));
+        assertThrows(IllegalArgumentException.class, () -> new SeatMap("Y1-2:AB;J2:CD"));
+    }
+
+    @Test
+    void testAdjacentSeatsNeverCrossAnAisle() {
+        SeatMap seatMap = new SeatMap(LAYOUT);
+        assertEquals(List.of("10A", "10B", "10C"), seatMap.allocateAdjacent(3, CabinClass.ECONOMY));
+        assertEquals(List.of("10D", "10E", "10F"), seatMap.allocateAdjacent(3, CabinClass.ECONOMY));
+        assertEquals(List.of("1A", "1C"), seatMap.allocateAdjacent(2, null));
+        // No block seats four, and allocate falls back to the first free seats without taking any on failure
+        assertNull(seatMap.allocateAdjacent(4, CabinClass.ECONOMY));
+        assertEquals(List.of("11A", "11B", "11C", "11D"), seatMap.allocate(4, CabinClass.ECONOMY));
+        assertNull(seatMap.allocate(7, CabinClass.BUSINESS));
+        assertEquals(14, seatMap.getAvailableSeatCount());
+
+        // A gap left by a released seat is found again
+        seatMap.release(List.of("10B"));
+        assertTrue(seatMap.isAvailable("10B"));
+        assertEquals(List.of("10B"), seatMap.allocateAdjacent(1, CabinClass.ECONOMY));
+    }
+
+    @Test
+    void testClaimIsAllOrNothing() {
+        SeatMap seatMap = new SeatMap(LAYOUT);
+        assertTrue(seatMap.claim(List.of("12A", "12B")));
+        assertFalse(seatMap.claim(List.of("12C", "2D", "12B")));
+        assertTrue(seatMap.isAvailable("12C"));
+        assertTrue(seatMap.isAvailable("2D"));
+        assertThrows(IllegalArgumentException.class, () -> seatMap.claim(List.of("12E", "12E")));
+        assertEquals(24, seatMap.getAvailableSeatCount());
+    }
+
+    @Test
+    void testReservationsRecordTheirSeats() {
+        FlightService flightService = new FlightService(BookingLog.NONE);
+        Flight flight = new Flight("QF1", "Sydney", "London", LocalDateTime.of(2024, 2, 1, 16, 0),
+                LocalDateTime.of(2024, 2, 2, 5, 0), 26);
+        flight.setSeatMap(new SeatMap(LAYOUT));
+        flightService.addFlight(flight);
+
+        Reservation family = flightService.bookFlight("Family", flight, 3, CabinClass.ECONOMY);
+        assertEquals(List.of("10A", "10B", "10C"), family.getSeatNumbers());
+        Reservation chosen = flightService.bookFlight("Window Fan", flight, List.of("2A"));
+        assertEquals(List.of("2A"), chosen.getSeatNumbers());
+        assertEquals(22, flight.getAvailableSeats());
+
+        // A taken seat fails the whole request and leaves the count unchanged
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("Late", flight, List.of("2C", "2A")));
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("Late", flight, List.of("40A")));
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("Late", flight, 8, CabinClass.BUSINESS));
+        assertEquals(22, flight.getAvailableSeats());
+        assertTrue(flight.getSeatMap().isAvailable("2C"));
+
+        List<BookingResult> batch = flightService.bookFlights(List.of(
+                new BookingRequest("Agent 1", flight, 2), new BookingRequest("Agent 2", flight, 1)), false);
+        assertEquals(2, batch.get(0).getReservation().getSeatNumbers().size());
+        assertEquals(19, flight.getSeatMap().getAvailableSeatCount());
+
+        assertTrue(flightService.cancelReservation(family));
+        assertTrue(flight.getSeatMap().isAvailable("10B"));
+        assertEquals(22, flight.getAvailableSeats());
+        assertEquals(22, flight.getSeatMap().getAvailableSeatCount());
+
+        assertThrows(IllegalArgumentException.class, () -> new Flight("QF2", "London", LocalDateTime.of(2024, 2, 1, 9, 0), 30)
+                .setSeatMap(new SeatMap(LAYOUT)));
+    }
+
+    @Test
+    void testConcurrentPickersNeverShareASeat() throws Exception {
+        FlightService flightService = new FlightService(BookingLog.NONE);
+        SeatMap seatMap = new SeatMap("Y1-60:ABC-DEFG-HJK");
+        Flight flight = new Flight("EK1", "Dubai", LocalDateTime.of(2024, 3, 1, 8, 0), seatMap.getSeatCount());
+        flight.setSeatMap(seatMap);
+        flightService.addFlight(flight);
+
+        int threads = 8;
+        Set<String> seats = ConcurrentHashMap.newKeySet();
+        List<Throwable> errors = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int groupSize = 1 + t % 3;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    while (true) {
+                        Reservation reservation = flightService.bookFlight("Picker", flight, groupSize);
+                        for (String seat : reservation.getSeatNumbers()) {
+                            assertTrue(seats.add(seat), "seat handed out twice: " + seat);
+                        }
+                    }
+                } catch (IllegalArgumentException soldOut) {
+                    // Expected once the cabin is full
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTrue(errors.isEmpty(), "errors: " + errors);
+        // Single-seat pickers keep going until the cabin is full
+        assertEquals(0, flight.getAvailableSeats());
+        assertEquals(0, seatMap.getAvailableSeatCount());
+        assertEquals(seatMap.getSeatCount(), seats.size());
+    }
+}
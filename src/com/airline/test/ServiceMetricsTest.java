@@ -0,0 +1,143 @@
+package com.airline.test;
+
+import com.airline.metrics.ConcurrentHistogram;
+import com.airline.metrics.HistogramSnapshot;
+import com.airline.metrics.LogLinearBuckets;
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import com.airline.service.SeatHold;
+import com.airline.service.ServiceMetrics;
+import com.airline.service.ServiceMetrics.Failure;
+import com.airline.service.ServiceMetrics.Operation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceMetricsTest {
+    private FlightService flightService;
+    private ServiceMetrics metrics;
+    private Flight flight;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService(BookingLog.NONE);
+        metrics = flightService.getMetrics();
+        flight = new Flight("BA201", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 5);
+        flightService.addFlight(flight);
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightService.close();
+    }
+
+    @Test
+    void testHistogramPercentilesStayWithinBucketPrecision() {
+        ConcurrentHistogram histogram = new ConcurrentHistogram(4);
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        histogram.record(-5);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(100_001, snapshot.getCount());
+        assertEquals(100_000_000, snapshot.getMax());
+        assertEquals(50_000_000, snapshot.percentile(50), 50_000_000 * 0.04);
+        assertEquals(99_000_000, snapshot.percentile(99), 99_000_000 * 0.04);
+        assertEquals(0, new ConcurrentHistogram().snapshot().percentile(99));
+    }
+
+    @Test
+    void testBucketBoundsAreContiguous() {
+        int buckets = LogLinearBuckets.count(62);
+        assertEquals(buckets - 1, LogLinearBuckets.index(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, LogLinearBuckets.upperBound(buckets - 1));
+        for (int i = 0; i < buckets - 1; i++) {
+            long bound = LogLinearBuckets.upperBound(i);
+            assertEquals(i, LogLinearBuckets.index(bound));
+            assertEquals(i + 1, LogLinearBuckets.index(bound + 1));
+        }
+    }
+
+    @Test
+    void testConcurrentRecordingLosesNothing() throws InterruptedException {
+        ConcurrentHistogram histogram = new ConcurrentHistogram(2);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(i % 1_000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(200_000, snapshot.getCount());
+        assertEquals(4L * 50 * (999 * 1_000 / 2), snapshot.getSum());
+        assertEquals(999, snapshot.getMax());
+    }
+
+    @Test
+    void testCallsAndFailureReasons() {
+        flightService.searchFlights("London", LocalDate.of(2024, 1, 16));
+        Reservation reservation = flightService.bookFlight("Jane Doe", flight, 3);
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("John Doe", flight, 3));
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("John Doe", flight, 0));
+        assertTrue(flightService.cancelReservation(reservation));
+        assertFalse(flightService.cancelReservation(reservation));
+        SeatHold hold = flightService.holdSeats("Ann Lee", flight, 1, Duration.ofMinutes(5));
+        assertTrue(flightService.releaseHold(hold));
+        assertThrows(IllegalStateException.class, () -> flightService.confirmHold(hold));
+
+        assertEquals(1, metrics.getCalls(Operation.SEARCH));
+        assertEquals(3, metrics.getCalls(Operation.BOOK));
+        assertEquals(1, metrics.getFailures(Operation.BOOK, Failure.NOT_ENOUGH_SEATS));
+        assertEquals(1, metrics.getFailures(Operation.BOOK, Failure.INVALID_REQUEST));
+        assertEquals(2, metrics.getCalls(Operation.CANCEL));
+        assertEquals(1, metrics.getFailures(Operation.CANCEL, Failure.NOT_FOUND));
+        assertEquals(1, metrics.getCalls(Operation.HOLD));
+        assertEquals(1, metrics.getFailures(Operation.CONFIRM_HOLD, Failure.HOLD_ENDED));
+        assertEquals(3, metrics.getLatency(Operation.BOOK).getCount());
+        assertTrue(metrics.getLatency(Operation.BOOK).getMax() > 0);
+
+        // Switched off, nothing is recorded
+        metrics.setEnabled(false);
+        flightService.bookFlight("Jane Doe", flight, 1);
+        assertEquals(3, metrics.getCalls(Operation.BOOK));
+    }
+
+    @Test
+    void testExportFormats() {
+        flightService.bookFlight("Jane Doe", flight, 2);
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("John Doe", flight, 9));
+
+        String prometheus = metrics.toPrometheus();
+        assertTrue(prometheus.contains("# TYPE flight_service_latency_seconds summary\n"));
+        assertEquals(1, prometheus.split("# TYPE flight_service_latency_seconds ", -1).length - 1);
+        assertTrue(prometheus.contains("flight_service_latency_seconds_count{operation=\"book\"} 2\n"));
+        assertTrue(prometheus.contains("flight_service_latency_seconds{operation=\"book\",quantile=\"0.99\"} "));
+        assertTrue(prometheus.contains("flight_service_failures_total{operation=\"book\",reason=\"not_enough_seats\"} 1\n"));
+        assertTrue(prometheus.contains("flight_service_contended_seat_updates_total 0\n"));
+        assertTrue(prometheus.contains("flight_service_seat_holds 0\n"));
+        for (String line : prometheus.split("\n")) {
+            assertTrue(line.startsWith("#") || line.matches("[a-z_]+(\\{[^}]*})? \\S+"), line);
+        }
+
+        String text = metrics.toText();
+        assertTrue(text.contains("failed book: not_enough_seats 1"));
+        assertTrue(text.contains("seat holds: 0 open"));
+    }
+}
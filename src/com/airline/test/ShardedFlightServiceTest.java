@@ -0,0 +1,200 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.service.BookingLog;
+import com.airline.service.BookingRequest;
+import com.airline.service.BookingResult;
+import com.airline.service.ShardedFlightService;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedFlightServiceTest {
+
+    private static List<Flight> addFlights(ShardedFlightService sharded, int count, String destination) {
+        List<Flight> flights = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Flight flight = new Flight("SH" + (100 + i), destination, LocalDateTime.of(2024, 5, 1, 6, 0).plusMinutes(37L * (count - i)), 10);
+            sharded.addFlight(flight).join();
+            flights.add(flight);
+        }
+        return flights;
+    }
+
+    @Test
+    void testFlightsAndReservationsLiveOnTheOwningShard() {
+        try (ShardedFlightService sharded = new ShardedFlightService(4)) {
+            List<Flight> flights = addFlights(sharded, 32, "Oslo");
+            Set<Integer> used = new HashSet<>();
+            for (Flight flight : flights) {
+                int shard = sharded.shardOf(flight.getFlightNumber());
+                used.add(shard);
+                assertSame(flight, sharded.getShard(shard).getFlight(flight.getFlightNumber()));
+                assertSame(flight, sharded.getFlight(flight.getFlightNumber()));
+
+                Reservation reservation = sharded.bookFlight("Ann Lee", flight, 2).join();
+                assertEquals(8, flight.getAvailableSeats());
+                for (int other = 0; other < sharded.getShardCount(); other++) {
+                    assertEquals(other == shard ? 1 : 0, sharded.getShard(other).getFlightReservations(flight).size());
+                }
+                assertSame(reservation, sharded.getReservation(reservation.getReservationId()).join());
+            }
+            assertTrue(used.size() > 1, "32 flights should not all hash to one shard");
+            assertNull(sharded.getReservation("NO-SUCH-ID").join());
+        }
+    }
+
+    @Test
+    void testCrossShardReadsAreMerged() {
+        try (ShardedFlightService sharded = new ShardedFlightService(4)) {
+            List<Flight> flights = addFlights(sharded, 12, "Rome");
+            List<Flight> found = sharded.searchFlights("rome", LocalDate.of(2024, 5, 1)).join();
+            assertEquals(12, found.size());
+            for (int i = 1; i < found.size(); i++) {
+                assertFalse(found.get(i).getDepartureTime().isBefore(found.get(i - 1).getDepartureTime()), "Results are in departure order");
+            }
+
+            List<Reservation> booked = new ArrayList<>();
+            for (Flight flight : flights) {
+                booked.add(sharded.bookFlight("Bo Chen", flight, 1).join());
+            }
+            List<Reservation> reservations = sharded.getCustomerReservations("Bo Chen").join();
+            assertEquals(new HashSet<>(booked), new HashSet<>(reservations));
+            assertTrue(sharded.getCustomerReservations("Nobody").join().isEmpty());
+
+            assertTrue(sharded.cancelReservation(booked.get(0)).join());
+            assertFalse(sharded.cancelReservation(booked.get(0)).join());
+            assertEquals(11, sharded.getCustomerReservations("Bo Chen").join().size());
+            assertEquals(10, flights.get(0).getAvailableSeats());
+        }
+    }
+
+    @Test
+    void testConcurrentBookingsNeverOversell() throws Exception {
+        try (ShardedFlightService sharded = new ShardedFlightService(3)) {
+            List<Flight> flights = addFlights(sharded, 6, "Lima");
+            List<CompletableFuture<Reservation>> bookings = new ArrayList<>();
+            List<Thread> clients = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int client = t;
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        CompletableFuture<Reservation> booking = sharded.bookFlight("Client " + client, flights.get(i % flights.size()), 1);
+                        synchronized (bookings) {
+                            bookings.add(booking);
+                        }
+                    }
+                });
+                clients.add(thread);
+                thread.start();
+            }
+            for (Thread thread : clients) {
+                thread.join();
+            }
+            int booked = 0;
+            for (CompletableFuture<Reservation> booking : bookings) {
+                try {
+                    booking.join();
+                    booked++;
+                } catch (CompletionException e) {
+                    assertTrue(e.getCause() instanceof IllegalArgumentException);
+                }
+            }
+            assertEquals(60, booked);
+            for (Flight flight : flights) {
+                assertEquals(0, flight.getAvailableSeats());
+            }
+        }
+    }
+
+    @Test
+    void testAllOrNothingBatchIsUndoneOnEveryShard() {
+        try (ShardedFlightService sharded = new ShardedFlightService(4)) {
+            List<Flight> flights = addFlights(sharded, 8, "Cairo");
+            List<BookingRequest> requests = new ArrayList<>();
+            for (Flight flight : flights) {
+                requests.add(new BookingRequest("Group", flight, 3));
+            }
+            requests.add(new BookingRequest("Group", flights.get(5), 8));
+
+            List<BookingResult> results = sharded.bookFlights(requests, true).join();
+            assertEquals(requests.size(), results.size());
+            for (BookingResult result : results) {
+                assertFalse(result.isSuccess());
+                assertTrue(result.getFailureReason().startsWith("Batch rejected"), result.getFailureReason());
+            }
+            for (Flight flight : flights) {
+                assertEquals(10, flight.getAvailableSeats());
+            }
+            assertTrue(sharded.getCustomerReservations("Group").join().isEmpty());
+
+            results = sharded.bookFlights(requests, false).join();
+            for (int i = 0; i < flights.size(); i++) {
+                assertSame(flights.get(i), results.get(i).getReservation().getFlight());
+            }
+            assertFalse(results.get(flights.size()).isSuccess());
+            assertEquals(flights.size(), sharded.getCustomerReservations("Group").join().size());
+        }
+    }
+
+    @Test
+    void testFailingShardLogUndoesTheOtherShards() {
+        BookingLog failing = new BookingLog() {
+            @Override
+            public void flightAdded(Flight flight) {
+            }
+
+            @Override
+            public void reservationBooked(Reservation reservation) {
+                throw new UncheckedIOException(new IOException("disk full"));
+            }
+
+            @Override
+            public void reservationCancelled(Reservation reservation) {
+            }
+        };
+        try (ShardedFlightService sharded = new ShardedFlightService(2, shard -> shard == 1 ? failing : BookingLog.NONE)) {
+            List<Flight> flights = addFlights(sharded, 8, "Lima");
+            List<BookingRequest> requests = new ArrayList<>();
+            for (Flight flight : flights) {
+                requests.add(new BookingRequest("grp", flight, 1));
+            }
+            assertTrue(requests.stream().anyMatch(request -> sharded.shardOf(request.getFlight().getFlightNumber()) == 0));
+            assertTrue(requests.stream().anyMatch(request -> sharded.shardOf(request.getFlight().getFlightNumber()) == 1));
+
+            for (boolean allOrNothing : new boolean[]{true, false}) {
+                CompletionException error = assertThrows(CompletionException.class, () -> sharded.bookFlights(requests, allOrNothing).join());
+                assertTrue(error.getCause() instanceof UncheckedIOException);
+                for (Flight flight : flights) {
+                    assertEquals(10, flight.getAvailableSeats());
+                }
+                assertTrue(sharded.getCustomerReservations("grp").join().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void testClosedServiceRejectsCalls() {
+        ShardedFlightService sharded = new ShardedFlightService(2);
+        Flight flight = addFlights(sharded, 1, "Quito").get(0);
+        CompletionException error = assertThrows(CompletionException.class, () -> sharded.bookFlight("Al", flight, 11).join());
+        assertTrue(error.getCause() instanceof IllegalArgumentException);
+        sharded.close();
+        error = assertThrows(CompletionException.class, () -> sharded.bookFlight("Al", flight, 1).join());
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+        assertThrows(IllegalArgumentException.class, () -> new ShardedFlightService(0));
+    }
+}
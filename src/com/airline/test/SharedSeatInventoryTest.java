@@ -0,0 +1,195 @@
+package com.airline.test;
+
+import com.airline.inventory.SharedSeatInventory;
+import com.airline.model.Flight;
+import com.airline.model.SeatCounter;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedSeatInventoryTest {
+    private static final int PROCESSES = 4;
+
+    private Path directory;
+    private Path inventoryFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("seat-inventory-test");
+        inventoryFile = directory.resolve("seats.inventory");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testFlightsShareSeatsThroughTheFile() throws IOException {
+        try (SharedSeatInventory first = SharedSeatInventory.open(inventoryFile, 100);
+             SharedSeatInventory second = SharedSeatInventory.open(inventoryFile, 100)) {
+            Flight flight = new Flight("BA201", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 200);
+            Flight otherCopy = new Flight("BA201", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 200);
+            first.attach(flight);
+            // The second copy starts from the shared count, not its own
+            otherCopy.setAvailableSeats(5);
+            second.attach(otherCopy);
+            assertEquals(200, otherCopy.getAvailableSeats());
+
+            assertTrue(flight.bookSeats(150));
+            assertEquals(50, otherCopy.getAvailableSeats());
+            assertFalse(otherCopy.bookSeats(51));
+            otherCopy.releaseSeats(10);
+            assertEquals(60, flight.getAvailableSeats());
+            assertEquals(200, second.capacity("BA201"));
+            assertNull(second.find("XX1"));
+        }
+    }
+
+    @Test
+    void testSearchSeesSeatsFreedByAnotherProcess() throws IOException {
+        try (SharedSeatInventory inventory = SharedSeatInventory.open(inventoryFile, 100)) {
+            FlightService flightService = new FlightService(BookingLog.NONE);
+            Flight flight = new Flight("EK401", "Dubai", LocalDateTime.of(2024, 1, 15, 22, 10), 2);
+            flightService.addFlight(flight);
+            inventory.attach(flight);
+            flightService.bookFlight("John Doe", flight, 2);
+            assertTrue(flightService.searchFlights("Dubai", LocalDate.of(2024, 1, 15)).isEmpty());
+
+            // A release in another process updates the counter without notifying this one
+            inventory.find("EK401").getAndAdd(1);
+            assertEquals(1, flightService.searchFlights("Dubai", LocalDate.of(2024, 1, 15)).size());
+        }
+    }
+
+    @Test
+    void testCountersSurviveACrash() throws Exception {
+        try (SharedSeatInventory inventory = SharedSeatInventory.open(inventoryFile, 100)) {
+            inventory.counter("LH301", 80, 80);
+        }
+        Process process = startBooker("LH301", 80, 30, true, 0);
+        assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+
+        try (SharedSeatInventory reopened = SharedSeatInventory.open(inventoryFile, 100)) {
+            assertEquals(50, reopened.find("LH301").get());
+        }
+    }
+
+    @Test
+    void testClaimAbandonedByADeadProcessIsSkipped() throws IOException {
+        try (SharedSeatInventory inventory = SharedSeatInventory.open(inventoryFile, 100)) {
+            inventory.counter("QF1", 300, 300);
+        }
+        // Put the slot back in the claiming state, as if its process died before publishing it
+        int stateOffset = -1;
+        try (FileChannel channel = FileChannel.open(inventoryFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.order(ByteOrder.nativeOrder());
+            byte[] key = "QF1".getBytes(StandardCharsets.UTF_8);
+            for (int slot = 64; slot < buffer.capacity(); slot += 32) {
+                if (buffer.getInt(slot) != 0 && buffer.get(slot + 12) == key.length && buffer.get(slot + 13) == key[0]
+                        && buffer.get(slot + 14) == key[1] && buffer.get(slot + 15) == key[2]) {
+                    stateOffset = slot;
+                    buffer.putInt(slot, 1);
+                }
+            }
+            buffer.force();
+        }
+        assertTrue(stateOffset > 0);
+
+        try (SharedSeatInventory reopened = SharedSeatInventory.open(inventoryFile, 100)) {
+            // The lookup gives up on the claim instead of waiting for it forever
+            assertNull(reopened.find("QF1"));
+            SeatCounter counter = reopened.counter("QF1", 300, 120);
+            assertEquals(120, counter.get());
+            assertEquals(120, reopened.find("QF1").get());
+        }
+    }
+
+    @Test
+    void testProcessesNeverOversell() throws Exception {
+        int capacity = 200_000;
+        // Start together so the processes actually race on the counter
+        long startAt = System.currentTimeMillis() + 3_000;
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < PROCESSES; i++) {
+            processes.add(startBooker("SQ501", capacity, Integer.MAX_VALUE, false, startAt));
+        }
+        int booked = 0;
+        for (Process process : processes) {
+            assertTrue(process.waitFor(120, TimeUnit.SECONDS));
+            assertEquals(0, process.exitValue(), new String(process.getErrorStream().readAllBytes(), StandardCharsets.UTF_8));
+            booked += Integer.parseInt(new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim());
+        }
+
+        assertEquals(capacity, booked);
+        try (SharedSeatInventory inventory = SharedSeatInventory.open(inventoryFile, 100)) {
+            assertEquals(0, inventory.find("SQ501").get());
+        }
+    }
+
+    private Process startBooker(String flightNumber, int capacity, int maxSeats, boolean crash, long startAt) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Booker.class.getName(),
+                inventoryFile.toString(), flightNumber, String.valueOf(capacity), String.valueOf(maxSeats), String.valueOf(crash), String.valueOf(startAt))
+                .start();
+    }
+
+    // Runs in a separate JVM: books 1-3 seats at a time until the flight is sold out or maxSeats are booked,
+    // then prints the number of seats it booked. It starts booking at startAt (epoch millis), and with
+    // crash=true it halts without closing the inventory.
+    static class Booker {
+        public static void main(String[] args) throws IOException {
+            Path file = Paths.get(args[0]);
+            String flightNumber = args[1];
+            int capacity = Integer.parseInt(args[2]);
+            int maxSeats = Integer.parseInt(args[3]);
+            boolean crash = Boolean.parseBoolean(args[4]);
+            long startAt = Long.parseLong(args[5]);
+
+            SharedSeatInventory inventory = SharedSeatInventory.open(file, 100);
+            Flight flight = new Flight(flightNumber, "Anywhere", LocalDateTime.of(2024, 1, 1, 0, 0), capacity);
+            SeatCounter counter = inventory.attach(flight);
+            while (System.currentTimeMillis() < startAt) {
+                Thread.onSpinWait();
+            }
+            int booked = 0;
+            while (booked < maxSeats && counter.get() > 0) {
+                int seats = Math.min(maxSeats - booked, ThreadLocalRandom.current().nextInt(1, 4));
+                if (flight.bookSeats(seats)) {
+                    booked += seats;
+                }
+            }
+            System.out.println(booked);
+            System.out.flush();
+            if (crash) {
+                Runtime.getRuntime().halt(0);
+            }
+            inventory.close();
+        }
+    }
+}
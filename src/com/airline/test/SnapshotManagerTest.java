@@ -0,0 +1,201 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.Reservation;
+import com.airline.model.SeatMap;
+import com.airline.persistence.BookingJournal;
+import com.airline.persistence.SnapshotManager;
+import com.airline.service.FlightService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotManagerTest {
+    private Path directory;
+    private Path journalFile;
+    private Path snapshotDirectory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot-test");
+        journalFile = directory.resolve("bookings.journal");
+        snapshotDirectory = directory.resolve("snapshots");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void testRestoreFromSnapshotReproducesState() throws IOException {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        BookingJournal journal = (BookingJournal) flightService.getBookingLog();
+        flightService.addFlight(new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150));
+        flightService.addFlight(new Flight("BA201", "London", LocalDateTime.of(2024, 1, 16, 14, 20), 200));
+        Reservation beforeSnapshot = flightService.bookFlight("John Doe", flightService.getFlight("AA101"), 4);
+        flightService.bookFlight("Jane Doe", flightService.getFlight("BA201"), 2);
+        Flight seated = new Flight("QF1", "Sydney", LocalDateTime.of(2024, 1, 18, 16, 0), 12);
+        seated.setSeatMap(new SeatMap("Y1-2:ABC-DEF"));
+        flightService.addFlight(seated);
+        flightService.bookFlight("Ann Lee", seated, List.of("2E", "2F"));
+
+        SnapshotManager snapshots = new SnapshotManager(journal, snapshotDirectory);
+        SnapshotManager.SnapshotStats stats = snapshots.snapshot();
+        assertEquals(3, stats.flights());
+        assertEquals(3, stats.reservations());
+
+        // Changes after the snapshot come from the journal tail
+        flightService.cancelReservation(beforeSnapshot);
+        flightService.bookFlight("Bob Smith", flightService.getFlight("AA101"), 7);
+        flightService.addFlight(new Flight("LH301", "Berlin", LocalDateTime.of(2024, 1, 17, 9, 15), 80));
+        flightService.bookFlight("Bob Smith", flightService.getFlight("LH301"), 1);
+        flightService.bookFlight("Bob Smith", seated, 3);
+        journal.close();
+        snapshots.close();
+
+        // Damage the journal before the snapshot position: recovery must not need that part
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF}), 16);
+        }
+
+        FlightService recovered = SnapshotManager.recover(journalFile, snapshotDirectory, false);
+        assertEquals(describe(flightService), describe(recovered));
+        assertEquals(143, recovered.getFlight("AA101").getAvailableSeats());
+        assertEquals(150, recovered.getFlight("AA101").getCapacity());
+        // Seat assignments come back from both the snapshot and the journal tail
+        SeatMap seatMap = recovered.getFlight("QF1").getSeatMap();
+        assertEquals(7, seatMap.getAvailableSeatCount());
+        assertFalse(seatMap.isAvailable("2F"));
+        assertFalse(seatMap.isAvailable("1C"));
+        ((BookingJournal) recovered.getBookingLog()).close();
+    }
+
+    @Test
+    void testSnapshotsWhileBookingsContinue() throws Exception {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        BookingJournal journal = (BookingJournal) flightService.getBookingLog();
+        for (int i = 0; i < 20; i++) {
+            flightService.addFlight(new Flight("FL" + i, "City " + (i % 5), LocalDateTime.of(2024, 3, 1 + i, 8, 0), 500));
+        }
+        SnapshotManager snapshots = new SnapshotManager(journal, snapshotDirectory);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            String customer = "Customer " + t;
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<Reservation> mine = new ArrayList<>();
+                for (int i = 0; i < 2_000; i++) {
+                    if (!mine.isEmpty() && random.nextInt(3) == 0) {
+                        flightService.cancelReservation(mine.remove(random.nextInt(mine.size())));
+                    } else {
+                        try {
+                            mine.add(flightService.bookFlight(customer, flightService.getFlight("FL" + random.nextInt(20)), 1 + random.nextInt(3)));
+                        } catch (IllegalArgumentException soldOut) {
+                            // Fine under load
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        int taken = 0;
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            snapshots.snapshot();
+            taken++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        snapshots.snapshot();
+        journal.close();
+        snapshots.close();
+        assertTrue(taken > 0);
+
+        FlightService recovered = SnapshotManager.recover(journalFile, snapshotDirectory, false);
+        assertEquals(describe(flightService), describe(recovered));
+        ((BookingJournal) recovered.getBookingLog()).close();
+    }
+
+    @Test
+    void testScheduleChangesSurviveSnapshotAndTail() throws IOException {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        BookingJournal journal = (BookingJournal) flightService.getBookingLog();
+        Flight flight = new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150);
+        flightService.addFlight(flight);
+        flightService.bookFlight("John Doe", flight, 4);
+        flight.setDestination("Newark");
+        SnapshotManager snapshots = new SnapshotManager(journal, snapshotDirectory);
+        snapshots.snapshot();
+        flight.setDepartureTime(LocalDateTime.of(2024, 1, 15, 12, 0));
+        journal.close();
+        snapshots.close();
+
+        FlightService recovered = SnapshotManager.recover(journalFile, snapshotDirectory, false);
+        Flight restored = recovered.getFlight("AA101");
+        assertEquals("Newark", restored.getDestination());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 12, 0), restored.getDepartureTime());
+        assertEquals(146, restored.getAvailableSeats());
+        ((BookingJournal) recovered.getBookingLog()).close();
+    }
+
+    @Test
+    void testUnreadableSnapshotIsSkippedAndReported() throws IOException {
+        FlightService flightService = BookingJournal.recover(journalFile, false);
+        BookingJournal journal = (BookingJournal) flightService.getBookingLog();
+        flightService.addFlight(new Flight("AA101", "New York", LocalDateTime.of(2024, 1, 15, 10, 30), 150));
+        flightService.bookFlight("John Doe", flightService.getFlight("AA101"), 4);
+        SnapshotManager first = new SnapshotManager(journal, snapshotDirectory);
+        first.snapshot();
+        first.close();
+        assertEquals(0, first.getFailureCount());
+        assertNull(first.getLastFailure());
+
+        Path damaged = snapshotDirectory.resolve("snapshot-9999999999999999999.snap");
+        Files.write(damaged, new byte[]{1, 2, 3});
+        SnapshotManager second = new SnapshotManager(journal, snapshotDirectory);
+        assertEquals(1, second.getFailureCount());
+        assertTrue(second.getLastFailure().getMessage().contains(damaged.toString()), second.getLastFailure().getMessage());
+        assertEquals(1, second.snapshot().reservations());
+        second.close();
+        journal.close();
+    }
+
+    // Seat counts per flight and every reservation, in a form that can be compared with equals
+    private static Map<String, Object> describe(FlightService flightService) {
+        Map<String, Object> state = new TreeMap<>();
+        for (Flight flight : flightService.getAllFlights()) {
+            state.put(flight.getFlightNumber(), flight.getCapacity() + "/" + flight.getAvailableSeats());
+        }
+        TreeSet<String> reservations = new TreeSet<>();
+        for (Reservation reservation : flightService.getAllReservations()) {
+            reservations.add(reservation.getReservationId() + "|" + reservation.getCustomerName() + "|"
+                    + reservation.getFlight().getFlightNumber() + "|" + reservation.getSeatsBooked() + "|"
+                    + reservation.getReservationTime() + "|" + reservation.getSeatNumbers());
+        }
+        state.put("reservations", reservations);
+        return state;
+    }
+}
@@ -0,0 +1,278 @@
+package com.airline.test;
+
+import com.airline.model.Flight;
+import com.airline.model.FlightListener;
+import com.airline.model.Reservation;
+import com.airline.model.SeatMap;
+import com.airline.service.BookingLog;
+import com.airline.service.FlightService;
+import com.airline.service.HoldTimer;
+import com.airline.service.SeatHold;
+import com.airline.service.WaitlistEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WaitlistTest {
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2024, 7, 1, 9, 0);
+
+    private FlightService flightService;
+    private Flight flight;
+
+    @BeforeEach
+    void setUp() {
+        flightService = new FlightService(BookingLog.NONE);
+        flight = new Flight("UA900", "Chicago", DEPARTURE, 10);
+        flightService.addFlight(flight);
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightService.close();
+    }
+
+    private List<Reservation> fill() {
+        List<Reservation> booked = new ArrayList<>();
+        while (flight.getAvailableSeats() > 0) {
+            booked.add(flightService.bookFlight("Passenger " + booked.size(), flight, 1));
+        }
+        return booked;
+    }
+
+    @Test
+    void testOverbookingLimit() {
+        flightService.setOverbookingLimit(flight, 2);
+        assertEquals(12, flight.getAvailableSeats());
+        assertEquals(2, flightService.getOverbookingLimit(flight));
+        assertEquals(12, fill().size());
+        assertThrows(IllegalArgumentException.class, () -> flightService.bookFlight("Late", flight, 1));
+        assertEquals(1.2, flightService.getAnalytics().getLoadFactor(flight), 1e-9);
+
+        // The oversold seats are gone, so the limit cannot come down
+        assertThrows(IllegalStateException.class, () -> flightService.setOverbookingLimit(flight, 1));
+        assertEquals(2, flightService.getOverbookingLimit(flight));
+        assertThrows(IllegalArgumentException.class, () -> flightService.setOverbookingLimit(flight, -1));
+
+        Flight mapped = new Flight("UA901", "Chicago", DEPARTURE, 4);
+        mapped.setSeatMap(new SeatMap("Y1-2:AB"));
+        flightService.addFlight(mapped);
+        assertThrows(IllegalArgumentException.class, () -> flightService.setOverbookingLimit(mapped, 1));
+    }
+
+    @Test
+    void testFreedSeatsGoToTheWaitlistInPriorityOrder() throws Exception {
+        List<Reservation> booked = fill();
+        WaitlistEntry early = flightService.joinWaitlist("Early", flight, 1, 0);
+        WaitlistEntry family = flightService.joinWaitlist("Family", flight, 2, 0);
+        WaitlistEntry elite = flightService.joinWaitlist("Elite", flight, 1, 5);
+        WaitlistEntry leaving = flightService.joinWaitlist("Leaving", flight, 1, 5);
+        assertEquals(List.of(elite, leaving, early, family), flightService.getWaitlist(flight));
+        assertEquals(WaitlistEntry.Status.WAITING, early.getStatus());
+
+        assertTrue(flightService.leaveWaitlist(leaving));
+        assertFalse(flightService.leaveWaitlist(leaving));
+        assertTrue(leaving.getReservation().isCancelled());
+
+        assertTrue(flightService.cancelReservation(booked.get(0)));
+        assertEquals(WaitlistEntry.Status.BOOKED, elite.getStatus());
+        Reservation eliteBooking = elite.getReservation().get();
+        assertEquals("Elite", eliteBooking.getCustomerName());
+        assertEquals(eliteBooking, flightService.getReservation(eliteBooking.getReservationId()));
+        assertEquals(0, flight.getAvailableSeats());
+
+        // The family needs two seats; one freed seat goes on sale rather than to the family or anyone behind it
+        assertTrue(flightService.cancelReservation(booked.get(1)));
+        assertEquals(WaitlistEntry.Status.BOOKED, early.getStatus());
+        assertTrue(flightService.cancelReservation(booked.get(2)));
+        assertEquals(WaitlistEntry.Status.WAITING, family.getStatus());
+        assertEquals(1, flight.getAvailableSeats());
+        assertTrue(flightService.cancelReservation(booked.get(3)));
+        assertEquals(2, family.getReservation().get().getSeatsBooked());
+        assertEquals(List.of(), flightService.getWaitlist(flight));
+        assertEquals(0, flight.getAvailableSeats());
+    }
+
+    @Test
+    void testEndedHoldsRaisedLimitsAndFreeSeatsServeTheWaitlist() {
+        AtomicLong clock = new AtomicLong();
+        HoldTimer timer = new HoldTimer(Duration.ofSeconds(1), 8, clock::get);
+        flightService.setHoldTimer(timer);
+        fill();
+        assertTrue(flightService.cancelReservation(flightService.getCustomerReservations("Passenger 0").get(0)));
+        SeatHold hold = flightService.holdSeats("Checking Out", flight, 1, Duration.ofMinutes(5));
+        WaitlistEntry first = flightService.joinWaitlist("First", flight, 1, 0);
+        WaitlistEntry second = flightService.joinWaitlist("Second", flight, 1, 0);
+
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+        timer.advance();
+        assertEquals(SeatHold.Status.EXPIRED, hold.getStatus());
+        assertEquals(WaitlistEntry.Status.BOOKED, first.getStatus());
+
+        flightService.setOverbookingLimit(flight, 1);
+        assertEquals(WaitlistEntry.Status.BOOKED, second.getStatus());
+        assertEquals(0, flight.getAvailableSeats());
+
+        // Nobody ahead and a seat free: booked on joining
+        flightService.setOverbookingLimit(flight, 2);
+        WaitlistEntry walkUp = flightService.joinWaitlist("Walk Up", flight, 1, 0);
+        assertEquals(WaitlistEntry.Status.BOOKED, walkUp.getStatus());
+        assertThrows(IllegalArgumentException.class, () -> flightService.joinWaitlist("Nobody", flight, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> flightService.joinWaitlist("Nobody", flight, 1, 10));
+    }
+
+    @Test
+    void testFailedBookingLeavesTheRestOfTheWaitlist() {
+        AtomicBoolean failNext = new AtomicBoolean();
+        flightService = new FlightService(new BookingLog() {
+            @Override
+            public void flightAdded(Flight added) {
+            }
+
+            @Override
+            public void reservationBooked(Reservation reservation) {
+                if (failNext.getAndSet(false)) {
+                    throw new UncheckedIOException(new IOException("disk full"));
+                }
+            }
+
+            @Override
+            public void reservationCancelled(Reservation reservation) {
+            }
+        });
+        flight = new Flight("UA902", "Chicago", DEPARTURE, 1);
+        flightService.addFlight(flight);
+        Reservation only = flightService.bookFlight("Holder", flight, 1);
+        WaitlistEntry unlucky = flightService.joinWaitlist("Unlucky", flight, 1, 0);
+        WaitlistEntry next = flightService.joinWaitlist("Next", flight, 1, 0);
+
+        failNext.set(true);
+        assertTrue(flightService.cancelReservation(only));
+        assertEquals(WaitlistEntry.Status.FAILED, unlucky.getStatus());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> unlucky.getReservation().get());
+        assertTrue(failure.getCause() instanceof UncheckedIOException);
+        // The entries behind keep their place and the seat goes back on sale
+        assertEquals(WaitlistEntry.Status.WAITING, next.getStatus());
+        assertEquals(List.of(next), flightService.getWaitlist(flight));
+        assertEquals(1, flight.getAvailableSeats());
+
+        // Served as soon as the waitlist is served again
+        WaitlistEntry behind = flightService.joinWaitlist("Behind", flight, 1, 0);
+        assertEquals(WaitlistEntry.Status.BOOKED, next.getStatus());
+        assertEquals(WaitlistEntry.Status.WAITING, behind.getStatus());
+        assertEquals(0, flight.getAvailableSeats());
+    }
+
+    @Test
+    void testConcurrentCancellationsNeverShareASeat() throws InterruptedException {
+        flight = new Flight("UA903", "Chicago", DEPARTURE, 200);
+        flightService.addFlight(flight);
+        List<Reservation> booked = fill();
+        List<WaitlistEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            entries.add(flightService.joinWaitlist("Waiting " + i, flight, 1, i % 3));
+        }
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> cancellers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            Thread canceller = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = first; i < booked.size(); i += threads) {
+                    flightService.cancelReservation(booked.get(i));
+                }
+            });
+            cancellers.add(canceller);
+            canceller.start();
+        }
+        start.countDown();
+        for (Thread canceller : cancellers) {
+            canceller.join();
+        }
+
+        assertEquals(0, flight.getAvailableSeats());
+        List<Reservation> onBoard = flightService.getFlightReservations(flight);
+        assertEquals(200, onBoard.size());
+        Set<String> customers = new HashSet<>();
+        for (Reservation reservation : onBoard) {
+            assertTrue(customers.add(reservation.getCustomerName()), "Booked twice: " + reservation.getCustomerName());
+        }
+        // Highest priority first, arrival order within it
+        int served = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            boolean expected = i % 3 == 2 && i / 3 < 200;
+            assertEquals(expected, entries.get(i).getStatus() == WaitlistEntry.Status.BOOKED, "Entry " + i);
+            served += expected ? 1 : 0;
+        }
+        assertEquals(200, served);
+        assertEquals(4_800, flightService.getWaitlist(flight).size());
+    }
+
+    @Test
+    void testWalkUpBookingsNeverTakeASeatAheadOfTheWaitlist() throws InterruptedException {
+        Reservation first = fill().get(0);
+        WaitlistEntry waiting = flightService.joinWaitlist("Waiting", flight, 1, 9);
+
+        // A walk-up customer on another thread tries to book the moment a seat goes on sale, while the
+        // cancellation that freed it is still running
+        AtomicLong walkUps = new AtomicLong();
+        FlightListener indexes = flight.getListener();
+        flight.setListener(new FlightListener() {
+            @Override
+            public void scheduleChanged(Flight changed, String previousDestination, LocalDateTime previousDepartureTime) {
+                indexes.scheduleChanged(changed, previousDestination, previousDepartureTime);
+            }
+
+            @Override
+            public void seatsChanged(Flight changed, int previousSeats, int currentSeats) {
+                indexes.seatsChanged(changed, previousSeats, currentSeats);
+                if (currentSeats > previousSeats) {
+                    Thread walkUp = new Thread(() -> {
+                        try {
+                            flightService.bookFlight("Walk-up", flight, 1);
+                            walkUps.incrementAndGet();
+                        } catch (IllegalArgumentException soldOut) {
+                            // Nothing left on sale
+                        }
+                    });
+                    walkUp.start();
+                    try {
+                        walkUp.join(TimeUnit.SECONDS.toMillis(5));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+
+        flightService.cancelReservation(first);
+        assertEquals(WaitlistEntry.Status.BOOKED, waiting.getStatus());
+        assertEquals(0, walkUps.get());
+        assertEquals(0, flight.getAvailableSeats());
+
+        // Seats the waitlist does not need still go on sale
+        flightService.cancelReservation(flightService.getCustomerReservations("Passenger 1").get(0));
+        assertEquals(1, walkUps.get());
+    }
+}